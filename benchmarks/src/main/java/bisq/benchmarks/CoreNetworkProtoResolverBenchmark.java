@@ -0,0 +1,111 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.benchmarks;
+
+import bisq.core.proto.network.CoreNetworkProtoResolver;
+
+import bisq.network.p2p.NodeAddress;
+import bisq.network.p2p.peers.getdata.messages.GetDataResponse;
+import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
+
+import bisq.common.crypto.CryptoException;
+import bisq.common.crypto.Encryption;
+import bisq.common.crypto.PubKeyRing;
+import bisq.common.crypto.Sig;
+import bisq.common.proto.ProtobufferException;
+import bisq.common.proto.network.NetworkEnvelope;
+
+import java.security.KeyPair;
+
+import java.time.Clock;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Resolving a GetDataResponse from protobuf, which is the largest message a node receives at startup. The response
+ * contains the given number of offers and the tenfold number of account age witnesses.
+ * <p/>
+ * fromProtoWithColdKeyCache clears the public key caches before each run, which is the cost of the first
+ * response after startup. fromProto measures the steady state where the makers' keys are already cached.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CoreNetworkProtoResolverBenchmark {
+    @Param({"100", "1000"})
+    public int numOffers;
+
+    private CoreNetworkProtoResolver resolver;
+    private protobuf.NetworkEnvelope proto;
+
+    @Setup
+    public void setup() throws CryptoException {
+        Clock clock = Clock.systemDefaultZone();
+        resolver = new CoreNetworkProtoResolver(clock);
+
+        SyntheticData syntheticData = new SyntheticData();
+        KeyPair arbitratorKeyPair = Sig.generateKeyPair();
+        NodeAddress arbitratorNodeAddress = syntheticData.nodeAddress();
+        // Most makers have several offers, so we use one key pair per 10 offers
+        Set<ProtectedStorageEntry> entries = new HashSet<>();
+        KeyPair makerKeyPair = null;
+        PubKeyRing makerPubKeyRing = null;
+        for (int i = 0; i < numOffers; i++) {
+            if (i % 10 == 0) {
+                makerKeyPair = Sig.generateKeyPair();
+                makerPubKeyRing = new PubKeyRing(makerKeyPair.getPublic(), Encryption.generateKeyPair().getPublic());
+            }
+            entries.add(new ProtectedStorageEntry(syntheticData.offerPayload(makerPubKeyRing, arbitratorNodeAddress, arbitratorKeyPair),
+                    makerKeyPair.getPublic(),
+                    1,
+                    syntheticData.randomBytes(46),
+                    clock));
+        }
+        proto = new GetDataResponse(entries, syntheticData.accountAgeWitnesses(numOffers * 10), 1, false)
+                .toProtoNetworkEnvelope();
+    }
+
+    @Benchmark
+    public NetworkEnvelope fromProto() throws ProtobufferException {
+        return resolver.fromProto(proto);
+    }
+
+    @Benchmark
+    public NetworkEnvelope fromProtoWithColdKeyCache() throws ProtobufferException {
+        Sig.getPublicKeyCache().invalidateAll();
+        Encryption.getPublicKeyCache().invalidateAll();
+        return resolver.fromProto(proto);
+    }
+}
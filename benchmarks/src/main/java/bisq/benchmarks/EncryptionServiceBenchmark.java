@@ -0,0 +1,95 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.benchmarks;
+
+import bisq.core.proto.network.CoreNetworkProtoResolver;
+
+import bisq.network.crypto.EncryptionService;
+import bisq.network.p2p.peers.getdata.messages.GetDataResponse;
+
+import bisq.common.crypto.CryptoException;
+import bisq.common.crypto.KeyRing;
+import bisq.common.crypto.KeyStorage;
+import bisq.common.crypto.SealedAndSigned;
+import bisq.common.proto.ProtobufferException;
+import bisq.common.proto.network.NetworkEnvelope;
+
+import java.nio.file.Files;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.time.Clock;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Hybrid encryption with signature as used for direct and mailbox messages. The payload is a GetDataResponse with
+ * the given number of account age witnesses to cover small and large messages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EncryptionServiceBenchmark {
+    @Param({"1", "100"})
+    public int numWitnesses;
+
+    private KeyRing keyRing;
+    private EncryptionService encryptionService;
+    private NetworkEnvelope networkEnvelope;
+    private SealedAndSigned sealedAndSigned;
+
+    @Setup
+    public void setup() throws IOException, CryptoException {
+        File keyStorageDir = Files.createTempDirectory("benchmark_keys").toFile();
+        keyStorageDir.deleteOnExit();
+        keyRing = new KeyRing(new KeyStorage(keyStorageDir));
+        encryptionService = new EncryptionService(keyRing, new CoreNetworkProtoResolver(Clock.systemDefaultZone()));
+        networkEnvelope = new GetDataResponse(new HashSet<>(),
+                new SyntheticData().accountAgeWitnesses(numWitnesses),
+                1,
+                false);
+        sealedAndSigned = encryptionService.encryptAndSign(keyRing.getPubKeyRing(), networkEnvelope);
+    }
+
+    @Benchmark
+    public SealedAndSigned encryptAndSign() throws CryptoException {
+        return encryptionService.encryptAndSign(keyRing.getPubKeyRing(), networkEnvelope);
+    }
+
+    @Benchmark
+    public Object decryptAndVerify() throws CryptoException, ProtobufferException {
+        return encryptionService.decryptAndVerify(sealedAndSigned);
+    }
+}
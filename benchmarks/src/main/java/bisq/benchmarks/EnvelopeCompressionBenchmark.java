@@ -0,0 +1,129 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.benchmarks;
+
+import bisq.network.p2p.NodeAddress;
+import bisq.network.p2p.network.EnvelopeCompression;
+import bisq.network.p2p.peers.getdata.messages.GetDataResponse;
+import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
+
+import bisq.common.crypto.CryptoException;
+import bisq.common.crypto.Encryption;
+import bisq.common.crypto.PubKeyRing;
+import bisq.common.crypto.Sig;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import java.security.KeyPair;
+
+import java.time.Clock;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compressing and decompressing the GetDataResponse a seed node sends at startup, with the given number of offers
+ * and the tenfold number of account age witnesses. The bytes on the wire with and without compression are printed
+ * in the setup, the benchmarks measure the CPU cost on the sending and the receiving side.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnvelopeCompressionBenchmark {
+    private static final int MAX_UNCOMPRESSED_SIZE = 10 * 1024 * 1024;
+
+    @Param({"100", "1000"})
+    public int numOffers;
+
+    private protobuf.NetworkEnvelope proto;
+    private byte[] uncompressedBytes;
+    private protobuf.NetworkEnvelope compressed;
+
+    @Setup
+    public void setup() throws CryptoException {
+        Clock clock = Clock.systemDefaultZone();
+        SyntheticData syntheticData = new SyntheticData();
+        KeyPair arbitratorKeyPair = Sig.generateKeyPair();
+        NodeAddress arbitratorNodeAddress = syntheticData.nodeAddress();
+        // Most makers have several offers, so we use one key pair per 10 offers
+        Set<ProtectedStorageEntry> entries = new HashSet<>();
+        KeyPair makerKeyPair = null;
+        PubKeyRing makerPubKeyRing = null;
+        for (int i = 0; i < numOffers; i++) {
+            if (i % 10 == 0) {
+                makerKeyPair = Sig.generateKeyPair();
+                makerPubKeyRing = new PubKeyRing(makerKeyPair.getPublic(), Encryption.generateKeyPair().getPublic());
+            }
+            entries.add(new ProtectedStorageEntry(syntheticData.offerPayload(makerPubKeyRing, arbitratorNodeAddress, arbitratorKeyPair),
+                    makerKeyPair.getPublic(),
+                    1,
+                    syntheticData.randomBytes(46),
+                    clock));
+        }
+        proto = new GetDataResponse(entries, syntheticData.accountAgeWitnesses(numOffers * 10), 1, false)
+                .toProtoNetworkEnvelope();
+        uncompressedBytes = proto.toByteArray();
+        compressed = EnvelopeCompression.compress(proto);
+        if (compressed == null)
+            throw new IllegalStateException("GetDataResponse with " + numOffers + " offers is not compressible");
+
+        System.out.printf("%nGetDataResponse with %d offers: %d bytes uncompressed, %d bytes compressed (%.1f%%)%n",
+                numOffers,
+                proto.getSerializedSize(),
+                compressed.getSerializedSize(),
+                100d * compressed.getSerializedSize() / proto.getSerializedSize());
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        // The baseline of the sender, which serializes the envelope anyway
+        return proto.toByteArray();
+    }
+
+    @Benchmark
+    public protobuf.NetworkEnvelope compress() {
+        return EnvelopeCompression.compress(proto);
+    }
+
+    @Benchmark
+    public protobuf.NetworkEnvelope parse() throws InvalidProtocolBufferException {
+        // The baseline of the receiver, which parses the envelope anyway
+        return protobuf.NetworkEnvelope.parseFrom(uncompressedBytes);
+    }
+
+    @Benchmark
+    public protobuf.NetworkEnvelope decompress() throws InvalidProtocolBufferException {
+        return EnvelopeCompression.decompress(compressed.getCompressedEnvelope(), MAX_UNCOMPRESSED_SIZE);
+    }
+}
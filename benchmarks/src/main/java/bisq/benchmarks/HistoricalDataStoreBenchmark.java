@@ -0,0 +1,167 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.benchmarks;
+
+import bisq.core.account.witness.AccountAgeWitness;
+import bisq.core.account.witness.AccountAgeWitnessStore;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+import bisq.network.p2p.storage.persistence.HistoricalDataStoreService;
+import bisq.network.p2p.storage.persistence.MappedHistoricalStore;
+
+import com.google.protobuf.CodedInputStream;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Startup time and retained heap of a historical store of account age witnesses, memory-mapped by
+ * MappedHistoricalStore compared to reading it into the heap as the PersistenceManager does. The retained heap of
+ * both variants is printed in the setup. The lookups show the cost of decoding the payloads on access.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HistoricalDataStoreBenchmark {
+    private static final int NUM_LOOKUPS = 1000;
+
+    @Param({"100000", "1000000"})
+    public int numPayloads;
+
+    private File file;
+    private MappedHistoricalStore mappedStore;
+    private Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> heapStore;
+    private final List<P2PDataStorage.ByteArray> lookupHashes = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Set<PersistableNetworkPayload> witnesses = new SyntheticData().accountAgeWitnesses(numPayloads);
+        file = File.createTempFile("AccountAgeWitnessStore_", ".benchmark");
+        AccountAgeWitnessStore store = new AccountAgeWitnessStore();
+        witnesses.forEach(witness -> store.getMap().put(new P2PDataStorage.ByteArray(witness.getHash()), witness));
+        try (FileOutputStream outputStream = new FileOutputStream(file)) {
+            store.toProtoMessage().writeDelimitedTo(outputStream);
+        }
+        witnesses.stream()
+                .limit(NUM_LOOKUPS)
+                .forEach(witness -> lookupHashes.add(new P2PDataStorage.ByteArray(witness.getHash())));
+        witnesses.clear();
+        store.getMap().clear();
+
+        long usedHeap = getUsedHeapAfterGc();
+        mappedStore = mapStore();
+        long mappedStoreHeap = getUsedHeapAfterGc() - usedHeap;
+        heapStore = readStoreIntoHeap();
+        long heapStoreHeap = getUsedHeapAfterGc() - usedHeap - mappedStoreHeap;
+        System.out.printf("%nHistorical store with %d payloads: file %d bytes, retained heap of mapped store %d bytes " +
+                        "(index %d bytes), retained heap of heap store %d bytes%n",
+                numPayloads,
+                file.length(),
+                mappedStoreHeap,
+                mappedStore.getIndexSizeInBytes(),
+                heapStoreHeap);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public MappedHistoricalStore mapStore() throws IOException {
+        return MappedHistoricalStore.map(file, new MappedHistoricalStore.PayloadDecoder() {
+            @Override
+            public PersistableNetworkPayload decode(CodedInputStream input) throws IOException {
+                return AccountAgeWitness.fromProto(protobuf.AccountAgeWitness.parseFrom(input));
+            }
+
+            @Override
+            public byte[] decodeHash(CodedInputStream input) throws IOException {
+                return HistoricalDataStoreService.readBytesField(input, protobuf.AccountAgeWitness.HASH_FIELD_NUMBER);
+            }
+        });
+    }
+
+    @Benchmark
+    public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> readStoreIntoHeap() throws IOException {
+        // The baseline, which parses the store like the PersistenceManager
+        try (FileInputStream inputStream = new FileInputStream(file)) {
+            protobuf.PersistableEnvelope proto = protobuf.PersistableEnvelope.parseDelimitedFrom(inputStream);
+            return AccountAgeWitnessStore.fromProto(proto.getAccountAgeWitnessStore()).getMap();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_LOOKUPS)
+    public int getFromMappedStore() {
+        int numFound = 0;
+        for (P2PDataStorage.ByteArray hash : lookupHashes) {
+            if (mappedStore.get(hash) != null) {
+                numFound++;
+            }
+        }
+        return numFound;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_LOOKUPS)
+    public int getFromHeapStore() {
+        int numFound = 0;
+        for (P2PDataStorage.ByteArray hash : lookupHashes) {
+            if (heapStore.get(hash) != null) {
+                numFound++;
+            }
+        }
+        return numFound;
+    }
+
+    private static long getUsedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
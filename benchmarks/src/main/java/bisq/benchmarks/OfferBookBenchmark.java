@@ -0,0 +1,124 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.benchmarks;
+
+import bisq.desktop.main.offer.offerbook.OfferBook;
+
+import bisq.core.filter.FilterManager;
+import bisq.core.offer.Offer;
+import bisq.core.offer.OfferBookService;
+import bisq.core.trade.TradeManager;
+
+import bisq.network.p2p.NodeAddress;
+
+import bisq.common.UserThread;
+import bisq.common.crypto.CryptoException;
+import bisq.common.crypto.Encryption;
+import bisq.common.crypto.PubKeyRing;
+import bisq.common.crypto.Sig;
+
+import java.security.KeyPair;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.mockito.ArgumentCaptor;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * A burst of 10000 offers added to an empty OfferBook, each offer twice as we get a ProtectedStorageEntry from
+ * each peer. The user thread tasks are queued and run after the burst, so the batching of the changes is measured
+ * as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OfferBookBenchmark {
+    private static final int NUM_OFFERS = 10_000;
+
+    private final List<Offer> offers = new ArrayList<>();
+    private final List<Runnable> userThreadTasks = new ArrayList<>();
+    private Executor userThreadExecutor;
+    private OfferBook offerBook;
+    private OfferBookService.OfferBookChangedListener offerBookChangedListener;
+
+    @Setup
+    public void setup() throws CryptoException {
+        userThreadExecutor = UserThread.getExecutor();
+        UserThread.setExecutor(userThreadTasks::add);
+
+        SyntheticData syntheticData = new SyntheticData();
+        KeyPair arbitratorKeyPair = Sig.generateKeyPair();
+        NodeAddress arbitratorNodeAddress = syntheticData.nodeAddress();
+        PubKeyRing makerPubKeyRing = new PubKeyRing(Sig.generateKeyPair().getPublic(),
+                Encryption.generateKeyPair().getPublic());
+        for (int i = 0; i < NUM_OFFERS; i++) {
+            offers.add(new Offer(syntheticData.offerPayload(makerPubKeyRing, arbitratorNodeAddress, arbitratorKeyPair)));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void newOfferBook() {
+        OfferBookService offerBookService = mock(OfferBookService.class);
+        offerBook = new OfferBook(offerBookService,
+                mock(TradeManager.class, withSettings().stubOnly()),
+                mock(FilterManager.class, withSettings().stubOnly()));
+        ArgumentCaptor<OfferBookService.OfferBookChangedListener> captor =
+                ArgumentCaptor.forClass(OfferBookService.OfferBookChangedListener.class);
+        verify(offerBookService).addOfferBookChangedListener(captor.capture());
+        offerBookChangedListener = captor.getValue();
+    }
+
+    @TearDown
+    public void tearDown() {
+        UserThread.setExecutor(userThreadExecutor);
+    }
+
+    @Benchmark
+    public int addOffers() {
+        offers.forEach(offerBookChangedListener::onAdded);
+        offers.forEach(offerBookChangedListener::onAdded);
+        while (!userThreadTasks.isEmpty()) {
+            List<Runnable> tasks = new ArrayList<>(userThreadTasks);
+            userThreadTasks.clear();
+            tasks.forEach(Runnable::run);
+        }
+        return offerBook.getOfferBookListItems().size();
+    }
+}
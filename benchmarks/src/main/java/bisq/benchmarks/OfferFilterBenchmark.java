@@ -0,0 +1,125 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.benchmarks;
+
+import bisq.core.account.witness.AccountAgeWitnessService;
+import bisq.core.filter.FilterManager;
+import bisq.core.offer.Offer;
+import bisq.core.offer.OfferFilter;
+import bisq.core.support.dispute.mediation.mediator.Mediator;
+import bisq.core.user.Preferences;
+import bisq.core.user.User;
+
+import bisq.network.p2p.NodeAddress;
+
+import bisq.common.crypto.CryptoException;
+import bisq.common.crypto.Encryption;
+import bisq.common.crypto.PubKeyRing;
+import bisq.common.crypto.Sig;
+
+import javafx.collections.FXCollections;
+
+import java.security.KeyPair;
+import java.security.PublicKey;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * OfferFilter.canTakeOffer for an offer book of 1000 offers. All offers pass the filter checks up to the
+ * verification of the arbitrator signature, so the full path gets measured. The trade limit checks are cached by
+ * OfferFilter after the first call for an offer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OfferFilterBenchmark {
+    private static final int NUM_OFFERS = 1000;
+
+    private OfferFilter offerFilter;
+    private final List<Offer> offers = new ArrayList<>();
+
+    @Setup
+    public void setup() throws CryptoException {
+        SyntheticData syntheticData = new SyntheticData();
+        KeyPair arbitratorKeyPair = Sig.generateKeyPair();
+        PublicKey encryptionPubKey = Encryption.generateKeyPair().getPublic();
+        NodeAddress arbitratorNodeAddress = syntheticData.nodeAddress();
+        Mediator arbitrator = new Mediator(arbitratorNodeAddress,
+                new PubKeyRing(arbitratorKeyPair.getPublic(), encryptionPubKey),
+                List.of("en"),
+                System.currentTimeMillis(),
+                syntheticData.randomBytes(33),
+                "",
+                null,
+                null,
+                null);
+
+        User user = mock(User.class, withSettings().stubOnly());
+        when(user.getPaymentAccountsAsObservable()).thenReturn(FXCollections.observableSet());
+        when(user.getAcceptedMediatorByAddress(arbitratorNodeAddress)).thenReturn(arbitrator);
+        AccountAgeWitnessService accountAgeWitnessService = mock(AccountAgeWitnessService.class, withSettings().stubOnly());
+        when(accountAgeWitnessService.verifyPeersTradeAmount(any(), any(), any())).thenReturn(true);
+        offerFilter = new OfferFilter(user,
+                mock(Preferences.class, withSettings().stubOnly()),
+                mock(FilterManager.class, withSettings().stubOnly()),
+                accountAgeWitnessService);
+
+        KeyPair makerKeyPair = null;
+        for (int i = 0; i < NUM_OFFERS; i++) {
+            if (i % 10 == 0) {
+                makerKeyPair = Sig.generateKeyPair();
+            }
+            PubKeyRing makerPubKeyRing = new PubKeyRing(makerKeyPair.getPublic(), encryptionPubKey);
+            offers.add(new Offer(syntheticData.offerPayload(makerPubKeyRing, arbitratorNodeAddress, arbitratorKeyPair)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_OFFERS)
+    public int canTakeOffer() {
+        int numValid = 0;
+        for (Offer offer : offers) {
+            if (offerFilter.canTakeOffer(offer, false).isValid()) {
+                numValid++;
+            }
+        }
+        return numValid;
+    }
+}
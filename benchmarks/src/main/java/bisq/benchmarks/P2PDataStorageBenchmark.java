@@ -0,0 +1,212 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.benchmarks;
+
+import bisq.network.p2p.NodeAddress;
+import bisq.network.p2p.network.NetworkNode;
+import bisq.network.p2p.peers.Broadcaster;
+import bisq.network.p2p.peers.getdata.messages.GetDataResponse;
+import bisq.network.p2p.peers.getdata.messages.PreliminaryGetDataRequest;
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.mocks.AppendOnlyDataStoreServiceFake;
+import bisq.network.p2p.storage.mocks.ClockFake;
+import bisq.network.p2p.storage.mocks.MapStoreServiceFake;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
+import bisq.network.p2p.storage.payload.ProtectedStoragePayload;
+import bisq.network.p2p.storage.persistence.ProtectedDataStoreService;
+import bisq.network.p2p.storage.persistence.RemovedPayloadsService;
+import bisq.network.p2p.storage.persistence.ResourceDataStoreService;
+import bisq.network.p2p.storage.persistence.SequenceNumberMap;
+
+import bisq.common.app.Capabilities;
+import bisq.common.crypto.CryptoException;
+import bisq.common.crypto.Encryption;
+import bisq.common.crypto.PubKeyRing;
+import bisq.common.crypto.Sig;
+import bisq.common.persistence.PersistenceManager;
+
+import java.security.KeyPair;
+import java.security.PublicKey;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Add and remove of offers (including signature verification) and building a GetDataResponse.
+ * The collaborators of P2PDataStorage are the fakes used by the p2p tests. Stub only mocks are used as they do not
+ * record invocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class P2PDataStorageBenchmark {
+    private static final int NUM_ENTRIES = 1000;
+    private static final int NUM_PERSISTABLE_NETWORK_PAYLOADS = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class Entries {
+        final List<ProtectedStorageEntry> addEntries = new ArrayList<>();
+        final List<ProtectedStorageEntry> removeEntries = new ArrayList<>();
+        final Set<PersistableNetworkPayload> persistableNetworkPayloads = new HashSet<>();
+
+        @Setup(Level.Trial)
+        public void setup() throws CryptoException {
+            SyntheticData syntheticData = new SyntheticData();
+            KeyPair arbitratorKeyPair = Sig.generateKeyPair();
+            NodeAddress arbitratorNodeAddress = syntheticData.nodeAddress();
+            // Only the signature key is relevant for the storage, so we use the same encryption key for all makers
+            PublicKey encryptionPubKey = Encryption.generateKeyPair().getPublic();
+            P2PDataStorage p2PDataStorage = createP2PDataStorage();
+            for (int i = 0; i < NUM_ENTRIES; i++) {
+                KeyPair ownerKeyPair = Sig.generateKeyPair();
+                PubKeyRing ownerPubKeyRing = new PubKeyRing(ownerKeyPair.getPublic(), encryptionPubKey);
+                ProtectedStoragePayload payload = syntheticData.offerPayload(ownerPubKeyRing, arbitratorNodeAddress, arbitratorKeyPair);
+                ProtectedStorageEntry addEntry = p2PDataStorage.getProtectedStorageEntry(payload, ownerKeyPair);
+                p2PDataStorage.addProtectedStorageEntry(addEntry, null, null);
+                addEntries.add(addEntry);
+                // The sequence number got increased by the add, so we get a valid entry for the remove
+                removeEntries.add(p2PDataStorage.getProtectedStorageEntry(payload, ownerKeyPair));
+            }
+            persistableNetworkPayloads.addAll(syntheticData.accountAgeWitnesses(NUM_PERSISTABLE_NETWORK_PAYLOADS));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class EmptyStorage {
+        P2PDataStorage p2PDataStorage;
+
+        @Setup(Level.Invocation)
+        public void setup() {
+            p2PDataStorage = createP2PDataStorage();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class FilledStorage {
+        P2PDataStorage p2PDataStorage;
+
+        @Setup(Level.Invocation)
+        public void setup(Entries entries) {
+            p2PDataStorage = createP2PDataStorage();
+            entries.addEntries.forEach(entry -> p2PDataStorage.addProtectedStorageEntry(entry, null, null));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class FilledStorageForResponse {
+        P2PDataStorage p2PDataStorage;
+        PreliminaryGetDataRequest getDataRequest;
+
+        @Setup(Level.Trial)
+        public void setup(Entries entries) {
+            p2PDataStorage = createP2PDataStorage();
+            entries.addEntries.forEach(entry -> p2PDataStorage.addProtectedStorageEntry(entry, null, null));
+            entries.persistableNetworkPayloads.forEach(payload -> p2PDataStorage.addPersistableNetworkPayload(payload, null, false));
+
+            // The requester knows about half of the data
+            Set<byte[]> excludedKeys = new HashSet<>();
+            int i = 0;
+            for (PersistableNetworkPayload payload : entries.persistableNetworkPayloads) {
+                if (i++ % 2 == 0) {
+                    excludedKeys.add(payload.getHash());
+                }
+            }
+            i = 0;
+            for (ProtectedStorageEntry entry : entries.addEntries) {
+                if (i++ % 2 == 0) {
+                    excludedKeys.add(entry.getHashOfPayload().bytes);
+                }
+            }
+            getDataRequest = new PreliminaryGetDataRequest(1, excludedKeys);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static P2PDataStorage createP2PDataStorage() {
+        ProtectedDataStoreService protectedDataStoreService = new ProtectedDataStoreService();
+        protectedDataStoreService.addService(new MapStoreServiceFake());
+        P2PDataStorage p2PDataStorage = new P2PDataStorage(mock(NetworkNode.class, withSettings().stubOnly()),
+                mock(Broadcaster.class, withSettings().stubOnly()),
+                new AppendOnlyDataStoreServiceFake(),
+                protectedDataStoreService,
+                mock(ResourceDataStoreService.class, withSettings().stubOnly()),
+                (PersistenceManager<SequenceNumberMap>) mock(PersistenceManager.class, withSettings().stubOnly()),
+                mock(RemovedPayloadsService.class, withSettings().stubOnly()),
+                new ClockFake(),
+                Integer.MAX_VALUE);
+        p2PDataStorage.readFromResourcesSync("unused");
+        p2PDataStorage.readPersistedSync();
+        return p2PDataStorage;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ENTRIES)
+    public int addProtectedStorageEntry(Entries entries, EmptyStorage storage) {
+        int numAdded = 0;
+        for (ProtectedStorageEntry entry : entries.addEntries) {
+            if (storage.p2PDataStorage.addProtectedStorageEntry(entry, null, null)) {
+                numAdded++;
+            }
+        }
+        return numAdded;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ENTRIES)
+    public int removeProtectedStorageEntry(Entries entries, FilledStorage storage) {
+        int numRemoved = 0;
+        for (ProtectedStorageEntry entry : entries.removeEntries) {
+            if (storage.p2PDataStorage.remove(entry, null)) {
+                numRemoved++;
+            }
+        }
+        return numRemoved;
+    }
+
+    @Benchmark
+    public GetDataResponse buildGetDataResponse(FilledStorageForResponse storage) {
+        return storage.p2PDataStorage.buildGetDataResponse(storage.getDataRequest,
+                Integer.MAX_VALUE,
+                new AtomicBoolean(),
+                new AtomicBoolean(),
+                new Capabilities());
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.benchmarks;
+
+import bisq.core.account.witness.AccountAgeWitnessStore;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import bisq.common.file.CorruptedStorageFileHandler;
+import bisq.common.persistence.PersistenceManager;
+import bisq.common.proto.persistable.PersistenceProtoResolver;
+
+import java.nio.file.Files;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Serialization of a store with the given number of account age witnesses as done by PersistenceManager.persistNow
+ * on the user thread, and the write to disk which is done by the persistence engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistenceManagerBenchmark {
+    @Param({"10000", "100000"})
+    public int numWitnesses;
+
+    private AccountAgeWitnessStore store;
+    private protobuf.PersistableEnvelope serialized;
+    private PersistenceManager<AccountAgeWitnessStore> persistenceManager;
+
+    @Setup
+    public void setup() throws IOException {
+        store = new AccountAgeWitnessStore();
+        for (PersistableNetworkPayload witness : new SyntheticData().accountAgeWitnesses(numWitnesses)) {
+            store.getMap().put(new P2PDataStorage.ByteArray(witness.getHash()), witness);
+        }
+        serialized = (protobuf.PersistableEnvelope) store.toPersistableMessage();
+
+        File dir = Files.createTempDirectory("benchmark_storage").toFile();
+        dir.deleteOnExit();
+        persistenceManager = new PersistenceManager<>(dir,
+                mock(PersistenceProtoResolver.class, withSettings().stubOnly()),
+                new CorruptedStorageFileHandler());
+        persistenceManager.initialize(store, "AccountAgeWitnessStore_" + numWitnesses, PersistenceManager.Source.NETWORK);
+        // Writing to disk is only permitted after startup
+        PersistenceManager.onAllServicesInitialized();
+    }
+
+    @Benchmark
+    public protobuf.PersistableEnvelope serialize() {
+        return (protobuf.PersistableEnvelope) store.toPersistableMessage();
+    }
+
+    @Benchmark
+    public void writeToDisk() {
+        persistenceManager.writeToDisk(serialized, null);
+    }
+}
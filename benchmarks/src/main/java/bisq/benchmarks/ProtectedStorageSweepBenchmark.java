@@ -0,0 +1,180 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.benchmarks;
+
+import bisq.network.p2p.network.NetworkNode;
+import bisq.network.p2p.peers.Broadcaster;
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.mocks.AppendOnlyDataStoreServiceFake;
+import bisq.network.p2p.storage.mocks.ClockFake;
+import bisq.network.p2p.storage.mocks.MapStoreServiceFake;
+import bisq.network.p2p.storage.payload.ExpirablePayload;
+import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
+import bisq.network.p2p.storage.payload.ProtectedStoragePayload;
+import bisq.network.p2p.storage.persistence.ProtectedDataStoreService;
+import bisq.network.p2p.storage.persistence.RemovedPayloadsService;
+import bisq.network.p2p.storage.persistence.ResourceDataStoreService;
+import bisq.network.p2p.storage.persistence.SequenceNumberMap;
+
+import bisq.common.crypto.Sig;
+import bisq.common.persistence.PersistenceManager;
+import bisq.common.util.Utilities;
+
+import com.google.protobuf.Message;
+
+import java.security.PublicKey;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.annotation.Nullable;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * The periodic sweep of the expired ProtectedStorageEntries at the given number of entries, of which 1% are expired.
+ * fullScan is the baseline which checks each entry for expiry, as the sweep did before the expiration index.
+ * The entries are loaded like the entries of the protected data store, so no signatures are created or verified.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProtectedStorageSweepBenchmark {
+    private static final long SHORT_TTL = TimeUnit.MINUTES.toMillis(1);
+    private static final long LONG_TTL = TimeUnit.DAYS.toMillis(30);
+
+    @Param({"10000", "100000"})
+    public int numEntries;
+
+    private ClockFake clock;
+    private P2PDataStorage p2PDataStorage;
+    private final List<ProtectedStorageEntry> expiredEntries = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        clock = new ClockFake();
+        SyntheticData syntheticData = new SyntheticData();
+        // Only the signature of an add or remove message is checked against the owner key, so all entries share it
+        PublicKey ownerPubKey = Sig.generateKeyPair().getPublic();
+        MapStoreServiceFake protectedStore = new MapStoreServiceFake();
+        for (int i = 0; i < numEntries; i++) {
+            boolean expires = i % 100 == 0;
+            String id = Utilities.encodeToHex(syntheticData.randomBytes(16));
+            ProtectedStorageEntry entry = new ProtectedStorageEntry(
+                    new ExpirablePayloadStub(ownerPubKey, id, expires ? SHORT_TTL : LONG_TTL),
+                    ownerPubKey,
+                    1,
+                    syntheticData.randomBytes(46),
+                    clock);
+            protectedStore.getMap().put(entry.getHashOfPayload(), entry);
+            if (expires) {
+                expiredEntries.add(entry);
+            }
+        }
+
+        ProtectedDataStoreService protectedDataStoreService = new ProtectedDataStoreService();
+        protectedDataStoreService.addService(protectedStore);
+        p2PDataStorage = new P2PDataStorage(mock(NetworkNode.class, withSettings().stubOnly()),
+                mock(Broadcaster.class, withSettings().stubOnly()),
+                new AppendOnlyDataStoreServiceFake(),
+                protectedDataStoreService,
+                mock(ResourceDataStoreService.class, withSettings().stubOnly()),
+                (PersistenceManager<SequenceNumberMap>) mock(PersistenceManager.class, withSettings().stubOnly()),
+                mock(RemovedPayloadsService.class, withSettings().stubOnly()),
+                clock,
+                Integer.MAX_VALUE);
+        p2PDataStorage.readFromResourcesSync("unused");
+        p2PDataStorage.readPersistedSync();
+        clock.increment(2 * SHORT_TTL);
+    }
+
+    @Setup(Level.Invocation)
+    public void addExpiredEntries() {
+        // The sweep removes the expired entries, so we add them again. That is also done without verification.
+        expiredEntries.forEach(p2PDataStorage::addProtectedMailboxStorageEntryToMap);
+    }
+
+    @Benchmark
+    public int sweep() {
+        p2PDataStorage.removeExpiredEntries();
+        return p2PDataStorage.getMap().size();
+    }
+
+    @Benchmark
+    public long fullScan() {
+        return p2PDataStorage.getMap().values().stream()
+                .filter(entry -> entry.isExpired(clock))
+                .count();
+    }
+
+    // Only the serialized message is used by the storage, to get the hash of the payload
+    private static final class ExpirablePayloadStub implements ProtectedStoragePayload, ExpirablePayload {
+        private final PublicKey ownerPubKey;
+        private final protobuf.StoragePayload message;
+        private final long ttl;
+
+        private ExpirablePayloadStub(PublicKey ownerPubKey, String id, long ttl) {
+            this.ownerPubKey = ownerPubKey;
+            this.message = protobuf.StoragePayload.newBuilder()
+                    .setOfferPayload(protobuf.OfferPayload.newBuilder().setId(id))
+                    .build();
+            this.ttl = ttl;
+        }
+
+        @Override
+        public PublicKey getOwnerPubKey() {
+            return ownerPubKey;
+        }
+
+        @Nullable
+        @Override
+        public Map<String, String> getExtraDataMap() {
+            return null;
+        }
+
+        @Override
+        public Message toProtoMessage() {
+            return message;
+        }
+
+        @Override
+        public long getTTL() {
+            return ttl;
+        }
+    }
+}
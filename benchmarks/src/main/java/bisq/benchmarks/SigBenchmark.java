@@ -0,0 +1,84 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.benchmarks;
+
+import bisq.common.crypto.CryptoException;
+import bisq.common.crypto.Sig;
+
+import java.security.KeyPair;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.spec.InvalidKeySpecException;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Signing and verification of a 32 byte hash, which is what we sign for storage entries and sealed messages, and
+ * decoding of public keys with and without the key cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SigBenchmark {
+    private KeyPair keyPair;
+    private byte[] hash;
+    private byte[] signature;
+    private byte[] publicKeyBytes;
+
+    @Setup
+    public void setup() throws CryptoException {
+        keyPair = Sig.generateKeyPair();
+        hash = new SyntheticData().randomBytes(32);
+        signature = Sig.sign(keyPair.getPrivate(), hash);
+        publicKeyBytes = Sig.getPublicKeyBytes(keyPair.getPublic());
+    }
+
+    @Benchmark
+    public byte[] sign() throws CryptoException {
+        return Sig.sign(keyPair.getPrivate(), hash);
+    }
+
+    @Benchmark
+    public boolean verify() throws CryptoException {
+        return Sig.verify(keyPair.getPublic(), hash, signature);
+    }
+
+    @Benchmark
+    public PublicKey getPublicKeyFromBytes() {
+        return Sig.getPublicKeyFromBytes(publicKeyBytes);
+    }
+
+    @Benchmark
+    public PublicKey decodePublicKey() throws InvalidKeySpecException, NoSuchAlgorithmException {
+        return Sig.getPublicKeyCache().decode(publicKeyBytes);
+    }
+}
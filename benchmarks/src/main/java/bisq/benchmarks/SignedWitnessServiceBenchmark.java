@@ -0,0 +1,159 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.benchmarks;
+
+import bisq.core.account.sign.SignedWitness;
+import bisq.core.account.sign.SignedWitnessService;
+import bisq.core.account.witness.AccountAgeWitness;
+import bisq.core.filter.FilterManager;
+import bisq.core.support.dispute.arbitration.arbitrator.ArbitratorManager;
+
+import bisq.network.p2p.P2PService;
+import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreService;
+
+import bisq.common.crypto.CryptoException;
+import bisq.common.crypto.KeyRing;
+import bisq.common.crypto.Sig;
+import bisq.common.util.Utilities;
+
+import org.bitcoinj.core.ECKey;
+
+import com.google.common.base.Charsets;
+
+import java.security.KeyPair;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Sign state queries on a set of signing chains. Each chain starts with an account signed by an arbitrator and every
+ * following account got signed by the owner of the previous one, so a query for the last account of a chain walks
+ * the whole chain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignedWitnessServiceBenchmark {
+    private static final int NUM_CHAINS = 20;
+    private static final int CHAIN_LENGTH = 50;
+    private static final long ONE_DAY_MS = TimeUnit.DAYS.toMillis(1);
+
+    private SignedWitnessService signedWitnessService;
+    private final List<AccountAgeWitness> leafAccountAgeWitnesses = new ArrayList<>();
+
+    @Setup
+    public void setup() throws CryptoException {
+        ArbitratorManager arbitratorManager = mock(ArbitratorManager.class, withSettings().stubOnly());
+        when(arbitratorManager.isPublicKeyInList(any())).thenReturn(true);
+        signedWitnessService = new SignedWitnessService(mock(KeyRing.class, withSettings().stubOnly()),
+                mock(P2PService.class, withSettings().stubOnly()),
+                arbitratorManager,
+                null,
+                mock(AppendOnlyDataStoreService.class, withSettings().stubOnly()),
+                null,
+                mock(FilterManager.class, withSettings().stubOnly()));
+
+        SyntheticData syntheticData = new SyntheticData();
+        ECKey arbitratorKey = new ECKey();
+        long now = System.currentTimeMillis();
+        for (int chain = 0; chain < NUM_CHAINS; chain++) {
+            KeyPair signerKeyPair = null;
+            AccountAgeWitness accountAgeWitness = null;
+            for (int i = 0; i < CHAIN_LENGTH; i++) {
+                // Each signer must have been signed SIGNER_AGE_DAYS before it signs another account
+                long date = now - (CHAIN_LENGTH - i + 1) * (SignedWitnessService.SIGNER_AGE_DAYS + 1) * ONE_DAY_MS;
+                accountAgeWitness = new AccountAgeWitness(syntheticData.randomBytes(20), date - ONE_DAY_MS);
+                byte[] accountAgeWitnessHash = accountAgeWitness.getHash();
+                KeyPair ownerKeyPair = Sig.generateKeyPair();
+                byte[] ownerPubKey = Sig.getPublicKeyBytes(ownerKeyPair.getPublic());
+                SignedWitness signedWitness;
+                if (signerKeyPair == null) {
+                    byte[] signature = arbitratorKey.signMessage(Utilities.encodeToHex(accountAgeWitnessHash))
+                            .getBytes(Charsets.UTF_8);
+                    signedWitness = new SignedWitness(SignedWitness.VerificationMethod.ARBITRATOR,
+                            accountAgeWitnessHash,
+                            signature,
+                            arbitratorKey.getPubKey(),
+                            ownerPubKey,
+                            date,
+                            0);
+                } else {
+                    byte[] signature = Sig.sign(signerKeyPair.getPrivate(), accountAgeWitnessHash);
+                    signedWitness = new SignedWitness(SignedWitness.VerificationMethod.TRADE,
+                            accountAgeWitnessHash,
+                            signature,
+                            Sig.getPublicKeyBytes(signerKeyPair.getPublic()),
+                            ownerPubKey,
+                            date,
+                            0);
+                }
+                signedWitnessService.addToMap(signedWitness);
+                signerKeyPair = ownerKeyPair;
+            }
+            leafAccountAgeWitnesses.add(accountAgeWitness);
+        }
+
+        if (!signedWitnessService.isSignerAccountAgeWitness(leafAccountAgeWitnesses.get(0))) {
+            throw new IllegalStateException("Synthetic signing chain is not valid");
+        }
+    }
+
+    @Benchmark
+    public boolean isSignerAccountAgeWitness() {
+        boolean result = true;
+        for (AccountAgeWitness accountAgeWitness : leafAccountAgeWitnesses) {
+            result &= signedWitnessService.isSignerAccountAgeWitness(accountAgeWitness);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public boolean isSignedAccountAgeWitness() {
+        boolean result = true;
+        for (AccountAgeWitness accountAgeWitness : leafAccountAgeWitnesses) {
+            result &= signedWitnessService.isSignedAccountAgeWitness(accountAgeWitness);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Set<SignedWitness> getUnsignedSignerPubKeys() {
+        return signedWitnessService.getUnsignedSignerPubKeys();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.benchmarks;
+
+import bisq.core.account.witness.AccountAgeWitness;
+import bisq.core.offer.OfferPayload;
+
+import bisq.network.p2p.NodeAddress;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import bisq.common.app.Version;
+import bisq.common.crypto.CryptoException;
+import bisq.common.crypto.PubKeyRing;
+import bisq.common.crypto.Sig;
+import bisq.common.util.Utilities;
+
+import java.security.KeyPair;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generators for synthetic but realistic looking data used by the benchmarks. A fixed seed is used so the data is
+ * the same for each run.
+ */
+public class SyntheticData {
+    private static final long ONE_DAY_MS = 24 * 60 * 60 * 1000L;
+
+    private final Random random = new Random(42);
+
+    public byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    public AccountAgeWitness accountAgeWitness() {
+        return new AccountAgeWitness(randomBytes(20), System.currentTimeMillis() - random.nextInt(1000) * ONE_DAY_MS);
+    }
+
+    public Set<PersistableNetworkPayload> accountAgeWitnesses(int numWitnesses) {
+        Set<PersistableNetworkPayload> witnesses = new HashSet<>();
+        for (int i = 0; i < numWitnesses; i++) {
+            witnesses.add(accountAgeWitness());
+        }
+        return witnesses;
+    }
+
+    public NodeAddress nodeAddress() {
+        return new NodeAddress(Utilities.encodeToHex(randomBytes(8)) + ".onion", 9999);
+    }
+
+    /**
+     * @return An offer payload signed by the given arbitrator, the same way the arbitrator signs offers when they
+     * get placed.
+     */
+    public OfferPayload offerPayload(PubKeyRing makerPubKeyRing,
+                                     NodeAddress arbitratorNodeAddress,
+                                     KeyPair arbitratorSignatureKeyPair) throws CryptoException {
+        long amount = 1_000_000_000_000L + random.nextInt(1000) * 1_000_000_000L;
+        OfferPayload offerPayload = new OfferPayload(Utilities.encodeToHex(randomBytes(16)),
+                System.currentTimeMillis(),
+                nodeAddress(),
+                makerPubKeyRing,
+                random.nextBoolean() ? OfferPayload.Direction.BUY : OfferPayload.Direction.SELL,
+                1_500_000 + random.nextInt(100_000),
+                0,
+                false,
+                amount,
+                amount / 2,
+                "XMR",
+                "USD",
+                "SEPA",
+                Utilities.encodeToHex(randomBytes(16)),
+                Utilities.encodeToHex(randomBytes(32)),
+                "DE",
+                null,
+                null,
+                null,
+                Version.VERSION,
+                0,
+                0,
+                0,
+                amount / 10,
+                amount / 10,
+                amount * 2,
+                ONE_DAY_MS * 8,
+                false,
+                false,
+                0,
+                0,
+                false,
+                null,
+                null,
+                Version.TRADE_PROTOCOL_VERSION,
+                arbitratorNodeAddress,
+                null,
+                null);
+        String signature = Sig.sign(arbitratorSignatureKeyPair.getPrivate(), Utilities.objectToJson(offerPayload));
+        offerPayload.setArbitratorSignature(signature);
+        return offerPayload;
+    }
+}
@@ -23,13 +23,13 @@ import bisq.common.util.Utilities;
 import javax.crypto.Cipher;
 import javax.crypto.KeyGenerator;
 import javax.crypto.Mac;
+import javax.crypto.NoSuchPaddingException;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.OAEPParameterSpec;
 import javax.crypto.spec.PSource;
 import javax.crypto.spec.SecretKeySpec;
 
 import java.security.InvalidKeyException;
-import java.security.KeyFactory;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.NoSuchAlgorithmException;
@@ -59,6 +59,13 @@ public class Encryption {
 
     private static final String HMAC = "HmacSHA256";
 
+    private static final PublicKeyCache PUBLIC_KEY_CACHE = new PublicKeyCache(ASYM_KEY_ALGO, PublicKeyCache.DEFAULT_MAX_SIZE);
+    // Cipher and Mac are not thread safe, so we keep one instance per thread instead of looking up the provider for
+    // each call. Calling init resets any state left over from a previous use.
+    private static final ThreadLocal<Cipher> SYM_CIPHER_INSTANCE = new ThreadLocal<>();
+    private static final ThreadLocal<Cipher> ASYM_CIPHER_INSTANCE = new ThreadLocal<>();
+    private static final ThreadLocal<Mac> MAC_INSTANCE = new ThreadLocal<>();
+
     public static KeyPair generateKeyPair() {
         long ts = System.currentTimeMillis();
         try {
@@ -78,7 +85,7 @@ public class Encryption {
 
     public static byte[] encrypt(byte[] payload, SecretKey secretKey) throws CryptoException {
         try {
-            Cipher cipher = Cipher.getInstance(SYM_CIPHER);
+            Cipher cipher = getCipher(SYM_CIPHER_INSTANCE, SYM_CIPHER);
             cipher.init(Cipher.ENCRYPT_MODE, secretKey);
             return cipher.doFinal(payload);
         } catch (Throwable e) {
@@ -89,7 +96,7 @@ public class Encryption {
 
     public static byte[] decrypt(byte[] encryptedPayload, SecretKey secretKey) throws CryptoException {
         try {
-            Cipher cipher = Cipher.getInstance(SYM_CIPHER);
+            Cipher cipher = getCipher(SYM_CIPHER_INSTANCE, SYM_CIPHER);
             cipher.init(Cipher.DECRYPT_MODE, secretKey);
             return cipher.doFinal(encryptedPayload);
         } catch (Throwable e) {
@@ -152,7 +159,11 @@ public class Encryption {
     }
 
     private static byte[] getHmac(byte[] payload, SecretKey secretKey) throws NoSuchAlgorithmException, InvalidKeyException, NoSuchProviderException {
-        Mac mac = Mac.getInstance(HMAC);
+        Mac mac = MAC_INSTANCE.get();
+        if (mac == null) {
+            mac = Mac.getInstance(HMAC);
+            MAC_INSTANCE.set(mac);
+        }
         mac.init(secretKey);
         return mac.doFinal(payload);
     }
@@ -190,7 +201,7 @@ public class Encryption {
 
     public static byte[] encryptSecretKey(SecretKey secretKey, PublicKey publicKey) throws CryptoException {
         try {
-            Cipher cipher = Cipher.getInstance(ASYM_CIPHER);
+            Cipher cipher = getCipher(ASYM_CIPHER_INSTANCE, ASYM_CIPHER);
             OAEPParameterSpec oaepParameterSpec = new OAEPParameterSpec("SHA-256", "MGF1",
                     MGF1ParameterSpec.SHA256, PSource.PSpecified.DEFAULT);
             cipher.init(Cipher.WRAP_MODE, publicKey, oaepParameterSpec);
@@ -203,7 +214,7 @@ public class Encryption {
 
     public static SecretKey decryptSecretKey(byte[] encryptedSecretKey, PrivateKey privateKey) throws CryptoException {
         try {
-            Cipher cipher = Cipher.getInstance(ASYM_CIPHER);
+            Cipher cipher = getCipher(ASYM_CIPHER_INSTANCE, ASYM_CIPHER);
             OAEPParameterSpec oaepParameterSpec = new OAEPParameterSpec("SHA-256", "MGF1",
                     MGF1ParameterSpec.SHA256, PSource.PSpecified.DEFAULT);
             cipher.init(Cipher.UNWRAP_MODE, privateKey, oaepParameterSpec);
@@ -236,15 +247,28 @@ public class Encryption {
 
     /**
      * @param encryptionPubKeyBytes
-     * @return
+     * @return The decoded key. Equal encodings return the same instance as long as the key is cached.
      */
     public static PublicKey getPublicKeyFromBytes(byte[] encryptionPubKeyBytes) {
         try {
-            return KeyFactory.getInstance(Encryption.ASYM_KEY_ALGO).generatePublic(new X509EncodedKeySpec(encryptionPubKeyBytes));
+            return PUBLIC_KEY_CACHE.get(encryptionPubKeyBytes);
         } catch (InvalidKeySpecException | NoSuchAlgorithmException e) {
             log.error("Error creating sigPublicKey from bytes. sigPublicKeyBytes as hex={}, error={}", Utilities.bytesAsHexString(encryptionPubKeyBytes), e);
             throw new KeyConversionException(e);
         }
     }
-}
 
+    public static PublicKeyCache getPublicKeyCache() {
+        return PUBLIC_KEY_CACHE;
+    }
+
+    private static Cipher getCipher(ThreadLocal<Cipher> threadLocal, String transformation)
+            throws NoSuchAlgorithmException, NoSuchPaddingException {
+        Cipher cipher = threadLocal.get();
+        if (cipher == null) {
+            cipher = Cipher.getInstance(transformation);
+            threadLocal.set(cipher);
+        }
+        return cipher;
+    }
+}
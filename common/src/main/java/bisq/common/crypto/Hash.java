@@ -32,6 +32,8 @@ import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class Hash {
+    // MessageDigest is not thread safe, so we keep one instance per thread. digest() resets it after each use.
+    private static final ThreadLocal<MessageDigest> SHA_256_DIGEST = new ThreadLocal<>();
 
     /**
      * @param data Data as byte array
@@ -39,7 +41,11 @@ public class Hash {
      */
     public static byte[] getSha256Hash(byte[] data) {
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            MessageDigest digest = SHA_256_DIGEST.get();
+            if (digest == null) {
+                digest = MessageDigest.getInstance("SHA-256");
+                SHA_256_DIGEST.set(digest);
+            }
             digest.update(data, 0, data.length);
             return digest.digest();
         } catch (NoSuchAlgorithmException e) {
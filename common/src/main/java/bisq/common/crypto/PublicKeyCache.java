@@ -0,0 +1,81 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.crypto;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.X509EncodedKeySpec;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Bounded, thread safe cache of decoded public keys keyed by their X.509 encoding.
+ * <p/>
+ * The same keys arrive over and over again: every offer of a maker carries the maker's pub key ring and every
+ * storage entry the owner's key, and these are resent with each GetDataResponse and refresh. Decoding a DSA or
+ * RSA key is costly compared to a map lookup, and as PublicKey instances are immutable we can hand out the same
+ * instance for equal encodings.
+ */
+public class PublicKeyCache {
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+
+    private final String keyAlgorithm;
+    private final Cache<ByteBuffer, PublicKey> cache;
+
+    public PublicKeyCache(String keyAlgorithm, int maxSize) {
+        this.keyAlgorithm = keyAlgorithm;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
+    public PublicKey get(byte[] encodedKey) throws InvalidKeySpecException, NoSuchAlgorithmException {
+        PublicKey publicKey = cache.getIfPresent(ByteBuffer.wrap(encodedKey));
+        if (publicKey == null) {
+            publicKey = decode(encodedKey);
+            // We copy the bytes used as key as the caller might reuse the array
+            cache.put(ByteBuffer.wrap(encodedKey.clone()), publicKey);
+        }
+        return publicKey;
+    }
+
+    public PublicKey decode(byte[] encodedKey) throws InvalidKeySpecException, NoSuchAlgorithmException {
+        return KeyFactory.getInstance(keyAlgorithm).generatePublic(new X509EncodedKeySpec(encodedKey));
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+    @VisibleForTesting
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
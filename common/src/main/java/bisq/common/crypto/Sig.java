@@ -23,7 +23,6 @@ import bisq.common.util.Utilities;
 import com.google.common.base.Charsets;
 
 import java.security.InvalidKeyException;
-import java.security.KeyFactory;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.NoSuchAlgorithmException;
@@ -51,6 +50,11 @@ public class Sig {
     public static final String KEY_ALGO = "DSA";
     private static final String ALGO = "SHA256withDSA";
 
+    private static final PublicKeyCache PUBLIC_KEY_CACHE = new PublicKeyCache(KEY_ALGO, PublicKeyCache.DEFAULT_MAX_SIZE);
+    // Signature is not thread safe, so we keep one instance per thread instead of looking up the provider for each
+    // call. initSign and initVerify reset any state left over from a previous use.
+    private static final ThreadLocal<Signature> SIGNATURE = new ThreadLocal<>();
+
 
     /**
      * @return keyPair
@@ -75,7 +79,7 @@ public class Sig {
      */
     public static byte[] sign(PrivateKey privateKey, byte[] data) throws CryptoException {
         try {
-            Signature sig = Signature.getInstance(ALGO);
+            Signature sig = getSignature();
             sig.initSign(privateKey);
             sig.update(data);
             return sig.sign();
@@ -102,7 +106,7 @@ public class Sig {
      */
     public static boolean verify(PublicKey publicKey, byte[] data, byte[] signature) throws CryptoException {
         try {
-            Signature sig = Signature.getInstance(ALGO);
+            Signature sig = getSignature();
             sig.initVerify(publicKey);
             sig.update(data);
             return sig.verify(signature);
@@ -123,11 +127,11 @@ public class Sig {
 
     /**
      * @param sigPublicKeyBytes
-     * @return
+     * @return The decoded key. Equal encodings return the same instance as long as the key is cached.
      */
     public static PublicKey getPublicKeyFromBytes(byte[] sigPublicKeyBytes) {
         try {
-            return KeyFactory.getInstance(Sig.KEY_ALGO).generatePublic(new X509EncodedKeySpec(sigPublicKeyBytes));
+            return PUBLIC_KEY_CACHE.get(sigPublicKeyBytes);
         } catch (InvalidKeySpecException | NoSuchAlgorithmException e) {
             log.error("Error creating sigPublicKey from bytes. sigPublicKeyBytes as hex={}, error={}", Utilities.bytesAsHexString(sigPublicKeyBytes), e);
             e.printStackTrace();
@@ -138,4 +142,17 @@ public class Sig {
     public static byte[] getPublicKeyBytes(PublicKey sigPublicKey) {
         return new X509EncodedKeySpec(sigPublicKey.getEncoded()).getEncoded();
     }
+
+    public static PublicKeyCache getPublicKeyCache() {
+        return PUBLIC_KEY_CACHE;
+    }
+
+    private static Signature getSignature() throws NoSuchAlgorithmException {
+        Signature signature = SIGNATURE.get();
+        if (signature == null) {
+            signature = Signature.getInstance(ALGO);
+            SIGNATURE.set(signature);
+        }
+        return signature;
+    }
 }
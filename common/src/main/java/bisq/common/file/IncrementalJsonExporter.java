@@ -0,0 +1,121 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.file;
+
+import bisq.common.Timer;
+import bisq.common.UserThread;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Exports a growing collection as json without serializing the whole collection for each new item.
+ * <p>
+ * New items are collected and appended in batches as newline delimited json to <fileName>.ndjson. Once the segment
+ * reaches maxSegmentSize items a compacted snapshot of all items is written as json array to <fileName>.json and the
+ * segment gets deleted. Consumers get the full data by reading the snapshot and the segment.
+ * <p>
+ * Must be used from the user thread. The conversion to the json object and the serialization are done on the
+ * writing thread of the JsonFileManager.
+ */
+@Slf4j
+public class IncrementalJsonExporter<T> {
+    private final JsonFileManager jsonFileManager;
+    private final String fileName;
+    private final Supplier<Collection<T>> allItemsSupplier;
+    private final Function<T, ?> toJsonObject;
+    private final long flushDelayMs;
+    private final int maxSegmentSize;
+
+    private final List<T> pendingItems = new ArrayList<>();
+    private int segmentSize;
+    @Nullable
+    private Timer flushTimer;
+
+    /**
+     * @param allItemsSupplier  Supplies all items in the order they should appear in the snapshot. Gets called on
+     *                          the user thread and the returned collection must not be modified afterwards.
+     * @param toJsonObject      Converts an item to the object which gets serialized.
+     * @param flushDelayMs      New items are written at most once in that interval.
+     * @param maxSegmentSize    Max. number of items appended to the segment before a new snapshot gets written.
+     */
+    public IncrementalJsonExporter(JsonFileManager jsonFileManager,
+                                   String fileName,
+                                   Supplier<Collection<T>> allItemsSupplier,
+                                   Function<T, ?> toJsonObject,
+                                   long flushDelayMs,
+                                   int maxSegmentSize) {
+        this.jsonFileManager = jsonFileManager;
+        this.fileName = fileName;
+        this.allItemsSupplier = allItemsSupplier;
+        this.toJsonObject = toJsonObject;
+        this.flushDelayMs = flushDelayMs;
+        this.maxSegmentSize = maxSegmentSize;
+    }
+
+    public void add(T item) {
+        pendingItems.add(item);
+        if (flushTimer == null) {
+            flushTimer = UserThread.runAfter(this::flush, flushDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void writeSnapshot() {
+        stopFlushTimer();
+        pendingItems.clear();
+        segmentSize = 0;
+
+        Collection<T> allItems = allItemsSupplier.get();
+        jsonFileManager.writeToDiscThreaded(allItems.stream().map(toJsonObject), fileName);
+        // Deleted by the same thread after the snapshot got written, so items appended later are kept
+        jsonFileManager.deleteAppendedThreaded(fileName);
+        log.info("Requested snapshot of {} items for {}", allItems.size(), fileName);
+    }
+
+    public void flush() {
+        stopFlushTimer();
+        if (pendingItems.isEmpty()) {
+            return;
+        }
+
+        if (segmentSize + pendingItems.size() > maxSegmentSize) {
+            writeSnapshot();
+            return;
+        }
+
+        List<T> items = new ArrayList<>(pendingItems);
+        pendingItems.clear();
+        segmentSize += items.size();
+        jsonFileManager.appendToDiscThreaded(items.stream().map(toJsonObject), fileName);
+    }
+
+    private void stopFlushTimer() {
+        if (flushTimer != null) {
+            flushTimer.stop();
+            flushTimer = null;
+        }
+    }
+}
@@ -19,14 +19,26 @@ package bisq.common.file;
 
 import bisq.common.util.Utilities;
 
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.io.Writer;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.stream.Stream;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -44,6 +56,10 @@ public class JsonFileManager {
 
     @Nullable
     private ThreadPoolExecutor executor;
+    // Used for the streaming writes so that appends, snapshots and deletes of a file are applied in the order
+    // they got requested
+    @Nullable
+    private ExecutorService sequentialExecutor;
     private final File dir;
 
 
@@ -69,10 +85,21 @@ public class JsonFileManager {
         return executor;
     }
 
+    @NotNull
+    protected ExecutorService getSequentialExecutor() {
+        if (sequentialExecutor == null) {
+            sequentialExecutor = Utilities.getSingleThreadExecutor("JsonFileManagerSequentialExecutor");
+        }
+        return sequentialExecutor;
+    }
+
     public void shutDown() {
         if (executor != null) {
             executor.shutdown();
         }
+        if (sequentialExecutor != null) {
+            sequentialExecutor.shutdown();
+        }
     }
 
     public void writeToDiscThreaded(String json, String fileName) {
@@ -112,4 +139,100 @@ public class JsonFileManager {
                 printWriter.close();
         }
     }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Streaming
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // The items are consumed on the writing thread, so a stream which maps the items lazily gets evaluated there.
+    // The caller must not pass a stream backed by a collection which gets modified concurrently.
+    public void writeToDiscThreaded(Stream<?> items, String fileName) {
+        getSequentialExecutor().execute(() -> writeToDisc(items, fileName));
+    }
+
+    public void appendToDiscThreaded(Stream<?> items, String fileName) {
+        getSequentialExecutor().execute(() -> appendToDisc(items, fileName));
+    }
+
+    public void deleteAppendedThreaded(String fileName) {
+        getSequentialExecutor().execute(() -> deleteAppended(fileName));
+    }
+
+    /**
+     * Writes the items as json array to <fileName>.json. The result is the same as writing the json of a list of
+     * the items with writeToDisc, but the items are serialized one by one directly into the file instead of
+     * building the json of all items in memory.
+     */
+    public void writeToDisc(Stream<?> items, String fileName) {
+        File jsonFile = new File(Paths.get(dir.getAbsolutePath(), fileName + ".json").toString());
+        File tempFile = null;
+        try {
+            tempFile = File.createTempFile("temp", null, dir);
+            tempFile.deleteOnExit();
+
+            Gson gson = Utilities.getGson();
+            // Close resources before replacing file with temp file because otherwise it causes problems on windows
+            // when rename temp file
+            try (Writer writer = newWriter(tempFile, false)) {
+                JsonWriter jsonWriter = gson.newJsonWriter(writer);
+                jsonWriter.beginArray();
+                Iterator<?> iterator = items.iterator();
+                while (iterator.hasNext()) {
+                    Object item = iterator.next();
+                    gson.toJson(item, item.getClass(), jsonWriter);
+                }
+                jsonWriter.endArray();
+                jsonWriter.flush();
+                writer.write(System.lineSeparator());
+            }
+
+            FileUtil.renameFile(tempFile, jsonFile);
+        } catch (Throwable t) {
+            log.error("storageFile " + jsonFile.toString());
+            t.printStackTrace();
+        } finally {
+            if (tempFile != null && tempFile.exists()) {
+                log.warn("Temp file still exists after failed save. We will delete it now. storageFile=" + fileName);
+                if (!tempFile.delete())
+                    log.error("Cannot delete temp file.");
+            }
+        }
+    }
+
+    /**
+     * Appends the items as newline delimited json (one compact json object per line) to <fileName>.ndjson.
+     */
+    public void appendToDisc(Stream<?> items, String fileName) {
+        File ndjsonFile = getAppendedFile(fileName);
+        Gson gson = Utilities.getGson();
+        try (Writer writer = newWriter(ndjsonFile, true)) {
+            Iterator<?> iterator = items.iterator();
+            while (iterator.hasNext()) {
+                Object item = iterator.next();
+                // A plain JsonWriter does not indent, so each item is written to a single line
+                JsonWriter jsonWriter = new JsonWriter(writer);
+                gson.toJson(item, item.getClass(), jsonWriter);
+                jsonWriter.flush();
+                writer.write('\n');
+            }
+        } catch (Throwable t) {
+            log.error("storageFile " + ndjsonFile.toString());
+            t.printStackTrace();
+        }
+    }
+
+    public void deleteAppended(String fileName) {
+        File ndjsonFile = getAppendedFile(fileName);
+        if (ndjsonFile.exists() && !ndjsonFile.delete()) {
+            log.error("Cannot delete file " + ndjsonFile.toString());
+        }
+    }
+
+    private File getAppendedFile(String fileName) {
+        return new File(Paths.get(dir.getAbsolutePath(), fileName + ".ndjson").toString());
+    }
+
+    private Writer newWriter(File file, boolean append) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, append), StandardCharsets.UTF_8));
+    }
 }
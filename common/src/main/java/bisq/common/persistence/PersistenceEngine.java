@@ -0,0 +1,399 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.persistence;
+
+import bisq.common.file.FileUtil;
+import bisq.common.util.Utilities;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Writes the data of all PersistenceManagers on one shared thread.
+ * <p>
+ * Writes requested while the writer is busy are coalesced, only the latest data of a file is built and written, and all
+ * pending files are committed as one batch: the temp files are written, then the ones which need to be durable are
+ * synced in one go, then all are renamed to their storage files and each directory is synced once to make the
+ * renames durable. Java has no way to sync a whole file system, so each file still gets its own sync, but they are
+ * issued back to back, which lets the file system merge them into few journal commits. Data received from the
+ * network can be rebuilt and is not synced at all.
+ * <p>
+ * The first write of a file in a session backs up the file as read at startup. Later rolling backups are taken at
+ * most once per BACKUP_INTERVAL_MS per file, and only when no writes are pending, so they never delay a commit by
+ * more than one file copy.
+ */
+@Slf4j
+public class PersistenceEngine {
+    @VisibleForTesting
+    static final long BACKUP_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+
+    private final Object lock = new Object();
+    private final Executor executor;
+    // Pending writes by storage file, guarded by lock
+    private final Map<File, PendingWrite> pendingWrites = new LinkedHashMap<>();
+    private final Map<File, PendingWrite> pendingBackups = new LinkedHashMap<>();
+    private boolean workScheduled;
+
+    // Only accessed on the writer thread
+    private final Map<File, Path> usedTempFilePaths = new HashMap<>();
+    private final Map<File, Long> lastBackupTimes = new HashMap<>();
+
+    private final AtomicLong numWrites = new AtomicLong();
+    private final AtomicLong numCoalescedWrites = new AtomicLong();
+    private final AtomicLong numBatches = new AtomicLong();
+    private final AtomicLong numBackups = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong numSyncs = new AtomicLong();
+    private final AtomicLong totalSyncNanos = new AtomicLong();
+    private final AtomicLong maxSyncNanos = new AtomicLong();
+
+    public PersistenceEngine() {
+        this(Utilities.getSingleThreadExecutor("PersistenceEngine"));
+    }
+
+    @VisibleForTesting
+    PersistenceEngine(Executor executor) {
+        this.executor = executor;
+    }
+
+    void write(File dir,
+               String fileName,
+               PersistenceManager.Source source,
+               protobuf.PersistableEnvelope serialized,
+               @Nullable Runnable onWritten) {
+        write(dir, fileName, source, () -> serialized, onWritten);
+    }
+
+    /**
+     * Requests writing the data to the storage file. The data is built by the given supplier on the writer thread.
+     * If a write of the file is pending already, its supplier is replaced. The onWritten handler is called on the
+     * writer thread after the data, or newer data of the same file, was written or the write failed.
+     */
+    void write(File dir,
+               String fileName,
+               PersistenceManager.Source source,
+               Supplier<protobuf.PersistableEnvelope> serializer,
+               @Nullable Runnable onWritten) {
+        File storageFile = new File(dir, fileName);
+        synchronized (lock) {
+            PendingWrite pendingWrite = pendingWrites.get(storageFile);
+            if (pendingWrite == null) {
+                pendingWrite = new PendingWrite(dir, fileName, storageFile, source);
+                pendingWrites.put(storageFile, pendingWrite);
+            } else {
+                numCoalescedWrites.incrementAndGet();
+            }
+            pendingWrite.serializer = serializer;
+            if (onWritten != null)
+                pendingWrite.onWrittenHandlers.add(onWritten);
+            scheduleWork();
+        }
+    }
+
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return pendingWrites.size();
+        }
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.get();
+    }
+
+    public long getAverageSyncLatencyNanos() {
+        long syncs = numSyncs.get();
+        return syncs == 0 ? 0 : totalSyncNanos.get() / syncs;
+    }
+
+    public long getMaxSyncLatencyNanos() {
+        return maxSyncNanos.get();
+    }
+
+    @VisibleForTesting
+    long getNumWrites() {
+        return numWrites.get();
+    }
+
+    @VisibleForTesting
+    long getNumCoalescedWrites() {
+        return numCoalescedWrites.get();
+    }
+
+    @VisibleForTesting
+    long getNumBatches() {
+        return numBatches.get();
+    }
+
+    @VisibleForTesting
+    long getNumBackups() {
+        return numBackups.get();
+    }
+
+    // Must be called with lock held
+    private void scheduleWork() {
+        if (!workScheduled) {
+            workScheduled = true;
+            executor.execute(this::work);
+        }
+    }
+
+    private void work() {
+        List<PendingWrite> batch;
+        PendingWrite backup = null;
+        synchronized (lock) {
+            batch = new ArrayList<>(pendingWrites.values());
+            pendingWrites.clear();
+            if (batch.isEmpty() && !pendingBackups.isEmpty()) {
+                File file = pendingBackups.keySet().iterator().next();
+                backup = pendingBackups.remove(file);
+            }
+        }
+
+        if (!batch.isEmpty())
+            commit(batch);
+        else if (backup != null)
+            backup(backup);
+
+        synchronized (lock) {
+            workScheduled = false;
+            if (!pendingWrites.isEmpty() || !pendingBackups.isEmpty())
+                scheduleWork();
+        }
+    }
+
+    private void commit(List<PendingWrite> batch) {
+        long ts = System.currentTimeMillis();
+        List<PendingWrite> written = new ArrayList<>();
+        try {
+            for (PendingWrite pendingWrite : batch) {
+                if (writeTempFile(pendingWrite))
+                    written.add(pendingWrite);
+            }
+
+            // Attempt to force the bits to hit the disk. In reality the OS or hard disk itself may still decide
+            // to not write through to physical media for at least a few seconds, but this is the best we can do.
+            long syncStart = System.nanoTime();
+            Set<File> syncedDirs = new LinkedHashSet<>();
+            for (Iterator<PendingWrite> iterator = written.iterator(); iterator.hasNext(); ) {
+                PendingWrite pendingWrite = iterator.next();
+                if (pendingWrite.source.isSyncToDisk()) {
+                    try {
+                        pendingWrite.fileOutputStream.getFD().sync();
+                        syncedDirs.add(pendingWrite.dir);
+                    } catch (IOException e) {
+                        // We must not replace the file with data which might not be on disk, so we keep the old file
+                        // and the temp file gets deleted with the others which were not renamed
+                        iterator.remove();
+                        usedTempFilePaths.remove(pendingWrite.storageFile);
+                        log.error("Syncing {} failed", pendingWrite.fileName, e);
+                    }
+                }
+            }
+
+            for (PendingWrite pendingWrite : written) {
+                renameTempFile(pendingWrite);
+            }
+            syncedDirs.forEach(this::syncDirectory);
+            if (!syncedDirs.isEmpty())
+                recordSyncLatency(System.nanoTime() - syncStart);
+        } finally {
+            numBatches.incrementAndGet();
+            long duration = System.currentTimeMillis() - ts;
+            if (duration > 100) {
+                log.info("Writing {} files completed in {} msec", batch.size(), duration);
+            }
+            for (PendingWrite pendingWrite : batch) {
+                closeAndDeleteTempFile(pendingWrite);
+                pendingWrite.onWrittenHandlers.forEach(handler -> {
+                    try {
+                        handler.run();
+                    } catch (Throwable t) {
+                        log.error("Handler of write of {} failed", pendingWrite.fileName, t);
+                    }
+                });
+                // A scheduled backup only needs the file name, so we release the data
+                pendingWrite.serializer = null;
+            }
+        }
+    }
+
+    private boolean writeTempFile(PendingWrite pendingWrite) {
+        try {
+            // We build the message before we touch any file, so a failure leaves no temp file behind
+            protobuf.PersistableEnvelope serialized = pendingWrite.serializer.get();
+
+            File dir = pendingWrite.dir;
+            if (!dir.exists() && !dir.mkdir())
+                log.warn("make dir failed {}", pendingWrite.fileName);
+
+            // Before we overwrite the file as read at startup the first time, we back it up
+            if (!lastBackupTimes.containsKey(pendingWrite.storageFile) && pendingWrite.storageFile.exists())
+                backup(pendingWrite);
+
+            Path usedTempFilePath = usedTempFilePaths.get(pendingWrite.storageFile);
+            File tempFile = usedTempFilePath != null
+                    ? FileUtil.createNewFile(usedTempFilePath)
+                    : File.createTempFile("temp_" + pendingWrite.fileName, null, dir);
+            // Don't use a new temp file path each time, as that causes the delete-on-exit hook to leak memory:
+            tempFile.deleteOnExit();
+            pendingWrite.tempFile = tempFile;
+
+            pendingWrite.fileOutputStream = new FileOutputStream(tempFile);
+            serialized.writeDelimitedTo(pendingWrite.fileOutputStream);
+            pendingWrite.fileOutputStream.flush();
+            bytesWritten.addAndGet(pendingWrite.fileOutputStream.getChannel().position());
+            return true;
+        } catch (Throwable t) {
+            // If an error occurred, don't attempt to reuse this path again, in case temp file cleanup fails.
+            usedTempFilePaths.remove(pendingWrite.storageFile);
+            log.error("Error at saveToFile, storageFile={}", pendingWrite.fileName, t);
+            return false;
+        }
+    }
+
+    private void renameTempFile(PendingWrite pendingWrite) {
+        try {
+            // Close resources before replacing file with temp file because otherwise it causes problems on windows
+            // when rename temp file
+            pendingWrite.fileOutputStream.close();
+            FileUtil.renameFile(pendingWrite.tempFile, pendingWrite.storageFile);
+            usedTempFilePaths.put(pendingWrite.storageFile, pendingWrite.tempFile.toPath());
+            numWrites.incrementAndGet();
+            maybeScheduleBackup(pendingWrite);
+        } catch (Throwable t) {
+            usedTempFilePaths.remove(pendingWrite.storageFile);
+            log.error("Error at saveToFile, storageFile={}", pendingWrite.fileName, t);
+        }
+    }
+
+    private void closeAndDeleteTempFile(PendingWrite pendingWrite) {
+        try {
+            if (pendingWrite.fileOutputStream != null) {
+                pendingWrite.fileOutputStream.close();
+            }
+        } catch (IOException e) {
+            // We swallow that
+            log.error("Cannot close resources." + e.getMessage());
+        }
+
+        File tempFile = pendingWrite.tempFile;
+        if (tempFile != null && tempFile.exists()) {
+            log.warn("Temp file still exists after failed save. We will delete it now. storageFile={}",
+                    pendingWrite.fileName);
+            if (!tempFile.delete()) {
+                log.error("Cannot delete temp file.");
+            }
+        }
+        pendingWrite.fileOutputStream = null;
+        pendingWrite.tempFile = null;
+    }
+
+    private void syncDirectory(File dir) {
+        try (FileChannel channel = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories cannot be opened on all platforms, e.g. not on Windows
+            log.debug("Syncing directory {} failed: {}", dir, e.toString());
+        }
+    }
+
+    private void maybeScheduleBackup(PendingWrite pendingWrite) {
+        long now = System.currentTimeMillis();
+        Long lastBackupTime = lastBackupTimes.get(pendingWrite.storageFile);
+        if (lastBackupTime != null && now - lastBackupTime < BACKUP_INTERVAL_MS)
+            return;
+
+        lastBackupTimes.put(pendingWrite.storageFile, now);
+        synchronized (lock) {
+            pendingBackups.put(pendingWrite.storageFile, pendingWrite);
+        }
+    }
+
+    private void backup(PendingWrite pendingWrite) {
+        lastBackupTimes.put(pendingWrite.storageFile, System.currentTimeMillis());
+        FileUtil.rollingBackup(pendingWrite.dir, pendingWrite.fileName, pendingWrite.source.getNumMaxBackupFiles());
+        numBackups.incrementAndGet();
+    }
+
+    private void recordSyncLatency(long syncNanos) {
+        numSyncs.incrementAndGet();
+        totalSyncNanos.addAndGet(syncNanos);
+        maxSyncNanos.accumulateAndGet(syncNanos, Math::max);
+        log.debug("Synced batch in {} ms", TimeUnit.NANOSECONDS.toMillis(syncNanos));
+    }
+
+    @Override
+    public String toString() {
+        return "PersistenceEngine{" +
+                "queueDepth=" + getQueueDepth() +
+                ", numWrites=" + numWrites +
+                ", numCoalescedWrites=" + numCoalescedWrites +
+                ", numBatches=" + numBatches +
+                ", numBackups=" + numBackups +
+                ", bytesWritten=" + bytesWritten +
+                ", averageSyncLatencyMs=" + TimeUnit.NANOSECONDS.toMillis(getAverageSyncLatencyNanos()) +
+                ", maxSyncLatencyMs=" + TimeUnit.NANOSECONDS.toMillis(getMaxSyncLatencyNanos()) +
+                '}';
+    }
+
+    private static class PendingWrite {
+        final File dir;
+        final String fileName;
+        final File storageFile;
+        final PersistenceManager.Source source;
+        final List<Runnable> onWrittenHandlers = new ArrayList<>();
+        Supplier<protobuf.PersistableEnvelope> serializer;
+
+        // Only used during the commit on the writer thread
+        @Nullable
+        File tempFile;
+        @Nullable
+        FileOutputStream fileOutputStream;
+
+        PendingWrite(File dir, String fileName, File storageFile, PersistenceManager.Source source) {
+            this.dir = dir;
+            this.fileName = fileName;
+            this.storageFile = storageFile;
+            this.source = source;
+        }
+    }
+}
@@ -26,27 +26,26 @@ import bisq.common.file.FileUtil;
 import bisq.common.handlers.ResultHandler;
 import bisq.common.proto.persistable.PersistableEnvelope;
 import bisq.common.proto.persistable.PersistenceProtoResolver;
-import bisq.common.util.Utilities;
 
 import com.google.inject.Inject;
 
-import javax.inject.Named;
+import com.google.protobuf.Message;
 
-import java.nio.file.Path;
+import javax.inject.Named;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -69,6 +68,9 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * previously we wasted a lot of resources as way too many threads have been created without doing actual work as well
  * the write operations got triggered way too often specially for the very frequent changes at SequenceNumberMap
  *
+ * The writes of all instances are done by one shared {@link PersistenceEngine}, which coalesces them and commits the
+ * pending files in batches.
+ *
  *
  * @param <T>   The type of the {@link PersistableEnvelope} to be written or read from disk
  */
@@ -80,6 +82,8 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     public static final Map<String, PersistenceManager<?>> ALL_PERSISTENCE_MANAGERS = new HashMap<>();
+    // Shared by all instances, so writes of different files are committed together
+    private static final PersistenceEngine PERSISTENCE_ENGINE = new PersistenceEngine();
     private static boolean flushAtShutdownCalled;
     private static final AtomicBoolean allServicesInitialized = new AtomicBoolean(false);
 
@@ -95,6 +99,10 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         });
     }
 
+    public static PersistenceEngine getPersistenceEngine() {
+        return PERSISTENCE_ENGINE;
+    }
+
     public static void flushAllDataToDiskAtBackup(ResultHandler completeHandler) {
         flushAllDataToDisk(completeHandler, false);
     }
@@ -166,7 +174,7 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         }
 
         if (openInstances.decrementAndGet() == 0) {
-            log.info("flushAllDataToDisk completed");
+            log.info("flushAllDataToDisk completed. {}", PERSISTENCE_ENGINE);
             completeHandler.handleResult();
         }
     }
@@ -178,13 +186,14 @@ public class PersistenceManager<T extends PersistableEnvelope> {
 
     public enum Source {
         // For data stores we received from the network and which could be rebuilt. We store only for avoiding too much network traffic.
-        NETWORK(1, TimeUnit.MINUTES.toMillis(5), false),
+        // As they can be rebuilt we do not sync them to disk.
+        NETWORK(1, TimeUnit.MINUTES.toMillis(5), false, false),
 
         // For data stores which are created from private local data. This data could only be rebuilt from backup files.
-        PRIVATE(10, 200, true),
+        PRIVATE(10, 200, true, true),
 
         // For data stores which are created from private local data. Loss of that data would not have critical consequences.
-        PRIVATE_LOW_PRIO(4, TimeUnit.MINUTES.toMillis(1), false);
+        PRIVATE_LOW_PRIO(4, TimeUnit.MINUTES.toMillis(1), false, true);
 
 
         @Getter
@@ -193,11 +202,14 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         private final long delay;
         @Getter
         private final boolean flushAtShutDown;
+        @Getter
+        private final boolean syncToDisk;
 
-        Source(int numMaxBackupFiles, long delay, boolean flushAtShutDown) {
+        Source(int numMaxBackupFiles, long delay, boolean flushAtShutDown, boolean syncToDisk) {
             this.numMaxBackupFiles = numMaxBackupFiles;
             this.delay = delay;
             this.flushAtShutDown = flushAtShutDown;
+            this.syncToDisk = syncToDisk;
         }
     }
 
@@ -213,11 +225,9 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     private T persistable;
     private String fileName;
     private Source source = Source.PRIVATE_LOW_PRIO;
-    private Path usedTempFilePath;
     private volatile boolean persistenceRequested;
     @Nullable
     private Timer timer;
-    private ExecutorService writeToDiskExecutor;
     public final AtomicBoolean initCalled = new AtomicBoolean(false);
     public final AtomicBoolean readCalled = new AtomicBoolean(false);
 
@@ -280,10 +290,6 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         if (timer != null) {
             timer.stop();
         }
-
-        if (writeToDiskExecutor != null) {
-            writeToDiskExecutor.shutdown();
-        }
     }
 
 
@@ -407,18 +413,19 @@ public class PersistenceManager<T extends PersistableEnvelope> {
     public void persistNow(@Nullable Runnable completeHandler) {
         long ts = System.currentTimeMillis();
         try {
-            // The serialisation is done on the user thread to avoid threading issue with potential mutations of the
-            // persistable object. Keeping it on the user thread we are in a synchronize model.
-            protobuf.PersistableEnvelope serialized = (protobuf.PersistableEnvelope) persistable.toPersistableMessage();
+            // The snapshot is taken on the user thread to avoid threading issue with potential mutations of the
+            // persistable object. Keeping it on the user thread we are in a synchronize model. Persistables with
+            // immutable data only copy it here and the message is built from the copy on the write thread.
+            Supplier<Message> snapshot = persistable.snapshotPersistableMessage();
 
-            // For the write to disk task we use a thread. We do not have any issues anymore if the persistable objects
-            // gets mutated while the thread is running as we have serialized it already and do not operate on the
-            // reference to the persistable object.
-            getWriteToDiskExecutor().execute(() -> writeToDisk(serialized, completeHandler));
+            // The write to disk is done by the shared persistence engine on its thread. We do not have any issues
+            // anymore if the persistable objects gets mutated while the thread is running as we do not operate on
+            // the reference to the persistable object.
+            requestWriteToDisk(() -> (protobuf.PersistableEnvelope) snapshot.get(), completeHandler);
 
             long duration = System.currentTimeMillis() - ts;
             if (duration > 100) {
-                log.info("Serializing {} took {} msec", fileName, duration);
+                log.info("Taking the snapshot of {} for serializing took {} msec", fileName, duration);
             }
         } catch (Throwable e) {
             log.error("Error in saveToFile toProtoMessage: {}, {}", persistable.getClass().getSimpleName(), fileName);
@@ -427,83 +434,45 @@ public class PersistenceManager<T extends PersistableEnvelope> {
         }
     }
 
+    // Writes the serialized data and waits until it was written. Must not be called from the user thread.
     public void writeToDisk(protobuf.PersistableEnvelope serialized, @Nullable Runnable completeHandler) {
-        if (!allServicesInitialized.get()) {
-            log.warn("Application has not completed start up yet so we do not permit writing data to disk.");
-            UserThread.execute(completeHandler);
-            return;
-        }
-
-        long ts = System.currentTimeMillis();
-        File tempFile = null;
-        FileOutputStream fileOutputStream = null;
-
+        CountDownLatch latch = new CountDownLatch(1);
+        requestWriteToDisk(() -> serialized, completeHandler, latch::countDown);
         try {
-            // Before we write we backup existing file
-            FileUtil.rollingBackup(dir, fileName, source.getNumMaxBackupFiles());
-
-            if (!dir.exists() && !dir.mkdir())
-                log.warn("make dir failed {}", fileName);
-
-            tempFile = usedTempFilePath != null
-                    ? FileUtil.createNewFile(usedTempFilePath)
-                    : File.createTempFile("temp_" + fileName, null, dir);
-            // Don't use a new temp file path each time, as that causes the delete-on-exit hook to leak memory:
-            tempFile.deleteOnExit();
-
-            fileOutputStream = new FileOutputStream(tempFile);
-
-            serialized.writeDelimitedTo(fileOutputStream);
-
-            // Attempt to force the bits to hit the disk. In reality the OS or hard disk itself may still decide
-            // to not write through to physical media for at least a few seconds, but this is the best we can do.
-            fileOutputStream.flush();
-            fileOutputStream.getFD().sync();
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-            // Close resources before replacing file with temp file because otherwise it causes problems on windows
-            // when rename temp file
-            fileOutputStream.close();
+    private void requestWriteToDisk(Supplier<protobuf.PersistableEnvelope> serializer,
+                                    @Nullable Runnable completeHandler) {
+        requestWriteToDisk(serializer, completeHandler, () -> {
+        });
+    }
 
-            FileUtil.renameFile(tempFile, storageFile);
-            usedTempFilePath = tempFile.toPath();
-        } catch (Throwable t) {
-            // If an error occurred, don't attempt to reuse this path again, in case temp file cleanup fails.
-            usedTempFilePath = null;
-            log.error("Error at saveToFile, storageFile={}", fileName, t);
-        } finally {
-            if (tempFile != null && tempFile.exists()) {
-                log.warn("Temp file still exists after failed save. We will delete it now. storageFile={}", fileName);
-                if (!tempFile.delete()) {
-                    log.error("Cannot delete temp file.");
-                }
+    // The onWritten handler is called on the write thread, the complete handler on the user thread
+    private void requestWriteToDisk(Supplier<protobuf.PersistableEnvelope> serializer,
+                                    @Nullable Runnable completeHandler,
+                                    Runnable onWritten) {
+        if (!allServicesInitialized.get()) {
+            log.warn("Application has not completed start up yet so we do not permit writing data to disk.");
+            onWritten.run();
+            if (completeHandler != null) {
+                UserThread.execute(completeHandler);
             }
+            return;
+        }
 
-            try {
-                if (fileOutputStream != null) {
-                    fileOutputStream.close();
-                }
-            } catch (IOException e) {
-                // We swallow that
-                e.printStackTrace();
-                log.error("Cannot close resources." + e.getMessage());
-            }
-            long duration = System.currentTimeMillis() - ts;
-            if (duration > 100) {
-                log.info("Writing the serialized {} completed in {} msec", fileName, duration);
-            }
+        // Writes requested before the engine got to this one are coalesced, so the complete handler might get called
+        // after newer data was written.
+        PERSISTENCE_ENGINE.write(dir, fileName, source, serializer, () -> {
             persistenceRequested = false;
+            onWritten.run();
             if (completeHandler != null) {
                 UserThread.execute(completeHandler);
             }
-        }
-    }
-
-    private ExecutorService getWriteToDiskExecutor() {
-        if (writeToDiskExecutor == null) {
-            String name = "Write-" + fileName + "_to-disk";
-            writeToDiskExecutor = Utilities.getSingleThreadExecutor(name);
-        }
-        return writeToDiskExecutor;
+        });
     }
 
     @Override
@@ -514,7 +483,6 @@ public class PersistenceManager<T extends PersistableEnvelope> {
                 ",\n     storageFile=" + storageFile +
                 ",\n     persistable=" + persistable +
                 ",\n     source=" + source +
-                ",\n     usedTempFilePath=" + usedTempFilePath +
                 ",\n     persistenceRequested=" + persistenceRequested +
                 "\n}";
     }
@@ -21,6 +21,8 @@ import bisq.common.Envelope;
 
 import com.google.protobuf.Message;
 
+import java.util.function.Supplier;
+
 /**
  * Interface for the outside envelope object persisted to disk.
  */
@@ -30,6 +32,21 @@ public interface PersistableEnvelope extends Envelope {
         return toProtoMessage();
     }
 
+    /**
+     * Called on the user thread when the data gets persisted. Returns a supplier of the persistable message, which is
+     * called on the write thread and must not access any state mutated after this call. By default the message is
+     * built right away.
+     * <p>
+     * If the elements of the data are immutable, a shallow copy of the collection holding them is a consistent
+     * snapshot, so implementations only copy it here and build the message from the copy in the supplier. Elements
+     * which change in place can be built here through a {@link ProtoMessageCache}, so only new and changed elements
+     * cost time on the user thread.
+     */
+    default Supplier<Message> snapshotPersistableMessage() {
+        Message message = toPersistableMessage();
+        return () -> message;
+    }
+
     default String getDefaultStorageFileName() {
         return this.getClass().getSimpleName();
     }
@@ -0,0 +1,73 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.proto.persistable;
+
+import com.google.protobuf.Message;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * Caches the proto messages of the elements of a persisted collection, so a snapshot only builds the messages of new
+ * and changed elements. The messages of {@link ChangeTrackedPayload} elements are reused while their change count
+ * stays the same, other elements are built each time. Messages of elements no longer in the collection are dropped.
+ * <p>
+ * Not thread safe, to be used from the snapshot of the persistable on the user thread.
+ */
+public final class ProtoMessageCache<T extends PersistablePayload, M extends Message> {
+    @AllArgsConstructor
+    private static class CachedMessage<M> {
+        private final int changeCount;
+        private final M message;
+    }
+
+    private final Function<T, M> toProtoMessage;
+    private Map<T, CachedMessage<M>> cachedMessageByElement = new IdentityHashMap<>();
+
+    public ProtoMessageCache(Function<T, M> toProtoMessage) {
+        this.toProtoMessage = toProtoMessage;
+    }
+
+    public List<M> getProtoMessages(Collection<T> elements) {
+        List<M> messages = new ArrayList<>(elements.size());
+        Map<T, CachedMessage<M>> cachedMessages = new IdentityHashMap<>(elements.size());
+        for (T element : elements) {
+            if (!(element instanceof ChangeTrackedPayload)) {
+                messages.add(toProtoMessage.apply(element));
+                continue;
+            }
+
+            // We read the count before building the message, so a change while building leads to a new message at
+            // the next snapshot.
+            int changeCount = ((ChangeTrackedPayload) element).getChangeCount();
+            CachedMessage<M> cachedMessage = cachedMessageByElement.get(element);
+            if (cachedMessage == null || cachedMessage.changeCount != changeCount)
+                cachedMessage = new CachedMessage<>(changeCount, toProtoMessage.apply(element));
+            cachedMessages.put(element, cachedMessage);
+            messages.add(cachedMessage.message);
+        }
+        cachedMessageByElement = cachedMessages;
+        return messages;
+    }
+}
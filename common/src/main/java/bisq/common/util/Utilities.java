@@ -85,14 +85,21 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 @Slf4j
 public class Utilities {
+    // Gson instances are immutable and thread safe, so we share one instance instead of creating it for each call
+    private static final Gson GSON = new GsonBuilder()
+            .setExclusionStrategies(new AnnotationExclusionStrategy())
+            /*.excludeFieldsWithModifiers(Modifier.TRANSIENT)*/
+            /*  .setFieldNamingPolicy(FieldNamingPolicy.UPPER_CAMEL_CASE)*/
+            .setPrettyPrinting()
+            .create();
+
     public static String objectToJson(Object object) {
-        Gson gson = new GsonBuilder()
-                .setExclusionStrategies(new AnnotationExclusionStrategy())
-                /*.excludeFieldsWithModifiers(Modifier.TRANSIENT)*/
-                /*  .setFieldNamingPolicy(FieldNamingPolicy.UPPER_CAMEL_CASE)*/
-                .setPrettyPrinting()
-                .create();
-        return gson.toJson(object);
+        return GSON.toJson(object);
+    }
+
+    // Same configuration as used by objectToJson. Can be used for writing json to a stream.
+    public static Gson getGson() {
+        return GSON;
     }
 
     public static ExecutorService getSingleThreadExecutor(String name) {
@@ -130,11 +137,11 @@ public class Utilities {
                 new ArrayBlockingQueue<>(maximumPoolSize));
     }
 
-    private static ThreadPoolExecutor getThreadPoolExecutor(String name,
-                                                            int corePoolSize,
-                                                            int maximumPoolSize,
-                                                            long keepAliveTimeInSec,
-                                                            BlockingQueue<Runnable> workQueue) {
+    public static ThreadPoolExecutor getThreadPoolExecutor(String name,
+                                                           int corePoolSize,
+                                                           int maximumPoolSize,
+                                                           long keepAliveTimeInSec,
+                                                           BlockingQueue<Runnable> workQueue) {
         final ThreadFactory threadFactory = new ThreadFactoryBuilder()
                 .setNameFormat(name)
                 .setDaemon(true)
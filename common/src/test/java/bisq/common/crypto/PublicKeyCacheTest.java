@@ -0,0 +1,89 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.crypto;
+
+import java.security.KeyPair;
+import java.security.PublicKey;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PublicKeyCacheTest {
+    @Test
+    public void testEqualEncodingReturnsSameInstance() throws Exception {
+        PublicKeyCache cache = new PublicKeyCache(Sig.KEY_ALGO, 10);
+        byte[] encoded = Sig.getPublicKeyBytes(Sig.generateKeyPair().getPublic());
+
+        PublicKey publicKey = cache.get(encoded);
+        assertSame(publicKey, cache.get(encoded.clone()));
+        assertArrayEquals(encoded, publicKey.getEncoded());
+        assertEquals(1, cache.getStats().hitCount());
+
+        // Mutating the array passed in must not corrupt the cached entry
+        byte[] copy = encoded.clone();
+        cache.invalidateAll();
+        PublicKey fromCopy = cache.get(copy);
+        copy[copy.length - 1]++;
+        assertSame(fromCopy, cache.get(encoded));
+        assertNotSame(publicKey, fromCopy);
+    }
+
+    @Test
+    public void testSizeIsBounded() throws Exception {
+        PublicKeyCache cache = new PublicKeyCache(Sig.KEY_ALGO, 5);
+        for (int i = 0; i < 20; i++) {
+            cache.get(Sig.getPublicKeyBytes(Sig.generateKeyPair().getPublic()));
+        }
+        assertTrue(cache.size() <= 5);
+    }
+
+    @Test(expected = KeyConversionException.class)
+    public void testInvalidEncodingThrows() {
+        Sig.getPublicKeyFromBytes(new byte[]{1, 2, 3});
+    }
+
+    @Test
+    public void testSignAndVerifyFromManyThreads() throws Exception {
+        KeyPair keyPair = Sig.generateKeyPair();
+        PublicKey publicKey = Sig.getPublicKeyFromBytes(Sig.getPublicKeyBytes(keyPair.getPublic()));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                byte[] data = Hash.getSha256Hash(i);
+                futures.add(executor.submit(() -> Sig.verify(publicKey, data, Sig.sign(keyPair.getPrivate(), data))));
+            }
+            for (Future<Boolean> future : futures) {
+                assertTrue(future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
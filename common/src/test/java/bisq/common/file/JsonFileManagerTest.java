@@ -0,0 +1,106 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.file;
+
+import bisq.common.util.JsonExclude;
+import bisq.common.util.Utilities;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class JsonFileManagerTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File dir;
+    private JsonFileManager jsonFileManager;
+
+    @SuppressWarnings("unused")
+    private static class Item {
+        private final String name;
+        private final long value;
+        @JsonExclude
+        private final String excluded = "excluded";
+
+        Item(String name, long value) {
+            this.name = name;
+            this.value = value;
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        dir = temporaryFolder.newFolder();
+        jsonFileManager = new JsonFileManager(dir);
+    }
+
+    @After
+    public void tearDown() {
+        jsonFileManager.shutDown();
+    }
+
+    private String read(String fileName) throws IOException {
+        return new String(Files.readAllBytes(new File(dir, fileName).toPath()), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testStreamedJsonEqualsJsonOfList() throws IOException {
+        List<Item> items = Arrays.asList(new Item("a", 1), new Item("b", 2), new Item("c", 3));
+        jsonFileManager.writeToDisc(Utilities.objectToJson(items), "list");
+        jsonFileManager.writeToDisc(items.stream(), "stream");
+
+        assertEquals(read("list.json"), read("stream.json"));
+    }
+
+    @Test
+    public void testStreamedJsonOfEmptyList() throws IOException {
+        jsonFileManager.writeToDisc(Utilities.objectToJson(List.of()), "list");
+        jsonFileManager.writeToDisc(List.of().stream(), "stream");
+
+        assertEquals(read("list.json"), read("stream.json"));
+    }
+
+    @Test
+    public void testAppendAndDelete() throws IOException {
+        jsonFileManager.appendToDisc(List.of(new Item("a", 1)).stream(), "items");
+        jsonFileManager.appendToDisc(List.of(new Item("b", 2), new Item("c", 3)).stream(), "items");
+
+        assertEquals("{\"name\":\"a\",\"value\":1}\n" +
+                        "{\"name\":\"b\",\"value\":2}\n" +
+                        "{\"name\":\"c\",\"value\":3}\n",
+                read("items.ndjson"));
+
+        jsonFileManager.deleteAppended("items");
+        assertFalse(new File(dir, "items.ndjson").exists());
+    }
+}
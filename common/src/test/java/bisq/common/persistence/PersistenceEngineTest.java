@@ -0,0 +1,159 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.common.persistence;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PersistenceEngineTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private PersistenceEngine persistenceEngine;
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        persistenceEngine = new PersistenceEngine(tasks::add);
+        dir = temporaryFolder.newFolder("storage");
+    }
+
+    @Test
+    public void testPendingWritesAreCoalescedAndCommittedInOneBatch() throws IOException {
+        AtomicInteger numWritten = new AtomicInteger();
+        persistenceEngine.write(dir, "FileA", PersistenceManager.Source.PRIVATE, envelope("a1"), numWritten::incrementAndGet);
+        persistenceEngine.write(dir, "FileB", PersistenceManager.Source.NETWORK, envelope("b1"), numWritten::incrementAndGet);
+        persistenceEngine.write(dir, "FileA", PersistenceManager.Source.PRIVATE, envelope("a2"), numWritten::incrementAndGet);
+        assertEquals(2, persistenceEngine.getQueueDepth());
+        assertEquals(1, tasks.size());
+
+        runTasks();
+        assertEquals(0, persistenceEngine.getQueueDepth());
+        assertEquals(1, persistenceEngine.getNumBatches());
+        assertEquals(2, persistenceEngine.getNumWrites());
+        assertEquals(1, persistenceEngine.getNumCoalescedWrites());
+        assertEquals(3, numWritten.get());
+        assertTrue(persistenceEngine.getBytesWritten() > 0);
+        assertEquals("a2", read("FileA"));
+        assertEquals("b1", read("FileB"));
+    }
+
+    @Test
+    public void testOnlyLatestDataIsBuiltOnWriterThread() throws IOException {
+        AtomicInteger numBuilt = new AtomicInteger();
+        persistenceEngine.write(dir, "FileA", PersistenceManager.Source.PRIVATE, () -> {
+            numBuilt.incrementAndGet();
+            return envelope("a1");
+        }, null);
+        persistenceEngine.write(dir, "FileA", PersistenceManager.Source.PRIVATE, () -> {
+            numBuilt.incrementAndGet();
+            return envelope("a2");
+        }, null);
+        assertEquals(0, numBuilt.get());
+
+        runTasks();
+        assertEquals(1, numBuilt.get());
+        assertEquals("a2", read("FileA"));
+    }
+
+    @Test
+    public void testHandlerIsCalledIfBuildingFails() {
+        AtomicInteger numWritten = new AtomicInteger();
+        persistenceEngine.write(dir, "FileA", PersistenceManager.Source.PRIVATE, () -> {
+            throw new IllegalStateException("test");
+        }, numWritten::incrementAndGet);
+        runTasks();
+
+        assertEquals(1, numWritten.get());
+        assertEquals(0, persistenceEngine.getNumWrites());
+        assertTrue(!new File(dir, "FileA").exists());
+    }
+
+    @Test
+    public void testRollingBackupsAreRateLimited() {
+        persistenceEngine.write(dir, "FileA", PersistenceManager.Source.PRIVATE, envelope("a1"), null);
+        runTasks();
+        // There was no file to back up before the first write, so the first backup is taken after it
+        assertEquals(1, persistenceEngine.getNumBackups());
+
+        for (int i = 2; i < 5; i++) {
+            persistenceEngine.write(dir, "FileA", PersistenceManager.Source.PRIVATE, envelope("a" + i), null);
+            runTasks();
+        }
+        assertEquals(1, persistenceEngine.getNumBackups());
+        File[] backups = new File(dir, Paths.get("backup", "backups_FileA").toString()).listFiles();
+        assertEquals(1, backups.length);
+    }
+
+    @Test
+    public void testFirstWriteBacksUpFileReadAtStartup() throws IOException {
+        Files.write(new File(dir, "FileA").toPath(), new byte[]{0});
+        persistenceEngine.write(dir, "FileA", PersistenceManager.Source.PRIVATE, envelope("a1"), null);
+        runTasks();
+
+        assertEquals(1, persistenceEngine.getNumBackups());
+        assertEquals("a1", read("FileA"));
+    }
+
+    @Test
+    public void testHandlerIsCalledIfWriteFails() throws IOException {
+        File notADir = temporaryFolder.newFile("notADir");
+        AtomicInteger numWritten = new AtomicInteger();
+        persistenceEngine.write(notADir, "FileA", PersistenceManager.Source.PRIVATE, envelope("a1"), numWritten::incrementAndGet);
+        runTasks();
+
+        assertEquals(1, numWritten.get());
+        assertEquals(0, persistenceEngine.getNumWrites());
+    }
+
+    private static protobuf.PersistableEnvelope envelope(String path) {
+        return protobuf.PersistableEnvelope.newBuilder()
+                .setNavigationPath(protobuf.NavigationPath.newBuilder().addPath(path))
+                .build();
+    }
+
+    private String read(String fileName) throws IOException {
+        try (FileInputStream fileInputStream = new FileInputStream(new File(dir, fileName))) {
+            return protobuf.PersistableEnvelope.parseDelimitedFrom(fileInputStream).getNavigationPath().getPath(0);
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+}
@@ -18,10 +18,12 @@
 package bisq.core.account.sign;
 
 
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 import bisq.network.p2p.storage.persistence.PersistableNetworkPayloadStore;
 
 import com.google.protobuf.Message;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -48,14 +50,15 @@ public class SignedWitnessStore extends PersistableNetworkPayloadStore<SignedWit
         super(list);
     }
 
-    public Message toProtoMessage() {
+    @Override
+    protected Message toProtoMessage(Collection<PersistableNetworkPayload> payloads) {
         return protobuf.PersistableEnvelope.newBuilder()
-                .setSignedWitnessStore(getBuilder())
+                .setSignedWitnessStore(getBuilder(payloads))
                 .build();
     }
 
-    private protobuf.SignedWitnessStore.Builder getBuilder() {
-        final List<protobuf.SignedWitness> protoList = map.values().stream()
+    private protobuf.SignedWitnessStore.Builder getBuilder(Collection<PersistableNetworkPayload> payloads) {
+        final List<protobuf.SignedWitness> protoList = payloads.stream()
                 .map(payload -> (SignedWitness) payload)
                 .map(SignedWitness::toProtoSignedWitness)
                 .collect(Collectors.toList());
@@ -198,7 +198,7 @@ public class AccountAgeWitnessService {
         });
 
         // At startup the P2PDataStorage initializes earlier, otherwise we get the listener called.
-        accountAgeWitnessStorageService.getMapOfAllData().values().stream()
+        accountAgeWitnessStorageService.getValuesOfAllData().stream()
                 .filter(e -> e instanceof AccountAgeWitness)
                 .map(e -> (AccountAgeWitness) e)
                 .forEach(this::addToMap);
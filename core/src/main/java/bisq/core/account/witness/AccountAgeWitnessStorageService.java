@@ -23,13 +23,18 @@ import bisq.network.p2p.storage.persistence.HistoricalDataStoreService;
 import bisq.common.config.Config;
 import bisq.common.persistence.PersistenceManager;
 
+import com.google.protobuf.CodedInputStream;
+
 import javax.inject.Inject;
 import javax.inject.Named;
 
 import java.io.File;
+import java.io.IOException;
 
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 @Slf4j
 public class AccountAgeWitnessStorageService extends HistoricalDataStoreService<AccountAgeWitnessStore> {
     private static final String FILE_NAME = "AccountAgeWitnessStore";
@@ -70,6 +75,17 @@ public class AccountAgeWitnessStorageService extends HistoricalDataStoreService<
     // Protected
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    @Override
+    protected PersistableNetworkPayload decodeHistoricalPayload(CodedInputStream input) throws IOException {
+        return AccountAgeWitness.fromProto(protobuf.AccountAgeWitness.parseFrom(input));
+    }
+
+    @Nullable
+    @Override
+    protected byte[] decodeHistoricalPayloadHash(CodedInputStream input) throws IOException {
+        return readBytesField(input, protobuf.AccountAgeWitness.HASH_FIELD_NUMBER);
+    }
+
     @Override
     protected AccountAgeWitnessStore createStore() {
         return new AccountAgeWitnessStore();
@@ -17,10 +17,12 @@
 
 package bisq.core.account.witness;
 
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 import bisq.network.p2p.storage.persistence.PersistableNetworkPayloadStore;
 
 import com.google.protobuf.Message;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -47,14 +49,15 @@ public class AccountAgeWitnessStore extends PersistableNetworkPayloadStore<Accou
         super(list);
     }
 
-    public Message toProtoMessage() {
+    @Override
+    protected Message toProtoMessage(Collection<PersistableNetworkPayload> payloads) {
         return protobuf.PersistableEnvelope.newBuilder()
-                .setAccountAgeWitnessStore(getBuilder())
+                .setAccountAgeWitnessStore(getBuilder(payloads))
                 .build();
     }
 
-    private protobuf.AccountAgeWitnessStore.Builder getBuilder() {
-        final List<protobuf.AccountAgeWitness> protoList = map.values().stream()
+    private protobuf.AccountAgeWitnessStore.Builder getBuilder(Collection<PersistableNetworkPayload> payloads) {
+        final List<protobuf.AccountAgeWitness> protoList = payloads.stream()
                 .map(payload -> (AccountAgeWitness) payload)
                 .map(AccountAgeWitness::toProtoAccountAgeWitness)
                 .collect(Collectors.toList());
@@ -17,9 +17,14 @@
 
 package bisq.core.api;
 
+import bisq.core.api.SubscriberQueue.OverflowPolicy;
 import bisq.core.api.model.AddressBalanceInfo;
 import bisq.core.api.model.BalancesInfo;
 import bisq.core.api.model.MarketPriceInfo;
+import bisq.core.api.model.OfferResult;
+import bisq.core.api.model.OfferSpec;
+import bisq.core.api.model.TradeEvent;
+import bisq.core.api.model.TradeInfo;
 import bisq.core.api.model.TxFeeRateInfo;
 import bisq.core.monetary.Price;
 import bisq.core.offer.Offer;
@@ -28,7 +33,11 @@ import bisq.core.offer.OpenOffer;
 import bisq.core.payment.PaymentAccount;
 import bisq.core.payment.payload.PaymentMethod;
 import bisq.core.trade.Trade;
+import bisq.core.trade.statistics.Candle;
+import bisq.core.trade.statistics.CandleTickUnit;
 import bisq.core.trade.statistics.TradeStatistics3;
+import bisq.core.trade.statistics.TradeStatisticsCandleService;
+import bisq.core.trade.statistics.TradeStatisticsCursor;
 import bisq.core.trade.statistics.TradeStatisticsManager;
 
 import bisq.common.app.Version;
@@ -46,17 +55,20 @@ import javax.inject.Singleton;
 
 import com.google.common.util.concurrent.FutureCallback;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
+import static java.lang.String.format;
+
 
 
 import monero.wallet.model.MoneroDestination;
@@ -80,6 +92,7 @@ public class CoreApi {
     private final CoreTradesService coreTradesService;
     private final CoreWalletsService walletsService;
     private final TradeStatisticsManager tradeStatisticsManager;
+    private final TradeStatisticsCandleService tradeStatisticsCandleService;
     private final CoreNotificationService notificationService;
 
     @Inject
@@ -92,6 +105,7 @@ public class CoreApi {
                    CoreTradesService coreTradesService,
                    CoreWalletsService walletsService,
                    TradeStatisticsManager tradeStatisticsManager,
+                   TradeStatisticsCandleService tradeStatisticsCandleService,
                    CoreNotificationService notificationService) {
         this.config = config;
         this.coreDisputeAgentsService = coreDisputeAgentsService;
@@ -102,6 +116,7 @@ public class CoreApi {
         this.corePriceService = corePriceService;
         this.walletsService = walletsService;
         this.tradeStatisticsManager = tradeStatisticsManager;
+        this.tradeStatisticsCandleService = tradeStatisticsCandleService;
         this.notificationService = notificationService;
     }
 
@@ -122,12 +137,24 @@ public class CoreApi {
     // Notifications
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    public interface NotificationListener {
-        void onMessage(@NonNull NotificationMessage message);
+    // While not ready, notifications are queued until onNotificationListenerReady is called
+    public interface NotificationListener extends SubscriberQueue.Listener<NotificationMessage> {
+    }
+
+    public void addNotificationListener(NotificationListener listener,
+                                        long epoch,
+                                        long afterSequence,
+                                        Predicate<NotificationMessage> filter,
+                                        OverflowPolicy overflowPolicy) {
+        notificationService.addListener(listener, epoch, afterSequence, filter, overflowPolicy);
+    }
+
+    public void removeNotificationListener(NotificationListener listener) {
+        notificationService.removeListener(listener);
     }
 
-    public void addNotificationListener(NotificationListener listener) {
-        notificationService.addListener(listener);
+    public void onNotificationListenerReady(NotificationListener listener) {
+        notificationService.onListenerReady(listener);
     }
 
     public void sendNotification(NotificationMessage notification) {
@@ -190,6 +217,10 @@ public class CoreApi {
                 resultHandler);
     }
 
+    public void createAndPlaceOffers(List<OfferSpec> offerSpecs, Consumer<List<OfferResult>> resultHandler) {
+        coreOffersService.createAndPlaceOffers(offerSpecs, resultHandler);
+    }
+
     public Offer editOffer(String offerId,
                            String currencyCode,
                            OfferPayload.Direction direction,
@@ -216,6 +247,16 @@ public class CoreApi {
         coreOffersService.cancelOffer(id);
     }
 
+    public List<OfferResult> cancelOffers(List<String> ids) {
+        return coreOffersService.cancelOffers(ids);
+    }
+
+    public void replaceOffers(List<String> ids,
+                              List<OfferSpec> offerSpecs,
+                              BiConsumer<List<OfferResult>, List<OfferResult>> resultHandler) {
+        coreOffersService.replaceOffers(ids, offerSpecs, resultHandler);
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // PaymentAccounts
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -309,6 +350,34 @@ public class CoreApi {
         return coreTradesService.getTradeRole(tradeId);
     }
 
+    public TradeInfo getTradeInfo(String tradeId) {
+        return coreTradesService.getTradeInfo(tradeId);
+    }
+
+    public List<TradeInfo> getTradeInfos() {
+        return coreTradesService.getTradeInfos();
+    }
+
+    // While not ready, events are queued until onTradeEventListenerReady is called
+    public interface TradeEventListener extends SubscriberQueue.Listener<TradeEvent> {
+        // The trade info of the events is only built while a listener requested it
+        default boolean isTradeInfoRequested() {
+            return false;
+        }
+    }
+
+    public void addTradeEventListener(long epoch, long afterSequence, TradeEventListener listener) {
+        coreTradesService.addTradeEventListener(epoch, afterSequence, listener);
+    }
+
+    public void removeTradeEventListener(TradeEventListener listener) {
+        coreTradesService.removeTradeEventListener(listener);
+    }
+
+    public void onTradeEventListenerReady(TradeEventListener listener) {
+        coreTradesService.onTradeEventListenerReady(listener);
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Wallets
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -392,7 +461,32 @@ public class CoreApi {
     }
 
     public List<TradeStatistics3> getTradeStatistics() {
-        return new ArrayList<>(tradeStatisticsManager.getObservableTradeStatisticsSet());
+        return tradeStatisticsManager.getTradeStatistics(null, 0, Long.MAX_VALUE, null, Integer.MAX_VALUE);
+    }
+
+    public List<TradeStatistics3> getTradeStatistics(String currencyCode,
+                                                     long since,
+                                                     long until,
+                                                     String pageCursor,
+                                                     int limit) {
+        return tradeStatisticsManager.getTradeStatistics(currencyCode.isEmpty() ? null : currencyCode.toUpperCase(),
+                since,
+                until == 0 ? Long.MAX_VALUE : until,
+                pageCursor.isEmpty() ? null : TradeStatisticsCursor.fromString(pageCursor),
+                limit);
+    }
+
+    public List<Candle> getCandles(String currencyCode, String tickUnit, long fromDate, long toDate) {
+        CandleTickUnit candleTickUnit;
+        try {
+            candleTickUnit = CandleTickUnit.valueOf(tickUnit.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(format("'%s' is not a valid tick unit", tickUnit));
+        }
+        return tradeStatisticsCandleService.getCandles(currencyCode.isEmpty() ? null : currencyCode.toUpperCase(),
+                candleTickUnit,
+                fromDate,
+                toDate == 0 ? Long.MAX_VALUE : toDate);
     }
 
     public int getNumConfirmationsForMostRecentTransaction(String addressString) {
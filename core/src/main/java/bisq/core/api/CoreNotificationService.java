@@ -1,46 +1,103 @@
 package bisq.core.api;
 
 import bisq.core.api.CoreApi.NotificationListener;
+import bisq.core.api.SubscriberQueue.OverflowPolicy;
 import bisq.core.api.model.TradeInfo;
 import bisq.core.trade.Trade;
 import bisq.proto.grpc.NotificationMessage;
 import bisq.proto.grpc.NotificationMessage.NotificationType;
+
+import bisq.common.util.Utilities;
+
+import javax.inject.Inject;
 import javax.inject.Singleton;
 
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
+import com.google.common.annotations.VisibleForTesting;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Fans out notifications to the api clients listening to them through a SubscriberQueue, so a slow client never
+ * delays the sender. A client chooses whether its oldest notifications are dropped or it gets disconnected if it
+ * falls behind, and can resume from the last notification it received after a reconnect.
+ */
 @Singleton
 @Slf4j
 public class CoreNotificationService {
+    @VisibleForTesting
+    static final int MAX_RETAINED_NOTIFICATIONS = 1000;
+    @VisibleForTesting
+    static final int MAX_QUEUED_NOTIFICATIONS = 1000;
+    private static final int NUM_DELIVERY_THREADS = 4;
 
-    private final Object lock = new Object();
-    private final List<NotificationListener> listeners = new LinkedList<>();
+    private final SubscriberQueue<NotificationMessage, NotificationListener> subscriberQueue;
+
+    @Inject
+    public CoreNotificationService() {
+        this(Utilities.getThreadPoolExecutor("CoreNotificationService-%d",
+                NUM_DELIVERY_THREADS,
+                NUM_DELIVERY_THREADS,
+                60,
+                new LinkedBlockingQueue<>()),
+                System.currentTimeMillis());
+    }
+
+    @VisibleForTesting
+    CoreNotificationService(Executor executor, long epoch) {
+        subscriberQueue = new SubscriberQueue<>("notifications",
+                MAX_RETAINED_NOTIFICATIONS,
+                MAX_QUEUED_NOTIFICATIONS,
+                epoch,
+                executor,
+                NotificationMessage::getSequence);
+    }
+
+    public long getEpoch() {
+        return subscriberQueue.getEpoch();
+    }
 
     public void addListener(@NonNull NotificationListener listener) {
-        synchronized (lock) {
-            listeners.add(listener);
-        }
+        addListener(listener, 0, 0, notification -> true, OverflowPolicy.DROP_OLDEST);
+    }
+
+    /**
+     * Adds a listener for the notifications matching the filter. With an epoch of 0 only new notifications are
+     * delivered, otherwise the retained notifications after the given sequence are delivered first.
+     */
+    public void addListener(@NonNull NotificationListener listener,
+                            long epoch,
+                            long afterSequence,
+                            @NonNull Predicate<NotificationMessage> filter,
+                            @NonNull OverflowPolicy overflowPolicy) {
+        subscriberQueue.addListener(listener, epoch, afterSequence, filter, UnaryOperator.identity(), overflowPolicy);
+    }
+
+    public void removeListener(@NonNull NotificationListener listener) {
+        subscriberQueue.removeListener(listener);
+    }
+
+    public void onListenerReady(@NonNull NotificationListener listener) {
+        subscriberQueue.onListenerReady(listener);
     }
 
     public void sendNotification(@NonNull NotificationMessage notification) {
-        synchronized (lock) {
-            for (Iterator<NotificationListener> iter = listeners.iterator(); iter.hasNext(); ) {
-                NotificationListener listener = iter.next();
-                try {
-                    listener.onMessage(notification);
-                } catch (RuntimeException e) {
-                    log.warn("Failed to send notification to listener {}: {}", listener, e.getMessage());
-                    iter.remove();
-                }
-            }
-        }
-    }
-    
+        long epoch = getEpoch();
+        subscriberQueue.publish(sequence -> notification.toBuilder()
+                .setEpoch(epoch)
+                .setSequence(sequence)
+                .build());
+    }
+
     public void sendTradeNotification(Trade trade, String title, String message) {
         sendNotification(NotificationMessage.newBuilder()
                 .setType(NotificationType.TRADE_UPDATE)
@@ -49,4 +106,28 @@ public class CoreNotificationService {
                 .setTitle(title)
                 .setMessage(message).build());
     }
+
+    /**
+     * Returns a filter for notifications of the given types and trades. Empty collections match any type or
+     * trade, keep alive messages match any trade.
+     */
+    public static Predicate<NotificationMessage> getFilter(Collection<NotificationType> types,
+                                                           Collection<String> tradeIds) {
+        Set<NotificationType> typeSet = types.isEmpty()
+                ? EnumSet.allOf(NotificationType.class)
+                : EnumSet.copyOf(types);
+        Set<String> tradeIdSet = new HashSet<>(tradeIds);
+        return notification -> typeSet.contains(notification.getType()) &&
+                (tradeIdSet.isEmpty() ||
+                        notification.getType() == NotificationType.KEEP_ALIVE ||
+                        tradeIdSet.contains(getTradeId(notification)));
+    }
+
+    private static String getTradeId(NotificationMessage notification) {
+        if (notification.hasTrade())
+            return notification.getTrade().getTradeId();
+        if (notification.hasChatMessage())
+            return notification.getChatMessage().getTradeId();
+        return "";
+    }
 }
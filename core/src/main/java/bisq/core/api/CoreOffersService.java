@@ -17,20 +17,34 @@
 
 package bisq.core.api;
 
+import bisq.core.api.model.OfferResult;
+import bisq.core.api.model.OfferSpec;
 import bisq.core.btc.wallet.XmrWalletService;
+import bisq.core.filter.FilterManager;
 import bisq.core.monetary.Altcoin;
 import bisq.core.monetary.Price;
 import bisq.core.offer.CreateOfferService;
 import bisq.core.offer.Offer;
 import bisq.core.offer.OfferBookService;
+import bisq.core.offer.OfferBookService.OfferBookChangedListener;
 import bisq.core.offer.OfferFilter;
 import bisq.core.offer.OfferFilter.Result;
+import bisq.core.offer.OfferPayload;
 import bisq.core.offer.OfferUtil;
 import bisq.core.offer.OpenOffer;
 import bisq.core.offer.OpenOfferManager;
 import bisq.core.payment.PaymentAccount;
 import bisq.core.user.User;
 
+import bisq.network.p2p.P2PService;
+import bisq.network.p2p.peers.Broadcaster.OwnBroadcastBatch;
+import bisq.network.p2p.storage.messages.AddDataMessage;
+import bisq.network.p2p.storage.messages.BroadcastMessage;
+import bisq.network.p2p.storage.messages.RemoveDataMessage;
+import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
+
+import bisq.common.Timer;
+import bisq.common.UserThread;
 import bisq.common.crypto.KeyRing;
 
 import org.bitcoinj.core.Coin;
@@ -40,6 +54,8 @@ import org.bitcoinj.utils.Fiat;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import javafx.collections.SetChangeListener;
+
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -47,7 +63,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -68,6 +87,9 @@ import static java.util.Comparator.comparing;
 @Slf4j
 class CoreOffersService {
 
+    // Max. time we wait for the arbitrator to sign all offers of a batch
+    private static final long PLACE_OFFERS_TIMEOUT_SEC = 120;
+
     private final Supplier<Comparator<Offer>> priceComparator = () -> comparing(Offer::getPrice);
     private final Supplier<Comparator<Offer>> reversePriceComparator = () -> comparing(Offer::getPrice).reversed();
 
@@ -82,18 +104,24 @@ class CoreOffersService {
     private final OfferFilter offerFilter;
     private final OpenOfferManager openOfferManager;
     private final OfferUtil offerUtil;
+    private final P2PService p2PService;
     private final User user;
     private final XmrWalletService xmrWalletService;
 
+    // Offers of other traders we can take, served to read-only api calls off the user thread
+    private final ReadSnapshot<List<Offer>> offerSnapshot;
+
     @Inject
     public CoreOffersService(CoreContext coreContext,
                              KeyRing keyRing,
                              CoreWalletsService coreWalletsService,
                              CreateOfferService createOfferService,
+                             FilterManager filterManager,
                              OfferBookService offerBookService,
                              OfferFilter offerFilter,
                              OpenOfferManager openOfferManager,
                              OfferUtil offerUtil,
+                             P2PService p2PService,
                              User user,
                              XmrWalletService xmrWalletService) {
         this.coreContext = coreContext;
@@ -104,18 +132,33 @@ class CoreOffersService {
         this.offerFilter = offerFilter;
         this.openOfferManager = openOfferManager;
         this.offerUtil = offerUtil;
+        this.p2PService = p2PService;
         this.user = user;
         this.xmrWalletService = xmrWalletService;
+
+        offerSnapshot = new ReadSnapshot<>("offer book", List.of(), this::getTakeableOffers);
+        offerBookService.addOfferBookChangedListener(new OfferBookChangedListener() {
+            @Override
+            public void onAdded(Offer offer) {
+                offerSnapshot.invalidate();
+            }
+
+            @Override
+            public void onRemoved(Offer offer) {
+                offerSnapshot.invalidate();
+            }
+        });
+        // Whether we can take an offer depends on our payment accounts and the filter as well
+        user.getPaymentAccountsAsObservable().addListener((SetChangeListener<PaymentAccount>) c ->
+                offerSnapshot.invalidate());
+        filterManager.addListener(filter -> offerSnapshot.invalidate());
+        offerSnapshot.invalidate();
     }
 
+    // Can be called from any thread
     Offer getOffer(String id) {
-        return offerBookService.getOffers().stream()
+        return offerSnapshot.get().stream()
                 .filter(o -> o.getId().equals(id))
-                .filter(o -> !o.isMyOffer(keyRing))
-                .filter(o -> {
-                    Result result = offerFilter.canTakeOffer(o, coreContext.isApiUser());
-                    return result.isValid() || result == Result.HAS_NO_PAYMENT_ACCOUNT_VALID_FOR_OFFER;
-                })
                 .findAny().orElseThrow(() ->
                         new IllegalStateException(format("offer with id '%s' not found", id)));
     }
@@ -128,14 +171,10 @@ class CoreOffersService {
                         new IllegalStateException(format("offer with id '%s' not found", id)));
     }
 
+    // Can be called from any thread
     List<Offer> getOffers(String direction, String currencyCode) {
-        List<Offer> offers = offerBookService.getOffers().stream()
-                .filter(o -> !o.isMyOffer(keyRing))
+        List<Offer> offers = offerSnapshot.get().stream()
                 .filter(o -> offerMatchesDirectionAndCurrency(o, direction, currencyCode))
-                .filter(o -> {
-                    Result result = offerFilter.canTakeOffer(o, coreContext.isApiUser());
-                    return result.isValid() || result == Result.HAS_NO_PAYMENT_ACCOUNT_VALID_FOR_OFFER;
-                })
                 .sorted(priceComparator(direction))
                 .collect(Collectors.toList());
         offers.removeAll(getUnreservedOffers(offers));
@@ -171,6 +210,16 @@ class CoreOffersService {
         return offers;
     }
     
+    private List<Offer> getTakeableOffers() {
+        return offerBookService.getOffers().stream()
+                .filter(o -> !o.isMyOffer(keyRing))
+                .filter(o -> {
+                    Result result = offerFilter.canTakeOffer(o, coreContext.isApiUser());
+                    return result.isValid() || result == Result.HAS_NO_PAYMENT_ACCOUNT_VALID_FOR_OFFER;
+                })
+                .collect(Collectors.toUnmodifiableList());
+    }
+
     private Set<Offer> getUnreservedOffers(List<Offer> offers) {
         Set<Offer> unreservedOffers = new HashSet<Offer>();
         
@@ -223,30 +272,16 @@ class CoreOffersService {
         coreWalletsService.verifyWalletsAreAvailable();
         coreWalletsService.verifyEncryptedWalletIsUnlocked();
 
-        PaymentAccount paymentAccount = user.getPaymentAccount(paymentAccountId);
-        if (paymentAccount == null)
-            throw new IllegalArgumentException(format("payment account with id %s not found", paymentAccountId));
-
-        String upperCaseCurrencyCode = currencyCode.toUpperCase();
-        String offerId = createOfferService.getRandomOfferId();
-        Direction direction = Direction.valueOf(directionAsString.toUpperCase());
-        Price price = Price.valueOf(upperCaseCurrencyCode, priceStringToLong(priceAsString, upperCaseCurrencyCode));
-        Coin amount = Coin.valueOf(amountAsLong);
-        Coin minAmount = Coin.valueOf(minAmountAsLong);
-        Coin useDefaultTxFee = Coin.ZERO;
-        Offer offer = createOfferService.createAndGetOffer(offerId,
-                direction,
-                upperCaseCurrencyCode,
-                amount,
-                minAmount,
-                price,
-                useDefaultTxFee,
+        Offer offer = createOffer(new OfferSpec(currencyCode,
+                directionAsString,
+                priceAsString,
                 useMarketBasedPrice,
-                exactMultiply(marketPriceMargin, 0.01),
+                marketPriceMargin,
+                amountAsLong,
+                minAmountAsLong,
                 buyerSecurityDeposit,
-                paymentAccount);
-
-        verifyPaymentAccountIsValidForNewOffer(offer, paymentAccount);
+                triggerPrice,
+                paymentAccountId));
 
         // We don't support atm funding from external wallet to keep it simple.
         boolean useSavingsWallet = true;
@@ -258,6 +293,48 @@ class CoreOffersService {
                 transaction -> resultHandler.accept(offer));
     }
 
+    // Create and place many offers at once. All offers are created before the first one gets placed, so a malformed
+    // offer spec does not leave us with half of the batch placed. The offers are then placed in one go: each reserve
+    // tx freezes its outputs before the next one is created and the sign offer requests to the arbitrator are sent
+    // without waiting for the previous response. The offer book adds of the batch are held back until all offers are
+    // placed, but at most a few seconds, and go out in one bundle. Our other broadcasts are not held. The
+    // resultHandler gets the result of each offer in the order of the specs.
+    void createAndPlaceOffers(List<OfferSpec> offerSpecs, Consumer<List<OfferResult>> resultHandler) {
+        coreWalletsService.verifyWalletsAreAvailable();
+        coreWalletsService.verifyEncryptedWalletIsUnlocked();
+
+        Set<String> batchOfferIds = new HashSet<>();
+        OwnBroadcastBatch broadcastBatch = p2PService.openOwnBroadcastBatch(isOfferBookUpdateOf(batchOfferIds));
+        createAndPlaceOffers(offerSpecs, batchOfferIds, broadcastBatch, resultHandler);
+    }
+
+    // Cancel many offers at once. The removals from the offer book are broadcast in one bundle.
+    List<OfferResult> cancelOffers(List<String> ids) {
+        OwnBroadcastBatch broadcastBatch = p2PService.openOwnBroadcastBatch(isOfferBookUpdateOf(new HashSet<>(ids)));
+        try {
+            return removeOpenOffers(ids);
+        } finally {
+            broadcastBatch.close();
+        }
+    }
+
+    // Cancel some offers and place new ones in their place. The outputs reserved by the canceled offers get thawed
+    // and can fund the new offers. The removals go out together with the new offers in one bundle.
+    void replaceOffers(List<String> ids,
+                       List<OfferSpec> offerSpecs,
+                       BiConsumer<List<OfferResult>, List<OfferResult>> resultHandler) {
+        coreWalletsService.verifyWalletsAreAvailable();
+        coreWalletsService.verifyEncryptedWalletIsUnlocked();
+
+        Set<String> batchOfferIds = new HashSet<>(ids);
+        OwnBroadcastBatch broadcastBatch = p2PService.openOwnBroadcastBatch(isOfferBookUpdateOf(batchOfferIds));
+        List<OfferResult> cancelResults = removeOpenOffers(ids);
+        createAndPlaceOffers(offerSpecs,
+                batchOfferIds,
+                broadcastBatch,
+                createResults -> resultHandler.accept(cancelResults, createResults));
+    }
+
     // Edit a placed offer.
     Offer editOffer(String offerId,
                     String currencyCode,
@@ -293,6 +370,35 @@ class CoreOffersService {
                 });
     }
 
+    private Offer createOffer(OfferSpec offerSpec) {
+        String paymentAccountId = offerSpec.getPaymentAccountId();
+        PaymentAccount paymentAccount = user.getPaymentAccount(paymentAccountId);
+        if (paymentAccount == null)
+            throw new IllegalArgumentException(format("payment account with id %s not found", paymentAccountId));
+
+        String upperCaseCurrencyCode = offerSpec.getCurrencyCode().toUpperCase();
+        String offerId = createOfferService.getRandomOfferId();
+        Direction direction = Direction.valueOf(offerSpec.getDirection().toUpperCase());
+        Price price = Price.valueOf(upperCaseCurrencyCode, priceStringToLong(offerSpec.getPrice(), upperCaseCurrencyCode));
+        Coin amount = Coin.valueOf(offerSpec.getAmount());
+        Coin minAmount = Coin.valueOf(offerSpec.getMinAmount());
+        Coin useDefaultTxFee = Coin.ZERO;
+        Offer offer = createOfferService.createAndGetOffer(offerId,
+                direction,
+                upperCaseCurrencyCode,
+                amount,
+                minAmount,
+                price,
+                useDefaultTxFee,
+                offerSpec.isUseMarketBasedPrice(),
+                exactMultiply(offerSpec.getMarketPriceMargin(), 0.01),
+                offerSpec.getBuyerSecurityDeposit(),
+                paymentAccount);
+
+        verifyPaymentAccountIsValidForNewOffer(offer, paymentAccount);
+        return offer;
+    }
+
     private void verifyPaymentAccountIsValidForNewOffer(Offer offer, PaymentAccount paymentAccount) {
         if (!isPaymentAccountValidForOffer(offer, paymentAccount)) {
             String error = format("cannot create %s offer with payment account %s",
@@ -341,4 +447,160 @@ class CoreOffersService {
         double scaled = scaleUpByPowerOf10(priceAsDouble, precision);
         return roundDoubleToLong(scaled);
     }
+
+    // The ids of the created offers are added to batchOfferIds, so their offer book adds are held by broadcastBatch,
+    // which gets closed once all offers are placed
+    private void createAndPlaceOffers(List<OfferSpec> offerSpecs,
+                                      Set<String> batchOfferIds,
+                                      OwnBroadcastBatch broadcastBatch,
+                                      Consumer<List<OfferResult>> resultHandler) {
+        BatchResults batchResults = new BatchResults(offerSpecs.size(), resultHandler);
+        batchResults.onComplete(broadcastBatch::close);
+        List<Offer> offers = new ArrayList<>();
+        for (int i = 0; i < offerSpecs.size(); i++) {
+            try {
+                Offer offer = createOffer(offerSpecs.get(i));
+                batchOfferIds.add(offer.getId());
+                offers.add(offer);
+            } catch (Throwable t) {
+                offers.add(null);
+                batchResults.fail(i, null, t.getMessage());
+            }
+        }
+
+        for (int i = 0; i < offers.size(); i++) {
+            Offer offer = offers.get(i);
+            if (offer == null)
+                continue;
+
+            int index = i;
+            OfferSpec offerSpec = offerSpecs.get(i);
+            batchResults.setOfferId(index, offer.getId());
+            try {
+                openOfferManager.placeOffer(offer,
+                        offerSpec.getBuyerSecurityDeposit(),
+                        true,
+                        offerSpec.getTriggerPrice(),
+                        transaction -> batchResults.succeed(index, offer),
+                        errorMessage -> batchResults.fail(index, offer.getId(), errorMessage));
+                if (offer.getErrorMessage() != null)
+                    batchResults.fail(index, offer.getId(), offer.getErrorMessage());
+            } catch (Throwable t) {
+                batchResults.fail(index, offer.getId(), t.getMessage());
+            }
+        }
+        batchResults.startTimeout();
+    }
+
+    private List<OfferResult> removeOpenOffers(List<String> ids) {
+        List<OfferResult> results = new ArrayList<>();
+        for (String id : ids) {
+            try {
+                OpenOffer openOffer = getMyOpenOffer(id);
+                openOfferManager.removeOpenOffer(openOffer,
+                        () -> results.add(OfferResult.success(openOffer.getOffer())),
+                        errorMessage -> results.add(OfferResult.failure(id, errorMessage)));
+            } catch (Throwable t) {
+                results.add(OfferResult.failure(id, t.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    // Our offer book adds and removes of the offers with the given ids. The set may still grow while a batch is open.
+    private static Predicate<BroadcastMessage> isOfferBookUpdateOf(Set<String> offerIds) {
+        return message -> {
+            ProtectedStorageEntry entry;
+            if (message instanceof AddDataMessage)
+                entry = ((AddDataMessage) message).getProtectedStorageEntry();
+            else if (message instanceof RemoveDataMessage)
+                entry = ((RemoveDataMessage) message).getProtectedStorageEntry();
+            else
+                return false;
+
+            return entry.getProtectedStoragePayload() instanceof OfferPayload &&
+                    offerIds.contains(((OfferPayload) entry.getProtectedStoragePayload()).getId());
+        };
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // BatchResults class
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Collects the results of a batch of offers placed on the user thread. The first result of an offer wins, so a
+    // late callback after the timeout does not change what we reported.
+    private static class BatchResults {
+        private final OfferResult[] results;
+        private final String[] offerIds;
+        private final Consumer<List<OfferResult>> resultHandler;
+        private final List<Runnable> completeHandlers = new ArrayList<>();
+        private int numPending;
+        private Timer timeoutTimer;
+        private boolean completed;
+
+        BatchResults(int size, Consumer<List<OfferResult>> resultHandler) {
+            this.results = new OfferResult[size];
+            this.offerIds = new String[size];
+            this.resultHandler = resultHandler;
+            this.numPending = size;
+        }
+
+        void onComplete(Runnable completeHandler) {
+            completeHandlers.add(completeHandler);
+        }
+
+        void setOfferId(int index, String offerId) {
+            offerIds[index] = offerId;
+        }
+
+        void succeed(int index, Offer offer) {
+            set(index, OfferResult.success(offer));
+        }
+
+        void fail(int index, String offerId, String errorMessage) {
+            set(index, OfferResult.failure(offerId, errorMessage));
+        }
+
+        void startTimeout() {
+            if (numPending == 0) {
+                complete();
+                return;
+            }
+
+            timeoutTimer = UserThread.runAfter(() -> {
+                log.warn("{} of {} offers have not been placed within {} sec", numPending, results.length,
+                        PLACE_OFFERS_TIMEOUT_SEC);
+                for (int i = 0; i < results.length; i++) {
+                    if (results[i] == null)
+                        results[i] = OfferResult.failure(offerIds[i], format("offer was not placed within %d sec, " +
+                                "check your open offers", PLACE_OFFERS_TIMEOUT_SEC));
+                }
+                numPending = 0;
+                complete();
+            }, PLACE_OFFERS_TIMEOUT_SEC, TimeUnit.SECONDS);
+        }
+
+        private void set(int index, OfferResult result) {
+            if (completed || results[index] != null)
+                return;
+
+            results[index] = result;
+            numPending--;
+            // Before startTimeout got called we are still placing offers
+            if (numPending == 0 && timeoutTimer != null)
+                complete();
+        }
+
+        private void complete() {
+            if (completed)
+                return;
+
+            completed = true;
+            if (timeoutTimer != null)
+                timeoutTimer.stop();
+            completeHandlers.forEach(Runnable::run);
+            resultHandler.accept(List.of(results));
+        }
+    }
 }
@@ -17,6 +17,8 @@
 
 package bisq.core.api;
 
+import bisq.core.api.CoreApi.TradeEventListener;
+import bisq.core.api.model.TradeInfo;
 import bisq.core.btc.model.AddressEntry;
 import bisq.core.btc.wallet.BtcWalletService;
 import bisq.core.offer.Offer;
@@ -38,13 +40,27 @@ import org.bitcoinj.core.Coin;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+
+import javafx.beans.value.ChangeListener;
+
+import javafx.collections.ListChangeListener;
+
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
+import static bisq.core.api.model.TradeInfo.toTradeInfo;
 import static bisq.core.btc.model.AddressEntry.Context.TRADE_PAYOUT;
 import static java.lang.String.format;
 
@@ -65,6 +81,14 @@ class CoreTradesService {
     private final TradeUtil tradeUtil;
     private final User user;
 
+    // Open and closed trades by id, served to read-only api calls off the user thread
+    private final ReadSnapshot<Map<String, TradeInfo>> tradeSnapshot;
+    // Trades we listen to for state changes, only accessed on the user thread
+    private final Set<Trade> observedTrades = Collections.newSetFromMap(new WeakHashMap<>());
+    private final ChangeListener<Object> tradeChangeListener;
+    // State changes of the observed trades, streamed to watching clients
+    private final TradeEventJournal tradeEventJournal;
+
     @Inject
     public CoreTradesService(CoreContext coreContext,
                              CoreWalletsService coreWalletsService,
@@ -84,6 +108,23 @@ class CoreTradesService {
         this.tradeManager = tradeManager;
         this.tradeUtil = tradeUtil;
         this.user = user;
+
+        tradeSnapshot = new ReadSnapshot<>("trades", Map.of(), this::getTradeInfosById);
+        tradeChangeListener = (observable, oldValue, newValue) -> tradeSnapshot.invalidate();
+        tradeEventJournal = new TradeEventJournal(tradeId -> tradeSnapshot.get().get(tradeId));
+        tradeManager.getObservableList().addListener((ListChangeListener<Trade>) c -> {
+            // New trades are observed right away, so we do not miss a state change before the snapshot is rebuilt
+            while (c.next()) {
+                c.getAddedSubList().forEach(trade -> {
+                    if (observeTrade(trade))
+                        appendTradeEvent(trade, null, trade.getState());
+                });
+            }
+            tradeSnapshot.invalidate();
+        });
+        closedTradableManager.getObservableList().addListener((ListChangeListener<Tradable>) c ->
+                tradeSnapshot.invalidate());
+        tradeSnapshot.invalidate();
     }
 
     void takeOffer(Offer offer,
@@ -220,6 +261,40 @@ class CoreTradesService {
                 ));
     }
 
+    // Can be called from any thread
+    TradeInfo getTradeInfo(String tradeId) {
+        coreWalletsService.verifyWalletsAreAvailable();
+        coreWalletsService.verifyEncryptedWalletIsUnlocked();
+        TradeInfo tradeInfo = tradeSnapshot.get().get(tradeId);
+        if (tradeInfo == null)
+            throw new IllegalArgumentException(format("trade with id '%s' not found", tradeId));
+        return tradeInfo;
+    }
+
+    // Can be called from any thread
+    List<TradeInfo> getTradeInfos() {
+        coreWalletsService.verifyWalletsAreAvailable();
+        coreWalletsService.verifyEncryptedWalletIsUnlocked();
+        return new ArrayList<>(tradeSnapshot.get().values());
+    }
+
+    // Can be called from any thread
+    void addTradeEventListener(long epoch, long afterSequence, TradeEventListener listener) {
+        coreWalletsService.verifyWalletsAreAvailable();
+        coreWalletsService.verifyEncryptedWalletIsUnlocked();
+        tradeEventJournal.addListener(epoch, afterSequence, listener);
+    }
+
+    // Can be called from any thread
+    void removeTradeEventListener(TradeEventListener listener) {
+        tradeEventJournal.removeListener(listener);
+    }
+
+    // Can be called from any thread
+    void onTradeEventListenerReady(TradeEventListener listener) {
+        tradeEventJournal.onListenerReady(listener);
+    }
+
     private Optional<Trade> getOpenTrade(String tradeId) {
         return tradeManager.getTradeById(tradeId);
     }
@@ -237,6 +312,45 @@ class CoreTradesService {
         return trades;
     }
 
+    private Map<String, TradeInfo> getTradeInfosById() {
+        Map<String, TradeInfo> tradeInfosById = new LinkedHashMap<>();
+        // Open trades come first, so they take precedence over a closed trade with the same id as in getTrade
+        Stream.concat(tradeManager.getObservableList().stream(), closedTradableManager.getClosedTrades().stream())
+                .forEach(trade -> {
+                    observeTrade(trade);
+                    tradeInfosById.putIfAbsent(trade.getId(), toTradeInfo(trade, getRoleIfAvailable(trade)));
+                });
+        return Collections.unmodifiableMap(tradeInfosById);
+    }
+
+    private boolean observeTrade(Trade trade) {
+        if (!observedTrades.add(trade))
+            return false;
+
+        trade.stateProperty().addListener(tradeChangeListener);
+        trade.statePhaseProperty().addListener(tradeChangeListener);
+        trade.disputeStateProperty().addListener(tradeChangeListener);
+        trade.tradePeriodStateProperty().addListener(tradeChangeListener);
+        trade.errorMessageProperty().addListener(tradeChangeListener);
+        // The phase is set right after the state, so the state listener covers phase changes as well
+        trade.stateProperty().addListener((observable, oldValue, newValue) -> appendTradeEvent(trade, oldValue, newValue));
+        return true;
+    }
+
+    private void appendTradeEvent(Trade trade, @Nullable Trade.State oldState, Trade.State newState) {
+        tradeEventJournal.append(trade.getId(),
+                oldState == null ? null : oldState.name(),
+                newState.name(),
+                newState.getPhase().name(),
+                trade.getDate().getTime(),
+                () -> toTradeInfo(trade, getRoleIfAvailable(trade)));
+    }
+
+    private String getRoleIfAvailable(Trade trade) {
+        // The role is not known before we have the contract
+        return trade.getContract() != null && trade.getOffer() != null ? tradeUtil.getRole(trade) : null;
+    }
+
     private boolean isFollowingBuyerProtocol(Trade trade) {
         return tradeManager.getTradeProtocol(trade) instanceof BuyerProtocol;
     }
@@ -64,6 +64,8 @@ import com.google.common.util.concurrent.MoreExecutors;
 
 import org.bouncycastle.crypto.params.KeyParameter;
 
+import javafx.beans.value.ChangeListener;
+
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -102,8 +104,12 @@ class CoreWalletsService {
     @Nullable
     private Timer lockTimer;
 
+    // Read from the api's read-only calls off the user thread
     @Nullable
-    private KeyParameter tempAesKey;
+    private volatile KeyParameter tempAesKey;
+
+    // Served to read-only api calls off the user thread, null until all balances are available
+    private final ReadSnapshot<BalancesInfo> balancesSnapshot;
 
     private final ListeningExecutorService executor = Utilities.getSingleThreadListeningExecutor("CoreWalletsService");
 
@@ -128,6 +134,17 @@ class CoreWalletsService {
         this.btcFormatter = btcFormatter;
         this.feeService = feeService;
         this.preferences = preferences;
+
+        balancesSnapshot = new ReadSnapshot<>("balances", null,
+                () -> new BalancesInfo(getBtcBalances(), getXmrBalances()));
+        // Balances updates all properties in one user thread task, so the coalesced rebuild sees all of them
+        ChangeListener<Coin> balanceListener = (observable, oldValue, newValue) -> balancesSnapshot.invalidate();
+        balances.getAvailableBalance().addListener(balanceListener);
+        balances.getLockedBalance().addListener(balanceListener);
+        balances.getReservedOfferBalance().addListener(balanceListener);
+        balances.getReservedTradeBalance().addListener(balanceListener);
+        balances.getReservedBalance().addListener(balanceListener);
+        balancesSnapshot.invalidate();
     }
 
     @Nullable
@@ -140,20 +157,22 @@ class CoreWalletsService {
         return btcWalletService.getWallet().getContext().getParams();
     }
 
+    // Can be called from any thread
     BalancesInfo getBalances(String currencyCode) {
         verifyWalletCurrencyCodeIsValid(currencyCode);
         verifyWalletsAreAvailable();
         verifyEncryptedWalletIsUnlocked();
-        if (balances.getAvailableBalance().get() == null)
+        BalancesInfo balancesInfo = balancesSnapshot.get();
+        if (balancesInfo == null)
             throw new IllegalStateException("balance is not yet available");
 
         switch (currencyCode.trim().toUpperCase()) {
             case "BTC":
-                return new BalancesInfo(getBtcBalances(), XmrBalanceInfo.EMPTY);
+                return new BalancesInfo(balancesInfo.getBtc(), XmrBalanceInfo.EMPTY);
             case "XMR":
-                return new BalancesInfo(BtcBalanceInfo.EMPTY, getXmrBalances());
+                return new BalancesInfo(BtcBalanceInfo.EMPTY, balancesInfo.getXmr());
             default:
-                return new BalancesInfo(getBtcBalances(), getXmrBalances());
+                return balancesInfo;
         }
     }
 
@@ -180,7 +199,7 @@ class CoreWalletsService {
         verifyWalletsAreAvailable();
         verifyEncryptedWalletIsUnlocked();
         try {
-            return xmrWalletService.getWallet().relayTx(metadata);
+            return xmrWalletService.relayTx(metadata);
         } catch (Exception ex) {
             log.error("", ex);
             throw new IllegalStateException(ex);
@@ -526,9 +545,6 @@ class CoreWalletsService {
 
     // TODO (woodser): delete this since it's serving XMR balances
     private BtcBalanceInfo getBtcBalances() {
-        verifyWalletsAreAvailable();
-        verifyEncryptedWalletIsUnlocked();
-
         var availableBalance = balances.getAvailableBalance().get();
         if (availableBalance == null)
             throw new IllegalStateException("balance is not yet available");
@@ -548,9 +564,6 @@ class CoreWalletsService {
     }
 
     private XmrBalanceInfo getXmrBalances() {
-        verifyWalletsAreAvailable();
-        verifyEncryptedWalletIsUnlocked();
-
         var availableBalance = balances.getAvailableBalance().get();
         if (availableBalance == null)
             throw new IllegalStateException("available balance is not yet available");
@@ -0,0 +1,65 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.api;
+
+import bisq.common.UserThread;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Immutable view of core state for read-only api calls, which are served off the user thread.
+ * <p/>
+ * The snapshot is built on the user thread, where the underlying state is changed, and published via a volatile
+ * field, so readers on any thread see a consistent value. Listeners call invalidate() on changes; all changes
+ * before the scheduled rebuild ran are coalesced into one rebuild.
+ */
+@Slf4j
+class ReadSnapshot<T> {
+    private final String name;
+    private final Supplier<T> builder;
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    private volatile T value;
+
+    ReadSnapshot(String name, T initialValue, Supplier<T> builder) {
+        this.name = name;
+        this.builder = builder;
+        this.value = initialValue;
+    }
+
+    void invalidate() {
+        if (rebuildScheduled.compareAndSet(false, true))
+            UserThread.execute(this::rebuild);
+    }
+
+    T get() {
+        return value;
+    }
+
+    private void rebuild() {
+        rebuildScheduled.set(false);
+        try {
+            value = builder.get();
+        } catch (Throwable t) {
+            // We keep the previous snapshot, the next change triggers a new attempt
+            log.warn("Could not build {} snapshot. {}", name, t.toString());
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.api;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.LongFunction;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import static java.lang.String.format;
+
+/**
+ * Fans out a stream of numbered items to listeners through one bounded queue per listener, and retains the last
+ * items for listeners resuming after a reconnect.
+ * <p>
+ * Publishing an item only numbers it, retains it and appends it to the queue of each matching listener, so a slow
+ * listener never delays the publisher. The queues are drained on the given executor, at most one task per listener
+ * at a time, as long as the listener is ready to take items. If a queue is full, either its oldest item is dropped
+ * or the listener is disconnected, as the listener requested.
+ * <p>
+ * Items carry the epoch, the time the stream was created, and a sequence number increasing by one with each item.
+ * A listener resuming within the same epoch gets the retained items after its last seen sequence first.
+ */
+@Slf4j
+public class SubscriberQueue<T, L extends SubscriberQueue.Listener<T>> {
+
+    public enum OverflowPolicy {
+        DROP_OLDEST,
+        DISCONNECT
+    }
+
+    public interface Listener<T> {
+        void onNext(@NonNull T item);
+
+        // While not ready, items are queued until the owner of the queue is told the listener is ready again
+        default boolean isReady() {
+            return true;
+        }
+
+        // Called instead of further items if the listener got disconnected because its queue overflowed
+        default void onOverflow() {
+        }
+    }
+
+    private final Object lock = new Object();
+    private final String name;
+    private final int maxRetainedItems;
+    private final int maxQueuedItems;
+    @Getter
+    private final long epoch;
+    private final Executor executor;
+    private final ToLongFunction<T> sequenceOf;
+    private final Deque<T> retainedItems = new ArrayDeque<>();
+    private final Map<L, Subscriber> subscribers = new LinkedHashMap<>();
+    private long lastSequence;
+
+    /**
+     * @param name              Name of the items, used in messages
+     * @param maxRetainedItems  Number of items retained for resuming listeners
+     * @param maxQueuedItems    Capacity of the queue of each listener, at least maxRetainedItems so a replay does
+     *                          not overflow it
+     * @param epoch             Epoch of the stream
+     * @param executor          Executor the queues are drained on
+     * @param sequenceOf        Returns the sequence number of an item
+     */
+    SubscriberQueue(String name,
+                    int maxRetainedItems,
+                    int maxQueuedItems,
+                    long epoch,
+                    Executor executor,
+                    ToLongFunction<T> sequenceOf) {
+        this.name = name;
+        this.maxRetainedItems = maxRetainedItems;
+        this.maxQueuedItems = Math.max(maxQueuedItems, maxRetainedItems);
+        this.epoch = epoch;
+        this.executor = executor;
+        this.sequenceOf = sequenceOf;
+    }
+
+    /**
+     * Adds a listener for the items matching the filter. With an epoch of 0 only new items are delivered, otherwise
+     * the retained items after the given sequence are delivered first, mapped with replayMapper.
+     */
+    void addListener(L listener,
+                     long epoch,
+                     long afterSequence,
+                     Predicate<T> filter,
+                     UnaryOperator<T> replayMapper,
+                     OverflowPolicy overflowPolicy) {
+        synchronized (lock) {
+            Subscriber subscriber = new Subscriber(listener, filter, overflowPolicy);
+            if (epoch != 0) {
+                long firstRetainedSequence = retainedItems.isEmpty()
+                        ? lastSequence + 1
+                        : sequenceOf.applyAsLong(retainedItems.getFirst());
+                if (epoch != this.epoch || afterSequence < firstRetainedSequence - 1 || afterSequence > lastSequence)
+                    throw new IllegalStateException(format("cannot resume %s after sequence %d of epoch %d",
+                            name,
+                            afterSequence,
+                            epoch));
+
+                retainedItems.stream()
+                        .filter(item -> sequenceOf.applyAsLong(item) > afterSequence)
+                        .map(replayMapper)
+                        .forEach(subscriber::offer);
+            }
+            subscribers.put(listener, subscriber);
+            subscriber.scheduleDrain();
+        }
+    }
+
+    void removeListener(L listener) {
+        synchronized (lock) {
+            Subscriber subscriber = subscribers.remove(listener);
+            if (subscriber != null)
+                subscriber.close();
+        }
+    }
+
+    // Resumes the delivery to a listener which was not ready to take items
+    void onListenerReady(L listener) {
+        Subscriber subscriber;
+        synchronized (lock) {
+            subscriber = subscribers.get(listener);
+        }
+        if (subscriber != null)
+            subscriber.scheduleDrain();
+    }
+
+    /**
+     * Publishes the item created for the next sequence number. The item is created while no listener gets added or
+     * removed, so it can depend on the current listeners.
+     */
+    T publish(LongFunction<T> itemForSequence) {
+        synchronized (lock) {
+            T item = itemForSequence.apply(++lastSequence);
+            retainedItems.addLast(item);
+            if (retainedItems.size() > maxRetainedItems)
+                retainedItems.removeFirst();
+
+            for (Iterator<Subscriber> iter = subscribers.values().iterator(); iter.hasNext(); ) {
+                Subscriber subscriber = iter.next();
+                if (!subscriber.offer(item))
+                    iter.remove();
+                subscriber.scheduleDrain();
+            }
+            return item;
+        }
+    }
+
+    // Must be called while publishing, or it only tells whether the listeners matched at the time of the call
+    boolean hasListener(Predicate<L> predicate) {
+        synchronized (lock) {
+            return subscribers.keySet().stream().anyMatch(predicate);
+        }
+    }
+
+    // Queue of a listener, guarded by its own lock. Only the lock of the SubscriberQueue is held when we take the
+    // subscriber's lock, never the other way round.
+    private class Subscriber {
+        private final L listener;
+        private final Predicate<T> filter;
+        private final OverflowPolicy overflowPolicy;
+        private final Deque<T> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean overflowed;
+        private boolean closed;
+        private int numDropped;
+
+        Subscriber(L listener, Predicate<T> filter, OverflowPolicy overflowPolicy) {
+            this.listener = listener;
+            this.filter = filter;
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        // Never blocks, returns false if the subscriber got closed because its queue overflowed
+        synchronized boolean offer(T item) {
+            if (closed)
+                return false;
+            if (!filter.test(item))
+                return true;
+
+            if (queue.size() >= maxQueuedItems) {
+                if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+                    log.warn("Disconnecting listener {}, {} {} are queued", listener, queue.size(), name);
+                    queue.clear();
+                    overflowed = true;
+                    closed = true;
+                    return false;
+                }
+
+                queue.removeFirst();
+                if (numDropped++ == 0)
+                    log.warn("Dropping {} of listener {}, {} are queued", name, listener, queue.size());
+            }
+            queue.addLast(item);
+            return true;
+        }
+
+        void scheduleDrain() {
+            synchronized (this) {
+                if (draining || (!overflowed && (closed || queue.isEmpty())))
+                    return;
+                draining = true;
+            }
+            executor.execute(this::drain);
+        }
+
+        synchronized void close() {
+            closed = true;
+            queue.clear();
+        }
+
+        private void drain() {
+            while (true) {
+                T item;
+                synchronized (this) {
+                    if (overflowed) {
+                        overflowed = false;
+                        draining = false;
+                        break;
+                    }
+                    if (closed || queue.isEmpty() || !listener.isReady()) {
+                        if (numDropped > 0 && queue.isEmpty()) {
+                            log.info("Dropped {} {} of listener {}", numDropped, name, listener);
+                            numDropped = 0;
+                        }
+                        draining = false;
+                        return;
+                    }
+                    item = queue.removeFirst();
+                }
+
+                try {
+                    listener.onNext(item);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to send {} to listener {}: {}", name, listener, e.getMessage());
+                    removeListener(listener);
+                    synchronized (this) {
+                        draining = false;
+                    }
+                    return;
+                }
+            }
+
+            try {
+                listener.onOverflow();
+            } catch (RuntimeException e) {
+                log.warn("Failed to disconnect listener {}: {}", listener, e.getMessage());
+            }
+        }
+    }
+}
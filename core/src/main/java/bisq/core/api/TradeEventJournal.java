@@ -0,0 +1,129 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.api;
+
+import bisq.core.api.CoreApi.TradeEventListener;
+import bisq.core.api.SubscriberQueue.OverflowPolicy;
+import bisq.core.api.model.TradeEvent;
+import bisq.core.api.model.TradeInfo;
+
+import bisq.common.util.Utilities;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import javax.annotation.Nullable;
+
+/**
+ * Bounded journal of trade state changes, which api clients watch as a stream of events.
+ * <p>
+ * Events are recorded on the user thread and fanned out through a SubscriberQueue, so a slow client never delays
+ * the user thread. A client whose queue is full gets disconnected and can resume from the last event it received.
+ * It can only resume within the same epoch and as long as the events it missed are retained, otherwise it has to
+ * fetch the trades again and watch from the current events on.
+ * <p>
+ * The trade info of an event is only built while a listener requested it. Replayed events recorded without it
+ * carry the current trade info instead.
+ */
+class TradeEventJournal {
+    static final int DEFAULT_CAPACITY = 500;
+    private static final int NUM_DELIVERY_THREADS = 2;
+
+    private final SubscriberQueue<TradeEvent, TradeEventListener> subscriberQueue;
+    private final Function<String, TradeInfo> currentTradeInfo;
+
+    TradeEventJournal(Function<String, TradeInfo> currentTradeInfo) {
+        this(DEFAULT_CAPACITY,
+                System.currentTimeMillis(),
+                Utilities.getThreadPoolExecutor("TradeEventJournal-%d",
+                        NUM_DELIVERY_THREADS,
+                        NUM_DELIVERY_THREADS,
+                        60,
+                        new LinkedBlockingQueue<>()),
+                currentTradeInfo);
+    }
+
+    TradeEventJournal(int capacity,
+                      long epoch,
+                      Executor executor,
+                      Function<String, TradeInfo> currentTradeInfo) {
+        this.subscriberQueue = new SubscriberQueue<>("trade events",
+                capacity,
+                capacity,
+                epoch,
+                executor,
+                TradeEvent::getSequence);
+        this.currentTradeInfo = currentTradeInfo;
+    }
+
+    long getEpoch() {
+        return subscriberQueue.getEpoch();
+    }
+
+    void append(String tradeId,
+                @Nullable String oldState,
+                String newState,
+                String phase,
+                long tradeDate,
+                Supplier<TradeInfo> tradeInfoSupplier) {
+        long epoch = getEpoch();
+        long timestamp = System.currentTimeMillis();
+        subscriberQueue.publish(sequence -> new TradeEvent(epoch,
+                sequence,
+                tradeId,
+                oldState,
+                newState,
+                phase,
+                timestamp,
+                tradeDate,
+                subscriberQueue.hasListener(TradeEventListener::isTradeInfoRequested)
+                        ? tradeInfoSupplier.get()
+                        : null));
+    }
+
+    /**
+     * Adds a listener for trade events. With an epoch of 0 only new events are delivered, otherwise the retained
+     * events after the given sequence are replayed first.
+     */
+    void addListener(long epoch, long afterSequence, TradeEventListener listener) {
+        UnaryOperator<TradeEvent> replayMapper = event -> listener.isTradeInfoRequested() && event.getTradeInfo() == null
+                ? event.withTradeInfo(currentTradeInfo.apply(event.getTradeId()))
+                : event;
+        try {
+            subscriberQueue.addListener(listener,
+                    epoch,
+                    afterSequence,
+                    event -> true,
+                    replayMapper,
+                    OverflowPolicy.DISCONNECT);
+        } catch (IllegalStateException e) {
+            throw new IllegalStateException(e.getMessage() + ", get the trades and watch them again");
+        }
+    }
+
+    void removeListener(TradeEventListener listener) {
+        subscriberQueue.removeListener(listener);
+    }
+
+    void onListenerReady(TradeEventListener listener) {
+        subscriberQueue.onListenerReady(listener);
+    }
+}
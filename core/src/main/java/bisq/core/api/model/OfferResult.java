@@ -0,0 +1,49 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.api.model;
+
+import bisq.core.offer.Offer;
+
+import lombok.Value;
+
+import javax.annotation.Nullable;
+
+/**
+ * Outcome of a single offer of a batch offer request. Either the offer or the error message is set.
+ */
+@Value
+public class OfferResult {
+    @Nullable
+    private String offerId;
+    @Nullable
+    private Offer offer;
+    @Nullable
+    private String errorMessage;
+
+    public static OfferResult success(Offer offer) {
+        return new OfferResult(offer.getId(), offer, null);
+    }
+
+    public static OfferResult failure(@Nullable String offerId, String errorMessage) {
+        return new OfferResult(offerId, null, errorMessage);
+    }
+
+    public boolean isSuccess() {
+        return errorMessage == null;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.api.model;
+
+import lombok.Value;
+
+/**
+ * Parameters of a single offer of a batch offer request, as given by the api client.
+ */
+@Value
+public class OfferSpec {
+    private String currencyCode;
+    private String direction;
+    private String price;
+    private boolean useMarketBasedPrice;
+    private double marketPriceMargin;
+    private long amount;
+    private long minAmount;
+    private double buyerSecurityDeposit;
+    private long triggerPrice;
+    private String paymentAccountId;
+}
@@ -0,0 +1,64 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.api.model;
+
+import lombok.Value;
+
+import javax.annotation.Nullable;
+
+/**
+ * State change of a trade as streamed to api clients watching their trades.
+ * <p>
+ * Events are numbered by a sequence which increases by one with each event of the trade event journal, and the
+ * journal's epoch, the time it was created, tells a client after a reconnect whether the sequence is still valid.
+ * The old state is null for a trade which was just added. The trade info is only captured when the event is
+ * recorded while a client watches with include_trade_info, and only sent to clients which requested it.
+ */
+@Value
+public class TradeEvent {
+    private long epoch;
+    private long sequence;
+    private String tradeId;
+    @Nullable
+    private String oldState;
+    private String newState;
+    private String phase;
+    private long timestamp;
+    private long tradeDate;
+    @Nullable
+    private TradeInfo tradeInfo;
+
+    public TradeEvent withTradeInfo(@Nullable TradeInfo tradeInfo) {
+        return new TradeEvent(epoch, sequence, tradeId, oldState, newState, phase, timestamp, tradeDate, tradeInfo);
+    }
+
+    public bisq.proto.grpc.TradeEvent toProtoMessage(boolean includeTradeInfo) {
+        var builder = bisq.proto.grpc.TradeEvent.newBuilder()
+                .setEpoch(epoch)
+                .setSequence(sequence)
+                .setTradeId(tradeId)
+                .setOldState(oldState == null ? "" : oldState)
+                .setNewState(newState)
+                .setPhase(phase)
+                .setTimestamp(timestamp)
+                .setTradeDate(tradeDate);
+        if (includeTradeInfo && tradeInfo != null)
+            builder.setTrade(tradeInfo.toProtoMessage());
+        return builder.build();
+    }
+}
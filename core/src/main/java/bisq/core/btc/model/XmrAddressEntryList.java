@@ -29,7 +29,11 @@ import com.google.common.collect.ImmutableList;
 
 import java.math.BigInteger;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.stream.Collectors;
 
@@ -50,6 +54,9 @@ public final class XmrAddressEntryList implements PersistableEnvelope, Persisted
     transient private PersistenceManager<XmrAddressEntryList> persistenceManager;
     transient private MoneroWallet wallet;
     private final Set<XmrAddressEntry> entrySet = new CopyOnWriteArraySet<>();
+    // Indexes of the entrySet, so lookups do not need to scan a copy of all entries
+    transient private final Map<String, XmrAddressEntry> entryByOfferIdAndContext = new ConcurrentHashMap<>();
+    transient private final Map<String, XmrAddressEntry> entryByAddress = new ConcurrentHashMap<>();
 
     @Inject
     public XmrAddressEntryList(PersistenceManager<XmrAddressEntryList> persistenceManager) {
@@ -62,7 +69,9 @@ public final class XmrAddressEntryList implements PersistableEnvelope, Persisted
     public void readPersisted(Runnable completeHandler) {
         persistenceManager.readPersisted(persisted -> {
             entrySet.clear();
-            entrySet.addAll(persisted.entrySet);
+            entryByOfferIdAndContext.clear();
+            entryByAddress.clear();
+            persisted.entrySet.forEach(this::add);
             completeHandler.run();
         },
         completeHandler);
@@ -74,7 +83,7 @@ public final class XmrAddressEntryList implements PersistableEnvelope, Persisted
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     private XmrAddressEntryList(Set<XmrAddressEntry> entrySet) {
-        this.entrySet.addAll(entrySet);
+        entrySet.forEach(this::add);
     }
 
     public static XmrAddressEntryList fromProto(protobuf.XmrAddressEntryList proto) {
@@ -138,7 +147,7 @@ public final class XmrAddressEntryList implements PersistableEnvelope, Persisted
         if (wallet.getBalance().compareTo(new BigInteger("0")) > 0) {
           wallet.getAccounts().forEach(acct -> {
             log.info("Create XmrAddressEntry for IssuedReceiveAddress. address={}", acct.getPrimaryAddress());
-            if (acct.getIndex() != 0) entrySet.add(new XmrAddressEntry(acct.getIndex(), acct.getPrimaryAddress(), XmrAddressEntry.Context.AVAILABLE));
+            if (acct.getIndex() != 0) add(new XmrAddressEntry(acct.getIndex(), acct.getPrimaryAddress(), XmrAddressEntry.Context.AVAILABLE));
         });
        }
 
@@ -159,27 +168,37 @@ public final class XmrAddressEntryList implements PersistableEnvelope, Persisted
         return ImmutableList.copyOf(entrySet);
     }
 
+    public Optional<XmrAddressEntry> findAddressEntry(String offerId, XmrAddressEntry.Context context) {
+        return Optional.ofNullable(entryByOfferIdAndContext.get(getOfferIdAndContextKey(offerId, context)));
+    }
+
+    public Optional<XmrAddressEntry> findAddressEntryByAddress(String address) {
+        return Optional.ofNullable(entryByAddress.get(address));
+    }
+
+    public List<XmrAddressEntry> getAddressEntries(XmrAddressEntry.Context context) {
+        return entrySet.stream()
+                .filter(addressEntry -> context == addressEntry.getContext())
+                .collect(Collectors.toList());
+    }
+
     public void addAddressEntry(XmrAddressEntry addressEntry) {
-        boolean entryWithSameOfferIdAndContextAlreadyExist = entrySet.stream().anyMatch(e -> {
-            if (addressEntry.getOfferId() != null) {
-                return addressEntry.getOfferId().equals(e.getOfferId()) && addressEntry.getContext() == e.getContext();
-            }
-            return false;
-        });
+        boolean entryWithSameOfferIdAndContextAlreadyExist = addressEntry.getOfferId() != null &&
+                findAddressEntry(addressEntry.getOfferId(), addressEntry.getContext()).isPresent();
         if (entryWithSameOfferIdAndContextAlreadyExist) {
             log.error("We have an address entry with the same offer ID and context. We do not add the new one. " +
                     "addressEntry={}, entrySet={}", addressEntry, entrySet);
             return;
         }
 
-        boolean setChangedByAdd = entrySet.add(addressEntry);
+        boolean setChangedByAdd = add(addressEntry);
         if (setChangedByAdd)
             requestPersistence();
     }
 
     public void swapToAvailable(XmrAddressEntry addressEntry) {
-        boolean setChangedByRemove = entrySet.remove(addressEntry);
-        boolean setChangedByAdd = entrySet.add(new XmrAddressEntry(addressEntry.getSubaddressIndex(), addressEntry.getAddressString(),
+        boolean setChangedByRemove = remove(addressEntry);
+        boolean setChangedByAdd = add(new XmrAddressEntry(addressEntry.getSubaddressIndex(), addressEntry.getAddressString(),
                 XmrAddressEntry.Context.AVAILABLE));
         if (setChangedByRemove || setChangedByAdd) {
             requestPersistence();
@@ -189,9 +208,9 @@ public final class XmrAddressEntryList implements PersistableEnvelope, Persisted
     public XmrAddressEntry swapAvailableToAddressEntryWithOfferId(XmrAddressEntry addressEntry,
                                                                XmrAddressEntry.Context context,
                                                                String offerId) {
-        boolean setChangedByRemove = entrySet.remove(addressEntry);
+        boolean setChangedByRemove = remove(addressEntry);
         final XmrAddressEntry newAddressEntry = new XmrAddressEntry(addressEntry.getSubaddressIndex(), addressEntry.getAddressString(), context, offerId, null);
-        boolean setChangedByAdd = entrySet.add(newAddressEntry);
+        boolean setChangedByAdd = add(newAddressEntry);
         if (setChangedByRemove || setChangedByAdd)
             requestPersistence();
 
@@ -215,10 +234,31 @@ public final class XmrAddressEntryList implements PersistableEnvelope, Persisted
     }
 
     private boolean isAddressInEntries(String address) {
-      for (XmrAddressEntry entry : entrySet) {
-        if (entry.getAddressString().equals(address)) return true;
-      }
-      return false;
+      return entryByAddress.containsKey(address);
+    }
+
+    private boolean add(XmrAddressEntry addressEntry) {
+        if (!entrySet.add(addressEntry))
+            return false;
+
+        if (addressEntry.getOfferId() != null)
+            entryByOfferIdAndContext.put(getOfferIdAndContextKey(addressEntry.getOfferId(), addressEntry.getContext()), addressEntry);
+        entryByAddress.put(addressEntry.getAddressString(), addressEntry);
+        return true;
+    }
+
+    private boolean remove(XmrAddressEntry addressEntry) {
+        if (!entrySet.remove(addressEntry))
+            return false;
+
+        if (addressEntry.getOfferId() != null)
+            entryByOfferIdAndContext.remove(getOfferIdAndContextKey(addressEntry.getOfferId(), addressEntry.getContext()), addressEntry);
+        entryByAddress.remove(addressEntry.getAddressString(), addressEntry);
+        return true;
+    }
+
+    private static String getOfferIdAndContextKey(String offerId, XmrAddressEntry.Context context) {
+        return offerId + "|" + context.name();
     }
 
     @Override
@@ -88,6 +88,7 @@ public class TradeWalletService {
     private static final Coin MIN_DELAYED_PAYOUT_TX_FEE = Coin.valueOf(1000);
 
     private final WalletsSetup walletsSetup;
+    private final XmrWalletService xmrWalletService;
     private final Preferences preferences;
     private final NetworkParameters params;
 
@@ -106,8 +107,9 @@ public class TradeWalletService {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     @Inject
-    public TradeWalletService(WalletsSetup walletsSetup, Preferences preferences) {
+    public TradeWalletService(WalletsSetup walletsSetup, XmrWalletService xmrWalletService, Preferences preferences) {
         this.walletsSetup = walletsSetup;
+        this.xmrWalletService = xmrWalletService;
         this.preferences = preferences;
         this.params = Config.baseCurrencyNetworkParameters();
         walletsSetup.addSetupCompletedHandler(() -> {
@@ -143,12 +145,15 @@ public class TradeWalletService {
             Coin txFee,
             String feeReceiver,
             boolean broadcastTx) {
-      return xmrWallet.createTx(new MoneroTxConfig()
+      MoneroTxWallet tx = xmrWallet.createTx(new MoneroTxConfig()
               .setAccountIndex(0)
               .setDestinations(
                       new MoneroDestination(feeReceiver, ParsingUtils.coinToAtomicUnits(makerFee)),
                       new MoneroDestination(reservedForTradeAddress, ParsingUtils.coinToAtomicUnits(reservedFundsForOffer)))
               .setRelay(broadcastTx));
+      if (broadcastTx)
+          xmrWalletService.invalidateSubaddressBalances();
+      return tx;
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
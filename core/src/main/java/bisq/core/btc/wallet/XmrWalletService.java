@@ -19,6 +19,7 @@ import com.google.common.util.concurrent.FutureCallback;
 import java.math.BigInteger;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -53,6 +54,10 @@ public class XmrWalletService {
   protected final CopyOnWriteArraySet<MoneroWalletListenerI> walletListeners = new CopyOnWriteArraySet<>();
   private Map<String, MoneroWallet> multisigWallets;
 
+  // Balances of the subaddresses of account 0, refreshed with a single wallet call after the wallet reported a change
+  private volatile Map<Integer, BigInteger> balanceBySubaddressIndex = Map.of();
+  private volatile boolean subaddressBalancesStale = true;
+
   @Getter
   private MoneroDaemon daemon;
   @Getter
@@ -78,8 +83,19 @@ public class XmrWalletService {
 
             @Override
             public void onBalancesChanged(BigInteger newBalance, BigInteger newUnlockedBalance) {
+              subaddressBalancesStale = true;
               notifyBalanceListeners();
             }
+
+            @Override
+            public void onOutputReceived(MoneroOutputWallet output) {
+              subaddressBalancesStale = true;
+            }
+
+            @Override
+            public void onOutputSpent(MoneroOutputWallet output) {
+              subaddressBalancesStale = true;
+            }
         });
     });
   }
@@ -141,16 +157,12 @@ public class XmrWalletService {
   }
 
   public XmrAddressEntry getOrCreateAddressEntry(String offerId, XmrAddressEntry.Context context) {
-    Optional<XmrAddressEntry> addressEntry = getAddressEntryListAsImmutableList().stream()
-            .filter(e -> offerId.equals(e.getOfferId()))
-            .filter(e -> context == e.getContext())
-            .findAny();
+    Optional<XmrAddressEntry> addressEntry = getAddressEntry(offerId, context);
     if (addressEntry.isPresent()) {
         return addressEntry.get();
     } else {
         // We try to use available and not yet used entries
-        Optional<XmrAddressEntry> emptyAvailableAddressEntry = getAddressEntryListAsImmutableList().stream()
-                .filter(e -> XmrAddressEntry.Context.AVAILABLE == e.getContext())
+        Optional<XmrAddressEntry> emptyAvailableAddressEntry = getAvailableAddressEntries().stream()
                 .filter(e -> isSubaddressUnused(e.getSubaddressIndex()))
                 .findAny();
         if (emptyAvailableAddressEntry.isPresent()) {
@@ -162,17 +174,11 @@ public class XmrWalletService {
   }
 
   public Optional<XmrAddressEntry> getAddressEntry(String offerId, XmrAddressEntry.Context context) {
-    return getAddressEntryListAsImmutableList().stream()
-            .filter(e -> offerId.equals(e.getOfferId()))
-            .filter(e -> context == e.getContext())
-            .findAny();
+    return addressEntryList.findAddressEntry(offerId, context);
   }
 
   public void swapTradeEntryToAvailableEntry(String offerId, XmrAddressEntry.Context context) {
-    Optional<XmrAddressEntry> addressEntryOptional = getAddressEntryListAsImmutableList().stream()
-            .filter(e -> offerId.equals(e.getOfferId()))
-            .filter(e -> context == e.getContext())
-            .findAny();
+    Optional<XmrAddressEntry> addressEntryOptional = getAddressEntry(offerId, context);
     addressEntryOptional.ifPresent(e -> {
         log.info("swap addressEntry with address {} and offerId {} from context {} to available",
                 e.getAddressString(), e.getOfferId(), context);
@@ -199,29 +205,22 @@ public class XmrWalletService {
   }
 
   private Optional<XmrAddressEntry> findAddressEntry(String address, XmrAddressEntry.Context context) {
-      return getAddressEntryListAsImmutableList().stream()
-              .filter(e -> address.equals(e.getAddressString()))
-              .filter(e -> context == e.getContext())
-              .findAny();
+      return addressEntryList.findAddressEntryByAddress(address)
+              .filter(e -> context == e.getContext());
   }
 
   public List<XmrAddressEntry> getAvailableAddressEntries() {
-    return getAddressEntryListAsImmutableList().stream()
-            .filter(addressEntry -> XmrAddressEntry.Context.AVAILABLE == addressEntry.getContext())
-            .collect(Collectors.toList());
+    return getAddressEntries(XmrAddressEntry.Context.AVAILABLE);
 }
 
   public List<XmrAddressEntry> getAddressEntriesForTrade() {
-      return getAddressEntryListAsImmutableList().stream()
-            .filter(addressEntry -> XmrAddressEntry.Context.MULTI_SIG == addressEntry.getContext() ||
-                    XmrAddressEntry.Context.TRADE_PAYOUT == addressEntry.getContext())
-            .collect(Collectors.toList());
+      List<XmrAddressEntry> addressEntries = getAddressEntries(XmrAddressEntry.Context.MULTI_SIG);
+      addressEntries.addAll(getAddressEntries(XmrAddressEntry.Context.TRADE_PAYOUT));
+      return addressEntries;
   }
 
   public List<XmrAddressEntry> getAddressEntries(XmrAddressEntry.Context context) {
-      return getAddressEntryListAsImmutableList().stream()
-              .filter(addressEntry -> context == addressEntry.getContext())
-              .collect(Collectors.toList());
+      return addressEntryList.getAddressEntries(context);
   }
 
   public List<XmrAddressEntry> getFundedAvailableAddressEntries() {
@@ -240,24 +239,37 @@ public class XmrWalletService {
   }
 
   public Coin getBalanceForSubaddress(int subaddressIndex) {
-
-    // get subaddress balance
-    BigInteger balance = wallet.getBalance(0, subaddressIndex);
-
-//    // balance from xmr wallet does not include unconfirmed funds, so add them  // TODO: support lower in stack?
-//    for (MoneroTxWallet unconfirmedTx : wallet.getTxs(new MoneroTxQuery().setIsConfirmed(false))) {
-//      for (MoneroTransfer transfer : unconfirmedTx.getTransfers()) {
-//        if (transfer.getAccountIndex() == subaddressIndex) {
-//          balance = transfer.isIncoming() ? balance.add(transfer.getAmount()) : balance.subtract(transfer.getAmount());
-//        }
-//      }
-//    }
-
-    System.out.println("Returning balance for subaddress " + subaddressIndex + ": " + balance.longValueExact());
-
+    BigInteger balance = getSubaddressBalances().getOrDefault(subaddressIndex, BigInteger.ZERO);
     return Coin.valueOf(balance.longValueExact());
   }
 
+  // Marks the cached subaddress balances as outdated, e.g. after we relayed a tx which spends outputs
+  public void invalidateSubaddressBalances() {
+    subaddressBalancesStale = true;
+  }
+
+  private Map<Integer, BigInteger> getSubaddressBalances() {
+    if (subaddressBalancesStale) {
+      synchronized (this) {
+        if (subaddressBalancesStale) {
+          // A change reported while we fetch the balances marks them stale again
+          subaddressBalancesStale = false;
+          try {
+            Map<Integer, BigInteger> balances = new HashMap<>();
+            for (MoneroSubaddress subaddress : wallet.getSubaddresses(0)) {
+              balances.put(subaddress.getIndex(), subaddress.getBalance());
+            }
+            balanceBySubaddressIndex = Collections.unmodifiableMap(balances);
+            log.debug("Refreshed balances of {} subaddresses", balances.size());
+          } catch (RuntimeException e) {
+            subaddressBalancesStale = true;
+            throw e;
+          }
+        }
+      }
+    }
+    return balanceBySubaddressIndex;
+  }
 
   public Coin getAvailableConfirmedBalance() {
     return wallet != null ? Coin.valueOf(wallet.getUnlockedBalance(0).longValueExact()) : Coin.ZERO;
@@ -340,6 +352,7 @@ public class XmrWalletService {
           .setAddress(toAddress)
           .setAmount(ParsingUtils.coinToAtomicUnits(receiverAmount))
           .setRelay(true));
+      invalidateSubaddressBalances();
       callback.onSuccess(tx);
       printTxs("sendFunds", tx);
       return tx.getHash();
@@ -360,6 +373,23 @@ public class XmrWalletService {
 //  }
 
 
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Relay Tx
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public String relayTx(String txMetadata) {
+        String txHash = wallet.relayTx(txMetadata);
+        invalidateSubaddressBalances();
+        return txHash;
+    }
+
+    public String relayTx(MoneroTxWallet tx) {
+        String txHash = wallet.relayTx(tx);
+        invalidateSubaddressBalances();
+        return txHash;
+    }
+
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Create Tx
     ///////////////////////////////////////////////////////////////////////////////////////////
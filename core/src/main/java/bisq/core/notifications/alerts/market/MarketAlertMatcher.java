@@ -0,0 +1,333 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.notifications.alerts.market;
+
+import bisq.core.locale.CurrencyUtil;
+import bisq.core.locale.TradeCurrency;
+import bisq.core.monetary.Altcoin;
+import bisq.core.monetary.Price;
+import bisq.core.offer.Offer;
+import bisq.core.offer.OfferPayload;
+import bisq.core.provider.price.MarketPrice;
+
+import bisq.common.util.MathUtils;
+
+import org.bitcoinj.utils.Fiat;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import lombok.Value;
+
+import javax.annotation.Nullable;
+
+/**
+ * Matches offers against the market alert filters, both when an offer gets added and when the market price moves.
+ * <p>
+ * Filters are indexed by currency, payment method and offer direction, so an added offer is only checked against the
+ * filters it can match. Fixed price offers are kept sorted by price per currency and direction. For a given trigger
+ * value the offers triggering an alert form a price range bounded by the market price, so on a price update we only
+ * re-evaluate the offers whose price lies between the old and the new boundary of that range. The distance of market
+ * based offers to the market price does not change with the price, they are only evaluated when added.
+ * <p>
+ * Matches are deduplicated per filter by the alert id of the offer. Not thread safe, to be used on the user thread.
+ */
+class MarketAlertMatcher {
+    // Used for filters of payment accounts without trade currencies
+    private static final String ANY_CURRENCY = "*";
+
+    @Value
+    static class Match {
+        private MarketAlertFilter filter;
+        private Offer offer;
+        // Distance of the offer price to the market price in 1/100 of a percent, see getRatio
+        private double ratio;
+    }
+
+    // Keyed by currency code, payment method id and offer direction
+    private final Map<String, List<MarketAlertFilter>> filtersByKey = new HashMap<>();
+    // Trigger values in use, keyed by currency code and offer direction
+    private final Map<String, Set<Integer>> triggerValuesByMarket = new HashMap<>();
+    // Fixed price offers sorted by price, keyed by currency code and offer direction
+    private final Map<String, TreeMap<Long, Map<String, Offer>>> fixedPriceOffersByMarket = new HashMap<>();
+    // Offers added while we had no market price for their currency
+    private final Map<String, Map<String, Offer>> unpricedOffersByCurrency = new HashMap<>();
+    private final Map<String, Double> marketPriceByCurrency = new HashMap<>();
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    void setFilters(Collection<MarketAlertFilter> filters) {
+        filtersByKey.clear();
+        triggerValuesByMarket.clear();
+        for (MarketAlertFilter filter : filters) {
+            OfferPayload.Direction direction = filter.isBuyOffer() ? OfferPayload.Direction.BUY : OfferPayload.Direction.SELL;
+            String paymentMethodId = filter.getPaymentAccount().getPaymentMethod().getId();
+            Set<String> currencyCodes = filter.getPaymentAccount().getTradeCurrencies().stream()
+                    .map(TradeCurrency::getCode)
+                    .collect(Collectors.toSet());
+            if (currencyCodes.isEmpty())
+                currencyCodes.add(ANY_CURRENCY);
+
+            for (String currencyCode : currencyCodes) {
+                filtersByKey.computeIfAbsent(getFilterKey(currencyCode, paymentMethodId, direction), k -> new ArrayList<>())
+                        .add(filter);
+                triggerValuesByMarket.computeIfAbsent(getMarketKey(currencyCode, direction), k -> new TreeSet<>())
+                        .add(filter.getTriggerValue());
+            }
+        }
+    }
+
+    List<Match> onOfferAdded(Offer offer, @Nullable MarketPrice marketPrice) {
+        String currencyCode = offer.getCurrencyCode();
+        if (marketPrice == null || !marketPrice.isPriceAvailable()) {
+            addFixedPriceOffer(offer);
+            unpricedOffersByCurrency.computeIfAbsent(currencyCode, k -> new HashMap<>()).put(offer.getId(), offer);
+            return List.of();
+        }
+
+        // The price might have moved since the last price update. We bring the other offers to that price first, as
+        // the recorded price is the boundary for the next update.
+        Matches matches = new Matches();
+        addMatchesForMarketPrice(marketPrice, matches);
+        addFixedPriceOffer(offer);
+        addMatches(offer, getScaledPrice(marketPrice), getFilters(offer), matches);
+        return matches.list;
+    }
+
+    void onOfferRemoved(Offer offer) {
+        String currencyCode = offer.getCurrencyCode();
+        Map<String, Offer> unpricedOffers = unpricedOffersByCurrency.get(currencyCode);
+        if (unpricedOffers != null)
+            unpricedOffers.remove(offer.getId());
+
+        if (!offer.isUseMarketBasedPrice()) {
+            TreeMap<Long, Map<String, Offer>> offersByPrice = fixedPriceOffersByMarket.get(getMarketKey(currencyCode,
+                    offer.getDirection()));
+            if (offersByPrice != null) {
+                long price = offer.getOfferPayload().getPrice();
+                Map<String, Offer> offers = offersByPrice.get(price);
+                if (offers != null) {
+                    offers.remove(offer.getId());
+                    if (offers.isEmpty())
+                        offersByPrice.remove(price);
+                }
+            }
+        }
+    }
+
+    List<Match> onMarketPriceUpdated(MarketPrice marketPrice) {
+        if (!marketPrice.isPriceAvailable())
+            return List.of();
+
+        Matches matches = new Matches();
+        addMatchesForMarketPrice(marketPrice, matches);
+        return matches.list;
+    }
+
+    Set<String> getCurrencyCodes() {
+        Set<String> currencyCodes = new HashSet<>(unpricedOffersByCurrency.keySet());
+        fixedPriceOffersByMarket.keySet().forEach(marketKey -> currencyCodes.add(marketKey.split("\\|")[0]));
+        return currencyCodes;
+    }
+
+    // We combine the offer ID and the price (either as % price or as fixed price) to get also updates for edited offers
+    // % price get multiplied by 10000 to have 0.12% be converted to 12. For fixed price we have precision of 8 for
+    // altcoins and precision of 4 for fiat.
+    static String getAlertId(Offer offer) {
+        double price = offer.isUseMarketBasedPrice() ? offer.getMarketPriceMargin() * 10000 : offer.getOfferPayload().getPrice();
+        String priceString = String.valueOf((long) price);
+        return offer.getId() + "|" + priceString;
+    }
+
+    // Distance of the offer price to the market price in 1/100 of a percent. Negative if the offer is worse than
+    // the market price for the taker.
+    static double getRatio(double offerPriceValue, double scaledMarketPrice, boolean isSellOffer, boolean isFiatCurrency) {
+        double ratio = 1 - offerPriceValue / scaledMarketPrice;
+        if (isFiatCurrency == isSellOffer)
+            ratio *= -1;
+        return ratio * 10000;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void addMatchesForMarketPrice(MarketPrice marketPrice, Matches matches) {
+
+        String currencyCode = marketPrice.getCurrencyCode();
+        double scaledPrice = getScaledPrice(marketPrice);
+        Double previousScaledPrice = marketPriceByCurrency.put(currencyCode, scaledPrice);
+        if (previousScaledPrice != null && previousScaledPrice == scaledPrice)
+            return;
+
+        Map<String, Offer> unpricedOffers = unpricedOffersByCurrency.remove(currencyCode);
+        if (unpricedOffers != null)
+            unpricedOffers.values().forEach(offer -> addMatches(offer, scaledPrice, getFilters(offer), matches));
+
+        boolean isFiatCurrency = CurrencyUtil.isFiatCurrency(currencyCode);
+        for (OfferPayload.Direction direction : OfferPayload.Direction.values()) {
+            TreeMap<Long, Map<String, Offer>> offersByPrice = fixedPriceOffersByMarket.get(getMarketKey(currencyCode,
+                    direction));
+            if (offersByPrice == null || offersByPrice.isEmpty())
+                continue;
+
+            boolean isSellOffer = direction == OfferPayload.Direction.SELL;
+            for (int triggerValue : getTriggerValues(currencyCode, direction)) {
+                NavigableMap<Long, Map<String, Offer>> crossedOffers = getCrossedOffers(offersByPrice,
+                        previousScaledPrice,
+                        scaledPrice,
+                        triggerValue,
+                        isSellOffer,
+                        isFiatCurrency);
+                crossedOffers.values().forEach(offers -> offers.values().forEach(offer -> {
+                    List<MarketAlertFilter> filters = getFilters(offer).stream()
+                            .filter(filter -> filter.getTriggerValue() == triggerValue)
+                            .collect(Collectors.toList());
+                    addMatches(offer, scaledPrice, filters, matches);
+                }));
+            }
+        }
+    }
+
+    private void addFixedPriceOffer(Offer offer) {
+        if (offer.isUseMarketBasedPrice())
+            return;
+
+        fixedPriceOffersByMarket.computeIfAbsent(getMarketKey(offer.getCurrencyCode(), offer.getDirection()),
+                k -> new TreeMap<>())
+                .computeIfAbsent(offer.getOfferPayload().getPrice(), k -> new HashMap<>())
+                .put(offer.getId(), offer);
+    }
+
+    private void addMatches(Offer offer,
+                            double scaledMarketPrice,
+                            List<MarketAlertFilter> filters,
+                            Matches matches) {
+        if (filters.isEmpty())
+            return;
+
+        Price offerPrice = offer.getPrice();
+        if (offerPrice == null)
+            return;
+
+        boolean isSellOffer = offer.getDirection() == OfferPayload.Direction.SELL;
+        boolean isFiatCurrency = CurrencyUtil.isFiatCurrency(offer.getCurrencyCode());
+        double ratio = getRatio(offerPrice.getValue(), scaledMarketPrice, isSellOffer, isFiatCurrency);
+        String alertId = getAlertId(offer);
+        for (MarketAlertFilter filter : filters) {
+            if (ratio <= filter.getTriggerValue() && filter.notContainsAlertId(alertId)) {
+                matches.add(new Match(filter, offer, ratio), alertId);
+            }
+        }
+    }
+
+    // For a trigger value the triggered offers are either all offers at or above a boundary price (ratio falls with
+    // the offer price), or all offers at or below it. We return the offers which got into that range by the price
+    // move, with a bit of slack for rounding. The exact check is done in addMatches.
+    private static NavigableMap<Long, Map<String, Offer>> getCrossedOffers(TreeMap<Long, Map<String, Offer>> offersByPrice,
+                                                                           @Nullable Double previousScaledPrice,
+                                                                           double scaledPrice,
+                                                                           int triggerValue,
+                                                                           boolean isSellOffer,
+                                                                           boolean isFiatCurrency) {
+        boolean triggeredAtOrAbove = isFiatCurrency != isSellOffer;
+        double factor = triggeredAtOrAbove ? 1 - triggerValue / 10000d : 1 + triggerValue / 10000d;
+        long boundary = triggeredAtOrAbove ?
+                (long) Math.floor(scaledPrice * factor) :
+                (long) Math.ceil(scaledPrice * factor);
+        if (previousScaledPrice == null) {
+            return triggeredAtOrAbove ?
+                    offersByPrice.tailMap(boundary, true) :
+                    offersByPrice.headMap(boundary, true);
+        }
+
+        if (triggeredAtOrAbove) {
+            long previousBoundary = (long) Math.ceil(previousScaledPrice * factor);
+            return boundary <= previousBoundary ?
+                    offersByPrice.subMap(boundary, true, previousBoundary, true) :
+                    new TreeMap<>();
+        } else {
+            long previousBoundary = (long) Math.floor(previousScaledPrice * factor);
+            return boundary >= previousBoundary ?
+                    offersByPrice.subMap(previousBoundary, true, boundary, true) :
+                    new TreeMap<>();
+        }
+    }
+
+    private List<MarketAlertFilter> getFilters(Offer offer) {
+        String paymentMethodId = offer.getPaymentMethod().getId();
+        List<MarketAlertFilter> filters = new ArrayList<>();
+        filters.addAll(filtersByKey.getOrDefault(getFilterKey(offer.getCurrencyCode(), paymentMethodId,
+                offer.getDirection()), List.of()));
+        filters.addAll(filtersByKey.getOrDefault(getFilterKey(ANY_CURRENCY, paymentMethodId,
+                offer.getDirection()), List.of()));
+        return filters;
+    }
+
+    private Set<Integer> getTriggerValues(String currencyCode, OfferPayload.Direction direction) {
+        Set<Integer> triggerValues = new TreeSet<>();
+        triggerValues.addAll(triggerValuesByMarket.getOrDefault(getMarketKey(currencyCode, direction), Set.of()));
+        triggerValues.addAll(triggerValuesByMarket.getOrDefault(getMarketKey(ANY_CURRENCY, direction), Set.of()));
+        return triggerValues;
+    }
+
+    private static double getScaledPrice(MarketPrice marketPrice) {
+        int precision = CurrencyUtil.isCryptoCurrency(marketPrice.getCurrencyCode()) ?
+                Altcoin.SMALLEST_UNIT_EXPONENT :
+                Fiat.SMALLEST_UNIT_EXPONENT;
+        return MathUtils.scaleUpByPowerOf10(marketPrice.getPrice(), precision);
+    }
+
+    private static String getFilterKey(String currencyCode, String paymentMethodId, OfferPayload.Direction direction) {
+        return currencyCode + "|" + paymentMethodId + "|" + direction.name();
+    }
+
+    private static String getMarketKey(String currencyCode, OfferPayload.Direction direction) {
+        return currencyCode + "|" + direction.name();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Matches class
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Matches of one evaluation, an offer can be found by several trigger values and is matched only once per filter
+    private static class Matches {
+        private final List<Match> list = new ArrayList<>();
+        private final Map<MarketAlertFilter, Set<String>> alertIdsByFilter = new IdentityHashMap<>();
+
+        void add(Match match, String alertId) {
+            if (alertIdsByFilter.computeIfAbsent(match.getFilter(), k -> new HashSet<>()).add(alertId))
+                list.add(match);
+        }
+    }
+}
@@ -19,8 +19,6 @@ package bisq.core.notifications.alerts.market;
 
 import bisq.core.locale.CurrencyUtil;
 import bisq.core.locale.Res;
-import bisq.core.monetary.Altcoin;
-import bisq.core.monetary.Price;
 import bisq.core.notifications.MobileMessage;
 import bisq.core.notifications.MobileMessageType;
 import bisq.core.notifications.MobileNotificationService;
@@ -33,9 +31,6 @@ import bisq.core.user.User;
 import bisq.core.util.FormattingUtils;
 
 import bisq.common.crypto.KeyRing;
-import bisq.common.util.MathUtils;
-
-import org.bitcoinj.utils.Fiat;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -53,6 +48,7 @@ public class MarketAlerts {
     private final User user;
     private final PriceFeedService priceFeedService;
     private final KeyRing keyRing;
+    private final MarketAlertMatcher marketAlertMatcher = new MarketAlertMatcher();
 
     @Inject
     private MarketAlerts(OfferBookService offerBookService, MobileNotificationService mobileNotificationService,
@@ -78,8 +74,11 @@ public class MarketAlerts {
 
             @Override
             public void onRemoved(Offer offer) {
+                marketAlertMatcher.onOfferRemoved(offer);
             }
         });
+        // Existing offers can cross the trigger value of a filter when the market price moves
+        priceFeedService.updateCounterProperty().addListener((observable, oldValue, newValue) -> onMarketPricesUpdated());
         applyFilterOnAllOffers();
     }
 
@@ -90,6 +89,7 @@ public class MarketAlerts {
 
     public void removeMarketAlertFilter(MarketAlertFilter filter) {
         user.removeMarketAlertFilter(filter);
+        marketAlertMatcher.setFilters(user.getMarketAlertFilters());
     }
 
     public List<MarketAlertFilter> getMarketAlertFilters() {
@@ -102,105 +102,81 @@ public class MarketAlerts {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     private void applyFilterOnAllOffers() {
+        marketAlertMatcher.setFilters(user.getMarketAlertFilters());
         offerBookService.getOffers().forEach(this::onOfferAdded);
     }
 
-    // We combine the offer ID and the price (either as % price or as fixed price) to get also updates for edited offers
-    // % price get multiplied by 10000 to have 0.12% be converted to 12. For fixed price we have precision of 8 for
-    // altcoins and precision of 4 for fiat.
-    private String getAlertId(Offer offer) {
-        double price = offer.isUseMarketBasedPrice() ? offer.getMarketPriceMargin() * 10000 : offer.getOfferPayload().getPrice();
-        String priceString = String.valueOf((long) price);
-        return offer.getId() + "|" + priceString;
+    private void onOfferAdded(Offer offer) {
+        if (offer.isMyOffer(keyRing))
+            return;
+
+        MarketPrice marketPrice = priceFeedService.getMarketPrice(offer.getCurrencyCode());
+        marketAlertMatcher.onOfferAdded(offer, marketPrice).forEach(this::sendAlert);
     }
 
-    private void onOfferAdded(Offer offer) {
+    private void onMarketPricesUpdated() {
+        marketAlertMatcher.getCurrencyCodes().forEach(currencyCode -> {
+            MarketPrice marketPrice = priceFeedService.getMarketPrice(currencyCode);
+            if (marketPrice != null)
+                marketAlertMatcher.onMarketPriceUpdated(marketPrice).forEach(this::sendAlert);
+        });
+    }
+
+    private void sendAlert(MarketAlertMatcher.Match match) {
+        Offer offer = match.getOffer();
+        MarketAlertFilter marketAlertFilter = match.getFilter();
+        double ratio = match.getRatio();
         String currencyCode = offer.getCurrencyCode();
-        MarketPrice marketPrice = priceFeedService.getMarketPrice(currencyCode);
-        Price offerPrice = offer.getPrice();
-        if (marketPrice != null && offerPrice != null) {
-            boolean isSellOffer = offer.getDirection() == OfferPayload.Direction.SELL;
-            String shortOfferId = offer.getShortId();
-            boolean isFiatCurrency = CurrencyUtil.isFiatCurrency(currencyCode);
-            String alertId = getAlertId(offer);
-            user.getMarketAlertFilters().stream()
-                    .filter(marketAlertFilter -> !offer.isMyOffer(keyRing))
-                    .filter(marketAlertFilter -> offer.getPaymentMethod().equals(marketAlertFilter.getPaymentAccount().getPaymentMethod()))
-                    .filter(marketAlertFilter -> marketAlertFilter.notContainsAlertId(alertId))
-                    .forEach(marketAlertFilter -> {
-                        int triggerValue = marketAlertFilter.getTriggerValue();
-                        boolean isTriggerForBuyOffer = marketAlertFilter.isBuyOffer();
-                        double marketPriceAsDouble1 = marketPrice.getPrice();
-                        int precision = CurrencyUtil.isCryptoCurrency(currencyCode) ?
-                                Altcoin.SMALLEST_UNIT_EXPONENT :
-                                Fiat.SMALLEST_UNIT_EXPONENT;
-                        double marketPriceAsDouble = MathUtils.scaleUpByPowerOf10(marketPriceAsDouble1, precision);
-                        double offerPriceValue = offerPrice.getValue();
-                        double ratio = offerPriceValue / marketPriceAsDouble;
-                        ratio = 1 - ratio;
-                        if (isFiatCurrency && isSellOffer)
-                            ratio *= -1;
-                        else if (!isFiatCurrency && !isSellOffer)
-                            ratio *= -1;
-
-                        ratio = ratio * 10000;
-                        boolean triggered = ratio <= triggerValue;
-                        if (!triggered)
-                            return;
-
-                        boolean isTriggerForBuyOfferAndTriggered = !isSellOffer && isTriggerForBuyOffer;
-                        boolean isTriggerForSellOfferAndTriggered = isSellOffer && !isTriggerForBuyOffer;
-                        if (isTriggerForBuyOfferAndTriggered || isTriggerForSellOfferAndTriggered) {
-                            String direction = isSellOffer ? Res.get("shared.sell") : Res.get("shared.buy");
-                            String marketDir;
-                            if (isFiatCurrency) {
-                                if (isSellOffer) {
-                                    marketDir = ratio > 0 ?
-                                            Res.get("account.notifications.marketAlert.message.msg.above") :
-                                            Res.get("account.notifications.marketAlert.message.msg.below");
-                                } else {
-                                    marketDir = ratio < 0 ?
-                                            Res.get("account.notifications.marketAlert.message.msg.above") :
-                                            Res.get("account.notifications.marketAlert.message.msg.below");
-                                }
-                            } else {
-                                if (isSellOffer) {
-                                    marketDir = ratio < 0 ?
-                                            Res.get("account.notifications.marketAlert.message.msg.above") :
-                                            Res.get("account.notifications.marketAlert.message.msg.below");
-                                } else {
-                                    marketDir = ratio > 0 ?
-                                            Res.get("account.notifications.marketAlert.message.msg.above") :
-                                            Res.get("account.notifications.marketAlert.message.msg.below");
-                                }
-                            }
-
-                            ratio = Math.abs(ratio);
-                            String msg = Res.get("account.notifications.marketAlert.message.msg",
-                                    direction,
-                                    CurrencyUtil.getCurrencyPair(currencyCode),
-                                    FormattingUtils.formatPrice(offerPrice),
-                                    FormattingUtils.formatToPercentWithSymbol(ratio / 10000d),
-                                    marketDir,
-                                    Res.get(offer.getPaymentMethod().getId()),
-                                    shortOfferId);
-                            MobileMessage message = new MobileMessage(Res.get("account.notifications.marketAlert.message.title"),
-                                    msg,
-                                    shortOfferId,
-                                    MobileMessageType.MARKET);
-                            try {
-                                boolean wasSent = mobileNotificationService.sendMessage(message);
-                                if (wasSent) {
-                                    // In case we have disabled alerts wasSent is false and we do not
-                                    // persist the offer
-                                    marketAlertFilter.addAlertId(alertId);
-                                    user.requestPersistence();
-                                }
-                            } catch (Exception e) {
-                                e.printStackTrace();
-                            }
-                        }
-                    });
+        boolean isSellOffer = offer.getDirection() == OfferPayload.Direction.SELL;
+        boolean isFiatCurrency = CurrencyUtil.isFiatCurrency(currencyCode);
+        String shortOfferId = offer.getShortId();
+        String direction = isSellOffer ? Res.get("shared.sell") : Res.get("shared.buy");
+        String marketDir;
+        if (isFiatCurrency) {
+            if (isSellOffer) {
+                marketDir = ratio > 0 ?
+                        Res.get("account.notifications.marketAlert.message.msg.above") :
+                        Res.get("account.notifications.marketAlert.message.msg.below");
+            } else {
+                marketDir = ratio < 0 ?
+                        Res.get("account.notifications.marketAlert.message.msg.above") :
+                        Res.get("account.notifications.marketAlert.message.msg.below");
+            }
+        } else {
+            if (isSellOffer) {
+                marketDir = ratio < 0 ?
+                        Res.get("account.notifications.marketAlert.message.msg.above") :
+                        Res.get("account.notifications.marketAlert.message.msg.below");
+            } else {
+                marketDir = ratio > 0 ?
+                        Res.get("account.notifications.marketAlert.message.msg.above") :
+                        Res.get("account.notifications.marketAlert.message.msg.below");
+            }
+        }
+
+        ratio = Math.abs(ratio);
+        String msg = Res.get("account.notifications.marketAlert.message.msg",
+                direction,
+                CurrencyUtil.getCurrencyPair(currencyCode),
+                FormattingUtils.formatPrice(offer.getPrice()),
+                FormattingUtils.formatToPercentWithSymbol(ratio / 10000d),
+                marketDir,
+                Res.get(offer.getPaymentMethod().getId()),
+                shortOfferId);
+        MobileMessage message = new MobileMessage(Res.get("account.notifications.marketAlert.message.title"),
+                msg,
+                shortOfferId,
+                MobileMessageType.MARKET);
+        try {
+            boolean wasSent = mobileNotificationService.sendMessage(message);
+            if (wasSent) {
+                // In case we have disabled alerts wasSent is false and we do not
+                // persist the offer
+                marketAlertFilter.addAlertId(MarketAlertMatcher.getAlertId(offer));
+                user.requestPersistence();
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
         }
     }
 
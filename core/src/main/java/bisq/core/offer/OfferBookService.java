@@ -26,12 +26,12 @@ import bisq.network.p2p.P2PService;
 import bisq.network.p2p.storage.HashMapChangedListener;
 import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
 
+import bisq.common.Timer;
 import bisq.common.UserThread;
 import bisq.common.config.Config;
 import bisq.common.file.JsonFileManager;
 import bisq.common.handlers.ErrorMessageHandler;
 import bisq.common.handlers.ResultHandler;
-import bisq.common.util.Utilities;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -55,6 +55,9 @@ import javax.annotation.Nullable;
  */
 public class OfferBookService {
     private static final Logger log = LoggerFactory.getLogger(OfferBookService.class);
+    // Offer book changes come in bursts (e.g. at startup or if a maker goes offline), so we dump at most once in that
+    // interval
+    private static final long DUMP_STATISTICS_DELAY_SEC = 5;
 
     public interface OfferBookChangedListener {
         void onAdded(Offer offer);
@@ -67,6 +70,8 @@ public class OfferBookService {
     private final List<OfferBookChangedListener> offerBookChangedListeners = new LinkedList<>();
     private final FilterManager filterManager;
     private final JsonFileManager jsonFileManager;
+    @Nullable
+    private Timer dumpStatisticsTimer;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -117,15 +122,15 @@ public class OfferBookService {
                     addOfferBookChangedListener(new OfferBookChangedListener() {
                         @Override
                         public void onAdded(Offer offer) {
-                            doDumpStatistics();
+                            scheduleDumpStatistics();
                         }
 
                         @Override
                         public void onRemoved(Offer offer) {
-                            doDumpStatistics();
+                            scheduleDumpStatistics();
                         }
                     });
-                    UserThread.runAfter(OfferBookService.this::doDumpStatistics, 1);
+                    scheduleDumpStatistics();
                 }
             });
         }
@@ -219,6 +224,15 @@ public class OfferBookService {
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    private void scheduleDumpStatistics() {
+        if (dumpStatisticsTimer == null) {
+            dumpStatisticsTimer = UserThread.runAfter(() -> {
+                dumpStatisticsTimer = null;
+                doDumpStatistics();
+            }, DUMP_STATISTICS_DELAY_SEC);
+        }
+    }
+
     private void doDumpStatistics() {
         // We filter the case that it is a MarketBasedPrice but the price is not available
         // That should only be possible if the price feed provider is not available
@@ -244,6 +258,6 @@ public class OfferBookService {
                 })
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
-        jsonFileManager.writeToDiscThreaded(Utilities.objectToJson(offerForJsonList), "offers_statistics");
+        jsonFileManager.writeToDiscThreaded(offerForJsonList.stream(), "offers_statistics");
     }
 }
@@ -168,6 +168,8 @@ public final class OfferPayload implements ProtectedStoragePayload, ExpirablePay
     private final int protocolVersion;
     
     // address and signature of signing arbitrator
+    // The setters must only be used by the maker before the offer is published. Once wrapped in a
+    // ProtectedStorageEntry the payload is frozen, use withArbitratorSignature to get a changed copy.
     @Setter
     private NodeAddress arbitratorSigner;
     @Setter
@@ -367,6 +369,48 @@ public final class OfferPayload implements ProtectedStoragePayload, ExpirablePay
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    // Returns a copy with the given arbitrator signature, e.g. null to get the payload the arbitrator has signed
+    public OfferPayload withArbitratorSignature(@Nullable String arbitratorSignature) {
+        return new OfferPayload(id,
+                date,
+                ownerNodeAddress,
+                pubKeyRing,
+                direction,
+                price,
+                marketPriceMargin,
+                useMarketBasedPrice,
+                amount,
+                minAmount,
+                baseCurrencyCode,
+                counterCurrencyCode,
+                paymentMethodId,
+                makerPaymentAccountId,
+                offerFeePaymentTxId,
+                countryCode,
+                acceptedCountryCodes,
+                bankId,
+                acceptedBankIds,
+                versionNr,
+                blockHeightAtOfferCreation,
+                txFee,
+                makerFee,
+                buyerSecurityDeposit,
+                sellerSecurityDeposit,
+                maxTradeLimit,
+                maxTradePeriod,
+                useAutoClose,
+                useReOpenAfterAutoClose,
+                lowerClosePrice,
+                upperClosePrice,
+                isPrivateOffer,
+                hashOfChallenge,
+                extraDataMap,
+                protocolVersion,
+                arbitratorSigner,
+                arbitratorSignature,
+                reserveTxKeyImages);
+    }
+
     @Override
     public long getTTL() {
         return TTL;
@@ -673,8 +673,7 @@ public class OpenOfferManager implements PeerManager.Listener, DecryptedDirectMe
             // arbitrator signs offer to certify they have valid reserve tx
             String offerPayloadAsJson = Utilities.objectToJson(request.getOfferPayload());
             String signature = Sig.sign(keyRing.getSignatureKeyPair().getPrivate(), offerPayloadAsJson);
-            OfferPayload signedOfferPayload = request.getOfferPayload();
-            signedOfferPayload.setArbitratorSignature(signature);
+            OfferPayload signedOfferPayload = request.getOfferPayload().withArbitratorSignature(signature);
             
             // create record of signed offer
             SignedOffer signedOffer = new SignedOffer(signedOfferPayload.getId(), request.getReserveTxHash(), request.getReserveTxHex(), signature); // TODO (woodser): no need for signature to be part of SignedOffer?
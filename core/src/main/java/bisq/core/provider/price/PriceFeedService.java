@@ -57,6 +57,7 @@ import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -78,7 +79,8 @@ public class PriceFeedService {
 
     private static final long PERIOD_SEC = 60;
 
-    private final Map<String, MarketPrice> cache = new HashMap<>();
+    // Written on the user thread, read by offers' price lookups from read-only api calls as well
+    private final Map<String, MarketPrice> cache = new ConcurrentHashMap<>();
     private PriceProvider priceProvider;
     @Nullable
     private Consumer<Double> priceConsumer;
@@ -27,7 +27,7 @@ import bisq.core.trade.Contract;
 import bisq.common.crypto.PubKeyRing;
 import bisq.common.proto.ProtoUtil;
 import bisq.common.proto.network.NetworkPayload;
-import bisq.common.proto.persistable.PersistablePayload;
+import bisq.common.proto.persistable.ChangeTrackedPayload;
 import bisq.common.util.CollectionUtils;
 import bisq.common.util.ExtraDataMapValidator;
 import bisq.common.util.Utilities;
@@ -45,6 +45,7 @@ import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleObjectProperty;
 
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 
 import java.util.ArrayList;
@@ -66,7 +67,7 @@ import javax.annotation.Nullable;
 @Slf4j
 @EqualsAndHashCode
 @Getter
-public final class Dispute implements NetworkPayload, PersistablePayload {
+public final class Dispute implements NetworkPayload, ChangeTrackedPayload {
 
     public enum State {
         NEEDS_UPGRADE,
@@ -116,21 +117,16 @@ public final class Dispute implements NetworkPayload, PersistablePayload {
     private final ObjectProperty<DisputeResult> disputeResultProperty = new SimpleObjectProperty<>();
     private final long openingDate;
     @Nullable
-    @Setter
     private String disputePayoutTxId;
-    @Setter
     // Added v1.2.0
     private SupportType supportType;
     // Only used at refundAgent so that he knows how the mediator resolved the case
-    @Setter
     @Nullable
     private String mediatorsDisputeResult;
-    @Setter
     @Nullable
     private String delayedPayoutTxId;
 
     // Added at v1.4.0
-    @Setter
     @Nullable
     private String donationAddressOfDelayedPayoutTx;
     // Added at v1.6.0
@@ -140,7 +136,6 @@ public final class Dispute implements NetworkPayload, PersistablePayload {
     // at the P2P network storage checks. The hash of the object will be used to verify if the data is valid. Any new
     // field in a class would break that hash and therefore break the storage mechanism.
     @Nullable
-    @Setter
     private Map<String, String> extraDataMap;
     
     // Added for XMR integration
@@ -159,6 +154,8 @@ public final class Dispute implements NetworkPayload, PersistablePayload {
 
     private transient final BooleanProperty isClosedProperty = new SimpleBooleanProperty();
     private transient final IntegerProperty badgeCountProperty = new SimpleIntegerProperty();
+    // Counts our changes of the persisted state, see getChangeCount
+    private transient volatile int changeCount;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -215,6 +212,13 @@ public final class Dispute implements NetworkPayload, PersistablePayload {
         id = tradeId + "_" + traderId;
         uid = UUID.randomUUID().toString();
         refreshAlertLevel(true);
+
+        chatMessages.addListener((ListChangeListener<ChatMessage>) change -> {
+            while (change.next()) {
+                change.getRemoved().forEach(chatMessage -> changeCount += chatMessage.getChangeCount());
+            }
+            changeCount++;
+        });
     }
 
 
@@ -366,12 +370,44 @@ public final class Dispute implements NetworkPayload, PersistablePayload {
     public void setState(Dispute.State disputeState) {
         this.disputeState = disputeState;
         this.isClosedProperty.set(disputeState == State.CLOSED);
+        changeCount++;
     }
 
     public void setDisputeResult(DisputeResult disputeResult) {
+        changeCount += getResultChangeCount(disputeResultProperty.get()) + 1;
         disputeResultProperty.set(disputeResult);
     }
 
+    public void setDisputePayoutTxId(@Nullable String disputePayoutTxId) {
+        this.disputePayoutTxId = disputePayoutTxId;
+        changeCount++;
+    }
+
+    public void setSupportType(SupportType supportType) {
+        this.supportType = supportType;
+        changeCount++;
+    }
+
+    public void setMediatorsDisputeResult(@Nullable String mediatorsDisputeResult) {
+        this.mediatorsDisputeResult = mediatorsDisputeResult;
+        changeCount++;
+    }
+
+    public void setDelayedPayoutTxId(@Nullable String delayedPayoutTxId) {
+        this.delayedPayoutTxId = delayedPayoutTxId;
+        changeCount++;
+    }
+
+    public void setDonationAddressOfDelayedPayoutTx(@Nullable String donationAddressOfDelayedPayoutTx) {
+        this.donationAddressOfDelayedPayoutTx = donationAddressOfDelayedPayoutTx;
+        changeCount++;
+    }
+
+    public void setExtraDataMap(@Nullable Map<String, String> extraDataMap) {
+        this.extraDataMap = extraDataMap;
+        changeCount++;
+    }
+
     public void setExtraData(String key, String value) {
         if (key == null || value == null) {
             return;
@@ -380,12 +416,24 @@ public final class Dispute implements NetworkPayload, PersistablePayload {
             extraDataMap = new HashMap<>();
         }
         extraDataMap.put(key, value);
+        changeCount++;
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Getters
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    // Our own changes plus the changes of the chat messages, as those change when they get acknowledged. The counts
+    // of removed messages and results are added to our own count, so the sum keeps growing.
+    @Override
+    public int getChangeCount() {
+        int changeCount = this.changeCount + getResultChangeCount(disputeResultProperty.get());
+        for (ChatMessage chatMessage : new ArrayList<>(chatMessages)) {
+            changeCount += chatMessage.getChangeCount();
+        }
+        return changeCount;
+    }
+
     public String getShortTradeId() {
         return Utilities.getShortId(tradeId);
     }
@@ -472,6 +520,12 @@ public final class Dispute implements NetworkPayload, PersistablePayload {
         return contract.isBuyerMakerAndSellerTaker() ? takerPaymentAccountPayload : makerPaymentAccountPayload;
     }
 
+    private static int getResultChangeCount(@Nullable DisputeResult disputeResult) {
+        return disputeResult != null && disputeResult.getChatMessage() != null ?
+                disputeResult.getChatMessage().getChangeCount() :
+                0;
+    }
+
     @Override
     public String toString() {
         return "Dispute{" +
@@ -17,10 +17,16 @@
 
 package bisq.core.support.dispute;
 
+import bisq.common.proto.ProtoUtil;
 import bisq.common.proto.persistable.PersistableListAsObservable;
 import bisq.common.proto.persistable.PersistablePayload;
+import bisq.common.proto.persistable.ProtoMessageCache;
+
+import com.google.protobuf.Message;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
 
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
@@ -34,6 +40,9 @@ import lombok.extern.slf4j.Slf4j;
  * can be saved to disc.
  */
 public abstract class DisputeList<T extends PersistablePayload> extends PersistableListAsObservable<T> {
+    @ToString.Exclude
+    private final transient ProtoMessageCache<T, protobuf.Dispute> disputeMessageCache =
+            new ProtoMessageCache<>(dispute -> (protobuf.Dispute) dispute.toProtoMessage());
 
     public DisputeList() {
     }
@@ -41,4 +50,19 @@ public abstract class DisputeList<T extends PersistablePayload> extends Persista
     protected DisputeList(Collection<T> collection) {
         super(collection);
     }
+
+    @Override
+    public Message toProtoMessage() {
+        return toProtoMessage(ProtoUtil.collectionToProto(getList(), protobuf.Dispute.class));
+    }
+
+    // The disputes count the changes of their persisted state, so we only build the messages of new and changed
+    // disputes here.
+    @Override
+    public Supplier<Message> snapshotPersistableMessage() {
+        List<protobuf.Dispute> disputes = disputeMessageCache.getProtoMessages(getList());
+        return () -> toProtoMessage(disputes);
+    }
+
+    protected abstract Message toProtoMessage(Iterable<protobuf.Dispute> disputes);
 }
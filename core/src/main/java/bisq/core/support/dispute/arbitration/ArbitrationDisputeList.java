@@ -22,8 +22,6 @@ import bisq.core.support.SupportType;
 import bisq.core.support.dispute.Dispute;
 import bisq.core.support.dispute.DisputeList;
 
-import bisq.common.proto.ProtoUtil;
-
 import com.google.protobuf.Message;
 
 import java.util.Collection;
@@ -59,12 +57,12 @@ public final class ArbitrationDisputeList extends DisputeList<Dispute> {
     }
 
     @Override
-    public Message toProtoMessage() {
-
-        forEach(dispute -> checkArgument(dispute.getSupportType().equals(SupportType.ARBITRATION), "Support type has to be ARBITRATION"));
+    protected Message toProtoMessage(Iterable<protobuf.Dispute> disputes) {
+        disputes.forEach(dispute -> checkArgument(dispute.getSupportType() == protobuf.SupportType.ARBITRATION,
+                "Support type has to be ARBITRATION"));
 
         return protobuf.PersistableEnvelope.newBuilder().setArbitrationDisputeList(protobuf.ArbitrationDisputeList.newBuilder()
-                .addAllDispute(ProtoUtil.collectionToProto(getList(), protobuf.Dispute.class))).build();
+                .addAllDispute(disputes)).build();
     }
 
     public static ArbitrationDisputeList fromProto(protobuf.ArbitrationDisputeList proto,
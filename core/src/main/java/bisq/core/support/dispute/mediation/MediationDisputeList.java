@@ -22,8 +22,6 @@ import bisq.core.support.SupportType;
 import bisq.core.support.dispute.Dispute;
 import bisq.core.support.dispute.DisputeList;
 
-import bisq.common.proto.ProtoUtil;
-
 import com.google.protobuf.Message;
 
 import java.util.Collection;
@@ -57,9 +55,9 @@ public final class MediationDisputeList extends DisputeList<Dispute> {
     }
 
     @Override
-    public Message toProtoMessage() {
+    protected Message toProtoMessage(Iterable<protobuf.Dispute> disputes) {
         return protobuf.PersistableEnvelope.newBuilder().setMediationDisputeList(protobuf.MediationDisputeList.newBuilder()
-                .addAllDispute(ProtoUtil.collectionToProto(getList(), protobuf.Dispute.class))).build();
+                .addAllDispute(disputes)).build();
     }
 
     public static MediationDisputeList fromProto(protobuf.MediationDisputeList proto,
@@ -22,8 +22,6 @@ import bisq.core.support.SupportType;
 import bisq.core.support.dispute.Dispute;
 import bisq.core.support.dispute.DisputeList;
 
-import bisq.common.proto.ProtoUtil;
-
 import com.google.protobuf.Message;
 
 import java.util.Collection;
@@ -59,11 +57,12 @@ public final class RefundDisputeList extends DisputeList<Dispute> {
     }
 
     @Override
-    public Message toProtoMessage() {
-        forEach(dispute -> checkArgument(dispute.getSupportType().equals(SupportType.REFUND), "Support type has to be REFUND"));
+    protected Message toProtoMessage(Iterable<protobuf.Dispute> disputes) {
+        disputes.forEach(dispute -> checkArgument(dispute.getSupportType() == protobuf.SupportType.REFUND,
+                "Support type has to be REFUND"));
 
         return protobuf.PersistableEnvelope.newBuilder().setRefundDisputeList(protobuf.RefundDisputeList.newBuilder()
-                .addAllDispute(ProtoUtil.collectionToProto(getList(), protobuf.Dispute.class))).build();
+                .addAllDispute(disputes)).build();
     }
 
     public static RefundDisputeList fromProto(protobuf.RefundDisputeList proto,
@@ -46,7 +46,6 @@ import java.lang.ref.WeakReference;
 
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
-import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.annotation.Nullable;
@@ -77,11 +76,9 @@ public final class ChatMessage extends SupportMessage {
     private final ArrayList<Attachment> attachments = new ArrayList<>();
     private final NodeAddress senderNodeAddress;
     private final long date;
-    @Setter
     private boolean isSystemMessage;
 
     // Added in v1.1.6. for trader chat to store if message was shown in popup
-    @Setter
     private boolean wasDisplayed;
 
     //todo move to base class
@@ -92,6 +89,8 @@ public final class ChatMessage extends SupportMessage {
     private final StringProperty ackErrorProperty;
 
     transient private WeakReference<Listener> listener;
+    // Counts the changes of the persisted state, used by the disputes and trades holding the message
+    transient private volatile int changeCount;
 
     public ChatMessage(SupportType supportType,
                        String tradeId,
@@ -273,8 +272,19 @@ public final class ChatMessage extends SupportMessage {
         this.attachments.addAll(attachments);
     }
 
+    public void setSystemMessage(boolean isSystemMessage) {
+        this.isSystemMessage = isSystemMessage;
+        changeCount++;
+    }
+
+    public void setWasDisplayed(boolean wasDisplayed) {
+        this.wasDisplayed = wasDisplayed;
+        changeCount++;
+    }
+
     public void setArrived(@SuppressWarnings("SameParameterValue") boolean arrived) {
         this.arrivedProperty.set(arrived);
+        changeCount++;
         notifyChangeListener();
     }
 
@@ -285,6 +295,7 @@ public final class ChatMessage extends SupportMessage {
 
     public void setStoredInMailbox(@SuppressWarnings("SameParameterValue") boolean storedInMailbox) {
         this.storedInMailboxProperty.set(storedInMailbox);
+        changeCount++;
         notifyChangeListener();
     }
 
@@ -294,6 +305,7 @@ public final class ChatMessage extends SupportMessage {
 
     public void setAcknowledged(boolean acknowledged) {
         this.acknowledgedProperty.set(acknowledged);
+        changeCount++;
         notifyChangeListener();
     }
 
@@ -303,6 +315,7 @@ public final class ChatMessage extends SupportMessage {
 
     public void setSendMessageError(String sendMessageError) {
         this.sendMessageErrorProperty.set(sendMessageError);
+        changeCount++;
         notifyChangeListener();
     }
 
@@ -312,6 +325,7 @@ public final class ChatMessage extends SupportMessage {
 
     public void setAckError(String ackError) {
         this.ackErrorProperty.set(ackError);
+        changeCount++;
         notifyChangeListener();
     }
 
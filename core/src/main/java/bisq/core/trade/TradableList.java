@@ -24,17 +24,21 @@ import bisq.core.proto.CoreProtoResolver;
 import bisq.common.proto.ProtoUtil;
 import bisq.common.proto.ProtobufferRuntimeException;
 import bisq.common.proto.persistable.PersistableListAsObservable;
+import bisq.common.proto.persistable.ProtoMessageCache;
 
 import com.google.protobuf.Message;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public final class TradableList<T extends Tradable> extends PersistableListAsObservable<T> {
+    private final transient ProtoMessageCache<T, protobuf.Tradable> tradableMessageCache =
+            new ProtoMessageCache<>(tradable -> (protobuf.Tradable) tradable.toProtoMessage());
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Constructor
@@ -54,9 +58,21 @@ public final class TradableList<T extends Tradable> extends PersistableListAsObs
 
     @Override
     public Message toProtoMessage() {
+        return toProtoMessage(ProtoUtil.collectionToProto(getList(), protobuf.Tradable.class));
+    }
+
+    // The trades count the changes of their persisted state, so we only build the messages of new and changed trades
+    // and of the open offers here.
+    @Override
+    public Supplier<Message> snapshotPersistableMessage() {
+        List<protobuf.Tradable> tradables = tradableMessageCache.getProtoMessages(getList());
+        return () -> toProtoMessage(tradables);
+    }
+
+    private static Message toProtoMessage(Iterable<protobuf.Tradable> tradables) {
         return protobuf.PersistableEnvelope.newBuilder()
                 .setTradableList(protobuf.TradableList.newBuilder()
-                        .addAllTradable(ProtoUtil.collectionToProto(getList(), protobuf.Tradable.class)))
+                        .addAllTradable(tradables))
                 .build();
     }
 
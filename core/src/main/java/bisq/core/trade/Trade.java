@@ -41,6 +41,7 @@ import bisq.network.p2p.NodeAddress;
 
 import bisq.common.crypto.PubKeyRing;
 import bisq.common.proto.ProtoUtil;
+import bisq.common.proto.persistable.ChangeTrackedPayload;
 import bisq.common.taskrunner.Model;
 import bisq.common.util.Utilities;
 
@@ -60,6 +61,7 @@ import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
 
 import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 
 import java.util.ArrayList;
@@ -92,7 +94,7 @@ import monero.wallet.model.MoneroWalletListener;
  * stored in the task model.
  */
 @Slf4j
-public abstract class Trade implements Tradable, Model {
+public abstract class Trade implements Tradable, ChangeTrackedPayload, Model {
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Enums
@@ -387,6 +389,8 @@ public abstract class Trade implements Tradable, Model {
     //  Mutable
     @Getter
     transient private boolean isInitialized;
+    // Counts our changes of the persisted state, see getChangeCount and markChanged
+    transient private volatile int changeCount;
 
     // Added in v1.2.0
     @Nullable
@@ -500,6 +504,13 @@ public abstract class Trade implements Tradable, Model {
         this.arbitratorNodeAddress = arbitratorNodeAddress;
         
         setTradeAmount(tradeAmount);
+
+        chatMessages.addListener((ListChangeListener<ChatMessage>) change -> {
+            while (change.next()) {
+                change.getRemoved().forEach(chatMessage -> changeCount += chatMessage.getChangeCount());
+            }
+            changeCount++;
+        });
     }
 
 
@@ -905,26 +916,31 @@ public abstract class Trade implements Tradable, Model {
         this.state = state;
         stateProperty.set(state);
         statePhaseProperty.set(state.getPhase());
+        changeCount++;
     }
 
     public void setDisputeState(DisputeState disputeState) {
         this.disputeState = disputeState;
         disputeStateProperty.set(disputeState);
+        changeCount++;
     }
 
     public void setMediationResultState(MediationResultState mediationResultState) {
         this.mediationResultState = mediationResultState;
         mediationResultStateProperty.set(mediationResultState);
+        changeCount++;
     }
 
     public void setRefundResultState(RefundResultState refundResultState) {
         this.refundResultState = refundResultState;
         refundResultStateProperty.set(refundResultState);
+        changeCount++;
     }
 
     public void setTradePeriodState(TradePeriodState tradePeriodState) {
         this.tradePeriodState = tradePeriodState;
         tradePeriodStateProperty.set(tradePeriodState);
+        changeCount++;
     }
 
     public void setTradeAmount(Coin tradeAmount) {
@@ -932,21 +948,32 @@ public abstract class Trade implements Tradable, Model {
         tradeAmountAsLong = tradeAmount.value;
         getTradeAmountProperty().set(tradeAmount);
         getTradeVolumeProperty().set(getTradeVolume());
+        changeCount++;
     }
 
     public void setPayoutTx(MoneroTxWallet payoutTx) {
         this.payoutTx = payoutTx;
         payoutTxId = payoutTx.getHash();
+        changeCount++;
     }
 
     public void setErrorMessage(String errorMessage) {
         this.errorMessage = errorMessage;
         errorMessageProperty.set(errorMessage);
+        changeCount++;
     }
 
     public void setAssetTxProofResult(@Nullable AssetTxProofResult assetTxProofResult) {
         this.assetTxProofResult = assetTxProofResult;
         assetTxProofResultUpdateProperty.set(assetTxProofResultUpdateProperty.get() + 1);
+        changeCount++;
+    }
+
+    // The trade protocol changes the trade and its process model at many places which do not count their changes.
+    // The trade manager marks the pending trades as changed when it persists them, our setters above count the
+    // changes of closed and failed trades.
+    public void markChanged() {
+        changeCount++;
     }
 
 
@@ -954,6 +981,17 @@ public abstract class Trade implements Tradable, Model {
     // Getter
     ///////////////////////////////////////////////////////////////////////////////////////////
     
+    // Our own changes plus the changes of the chat messages, as those change when they get acknowledged. The counts
+    // of removed messages are added to our own count, so the sum keeps growing.
+    @Override
+    public int getChangeCount() {
+        int changeCount = this.changeCount;
+        for (ChatMessage chatMessage : new ArrayList<>(chatMessages)) {
+            changeCount += chatMessage.getChangeCount();
+        }
+        return changeCount;
+    }
+
     public TradingPeer getSelf() {
         if (this instanceof MakerTrade) return processModel.getMaker();
         if (this instanceof TakerTrade) return processModel.getTaker();
@@ -357,6 +357,8 @@ public class TradeManager implements PersistedDataHost, DecryptedDirectMessageLi
     }
 
     public void requestPersistence() {
+        // The trade protocol changes the pending trades without counting those changes
+        tradableList.forEach(Trade::markChanged);
         persistenceManager.requestPersistence();
     }
 
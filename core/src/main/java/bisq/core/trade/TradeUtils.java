@@ -66,12 +66,9 @@ public class TradeUtils {
      */
     public static boolean isArbitratorSignatureValid(OfferPayload signedOfferPayload, Mediator arbitrator) {
         
-        // remove arbitrator signature from signed payload
+        // get unsigned offer payload as json string, from a copy as the signed payload might be in the offer book
         String signature = signedOfferPayload.getArbitratorSignature();
-        signedOfferPayload.setArbitratorSignature(null);
-        
-        // get unsigned offer payload as json string
-        String unsignedOfferAsJson = Utilities.objectToJson(signedOfferPayload);
+        String unsignedOfferAsJson = Utilities.objectToJson(signedOfferPayload.withArbitratorSignature(null));
         
         // verify arbitrator signature
         boolean isValid = true;
@@ -83,9 +80,6 @@ public class TradeUtils {
             isValid = false;
         }
         
-        // replace signature
-        signedOfferPayload.setArbitratorSignature(signature);
-        
         // return result
         return isValid;
     }
@@ -162,6 +156,7 @@ public class TradeUtils {
                 .setAccountIndex(0)
                 .addDestination(TradeUtils.FEE_ADDRESS, tradeFee)
                 .addDestination(returnAddress, depositAmount.add(miningFee.multiply(BigInteger.valueOf(3l))))); // add thrice the mining fee // TODO (woodser): really require more funds on top of security deposit?
+        xmrWalletService.invalidateSubaddressBalances();
 
         return reserveTx;
     }
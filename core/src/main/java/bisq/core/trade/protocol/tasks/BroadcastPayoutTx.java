@@ -52,7 +52,7 @@ public abstract class BroadcastPayoutTx extends TradeTask {
                 complete();
             } else {
                 try {
-                    processModel.getProvider().getXmrWalletService().getWallet().relayTx(payoutTx);
+                    processModel.getProvider().getXmrWalletService().relayTx(payoutTx);
                     if (!completed) {
                         log.debug("BroadcastTx succeeded. Transaction:" + payoutTx);
                         setState();
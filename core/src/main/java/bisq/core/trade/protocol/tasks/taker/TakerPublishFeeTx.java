@@ -43,7 +43,7 @@ public class TakerPublishFeeTx extends TradeTask {
             // committed as well, but if user would close app before success handler returns the commit would not
             // be done.
             MoneroTxWallet takeOfferFeeTx = processModel.getTakeOfferFeeTx();
-            processModel.getProvider().getXmrWalletService().getWallet().relayTx(takeOfferFeeTx);
+            processModel.getProvider().getXmrWalletService().relayTx(takeOfferFeeTx);
             System.out.println("TAKER PUBLISHED FEE TX");
             System.out.println(takeOfferFeeTx);
             trade.setState(Trade.State.TAKER_PUBLISHED_TAKER_FEE_TX);
@@ -0,0 +1,44 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import lombok.Value;
+
+import javax.annotation.Nullable;
+
+/**
+ * Open, high, low, close and volume of all trade statistics of one currency within one tick.
+ * Prices are in the precision of the Price of the currency, amounts in the smallest unit of the base currency and
+ * volumes in the precision of the Volume of the currency.
+ */
+@Value
+public class Candle {
+    // Null if the candle aggregates the trade statistics of all currencies
+    @Nullable
+    String currencyCode;
+    CandleTickUnit tickUnit;
+    long tickStart;
+    long open;
+    long close;
+    long high;
+    long low;
+    long median;
+    long accumulatedAmount;
+    long accumulatedVolume;
+    long numTrades;
+}
@@ -0,0 +1,68 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Interval of a candle of the trade statistics charts.
+ */
+public enum CandleTickUnit {
+    YEAR,
+    MONTH,
+    WEEK,
+    DAY,
+    HOUR,
+    MINUTE_10;
+
+    /**
+     * @return Start of the tick containing the given time, as milliseconds since epoch.
+     */
+    public long roundToTick(long time, ZoneId zoneId) {
+        LocalDateTime localDate = Instant.ofEpochMilli(time).atZone(zoneId).toLocalDateTime();
+        LocalDateTime tickStart;
+        switch (this) {
+            case YEAR:
+                tickStart = localDate.withMonth(1).withDayOfYear(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+                break;
+            case MONTH:
+                tickStart = localDate.withDayOfMonth(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+                break;
+            case WEEK:
+                int dayOfWeek = localDate.getDayOfWeek().getValue();
+                LocalDateTime firstDayOfWeek = ChronoUnit.DAYS.addTo(localDate, 1 - dayOfWeek);
+                tickStart = firstDayOfWeek.withHour(0).withMinute(0).withSecond(0).withNano(0);
+                break;
+            case DAY:
+                tickStart = localDate.withHour(0).withMinute(0).withSecond(0).withNano(0);
+                break;
+            case HOUR:
+                tickStart = localDate.withMinute(0).withSecond(0).withNano(0);
+                break;
+            case MINUTE_10:
+                tickStart = localDate.withMinute(localDate.getMinute() - localDate.getMinute() % 10).withSecond(0).withNano(0);
+                break;
+            default:
+                tickStart = localDate;
+        }
+        return tickStart.atZone(zoneId).toInstant().toEpochMilli();
+    }
+}
@@ -17,10 +17,12 @@
 
 package bisq.core.trade.statistics;
 
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 import bisq.network.p2p.storage.persistence.PersistableNetworkPayloadStore;
 
 import com.google.protobuf.Message;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -46,14 +48,15 @@ public class TradeStatistics2Store extends PersistableNetworkPayloadStore<TradeS
         super(list);
     }
 
-    public Message toProtoMessage() {
+    @Override
+    protected Message toProtoMessage(Collection<PersistableNetworkPayload> payloads) {
         return protobuf.PersistableEnvelope.newBuilder()
-                .setTradeStatistics2Store(getBuilder())
+                .setTradeStatistics2Store(getBuilder(payloads))
                 .build();
     }
 
-    private protobuf.TradeStatistics2Store.Builder getBuilder() {
-        final List<protobuf.TradeStatistics2> protoList = map.values().stream()
+    private protobuf.TradeStatistics2Store.Builder getBuilder(Collection<PersistableNetworkPayload> payloads) {
+        final List<protobuf.TradeStatistics2> protoList = payloads.stream()
                 .map(payload -> (TradeStatistics2) payload)
                 .map(TradeStatistics2::toProtoTradeStatistics2)
                 .collect(Collectors.toList());
@@ -23,14 +23,19 @@ import bisq.network.p2p.storage.persistence.HistoricalDataStoreService;
 import bisq.common.config.Config;
 import bisq.common.persistence.PersistenceManager;
 
+import com.google.protobuf.CodedInputStream;
+
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
 import java.io.File;
+import java.io.IOException;
 
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 @Singleton
 @Slf4j
 public class TradeStatistics3StorageService extends HistoricalDataStoreService<TradeStatistics3Store> {
@@ -72,6 +77,17 @@ public class TradeStatistics3StorageService extends HistoricalDataStoreService<T
     // Protected
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    @Override
+    protected PersistableNetworkPayload decodeHistoricalPayload(CodedInputStream input) throws IOException {
+        return TradeStatistics3.fromProto(protobuf.TradeStatistics3.parseFrom(input));
+    }
+
+    @Nullable
+    @Override
+    protected byte[] decodeHistoricalPayloadHash(CodedInputStream input) throws IOException {
+        return readBytesField(input, protobuf.TradeStatistics3.HASH_FIELD_NUMBER);
+    }
+
     @Override
     protected TradeStatistics3Store createStore() {
         return new TradeStatistics3Store();
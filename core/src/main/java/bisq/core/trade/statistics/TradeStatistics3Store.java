@@ -18,10 +18,12 @@
 package bisq.core.trade.statistics;
 
 import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 import bisq.network.p2p.storage.persistence.PersistableNetworkPayloadStore;
 
 import com.google.protobuf.Message;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -47,14 +49,15 @@ public class TradeStatistics3Store extends PersistableNetworkPayloadStore<TradeS
         list.forEach(item -> map.put(new P2PDataStorage.ByteArray(item.getHash()), item));
     }
 
-    public Message toProtoMessage() {
+    @Override
+    protected Message toProtoMessage(Collection<PersistableNetworkPayload> payloads) {
         return protobuf.PersistableEnvelope.newBuilder()
-                .setTradeStatistics3Store(getBuilder())
+                .setTradeStatistics3Store(getBuilder(payloads))
                 .build();
     }
 
-    private protobuf.TradeStatistics3Store.Builder getBuilder() {
-        List<protobuf.TradeStatistics3> protoList = map.values().stream()
+    private protobuf.TradeStatistics3Store.Builder getBuilder(Collection<PersistableNetworkPayload> payloads) {
+        List<protobuf.TradeStatistics3> protoList = payloads.stream()
                 .map(payload -> (TradeStatistics3) payload)
                 .map(TradeStatistics3::toProtoTradeStatistics3)
                 .collect(Collectors.toList());
@@ -0,0 +1,266 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import bisq.common.util.MathUtils;
+
+import com.google.inject.Inject;
+
+import javax.inject.Singleton;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.time.ZoneId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Maintains the candles of all currencies and tick units. Trade statistics are append only, so each new trade
+ * statistic only updates the one candle per tick unit it falls into, instead of rebuilding the candles from all trade
+ * statistics when they get requested.
+ * <p>
+ * Ticks are rounded in the default time zone of the system, like in the trade statistics charts.
+ * The TradeStatisticsManager adds the trade statistics. Candles can be read from any thread.
+ */
+@Singleton
+@Slf4j
+public class TradeStatisticsCandleService {
+    private final ZoneId zoneId;
+    private final Map<String, Map<CandleTickUnit, TreeMap<Long, CandleAggregate>>> aggregatesByCurrency = new HashMap<>();
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Inject
+    public TradeStatisticsCandleService() {
+        this(ZoneId.systemDefault());
+    }
+
+    @VisibleForTesting
+    TradeStatisticsCandleService(ZoneId zoneId) {
+        this.zoneId = zoneId;
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // The caller must not add the same trade statistics twice
+    public synchronized void add(TradeStatistics3 tradeStatistics) {
+        Map<CandleTickUnit, TreeMap<Long, CandleAggregate>> aggregatesByTickUnit =
+                aggregatesByCurrency.computeIfAbsent(tradeStatistics.getCurrency(), e -> new EnumMap<>(CandleTickUnit.class));
+        for (CandleTickUnit tickUnit : CandleTickUnit.values()) {
+            long tickStart = tickUnit.roundToTick(tradeStatistics.getDateAsLong(), zoneId);
+            aggregatesByTickUnit.computeIfAbsent(tickUnit, e -> new TreeMap<>())
+                    .computeIfAbsent(tickStart, e -> new CandleAggregate())
+                    .add(tradeStatistics);
+        }
+    }
+
+    public synchronized void addAll(Collection<TradeStatistics3> tradeStatistics) {
+        long ts = System.currentTimeMillis();
+        tradeStatistics.forEach(this::add);
+        log.info("Adding {} trade statistics to the candles took {} ms",
+                tradeStatistics.size(), System.currentTimeMillis() - ts);
+    }
+
+    /**
+     * @param currencyCode  Currency code or null for a candle of all currencies.
+     * @param tickStart     Start of the tick as returned by CandleTickUnit.roundToTick.
+     */
+    public synchronized Optional<Candle> getCandle(@Nullable String currencyCode,
+                                                   CandleTickUnit tickUnit,
+                                                   long tickStart) {
+        return getCandles(currencyCode, tickUnit, tickStart, tickStart + 1).stream().findAny();
+    }
+
+    /**
+     * Returns the non-empty candles of all ticks which start within the given range.
+     *
+     * @param currencyCode  Currency code or null for the candles of all currencies.
+     * @param from          Start of the range in ms since epoch (inclusive).
+     * @param to            End of the range in ms since epoch (exclusive).
+     * @return The candles sorted by tick start.
+     */
+    public synchronized List<Candle> getCandles(@Nullable String currencyCode,
+                                                CandleTickUnit tickUnit,
+                                                long from,
+                                                long to) {
+        List<Candle> candles = new ArrayList<>();
+        if (from >= to) {
+            return candles;
+        }
+
+        if (currencyCode != null) {
+            getAggregates(currencyCode, tickUnit, from, to).forEach((tickStart, aggregate) ->
+                    candles.add(aggregate.toCandle(currencyCode, tickUnit, tickStart)));
+            return candles;
+        }
+
+        TreeMap<Long, CandleAggregate> merged = new TreeMap<>();
+        aggregatesByCurrency.keySet().forEach(code ->
+                getAggregates(code, tickUnit, from, to).forEach((tickStart, aggregate) ->
+                        merged.computeIfAbsent(tickStart, e -> new CandleAggregate()).merge(aggregate)));
+        merged.forEach((tickStart, aggregate) -> candles.add(aggregate.toCandle(null, tickUnit, tickStart)));
+        return candles;
+    }
+
+    public long roundToTick(long time, CandleTickUnit tickUnit) {
+        return tickUnit.roundToTick(time, zoneId);
+    }
+
+    /**
+     * Aggregates the given trade statistics into a single candle without adding them to the service.
+     */
+    public static Candle toCandle(@Nullable String currencyCode,
+                                  CandleTickUnit tickUnit,
+                                  long tickStart,
+                                  Collection<TradeStatistics3> tradeStatistics) {
+        CandleAggregate aggregate = new CandleAggregate();
+        tradeStatistics.forEach(aggregate::add);
+        return aggregate.toCandle(currencyCode, tickUnit, tickStart);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private NavigableMap<Long, CandleAggregate> getAggregates(String currencyCode,
+                                                              CandleTickUnit tickUnit,
+                                                              long from,
+                                                              long to) {
+        Map<CandleTickUnit, TreeMap<Long, CandleAggregate>> aggregatesByTickUnit = aggregatesByCurrency.get(currencyCode);
+        if (aggregatesByTickUnit == null || !aggregatesByTickUnit.containsKey(tickUnit)) {
+            return new TreeMap<>();
+        }
+        return aggregatesByTickUnit.get(tickUnit).subMap(from, true, to, false);
+    }
+
+    private static final class CandleAggregate {
+        private long openDate = Long.MAX_VALUE;
+        private long open;
+        private long closeDate = Long.MIN_VALUE;
+        private long close;
+        private long high;
+        private long low;
+        private long accumulatedAmount;
+        private long accumulatedVolume;
+        private long numTrades;
+        // Prices of all trades for the median. Sorted lazily when the median is requested.
+        private long[] prices = new long[4];
+        private boolean pricesSorted = true;
+
+        void add(TradeStatistics3 tradeStatistics) {
+            long price = tradeStatistics.getTradePrice().getValue();
+            long date = tradeStatistics.getDateAsLong();
+            // If trades have the same date we use the first one for open and the last one for close
+            if (date < openDate) {
+                openDate = date;
+                open = price;
+            }
+            if (date >= closeDate) {
+                closeDate = date;
+                close = price;
+            }
+            high = numTrades == 0 ? price : Math.max(high, price);
+            low = numTrades == 0 ? price : Math.min(low, price);
+            accumulatedAmount += tradeStatistics.getAmount();
+            accumulatedVolume += tradeStatistics.getTradeVolume().getValue();
+            addPrice(price);
+            numTrades++;
+        }
+
+        void merge(CandleAggregate other) {
+            if (other.numTrades == 0) {
+                return;
+            }
+            if (other.openDate < openDate) {
+                openDate = other.openDate;
+                open = other.open;
+            }
+            if (other.closeDate >= closeDate) {
+                closeDate = other.closeDate;
+                close = other.close;
+            }
+            high = numTrades == 0 ? other.high : Math.max(high, other.high);
+            low = numTrades == 0 ? other.low : Math.min(low, other.low);
+            accumulatedAmount += other.accumulatedAmount;
+            accumulatedVolume += other.accumulatedVolume;
+            for (int i = 0; i < other.numTrades; i++) {
+                addPrice(other.prices[i]);
+                numTrades++;
+            }
+        }
+
+        Candle toCandle(@Nullable String currencyCode, CandleTickUnit tickUnit, long tickStart) {
+            return new Candle(currencyCode,
+                    tickUnit,
+                    tickStart,
+                    open,
+                    close,
+                    high,
+                    low,
+                    getMedian(),
+                    accumulatedAmount,
+                    accumulatedVolume,
+                    numTrades);
+        }
+
+        private void addPrice(long price) {
+            int size = (int) numTrades;
+            if (size == prices.length) {
+                prices = Arrays.copyOf(prices, size * 2);
+            }
+            pricesSorted = pricesSorted && (size == 0 || prices[size - 1] <= price);
+            prices[size] = price;
+        }
+
+        private long getMedian() {
+            int size = (int) numTrades;
+            if (size == 0) {
+                return 0;
+            }
+            if (!pricesSorted) {
+                Arrays.sort(prices, 0, size);
+                pricesSorted = true;
+            }
+            int middle = size / 2;
+            if (size % 2 == 1) {
+                return prices[middle];
+            }
+            return MathUtils.roundDoubleToLong((prices[middle - 1] + prices[middle]) / 2.0);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import bisq.common.util.Utilities;
+
+import lombok.Value;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Position of a trade statistic in the time ordered trade statistics index. Trade statistics with the same date are
+ * ordered by their hash. Used as page cursor by the API.
+ */
+@Value
+public class TradeStatisticsCursor implements Comparable<TradeStatisticsCursor> {
+    private static final String SEPARATOR = "_";
+
+    long date;
+    byte[] hash;
+
+    public static TradeStatisticsCursor of(TradeStatistics3 tradeStatistics) {
+        return new TradeStatisticsCursor(tradeStatistics.getDateAsLong(), tradeStatistics.getHash());
+    }
+
+    // Sorts before all trade statistics with a date not before the given date
+    static TradeStatisticsCursor atStartOf(long date) {
+        return new TradeStatisticsCursor(date, new byte[0]);
+    }
+
+    public static TradeStatisticsCursor fromString(String cursor) {
+        String[] tokens = cursor.split(SEPARATOR);
+        if (tokens.length != 2) {
+            throw new IllegalArgumentException("invalid page cursor " + cursor);
+        }
+        try {
+            return new TradeStatisticsCursor(Long.parseLong(tokens[0]), Utilities.decodeFromHex(tokens[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("invalid page cursor " + cursor);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return date + SEPARATOR + Utilities.encodeToHex(hash);
+    }
+
+    @Override
+    public int compareTo(@NotNull TradeStatisticsCursor other) {
+        int result = Long.compare(date, other.date);
+        if (result != 0) {
+            return result;
+        }
+        int length = Math.min(hash.length, other.hash.length);
+        for (int i = 0; i < length; i++) {
+            result = Integer.compare(hash[i] & 0xff, other.hash[i] & 0xff);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(hash.length, other.hash.length);
+    }
+}
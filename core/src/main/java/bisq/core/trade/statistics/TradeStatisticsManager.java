@@ -26,9 +26,11 @@ import bisq.core.trade.Trade;
 
 import bisq.network.p2p.P2PService;
 import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreService;
 
 import bisq.common.config.Config;
+import bisq.common.file.IncrementalJsonExporter;
 import bisq.common.file.JsonFileManager;
 import bisq.common.util.Utilities;
 
@@ -45,8 +47,15 @@ import java.time.Instant;
 import java.io.File;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -57,14 +66,29 @@ import javax.annotation.Nullable;
 @Singleton
 @Slf4j
 public class TradeStatisticsManager {
+    // New trade statistics are appended to the json export at most every 10 sec. After 1000 appended trade
+    // statistics we write a new snapshot of all trade statistics.
+    private static final long DUMP_FLUSH_DELAY_MS = TimeUnit.SECONDS.toMillis(10);
+    private static final int DUMP_MAX_SEGMENT_SIZE = 1000;
+
     private final P2PService p2PService;
     private final PriceFeedService priceFeedService;
     private final TradeStatistics3StorageService tradeStatistics3StorageService;
     private final TradeStatisticsConverter tradeStatisticsConverter;
+    private final TradeStatisticsCandleService tradeStatisticsCandleService;
     private final File storageDir;
     private final boolean dumpStatistics;
+    // Filled only when it is requested the first time, as it keeps all decoded trade statistics on the heap
     private final ObservableSet<TradeStatistics3> observableTradeStatisticsSet = FXCollections.observableSet();
+    private boolean observableTradeStatisticsSetFilled;
+    // Time ordered index of all trade statistics and of the trade statistics per currency. Can be read from any thread.
+    // It contains only the date and hash, the trade statistics are decoded from the store when they are requested.
+    private final NavigableSet<TradeStatisticsCursor> tradeStatisticsByDate = new ConcurrentSkipListSet<>();
+    private final Map<String, NavigableSet<TradeStatisticsCursor>> tradeStatisticsByCurrencyAndDate =
+            new ConcurrentHashMap<>();
     private JsonFileManager jsonFileManager;
+    @Nullable
+    private IncrementalJsonExporter<TradeStatistics3> tradeStatisticsExporter;
 
     @Inject
     public TradeStatisticsManager(P2PService p2PService,
@@ -72,12 +96,14 @@ public class TradeStatisticsManager {
                                   TradeStatistics3StorageService tradeStatistics3StorageService,
                                   AppendOnlyDataStoreService appendOnlyDataStoreService,
                                   TradeStatisticsConverter tradeStatisticsConverter,
+                                  TradeStatisticsCandleService tradeStatisticsCandleService,
                                   @Named(Config.STORAGE_DIR) File storageDir,
                                   @Named(Config.DUMP_STATISTICS) boolean dumpStatistics) {
         this.p2PService = p2PService;
         this.priceFeedService = priceFeedService;
         this.tradeStatistics3StorageService = tradeStatistics3StorageService;
         this.tradeStatisticsConverter = tradeStatisticsConverter;
+        this.tradeStatisticsCandleService = tradeStatisticsCandleService;
         this.storageDir = storageDir;
         this.dumpStatistics = dumpStatistics;
 
@@ -87,6 +113,9 @@ public class TradeStatisticsManager {
 
     public void shutDown() {
         tradeStatisticsConverter.shutDown();
+        if (tradeStatisticsExporter != null) {
+            tradeStatisticsExporter.flush();
+        }
         if (jsonFileManager != null) {
             jsonFileManager.shutDown();
         }
@@ -96,29 +125,111 @@ public class TradeStatisticsManager {
         p2PService.getP2PDataStorage().addAppendOnlyDataStoreListener(payload -> {
             if (payload instanceof TradeStatistics3) {
                 TradeStatistics3 tradeStatistics = (TradeStatistics3) payload;
-                if (!tradeStatistics.isValid()) {
+                if (!tradeStatistics.isValid() || tradeStatisticsByDate.contains(TradeStatisticsCursor.of(tradeStatistics))) {
                     return;
                 }
-                observableTradeStatisticsSet.add(tradeStatistics);
-                priceFeedService.applyLatestBisqMarketPrice(observableTradeStatisticsSet);
-                maybeDumpStatistics();
+                // We update the candles before the set so that listeners of the set see the updated candles
+                tradeStatisticsCandleService.add(tradeStatistics);
+                addToIndex(tradeStatistics);
+                if (observableTradeStatisticsSetFilled) {
+                    observableTradeStatisticsSet.add(tradeStatistics);
+                }
+                priceFeedService.applyLatestBisqMarketPrice(getLatestTradeStatisticsPerCurrency());
+                if (tradeStatisticsExporter != null) {
+                    tradeStatisticsExporter.add(tradeStatistics);
+                }
             }
         });
 
-        Set<TradeStatistics3> set = tradeStatistics3StorageService.getMapOfAllData().values().stream()
+        // The historical trade statistics are decoded one by one and are not kept
+        List<TradeStatistics3> added = new ArrayList<>();
+        tradeStatistics3StorageService.getValuesOfAllData().stream()
                 .filter(e -> e instanceof TradeStatistics3)
                 .map(e -> (TradeStatistics3) e)
                 .filter(TradeStatistics3::isValid)
-                .collect(Collectors.toSet());
-        observableTradeStatisticsSet.addAll(set);
-        priceFeedService.applyLatestBisqMarketPrice(observableTradeStatisticsSet);
+                .filter(e -> !tradeStatisticsByDate.contains(TradeStatisticsCursor.of(e)))
+                .forEach(tradeStatistics -> {
+                    tradeStatisticsCandleService.add(tradeStatistics);
+                    addToIndex(tradeStatistics);
+                    if (observableTradeStatisticsSetFilled) {
+                        added.add(tradeStatistics);
+                    }
+                });
+        observableTradeStatisticsSet.addAll(added);
+        priceFeedService.applyLatestBisqMarketPrice(getLatestTradeStatisticsPerCurrency());
         maybeDumpStatistics();
     }
 
+    // Decodes and keeps all trade statistics when called the first time. Use getTradeStatistics where possible.
     public ObservableSet<TradeStatistics3> getObservableTradeStatisticsSet() {
+        if (!observableTradeStatisticsSetFilled) {
+            observableTradeStatisticsSetFilled = true;
+            observableTradeStatisticsSet.addAll(toTradeStatistics(tradeStatisticsByDate));
+        }
         return observableTradeStatisticsSet;
     }
 
+    /**
+     * Returns the trade statistics sorted by date. Trade statistics with the same date are sorted by their hash.
+     *
+     * @param currencyCode  Currency code or null for the trade statistics of all currencies.
+     * @param since         Start date in ms since epoch (inclusive).
+     * @param until         End date in ms since epoch (exclusive).
+     * @param after         If not null only trade statistics sorted after the cursor are returned. Used for paging.
+     * @param limit         Max. number of trade statistics to return.
+     */
+    public List<TradeStatistics3> getTradeStatistics(@Nullable String currencyCode,
+                                                     long since,
+                                                     long until,
+                                                     @Nullable TradeStatisticsCursor after,
+                                                     int limit) {
+        NavigableSet<TradeStatisticsCursor> index = currencyCode == null ?
+                tradeStatisticsByDate :
+                tradeStatisticsByCurrencyAndDate.get(currencyCode);
+        if (index == null || since >= until || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        TradeStatisticsCursor start = TradeStatisticsCursor.atStartOf(since);
+        NavigableSet<TradeStatisticsCursor> range = after != null && after.compareTo(start) >= 0 ?
+                index.tailSet(after, false) :
+                index.tailSet(start, true);
+        return toTradeStatistics(range.headSet(TradeStatisticsCursor.atStartOf(until), false).stream()
+                .limit(limit)
+                .collect(Collectors.toList()));
+    }
+
+    // Returns the most recent trade statistics, newest first
+    public List<TradeStatistics3> getLatestTradeStatistics(int limit) {
+        return toTradeStatistics(tradeStatisticsByDate.descendingSet().stream()
+                .limit(limit)
+                .collect(Collectors.toList()));
+    }
+
+    private void addToIndex(TradeStatistics3 tradeStatistics) {
+        TradeStatisticsCursor key = TradeStatisticsCursor.of(tradeStatistics);
+        tradeStatisticsByDate.add(key);
+        tradeStatisticsByCurrencyAndDate.computeIfAbsent(tradeStatistics.getCurrency(), e -> new ConcurrentSkipListSet<>())
+                .add(key);
+    }
+
+    private Set<TradeStatistics3> getLatestTradeStatisticsPerCurrency() {
+        return new HashSet<>(toTradeStatistics(tradeStatisticsByCurrencyAndDate.values().stream()
+                .filter(index -> !index.isEmpty())
+                .map(NavigableSet::last)
+                .collect(Collectors.toList())));
+    }
+
+    // Decodes the trade statistics of the given cursors from the store
+    private List<TradeStatistics3> toTradeStatistics(Collection<TradeStatisticsCursor> cursors) {
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = tradeStatistics3StorageService.getMapViewOfAllData();
+        return cursors.stream()
+                .map(cursor -> map.get(new P2PDataStorage.ByteArray(cursor.getHash())))
+                .filter(payload -> payload instanceof TradeStatistics3)
+                .map(payload -> (TradeStatistics3) payload)
+                .collect(Collectors.toList());
+    }
+
     private void maybeDumpStatistics() {
         if (!dumpStatistics) {
             return;
@@ -140,9 +251,9 @@ public class TradeStatisticsManager {
             jsonFileManager.writeToDiscThreaded(Utilities.objectToJson(cryptoCurrencyList), "crypto_currency_list");
 
             Instant yearAgo = Instant.ofEpochSecond(Instant.now().getEpochSecond() - TimeUnit.DAYS.toSeconds(365));
-            Set<String> activeCurrencies = observableTradeStatisticsSet.stream()
-                    .filter(e -> e.getDate().toInstant().isAfter(yearAgo))
-                    .map(p -> p.getCurrency())
+            Set<String> activeCurrencies = tradeStatisticsByCurrencyAndDate.entrySet().stream()
+                    .filter(e -> !e.getValue().isEmpty() && e.getValue().last().getDate() > yearAgo.toEpochMilli())
+                    .map(Map.Entry::getKey)
                     .collect(Collectors.toSet());
 
             ArrayList<CurrencyTuple> activeFiatCurrencyList = fiatCurrencyList.stream()
@@ -158,20 +269,22 @@ public class TradeStatisticsManager {
             jsonFileManager.writeToDiscThreaded(Utilities.objectToJson(activeCryptoCurrencyList), "active_crypto_currency_list");
         }
 
-        List<TradeStatisticsForJson> list = observableTradeStatisticsSet.stream()
-                .map(TradeStatisticsForJson::new)
-                .sorted((o1, o2) -> (Long.compare(o2.tradeDate, o1.tradeDate)))
-                .collect(Collectors.toList());
-        TradeStatisticsForJson[] array = new TradeStatisticsForJson[list.size()];
-        list.toArray(array);
-        jsonFileManager.writeToDiscThreaded(Utilities.objectToJson(array), "trade_statistics");
+        // The snapshot in trade_statistics.json is sorted by date, newest first. Trade statistics received later are
+        // appended to trade_statistics.ndjson.
+        tradeStatisticsExporter = new IncrementalJsonExporter<>(jsonFileManager,
+                "trade_statistics",
+                () -> toTradeStatistics(new ArrayList<>(tradeStatisticsByDate.descendingSet())),
+                TradeStatisticsForJson::new,
+                DUMP_FLUSH_DELAY_MS,
+                DUMP_MAX_SEGMENT_SIZE);
+        tradeStatisticsExporter.writeSnapshot();
     }
 
     public void maybeRepublishTradeStatistics(Set<Trade> trades,
                                               @Nullable String referralId,
                                               boolean isTorNetworkNode) {
         long ts = System.currentTimeMillis();
-        Set<P2PDataStorage.ByteArray> hashes = tradeStatistics3StorageService.getMapOfAllData().keySet();
+        Set<P2PDataStorage.ByteArray> hashes = tradeStatistics3StorageService.getKeysOfAllData();
         trades.forEach(trade -> {
             if (trade instanceof BuyerTrade) {
                 log.debug("Trade: {} is a buyer trade, we only republish we have been seller.",
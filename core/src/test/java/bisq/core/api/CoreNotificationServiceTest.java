@@ -0,0 +1,194 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.api;
+
+import bisq.core.api.CoreApi.NotificationListener;
+import bisq.core.api.SubscriberQueue.OverflowPolicy;
+
+import bisq.proto.grpc.NotificationMessage;
+import bisq.proto.grpc.NotificationMessage.NotificationType;
+import bisq.proto.grpc.TradeInfo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import lombok.NonNull;
+
+import static bisq.core.api.CoreNotificationService.MAX_QUEUED_NOTIFICATIONS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CoreNotificationServiceTest {
+    private static final long EPOCH = 1000;
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private CoreNotificationService notificationService;
+
+    @Before
+    public void setUp() {
+        notificationService = new CoreNotificationService(tasks::add, EPOCH);
+    }
+
+    @Test
+    public void testNotificationsAreDeliveredAsynchronouslyInOrder() {
+        TestListener listener = new TestListener();
+        notificationService.addListener(listener);
+
+        sendTradeNotification("trade1");
+        sendTradeNotification("trade2");
+        assertTrue(listener.received.isEmpty());
+
+        runTasks();
+        assertEquals(2, listener.received.size());
+        assertEquals(EPOCH, listener.received.get(0).getEpoch());
+        assertEquals(1, listener.received.get(0).getSequence());
+        assertEquals(2, listener.received.get(1).getSequence());
+    }
+
+    @Test
+    public void testSlowListenerDropsOldestNotifications() {
+        TestListener listener = new TestListener();
+        listener.ready = false;
+        notificationService.addListener(listener);
+
+        for (int i = 0; i < MAX_QUEUED_NOTIFICATIONS + 10; i++) {
+            sendTradeNotification("trade" + i);
+        }
+        runTasks();
+        assertTrue(listener.received.isEmpty());
+
+        listener.ready = true;
+        notificationService.onListenerReady(listener);
+        runTasks();
+        assertEquals(MAX_QUEUED_NOTIFICATIONS, listener.received.size());
+        assertEquals(11, listener.received.get(0).getSequence());
+    }
+
+    @Test
+    public void testSlowListenerIsDisconnectedOnOverflow() {
+        TestListener listener = new TestListener();
+        listener.ready = false;
+        notificationService.addListener(listener, 0, 0, notification -> true, OverflowPolicy.DISCONNECT);
+
+        for (int i = 0; i <= MAX_QUEUED_NOTIFICATIONS; i++) {
+            sendTradeNotification("trade" + i);
+        }
+        runTasks();
+        assertTrue(listener.overflowed);
+
+        listener.ready = true;
+        notificationService.onListenerReady(listener);
+        sendTradeNotification("trade");
+        runTasks();
+        assertTrue(listener.received.isEmpty());
+    }
+
+    @Test
+    public void testResumeWithFilter() {
+        sendTradeNotification("trade1");
+        sendTradeNotification("trade2");
+        sendTradeNotification("trade1");
+        notificationService.sendNotification(NotificationMessage.newBuilder()
+                .setType(NotificationType.KEEP_ALIVE)
+                .build());
+
+        TestListener listener = new TestListener();
+        notificationService.addListener(listener,
+                EPOCH,
+                1,
+                CoreNotificationService.getFilter(List.of(NotificationType.TRADE_UPDATE), List.of("trade1")),
+                OverflowPolicy.DROP_OLDEST);
+        sendTradeNotification("trade2");
+        sendTradeNotification("trade1");
+        runTasks();
+
+        assertEquals(2, listener.received.size());
+        assertEquals(3, listener.received.get(0).getSequence());
+        assertEquals(6, listener.received.get(1).getSequence());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testResumeFailsWithOtherEpoch() {
+        sendTradeNotification("trade1");
+        notificationService.addListener(new TestListener(),
+                EPOCH + 1,
+                1,
+                notification -> true,
+                OverflowPolicy.DROP_OLDEST);
+    }
+
+    @Test
+    public void testFailingListenerIsRemoved() {
+        TestListener listener = new TestListener() {
+            @Override
+            public void onNext(@NonNull NotificationMessage message) {
+                super.onNext(message);
+                throw new IllegalStateException("call was cancelled");
+            }
+        };
+        notificationService.addListener(listener);
+        sendTradeNotification("trade1");
+        runTasks();
+        sendTradeNotification("trade2");
+        runTasks();
+
+        assertEquals(1, listener.received.size());
+        assertFalse(listener.overflowed);
+    }
+
+    private void sendTradeNotification(String tradeId) {
+        notificationService.sendNotification(NotificationMessage.newBuilder()
+                .setType(NotificationType.TRADE_UPDATE)
+                .setTrade(TradeInfo.newBuilder().setTradeId(tradeId))
+                .build());
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private static class TestListener implements NotificationListener {
+        final List<NotificationMessage> received = new ArrayList<>();
+        boolean ready = true;
+        boolean overflowed;
+
+        @Override
+        public void onNext(@NonNull NotificationMessage message) {
+            received.add(message);
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void onOverflow() {
+            overflowed = true;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.api;
+
+import bisq.core.api.CoreApi.TradeEventListener;
+import bisq.core.api.model.TradeEvent;
+import bisq.core.api.model.TradeInfo;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import lombok.NonNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class TradeEventJournalTest {
+    private static final long EPOCH = 1000;
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+    private TradeEventJournal journal;
+    private TradeInfo tradeInfo;
+    private TradeInfo currentTradeInfo;
+    private int numTradeInfosBuilt;
+
+    @Before
+    public void setUp() {
+        tradeInfo = mock(TradeInfo.class);
+        currentTradeInfo = mock(TradeInfo.class);
+        journal = new TradeEventJournal(3, EPOCH, tasks::add, tradeId -> currentTradeInfo);
+    }
+
+    @Test
+    public void testNewListenerOnlyGetsNewEvents() {
+        append("trade1", null, "PREPARATION");
+        TestListener listener = new TestListener();
+        journal.addListener(0, 0, listener);
+
+        append("trade1", "PREPARATION", "CONTRACT_SIGNED");
+        runTasks();
+        assertEquals(1, listener.received.size());
+        TradeEvent event = listener.received.get(0);
+        assertEquals(EPOCH, event.getEpoch());
+        assertEquals(2, event.getSequence());
+        assertEquals("PREPARATION", event.getOldState());
+        assertEquals("CONTRACT_SIGNED", event.getNewState());
+    }
+
+    @Test
+    public void testResumeReplaysMissedEvents() {
+        append("trade1", null, "PREPARATION");
+        append("trade1", "PREPARATION", "CONTRACT_SIGNED");
+        append("trade2", null, "PREPARATION");
+
+        TestListener listener = new TestListener();
+        journal.addListener(EPOCH, 1, listener);
+        append("trade2", "PREPARATION", "CONTRACT_SIGNED");
+        runTasks();
+
+        assertEquals(3, listener.received.size());
+        for (int i = 0; i < listener.received.size(); i++) {
+            assertEquals(i + 2, listener.received.get(i).getSequence());
+        }
+        assertNull(listener.received.get(1).getOldState());
+    }
+
+    @Test
+    public void testResumeFailsIfEventsWereDropped() {
+        for (int i = 0; i < 5; i++) {
+            append("trade" + i, null, "PREPARATION");
+        }
+        // Events 1 and 2 are dropped, so we can resume after 2 but not after 1
+        journal.addListener(EPOCH, 2, new TestListener());
+        assertResumeFails(EPOCH, 1);
+        // Neither with another epoch or a sequence we did not reach yet
+        assertResumeFails(EPOCH + 1, 5);
+        assertResumeFails(EPOCH, 6);
+    }
+
+    @Test
+    public void testTradeInfoIsOnlyBuiltIfRequested() {
+        TestListener listener = new TestListener();
+        journal.addListener(0, 0, listener);
+        append("trade1", null, "PREPARATION");
+        assertEquals(0, numTradeInfosBuilt);
+
+        TestListener tradeInfoListener = new TestListener(true);
+        journal.addListener(0, 0, tradeInfoListener);
+        append("trade1", "PREPARATION", "CONTRACT_SIGNED");
+        assertEquals(1, numTradeInfosBuilt);
+        runTasks();
+        assertSame(tradeInfo, tradeInfoListener.received.get(0).getTradeInfo());
+    }
+
+    @Test
+    public void testResumeWithTradeInfoUsesCurrentTradeInfo() {
+        append("trade1", null, "PREPARATION");
+        TestListener listener = new TestListener(true);
+        journal.addListener(EPOCH, 0, listener);
+        append("trade1", "PREPARATION", "CONTRACT_SIGNED");
+        runTasks();
+
+        assertEquals(2, listener.received.size());
+        // The first event was recorded while nobody requested the trade info
+        assertSame(currentTradeInfo, listener.received.get(0).getTradeInfo());
+        assertSame(tradeInfo, listener.received.get(1).getTradeInfo());
+        assertEquals(1, numTradeInfosBuilt);
+    }
+
+    @Test
+    public void testEventsAreQueuedWhileListenerIsNotReady() {
+        TestListener listener = new TestListener();
+        listener.ready = false;
+        journal.addListener(0, 0, listener);
+
+        // Events are never delivered on the thread which appends them
+        append("trade1", null, "PREPARATION");
+        assertTrue(listener.received.isEmpty());
+        runTasks();
+        assertTrue(listener.received.isEmpty());
+
+        append("trade1", "PREPARATION", "CONTRACT_SIGNED");
+        listener.ready = true;
+        journal.onListenerReady(listener);
+        runTasks();
+        assertEquals(2, listener.received.size());
+    }
+
+    @Test
+    public void testListenerIsDisconnectedIfQueueOverflows() {
+        TestListener listener = new TestListener();
+        listener.ready = false;
+        journal.addListener(0, 0, listener);
+        for (int i = 0; i < 4; i++) {
+            append("trade" + i, null, "PREPARATION");
+        }
+        runTasks();
+        assertTrue(listener.overflowed);
+
+        listener.ready = true;
+        journal.onListenerReady(listener);
+        append("trade5", null, "PREPARATION");
+        runTasks();
+        assertTrue(listener.received.isEmpty());
+    }
+
+    @Test
+    public void testFailingListenerIsRemoved() {
+        TestListener failingListener = new TestListener() {
+            @Override
+            public void onNext(@NonNull TradeEvent event) {
+                super.onNext(event);
+                throw new IllegalStateException("call was cancelled");
+            }
+        };
+        journal.addListener(0, 0, failingListener);
+        append("trade1", null, "PREPARATION");
+        append("trade1", "PREPARATION", "CONTRACT_SIGNED");
+        runTasks();
+        assertEquals(1, failingListener.received.size());
+        assertFalse(failingListener.overflowed);
+    }
+
+    private void append(String tradeId, String oldState, String newState) {
+        journal.append(tradeId, oldState, newState, "INIT", 0, () -> {
+            numTradeInfosBuilt++;
+            return tradeInfo;
+        });
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void assertResumeFails(long epoch, long afterSequence) {
+        try {
+            journal.addListener(epoch, afterSequence, new TestListener());
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().startsWith("cannot resume trade events"));
+            return;
+        }
+        throw new AssertionError("resume after " + afterSequence + " of epoch " + epoch + " should fail");
+    }
+
+    private static class TestListener implements TradeEventListener {
+        final List<TradeEvent> received = new ArrayList<>();
+        boolean ready = true;
+        boolean overflowed;
+        private final boolean tradeInfoRequested;
+
+        TestListener() {
+            this(false);
+        }
+
+        TestListener(boolean tradeInfoRequested) {
+            this.tradeInfoRequested = tradeInfoRequested;
+        }
+
+        @Override
+        public void onNext(@NonNull TradeEvent event) {
+            received.add(event);
+        }
+
+        @Override
+        public boolean isTradeInfoRequested() {
+            return tradeInfoRequested;
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void onOverflow() {
+            overflowed = true;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.btc.wallet;
+
+import bisq.core.btc.model.XmrAddressEntry;
+import bisq.core.btc.model.XmrAddressEntryList;
+import bisq.core.btc.setup.WalletsSetup;
+
+import bisq.common.persistence.PersistenceManager;
+
+import java.math.BigInteger;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.mockito.ArgumentCaptor;
+
+import monero.wallet.MoneroWallet;
+import monero.wallet.model.MoneroOutputWallet;
+import monero.wallet.model.MoneroSubaddress;
+import monero.wallet.model.MoneroWalletListener;
+import monero.wallet.model.MoneroWalletListenerI;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class XmrWalletServiceTest {
+    private MoneroWallet wallet;
+    private MoneroWalletListener walletListener;
+    private XmrAddressEntryList addressEntryList;
+    private XmrWalletService xmrWalletService;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        wallet = mock(MoneroWallet.class);
+        WalletsSetup walletsSetup = mock(WalletsSetup.class);
+        when(walletsSetup.getXmrWallet()).thenReturn(wallet);
+        addressEntryList = new XmrAddressEntryList(mock(PersistenceManager.class));
+        xmrWalletService = new XmrWalletService(walletsSetup, addressEntryList);
+
+        ArgumentCaptor<Runnable> setupCompletedHandler = ArgumentCaptor.forClass(Runnable.class);
+        verify(walletsSetup).addSetupCompletedHandler(setupCompletedHandler.capture());
+        setupCompletedHandler.getValue().run();
+        ArgumentCaptor<MoneroWalletListenerI> listener = ArgumentCaptor.forClass(MoneroWalletListenerI.class);
+        verify(wallet).addListener(listener.capture());
+        walletListener = (MoneroWalletListener) listener.getValue();
+
+        List<MoneroSubaddress> subaddresses = List.of(getSubaddress(0, 0), getSubaddress(1, 5000), getSubaddress(2, 0));
+        when(wallet.getSubaddresses(0)).thenReturn(subaddresses);
+    }
+
+    private static MoneroSubaddress getSubaddress(int index, long balance) {
+        MoneroSubaddress subaddress = mock(MoneroSubaddress.class);
+        when(subaddress.getIndex()).thenReturn(index);
+        when(subaddress.getBalance()).thenReturn(BigInteger.valueOf(balance));
+        return subaddress;
+    }
+
+    @Test
+    public void testSubaddressBalancesAreCachedUntilWalletReportsChange() {
+        assertEquals(5000, xmrWalletService.getBalanceForSubaddress(1).value);
+        assertEquals(0, xmrWalletService.getBalanceForSubaddress(2).value);
+        assertTrue(xmrWalletService.isSubaddressUnused(2));
+        assertFalse(xmrWalletService.isSubaddressUnused(1));
+        verify(wallet, times(1)).getSubaddresses(0);
+
+        when(wallet.getSubaddresses(0)).thenReturn(List.of(getSubaddress(1, 0), getSubaddress(2, 7000)));
+        walletListener.onOutputReceived(mock(MoneroOutputWallet.class));
+
+        assertEquals(0, xmrWalletService.getBalanceForSubaddress(1).value);
+        assertEquals(7000, xmrWalletService.getBalanceForSubaddress(2).value);
+        verify(wallet, times(2)).getSubaddresses(0);
+        verify(wallet, never()).getBalance(anyInt(), anyInt());
+    }
+
+    @Test
+    public void testSubaddressBalancesAreRefreshedAfterRelayingTx() {
+        assertEquals(5000, xmrWalletService.getBalanceForSubaddress(1).value);
+
+        // The wallet reports the spent outputs only after its next sync
+        when(wallet.getSubaddresses(0)).thenReturn(List.of(getSubaddress(1, 0)));
+        when(wallet.relayTx("metadata")).thenReturn("txHash");
+        assertEquals("txHash", xmrWalletService.relayTx("metadata"));
+
+        assertEquals(0, xmrWalletService.getBalanceForSubaddress(1).value);
+        verify(wallet, times(2)).getSubaddresses(0);
+    }
+
+    @Test
+    public void testAddressEntriesAreFoundByOfferIdAndContext() {
+        assertNull(xmrWalletService.recoverAddressEntry("offer", "address2", XmrAddressEntry.Context.OFFER_FUNDING));
+
+        addressEntryList.addAddressEntry(new XmrAddressEntry(2, "address2", XmrAddressEntry.Context.AVAILABLE));
+
+        // The empty available entry gets used for the offer
+        XmrAddressEntry offerEntry = xmrWalletService.getOrCreateAddressEntry("offer", XmrAddressEntry.Context.OFFER_FUNDING);
+        assertEquals(2, offerEntry.getSubaddressIndex());
+        assertEquals("offer", offerEntry.getOfferId());
+        assertEquals(offerEntry, xmrWalletService.getAddressEntry("offer", XmrAddressEntry.Context.OFFER_FUNDING).get());
+        assertTrue(xmrWalletService.getAvailableAddressEntries().isEmpty());
+
+        xmrWalletService.resetAddressEntriesForOpenOffer("offer");
+        assertFalse(xmrWalletService.getAddressEntry("offer", XmrAddressEntry.Context.OFFER_FUNDING).isPresent());
+        assertEquals(1, xmrWalletService.getAvailableAddressEntries().size());
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.notifications.alerts.market;
+
+import bisq.core.locale.TradeCurrency;
+import bisq.core.monetary.Price;
+import bisq.core.offer.Offer;
+import bisq.core.offer.OfferPayload;
+import bisq.core.payment.PaymentAccount;
+import bisq.core.payment.payload.PaymentMethod;
+import bisq.core.provider.price.MarketPrice;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MarketAlertMatcherTest {
+    private MarketAlertMatcher matcher;
+    private MarketAlertFilter sellFilter;
+
+    @Before
+    public void setUp() {
+        matcher = new MarketAlertMatcher();
+        // Alert for sell offers at most 1% above the market price
+        sellFilter = new MarketAlertFilter(getPaymentAccount("SEPA", "USD"), 100, false);
+        matcher.setFilters(List.of(sellFilter));
+    }
+
+    private static PaymentAccount getPaymentAccount(String paymentMethodId, String currencyCode) {
+        PaymentMethod paymentMethod = mock(PaymentMethod.class);
+        when(paymentMethod.getId()).thenReturn(paymentMethodId);
+        TradeCurrency tradeCurrency = mock(TradeCurrency.class);
+        when(tradeCurrency.getCode()).thenReturn(currencyCode);
+        PaymentAccount paymentAccount = mock(PaymentAccount.class);
+        when(paymentAccount.getPaymentMethod()).thenReturn(paymentMethod);
+        when(paymentAccount.getTradeCurrencies()).thenReturn(List.of(tradeCurrency));
+        return paymentAccount;
+    }
+
+    // Fixed price USD offer, the price has a precision of 4
+    private static Offer getOffer(String id, String paymentMethodId, OfferPayload.Direction direction, long price) {
+        PaymentMethod paymentMethod = mock(PaymentMethod.class);
+        when(paymentMethod.getId()).thenReturn(paymentMethodId);
+        OfferPayload offerPayload = mock(OfferPayload.class);
+        when(offerPayload.getPrice()).thenReturn(price);
+        Offer offer = mock(Offer.class);
+        when(offer.getId()).thenReturn(id);
+        when(offer.getCurrencyCode()).thenReturn("USD");
+        when(offer.getDirection()).thenReturn(direction);
+        when(offer.getPaymentMethod()).thenReturn(paymentMethod);
+        when(offer.getOfferPayload()).thenReturn(offerPayload);
+        when(offer.getPrice()).thenReturn(Price.valueOf("USD", price));
+        return offer;
+    }
+
+    private static MarketPrice getMarketPrice(double price) {
+        return new MarketPrice("USD", price, 0, true);
+    }
+
+    @Test
+    public void testOfferAddedWithinTriggerValueMatches() {
+        Offer offer = getOffer("1", "SEPA", OfferPayload.Direction.SELL, 10050_0000L);
+
+        List<MarketAlertMatcher.Match> matches = matcher.onOfferAdded(offer, getMarketPrice(10000));
+
+        assertEquals(1, matches.size());
+        assertSame(sellFilter, matches.get(0).getFilter());
+        assertEquals(50, matches.get(0).getRatio(), 0.001);
+    }
+
+    @Test
+    public void testOfferOfOtherPaymentMethodOrDirectionDoesNotMatch() {
+        assertTrue(matcher.onOfferAdded(getOffer("1", "ZELLE", OfferPayload.Direction.SELL, 10000_0000L),
+                getMarketPrice(10000)).isEmpty());
+        assertTrue(matcher.onOfferAdded(getOffer("2", "SEPA", OfferPayload.Direction.BUY, 10000_0000L),
+                getMarketPrice(10000)).isEmpty());
+    }
+
+    @Test
+    public void testOfferMatchesWhenMarketPriceCrossesTriggerValue() {
+        matcher.onMarketPriceUpdated(getMarketPrice(10000));
+        // 3% above market
+        Offer offer = getOffer("1", "SEPA", OfferPayload.Direction.SELL, 10300_0000L);
+        assertTrue(matcher.onOfferAdded(offer, getMarketPrice(10000)).isEmpty());
+
+        // 2% above market
+        assertTrue(matcher.onMarketPriceUpdated(getMarketPrice(10100)).isEmpty());
+
+        // 0.5% above market
+        List<MarketAlertMatcher.Match> matches = matcher.onMarketPriceUpdated(getMarketPrice(10250));
+        assertEquals(1, matches.size());
+        assertSame(offer, matches.get(0).getOffer());
+
+        // Still triggered, but it did not cross the trigger value again
+        assertTrue(matcher.onMarketPriceUpdated(getMarketPrice(10300)).isEmpty());
+    }
+
+    @Test
+    public void testOfferMatchesWhenMarketPriceMovedWhileNoOffersWereTracked() {
+        matcher.onMarketPriceUpdated(getMarketPrice(11000));
+        // The price moves to 10000 while there are no offers, so the matcher does not get that update.
+        // 5% above market
+        Offer offer = getOffer("1", "SEPA", OfferPayload.Direction.SELL, 10500_0000L);
+        assertTrue(matcher.onOfferAdded(offer, getMarketPrice(10000)).isEmpty());
+
+        // 0.5% above market
+        List<MarketAlertMatcher.Match> matches = matcher.onMarketPriceUpdated(getMarketPrice(10450));
+        assertEquals(1, matches.size());
+        assertSame(offer, matches.get(0).getOffer());
+    }
+
+    @Test
+    public void testOfferAddedWithoutMarketPriceIsMatchedOnFirstPrice() {
+        Offer offer = getOffer("1", "SEPA", OfferPayload.Direction.SELL, 10000_0000L);
+        assertTrue(matcher.onOfferAdded(offer, null).isEmpty());
+
+        List<MarketAlertMatcher.Match> matches = matcher.onMarketPriceUpdated(getMarketPrice(10000));
+        assertEquals(1, matches.size());
+        assertSame(offer, matches.get(0).getOffer());
+    }
+
+    @Test
+    public void testRemovedOfferDoesNotMatch() {
+        matcher.onMarketPriceUpdated(getMarketPrice(10000));
+        Offer offer = getOffer("1", "SEPA", OfferPayload.Direction.SELL, 10300_0000L);
+        matcher.onOfferAdded(offer, getMarketPrice(10000));
+        matcher.onOfferRemoved(offer);
+
+        assertTrue(matcher.onMarketPriceUpdated(getMarketPrice(10300)).isEmpty());
+    }
+
+    @Test
+    public void testAlertedOfferDoesNotMatchAgain() {
+        Offer offer = getOffer("1", "SEPA", OfferPayload.Direction.SELL, 10000_0000L);
+        assertEquals(1, matcher.onOfferAdded(offer, getMarketPrice(10000)).size());
+        sellFilter.addAlertId(MarketAlertMatcher.getAlertId(offer));
+
+        assertTrue(matcher.onOfferAdded(offer, getMarketPrice(10000)).isEmpty());
+    }
+}
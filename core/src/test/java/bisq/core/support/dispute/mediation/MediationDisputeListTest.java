@@ -0,0 +1,138 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.support.dispute.mediation;
+
+import bisq.core.support.SupportType;
+import bisq.core.support.dispute.Dispute;
+import bisq.core.support.messages.ChatMessage;
+import bisq.core.trade.Contract;
+
+import bisq.network.p2p.NodeAddress;
+
+import bisq.common.crypto.PubKeyRing;
+
+import com.google.protobuf.Message;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MediationDisputeListTest {
+
+    @Test
+    public void testSnapshotIsNotAffectedByLaterChanges() {
+        Dispute dispute = getDispute("1");
+        MediationDisputeList disputeList = new MediationDisputeList(List.of(dispute));
+        Message expected = disputeList.toProtoMessage();
+
+        Supplier<Message> snapshot = disputeList.snapshotPersistableMessage();
+        dispute.setIsClosed();
+        dispute.addAndPersistChatMessage(getChatMessage());
+        disputeList.add(getDispute("2"));
+
+        assertEquals(expected, snapshot.get());
+    }
+
+    @Test
+    public void testSnapshotIsBuiltConsistentlyWhileDisputesAreChanged() throws Exception {
+        Dispute dispute = getDispute("1");
+        ChatMessage chatMessage = getChatMessage();
+        dispute.addAndPersistChatMessage(chatMessage);
+        MediationDisputeList disputeList = new MediationDisputeList(List.of(dispute));
+        Message expected = disputeList.toProtoMessage();
+        Supplier<Message> snapshot = disputeList.snapshotPersistableMessage();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Message> future = executor.submit(snapshot::get);
+            for (boolean closed = true; !future.isDone(); closed = !closed) {
+                dispute.setState(closed ? Dispute.State.CLOSED : Dispute.State.OPEN);
+                chatMessage.setAcknowledged(closed);
+            }
+            assertEquals(expected, future.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testOnlyChangedDisputesAreBuiltAgain() {
+        Dispute dispute = getDispute("1");
+        ChatMessage chatMessage = getChatMessage();
+        dispute.addAndPersistChatMessage(chatMessage);
+        MediationDisputeList disputeList = new MediationDisputeList(List.of(dispute, getDispute("2")));
+        List<protobuf.Dispute> disputes = getDisputes(disputeList.snapshotPersistableMessage().get());
+
+        chatMessage.setAcknowledged(true);
+        List<protobuf.Dispute> disputesAfterChange = getDisputes(disputeList.snapshotPersistableMessage().get());
+
+        assertNotSame(disputes.get(0), disputesAfterChange.get(0));
+        assertTrue(disputesAfterChange.get(0).getChatMessage(0).getAcknowledged());
+        assertSame(disputes.get(1), disputesAfterChange.get(1));
+        assertEquals(disputeList.toProtoMessage(), disputeList.snapshotPersistableMessage().get());
+    }
+
+    private static List<protobuf.Dispute> getDisputes(Message message) {
+        return ((protobuf.PersistableEnvelope) message).getMediationDisputeList().getDisputeList();
+    }
+
+    private static Dispute getDispute(String tradeId) {
+        Contract contract = mock(Contract.class);
+        when(contract.toProtoMessage()).thenReturn(protobuf.Contract.getDefaultInstance());
+        PubKeyRing pubKeyRing = mock(PubKeyRing.class);
+        when(pubKeyRing.toProtoMessage()).thenReturn(protobuf.PubKeyRing.getDefaultInstance());
+        return new Dispute(1000,
+                tradeId,
+                0,
+                true,
+                true,
+                true,
+                pubKeyRing,
+                1000,
+                2000,
+                contract,
+                null,
+                null,
+                null,
+                null,
+                null,
+                "{}",
+                null,
+                null,
+                null,
+                null,
+                pubKeyRing,
+                false,
+                SupportType.MEDIATION);
+    }
+
+    private static ChatMessage getChatMessage() {
+        return new ChatMessage(SupportType.MEDIATION, "1", 0, true, "message", new NodeAddress("trader", 8000));
+    }
+}
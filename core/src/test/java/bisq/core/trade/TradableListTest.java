@@ -21,11 +21,19 @@ import bisq.core.offer.Offer;
 import bisq.core.offer.OfferPayload;
 import bisq.core.offer.OpenOffer;
 
+import com.google.protobuf.Message;
+
+import java.util.function.Supplier;
+
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static protobuf.PersistableEnvelope.MessageCase.TRADABLE_LIST;
 
 public class TradableListTest {
@@ -45,4 +53,50 @@ public class TradableListTest {
         assertEquals(message.getMessageCase(), TRADABLE_LIST);
         assertEquals(1, message.getTradableList().getTradableList().size());
     }
+
+    @Test
+    public void testSnapshotIsNotAffectedByLaterChanges() {
+        Trade trade = getTrade("1");
+        TradableList<Trade> tradableList = new TradableList<>();
+        tradableList.add(trade);
+        Message expected = tradableList.toProtoMessage();
+
+        Supplier<Message> snapshot = tradableList.snapshotPersistableMessage();
+        when(trade.getChangeCount()).thenReturn(1);
+        when(trade.toProtoMessage()).thenReturn(getTradable("2"));
+        tradableList.add(getTrade("3"));
+
+        assertEquals(expected, snapshot.get());
+    }
+
+    @Test
+    public void testOnlyChangedTradesAreBuiltAgain() {
+        Trade trade = getTrade("1");
+        Trade otherTrade = getTrade("2");
+        TradableList<Trade> tradableList = new TradableList<>();
+        tradableList.add(trade);
+        tradableList.add(otherTrade);
+        tradableList.snapshotPersistableMessage();
+
+        when(trade.getChangeCount()).thenReturn(1);
+        protobuf.PersistableEnvelope message = (protobuf.PersistableEnvelope) tradableList.snapshotPersistableMessage().get();
+
+        assertEquals(2, message.getTradableList().getTradableCount());
+        verify(trade, times(2)).toProtoMessage();
+        verify(otherTrade, times(1)).toProtoMessage();
+    }
+
+    private static Trade getTrade(String payoutTxId) {
+        Trade trade = mock(Trade.class);
+        protobuf.Tradable tradable = getTradable(payoutTxId);
+        when(trade.toProtoMessage()).thenReturn(tradable);
+        return trade;
+    }
+
+    private static protobuf.Tradable getTradable(String payoutTxId) {
+        return protobuf.Tradable.newBuilder()
+                .setBuyerAsMakerTrade(protobuf.BuyerAsMakerTrade.newBuilder()
+                        .setTrade(protobuf.Trade.newBuilder().setPayoutTxId(payoutTxId)))
+                .build();
+    }
 }
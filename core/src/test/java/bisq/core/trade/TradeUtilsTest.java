@@ -0,0 +1,67 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade;
+
+import bisq.core.offer.OfferPayload;
+import bisq.core.support.dispute.mediation.mediator.Mediator;
+
+import bisq.common.crypto.CryptoException;
+import bisq.common.crypto.Encryption;
+import bisq.common.crypto.PubKeyRing;
+import bisq.common.crypto.Sig;
+import bisq.common.util.Utilities;
+
+import java.security.KeyPair;
+
+import org.junit.Test;
+
+import static bisq.core.offer.OfferMaker.btcUsdOffer;
+import static com.natpryce.makeiteasy.MakeItEasy.make;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TradeUtilsTest {
+
+    @Test
+    public void testArbitratorSignatureIsVerifiedWithoutChangingThePayload() throws CryptoException {
+        KeyPair arbitratorKeyPair = Sig.generateKeyPair();
+        OfferPayload unsignedOfferPayload = make(btcUsdOffer).getOfferPayload();
+        String signature = Sig.sign(arbitratorKeyPair.getPrivate(), Utilities.objectToJson(unsignedOfferPayload));
+        OfferPayload signedOfferPayload = unsignedOfferPayload.withArbitratorSignature(signature);
+        int hashCode = signedOfferPayload.hashCode();
+
+        assertTrue(TradeUtils.isArbitratorSignatureValid(signedOfferPayload, getArbitrator(arbitratorKeyPair)));
+        assertFalse(TradeUtils.isArbitratorSignatureValid(signedOfferPayload, getArbitrator(Sig.generateKeyPair())));
+
+        // The signed payload might be wrapped in a storage entry, so the verification must not change it
+        assertEquals(signature, signedOfferPayload.getArbitratorSignature());
+        assertEquals(hashCode, signedOfferPayload.hashCode());
+        assertNull(unsignedOfferPayload.getArbitratorSignature());
+    }
+
+    private static Mediator getArbitrator(KeyPair signatureKeyPair) {
+        Mediator arbitrator = mock(Mediator.class);
+        when(arbitrator.getPubKeyRing()).thenReturn(new PubKeyRing(signatureKeyPair.getPublic(),
+                Encryption.generateKeyPair().getPublic()));
+        return arbitrator;
+    }
+}
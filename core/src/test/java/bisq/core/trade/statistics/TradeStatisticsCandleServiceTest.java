@@ -0,0 +1,155 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import bisq.core.monetary.Price;
+import bisq.core.payment.payload.PaymentMethod;
+
+import org.bitcoinj.core.Coin;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TradeStatisticsCandleServiceTest {
+    private static final ZoneId ZONE_ID = ZoneOffset.UTC;
+    // 2021-01-01T00:00:00Z
+    private static final long START = 1609459200000L;
+
+    private TradeStatisticsCandleService candleService;
+
+    @Before
+    public void setUp() {
+        candleService = new TradeStatisticsCandleService(ZONE_ID);
+    }
+
+    private TradeStatistics3 createTradeStatistics(String currencyCode, String price, String amount, long date) {
+        return new TradeStatistics3(currencyCode,
+                Price.parse(currencyCode, price).getValue(),
+                Coin.parseCoin(amount).getValue(),
+                PaymentMethod.BLOCK_CHAINS_ID,
+                date,
+                null,
+                null,
+                null);
+    }
+
+    @Test
+    public void testCandleOfOneTick() {
+        candleService.add(createTradeStatistics("EUR", "500", "1", START + 100));
+        candleService.add(createTradeStatistics("EUR", "520", "1", START));
+        candleService.add(createTradeStatistics("EUR", "580", "1", START + 300));
+        candleService.add(createTradeStatistics("EUR", "600", "1", START + 200));
+
+        Optional<Candle> optionalCandle = candleService.getCandle("EUR", CandleTickUnit.DAY, START);
+        assertTrue(optionalCandle.isPresent());
+        Candle candle = optionalCandle.get();
+        assertEquals(Price.parse("EUR", "520").getValue(), candle.getOpen());
+        assertEquals(Price.parse("EUR", "580").getValue(), candle.getClose());
+        assertEquals(Price.parse("EUR", "600").getValue(), candle.getHigh());
+        assertEquals(Price.parse("EUR", "500").getValue(), candle.getLow());
+        assertEquals(Price.parse("EUR", "550").getValue(), candle.getMedian());
+        assertEquals(Coin.parseCoin("4").getValue(), candle.getAccumulatedAmount());
+        assertEquals(Price.parse("EUR", "2200").getValue(), candle.getAccumulatedVolume());
+        assertEquals(4, candle.getNumTrades());
+
+        assertFalse(candleService.getCandle("EUR", CandleTickUnit.DAY, START + 1).isPresent());
+        assertFalse(candleService.getCandle("USD", CandleTickUnit.DAY, START).isPresent());
+    }
+
+    @Test
+    public void testGetCandlesInRange() {
+        long hour = TimeUnit.HOURS.toMillis(1);
+        candleService.add(createTradeStatistics("EUR", "500", "1", START + 10));
+        candleService.add(createTradeStatistics("EUR", "510", "1", START + hour + 10));
+        candleService.add(createTradeStatistics("EUR", "520", "1", START + 3 * hour + 10));
+
+        List<Candle> candles = candleService.getCandles("EUR", CandleTickUnit.HOUR, START + hour, START + 4 * hour);
+        assertEquals(2, candles.size());
+        assertEquals(START + hour, candles.get(0).getTickStart());
+        assertEquals(START + 3 * hour, candles.get(1).getTickStart());
+
+        assertEquals(1, candleService.getCandles("EUR", CandleTickUnit.DAY, START, Long.MAX_VALUE).size());
+        assertEquals(3, candleService.getCandles("EUR", CandleTickUnit.DAY, START, Long.MAX_VALUE).get(0).getNumTrades());
+        assertTrue(candleService.getCandles("EUR", CandleTickUnit.HOUR, START + 4 * hour, START).isEmpty());
+    }
+
+    @Test
+    public void testCandlesOfAllCurrencies() {
+        candleService.add(createTradeStatistics("EUR", "500", "1", START + 100));
+        candleService.add(createTradeStatistics("USD", "600", "2", START + 10));
+        candleService.add(createTradeStatistics("USD", "700", "1", START + 200));
+
+        Candle candle = candleService.getCandle(null, CandleTickUnit.MONTH, START).orElseThrow();
+        assertNull(candle.getCurrencyCode());
+        assertEquals(3, candle.getNumTrades());
+        assertEquals(Price.parse("USD", "600").getValue(), candle.getOpen());
+        assertEquals(Price.parse("USD", "700").getValue(), candle.getClose());
+        assertEquals(Price.parse("EUR", "500").getValue(), candle.getLow());
+        assertEquals(Price.parse("USD", "600").getValue(), candle.getMedian());
+        assertEquals(Coin.parseCoin("4").getValue(), candle.getAccumulatedAmount());
+
+        // Merging must not change the candles of the single currencies
+        assertEquals(2, candleService.getCandle("USD", CandleTickUnit.MONTH, START).orElseThrow().getNumTrades());
+    }
+
+    @Test
+    public void testIncrementalCandlesMatchRebuiltCandles() {
+        Random random = new Random(1);
+        List<TradeStatistics3> tradeStatistics = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            long date = START + (long) (random.nextDouble() * TimeUnit.DAYS.toMillis(60));
+            String price = String.valueOf(400 + random.nextInt(200));
+            String amount = String.valueOf(1 + random.nextInt(10));
+            tradeStatistics.add(createTradeStatistics("EUR", price, amount, date));
+        }
+
+        // Add half of them up front and the rest one by one like received from the network
+        candleService.addAll(tradeStatistics.subList(0, 1000));
+        tradeStatistics.subList(1000, tradeStatistics.size()).forEach(candleService::add);
+
+        for (CandleTickUnit tickUnit : CandleTickUnit.values()) {
+            Map<Long, List<TradeStatistics3>> tradeStatisticsByTick = new HashMap<>();
+            tradeStatistics.forEach(e -> tradeStatisticsByTick
+                    .computeIfAbsent(tickUnit.roundToTick(e.getDateAsLong(), ZONE_ID), k -> new ArrayList<>())
+                    .add(e));
+
+            List<Candle> candles = candleService.getCandles("EUR", tickUnit, 0, Long.MAX_VALUE);
+            assertEquals(tradeStatisticsByTick.size(), candles.size());
+            candles.forEach(candle -> assertEquals(
+                    TradeStatisticsCandleService.toCandle("EUR", tickUnit, candle.getTickStart(),
+                            tradeStatisticsByTick.get(candle.getTickStart())),
+                    candle));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.core.trade.statistics;
+
+import bisq.core.monetary.Price;
+import bisq.core.payment.payload.PaymentMethod;
+import bisq.core.provider.price.PriceFeedService;
+
+import bisq.network.p2p.P2PService;
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+import bisq.network.p2p.storage.persistence.AppendOnlyDataStoreService;
+
+import org.bitcoinj.core.Coin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TradeStatisticsManagerTest {
+    private TradeStatisticsManager tradeStatisticsManager;
+    private final List<TradeStatistics3> tradeStatistics = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        // Two trades per date to cover the ordering of trades with the same date
+        for (int i = 0; i < 10; i++) {
+            tradeStatistics.add(createTradeStatistics("EUR", String.valueOf(500 + i), 1000 + i * 10));
+            tradeStatistics.add(createTradeStatistics("USD", String.valueOf(600 + i), 1000 + i * 10));
+        }
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = new HashMap<>();
+        tradeStatistics.forEach(e -> map.put(new P2PDataStorage.ByteArray(e.getHash()), e));
+
+        P2PService p2PService = mock(P2PService.class);
+        when(p2PService.getP2PDataStorage()).thenReturn(mock(P2PDataStorage.class));
+        TradeStatistics3StorageService storageService = mock(TradeStatistics3StorageService.class);
+        when(storageService.getValuesOfAllData()).thenReturn(map.values());
+        when(storageService.getMapViewOfAllData()).thenReturn(map);
+
+        tradeStatisticsManager = new TradeStatisticsManager(p2PService,
+                mock(PriceFeedService.class),
+                storageService,
+                mock(AppendOnlyDataStoreService.class),
+                mock(TradeStatisticsConverter.class),
+                new TradeStatisticsCandleService(),
+                null,
+                false);
+        tradeStatisticsManager.onAllServicesInitialized();
+    }
+
+    private TradeStatistics3 createTradeStatistics(String currencyCode, String price, long date) {
+        return new TradeStatistics3(currencyCode,
+                Price.parse(currencyCode, price).getValue(),
+                Coin.parseCoin("1").getValue(),
+                PaymentMethod.BLOCK_CHAINS_ID,
+                date,
+                null,
+                null,
+                null);
+    }
+
+    @Test
+    public void testFilterByCurrencyAndDate() {
+        List<TradeStatistics3> result = tradeStatisticsManager.getTradeStatistics("EUR", 1020, 1050, null, 100);
+        assertEquals(3, result.size());
+        result.forEach(e -> assertEquals("EUR", e.getCurrency()));
+        assertEquals(1020, result.get(0).getDateAsLong());
+        assertEquals(1040, result.get(2).getDateAsLong());
+
+        assertEquals(20, tradeStatisticsManager.getTradeStatistics(null, 0, Long.MAX_VALUE, null, 100).size());
+        assertTrue(tradeStatisticsManager.getTradeStatistics("XMR", 0, Long.MAX_VALUE, null, 100).isEmpty());
+        assertTrue(tradeStatisticsManager.getTradeStatistics(null, 1050, 1050, null, 100).isEmpty());
+    }
+
+    @Test
+    public void testPaging() {
+        List<TradeStatistics3> pages = new ArrayList<>();
+        TradeStatisticsCursor cursor = null;
+        List<TradeStatistics3> page;
+        do {
+            page = tradeStatisticsManager.getTradeStatistics(null, 1010, 1090, cursor, 3);
+            assertTrue(page.size() <= 3);
+            pages.addAll(page);
+            if (!page.isEmpty()) {
+                cursor = TradeStatisticsCursor.fromString(TradeStatisticsCursor.of(page.get(page.size() - 1)).toString());
+            }
+        } while (!page.isEmpty());
+
+        assertEquals(tradeStatisticsManager.getTradeStatistics(null, 1010, 1090, null, 100), pages);
+        assertEquals(16, pages.size());
+        for (int i = 1; i < pages.size(); i++) {
+            assertTrue(TradeStatisticsCursor.of(pages.get(i - 1)).compareTo(TradeStatisticsCursor.of(pages.get(i))) < 0);
+        }
+    }
+
+    @Test
+    public void testLatestTradeStatistics() {
+        List<TradeStatistics3> latest = tradeStatisticsManager.getLatestTradeStatistics(3);
+        assertEquals(3, latest.size());
+        assertEquals(1090, latest.get(0).getDateAsLong());
+        assertEquals(1090, latest.get(1).getDateAsLong());
+        assertEquals(1080, latest.get(2).getDateAsLong());
+    }
+
+    @Test
+    public void testObservableSetContainsAllTradeStatistics() {
+        assertEquals(new HashSet<>(tradeStatistics), tradeStatisticsManager.getObservableTradeStatisticsSet());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCursor() {
+        TradeStatisticsCursor.fromString("1000_xyz");
+    }
+}
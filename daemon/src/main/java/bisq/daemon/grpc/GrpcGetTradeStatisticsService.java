@@ -1,17 +1,23 @@
 package bisq.daemon.grpc;
 
 import bisq.core.api.CoreApi;
+import bisq.core.api.model.CandleInfo;
 import bisq.core.trade.statistics.TradeStatistics3;
+import bisq.core.trade.statistics.TradeStatisticsCursor;
 
+import bisq.proto.grpc.GetCandlesReply;
+import bisq.proto.grpc.GetCandlesRequest;
 import bisq.proto.grpc.GetTradeStatisticsReply;
 import bisq.proto.grpc.GetTradeStatisticsRequest;
 
 import io.grpc.ServerInterceptor;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 
 import javax.inject.Inject;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -19,7 +25,9 @@ import lombok.extern.slf4j.Slf4j;
 
 import static bisq.daemon.grpc.interceptor.GrpcServiceRateMeteringConfig.getCustomRateMeteringInterceptor;
 import static bisq.proto.grpc.GetTradeStatisticsGrpc.GetTradeStatisticsImplBase;
+import static bisq.proto.grpc.GetTradeStatisticsGrpc.getGetCandlesMethod;
 import static bisq.proto.grpc.GetTradeStatisticsGrpc.getGetTradeStatisticsMethod;
+import static bisq.proto.grpc.GetTradeStatisticsGrpc.getStreamTradeStatisticsMethod;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 
@@ -29,6 +37,10 @@ import bisq.daemon.grpc.interceptor.GrpcCallRateMeter;
 
 @Slf4j
 class GrpcGetTradeStatisticsService extends GetTradeStatisticsImplBase {
+    // Requests without a page size get all matching trade statistics in one reply, as before paging was added
+    private static final int UNLIMITED_PAGE_SIZE = Integer.MAX_VALUE;
+    private static final int MAX_PAGE_SIZE = 10000;
+    private static final int STREAM_PAGE_SIZE = 1000;
 
     private final CoreApi coreApi;
     private final GrpcExceptionHandler exceptionHandler;
@@ -43,11 +55,108 @@ class GrpcGetTradeStatisticsService extends GetTradeStatisticsImplBase {
     public void getTradeStatistics(GetTradeStatisticsRequest req,
                                    StreamObserver<GetTradeStatisticsReply> responseObserver) {
         try {
-            var tradeStatistics = coreApi.getTradeStatistics().stream()
-                    .map(TradeStatistics3::toProtoTradeStatistics3)
+            // page_size is an uint32, so values above Integer.MAX_VALUE arrive as negative ints
+            int pageSize = req.getPageSize() == 0 ?
+                    UNLIMITED_PAGE_SIZE :
+                    (int) Math.min(Integer.toUnsignedLong(req.getPageSize()), MAX_PAGE_SIZE);
+            var reply = getTradeStatisticsPage(req, req.getPageCursor(), pageSize);
+            responseObserver.onNext(reply);
+            responseObserver.onCompleted();
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    // Streams all trade statistics matching the request in pages of STREAM_PAGE_SIZE. The page size of the request
+    // is ignored. The next page is only built when the transport is ready to send it, so a slow client does not make
+    // us buffer the whole export.
+    @Override
+    public void streamTradeStatistics(GetTradeStatisticsRequest req,
+                                      StreamObserver<GetTradeStatisticsReply> responseObserver) {
+        try {
+            var serverCallStreamObserver = (ServerCallStreamObserver<GetTradeStatisticsReply>) responseObserver;
+            var pageStreamer = new TradeStatisticsPageStreamer(req, serverCallStreamObserver);
+            serverCallStreamObserver.setOnCancelHandler(pageStreamer::cancel);
+            serverCallStreamObserver.setOnReadyHandler(pageStreamer::sendPages);
+            pageStreamer.sendPages();
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    private GetTradeStatisticsReply getTradeStatisticsPage(GetTradeStatisticsRequest req,
+                                                           String pageCursor,
+                                                           int pageSize) {
+        // We request one more item to know if there is a next page
+        List<TradeStatistics3> tradeStatistics = coreApi.getTradeStatistics(req.getCurrencyCode(),
+                req.getSince(),
+                req.getUntil(),
+                pageCursor,
+                pageSize == UNLIMITED_PAGE_SIZE ? UNLIMITED_PAGE_SIZE : pageSize + 1);
+        String nextPageCursor = "";
+        if (tradeStatistics.size() > pageSize) {
+            tradeStatistics = tradeStatistics.subList(0, pageSize);
+            nextPageCursor = TradeStatisticsCursor.of(tradeStatistics.get(pageSize - 1)).toString();
+        }
+        return GetTradeStatisticsReply.newBuilder()
+                .addAllTradeStatistics(tradeStatistics.stream()
+                        .map(TradeStatistics3::toProtoTradeStatistics3)
+                        .collect(Collectors.toList()))
+                .setNextPageCursor(nextPageCursor)
+                .build();
+    }
+
+    // The on ready handler and the call itself might run on different threads, so sending is synchronized
+    private class TradeStatisticsPageStreamer {
+        private final GetTradeStatisticsRequest req;
+        private final ServerCallStreamObserver<GetTradeStatisticsReply> responseObserver;
+        private String pageCursor;
+        private boolean done;
+
+        TradeStatisticsPageStreamer(GetTradeStatisticsRequest req,
+                                    ServerCallStreamObserver<GetTradeStatisticsReply> responseObserver) {
+            this.req = req;
+            this.responseObserver = responseObserver;
+            this.pageCursor = req.getPageCursor();
+        }
+
+        synchronized void sendPages() {
+            try {
+                while (!done && !responseObserver.isCancelled() && responseObserver.isReady()) {
+                    var reply = getTradeStatisticsPage(req, pageCursor, STREAM_PAGE_SIZE);
+                    responseObserver.onNext(reply);
+                    pageCursor = reply.getNextPageCursor();
+                    if (pageCursor.isEmpty()) {
+                        done = true;
+                        responseObserver.onCompleted();
+                    }
+                }
+            } catch (Throwable cause) {
+                if (!done && !responseObserver.isCancelled()) {
+                    done = true;
+                    exceptionHandler.handleException(log, cause, responseObserver);
+                }
+            }
+        }
+
+        synchronized void cancel() {
+            done = true;
+        }
+    }
+
+    @Override
+    public void getCandles(GetCandlesRequest req,
+                           StreamObserver<GetCandlesReply> responseObserver) {
+        try {
+            var candles = coreApi.getCandles(req.getCurrencyCode(),
+                    req.getTickUnit(),
+                    req.getFromDate(),
+                    req.getToDate()).stream()
+                    .map(CandleInfo::toCandleInfo)
+                    .map(CandleInfo::toProtoMessage)
                     .collect(Collectors.toList());
 
-            var reply = GetTradeStatisticsReply.newBuilder().addAllTradeStatistics(tradeStatistics).build();
+            var reply = GetCandlesReply.newBuilder().addAllCandles(candles).build();
             responseObserver.onNext(reply);
             responseObserver.onCompleted();
         } catch (Throwable cause) {
@@ -65,7 +174,10 @@ class GrpcGetTradeStatisticsService extends GetTradeStatisticsImplBase {
         return getCustomRateMeteringInterceptor(coreApi.getConfig().appDataDir, this.getClass())
                 .or(() -> Optional.of(CallRateMeteringInterceptor.valueOf(
                         new HashMap<>() {{
-                            put(getGetTradeStatisticsMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS));
+                            // Paged requests are cheap, but clients fetch several pages in a row
+                            put(getGetTradeStatisticsMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
+                            put(getStreamTradeStatisticsMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS, 10));
+                            put(getGetCandlesMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
                         }}
                 )));
     }
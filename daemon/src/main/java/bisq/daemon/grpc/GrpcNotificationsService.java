@@ -2,6 +2,8 @@ package bisq.daemon.grpc;
 
 import bisq.core.api.CoreApi;
 import bisq.core.api.CoreApi.NotificationListener;
+import bisq.core.api.CoreNotificationService;
+import bisq.core.api.SubscriberQueue.OverflowPolicy;
 
 import bisq.proto.grpc.NotificationMessage;
 import bisq.proto.grpc.NotificationsGrpc.NotificationsImplBase;
@@ -10,6 +12,7 @@ import bisq.proto.grpc.SendNotificationReply;
 import bisq.proto.grpc.SendNotificationRequest;
 
 import io.grpc.ServerInterceptor;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 
 import javax.inject.Inject;
@@ -18,12 +21,12 @@ import java.util.HashMap;
 import java.util.Optional;
 
 import lombok.NonNull;
-import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
 import static bisq.daemon.grpc.interceptor.GrpcServiceRateMeteringConfig.getCustomRateMeteringInterceptor;
 import static bisq.proto.grpc.NotificationsGrpc.getRegisterNotificationListenerMethod;
 import static bisq.proto.grpc.NotificationsGrpc.getSendNotificationMethod;
+import static io.grpc.Status.RESOURCE_EXHAUSTED;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 
@@ -47,7 +50,15 @@ class GrpcNotificationsService extends NotificationsImplBase {
     public void registerNotificationListener(RegisterNotificationListenerRequest request,
                                              StreamObserver<NotificationMessage> responseObserver) {
         try {
-            coreApi.addNotificationListener(new GrpcNotificationListener(responseObserver));
+            var serverCallStreamObserver = (ServerCallStreamObserver<NotificationMessage>) responseObserver;
+            var listener = new GrpcNotificationListener(serverCallStreamObserver);
+            serverCallStreamObserver.setOnCancelHandler(() -> coreApi.removeNotificationListener(listener));
+            serverCallStreamObserver.setOnReadyHandler(() -> coreApi.onNotificationListenerReady(listener));
+            coreApi.addNotificationListener(listener,
+                    request.getEpoch(),
+                    request.getAfterSequence(),
+                    CoreNotificationService.getFilter(request.getTypesList(), request.getTradeIdsList()),
+                    request.getDisconnectOnOverflow() ? OverflowPolicy.DISCONNECT : OverflowPolicy.DROP_OLDEST);
             // No onNext / onCompleted, as the response observer should be kept open
         } catch (Throwable t) {
             exceptionHandler.handleException(log, t, responseObserver);
@@ -66,16 +77,34 @@ class GrpcNotificationsService extends NotificationsImplBase {
         }
     }
 
-    @Value
+    // Notifications are delivered one at a time by the core notification service, so we do not need to synchronize
+    // the calls to the response observer.
     private static class GrpcNotificationListener implements NotificationListener {
 
         @NonNull
-        StreamObserver<NotificationMessage> responseObserver;
+        private final ServerCallStreamObserver<NotificationMessage> responseObserver;
+
+        GrpcNotificationListener(@NonNull ServerCallStreamObserver<NotificationMessage> responseObserver) {
+            this.responseObserver = responseObserver;
+        }
 
         @Override
-        public void onMessage(@NonNull NotificationMessage message) {
+        public void onNext(@NonNull NotificationMessage message) {
             responseObserver.onNext(message);
         }
+
+        @Override
+        public boolean isReady() {
+            // Until the transport can take more messages, they stay in the listener's bounded queue
+            return responseObserver.isReady();
+        }
+
+        @Override
+        public void onOverflow() {
+            responseObserver.onError(RESOURCE_EXHAUSTED
+                    .withDescription("too many notifications queued, resume from the last received notification")
+                    .asRuntimeException());
+        }
     }
 
     final ServerInterceptor[] interceptors() {
@@ -19,13 +19,19 @@ package bisq.daemon.grpc;
 
 import bisq.core.api.CoreApi;
 import bisq.core.api.model.OfferInfo;
+import bisq.core.api.model.OfferResult;
+import bisq.core.api.model.OfferSpec;
 import bisq.core.offer.Offer;
 import bisq.core.offer.OpenOffer;
 import bisq.core.util.ParsingUtils;
 import bisq.proto.grpc.CancelOfferReply;
 import bisq.proto.grpc.CancelOfferRequest;
+import bisq.proto.grpc.CancelOffersReply;
+import bisq.proto.grpc.CancelOffersRequest;
 import bisq.proto.grpc.CreateOfferReply;
 import bisq.proto.grpc.CreateOfferRequest;
+import bisq.proto.grpc.CreateOffersReply;
+import bisq.proto.grpc.CreateOffersRequest;
 import bisq.proto.grpc.GetMyOfferReply;
 import bisq.proto.grpc.GetMyOfferRequest;
 import bisq.proto.grpc.GetMyOffersReply;
@@ -34,6 +40,8 @@ import bisq.proto.grpc.GetOfferReply;
 import bisq.proto.grpc.GetOfferRequest;
 import bisq.proto.grpc.GetOffersReply;
 import bisq.proto.grpc.GetOffersRequest;
+import bisq.proto.grpc.ReplaceOffersReply;
+import bisq.proto.grpc.ReplaceOffersRequest;
 
 import io.grpc.ServerInterceptor;
 import io.grpc.stub.StreamObserver;
@@ -181,6 +189,86 @@ class GrpcOffersService extends OffersImplBase {
         }
     }
 
+    @Override
+    public void createOffers(CreateOffersRequest req,
+                             StreamObserver<CreateOffersReply> responseObserver) {
+        try {
+            coreApi.createAndPlaceOffers(toOfferSpecs(req.getOffersList()),
+                    results -> {
+                        // Sent to the gRPC client after the async placement of all offers is done.
+                        var reply = CreateOffersReply.newBuilder()
+                                .addAllResults(toOfferResultProtos(results))
+                                .build();
+                        responseObserver.onNext(reply);
+                        responseObserver.onCompleted();
+                    });
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    @Override
+    public void cancelOffers(CancelOffersRequest req,
+                             StreamObserver<CancelOffersReply> responseObserver) {
+        try {
+            List<OfferResult> results = coreApi.cancelOffers(req.getIdsList());
+            var reply = CancelOffersReply.newBuilder()
+                    .addAllResults(toOfferResultProtos(results))
+                    .build();
+            responseObserver.onNext(reply);
+            responseObserver.onCompleted();
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    @Override
+    public void replaceOffers(ReplaceOffersRequest req,
+                              StreamObserver<ReplaceOffersReply> responseObserver) {
+        try {
+            coreApi.replaceOffers(req.getCancelIdsList(),
+                    toOfferSpecs(req.getOffersList()),
+                    (cancelResults, createResults) -> {
+                        var reply = ReplaceOffersReply.newBuilder()
+                                .addAllCancelResults(toOfferResultProtos(cancelResults))
+                                .addAllCreateResults(toOfferResultProtos(createResults))
+                                .build();
+                        responseObserver.onNext(reply);
+                        responseObserver.onCompleted();
+                    });
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    private static List<OfferSpec> toOfferSpecs(List<CreateOfferRequest> requests) {
+        return requests.stream()
+                .map(req -> new OfferSpec(req.getCurrencyCode(),
+                        req.getDirection(),
+                        req.getPrice(),
+                        req.getUseMarketBasedPrice(),
+                        req.getMarketPriceMargin(),
+                        ParsingUtils.atomicUnitsToCentineros(req.getAmount()),
+                        ParsingUtils.atomicUnitsToCentineros(req.getMinAmount()),
+                        req.getBuyerSecurityDeposit(),
+                        req.getTriggerPrice(),
+                        req.getPaymentAccountId()))
+                .collect(Collectors.toList());
+    }
+
+    private static List<bisq.proto.grpc.OfferResult> toOfferResultProtos(List<OfferResult> results) {
+        return results.stream()
+                .map(result -> {
+                    var builder = bisq.proto.grpc.OfferResult.newBuilder();
+                    Optional.ofNullable(result.getOfferId()).ifPresent(builder::setOfferId);
+                    Optional.ofNullable(result.getOffer()).ifPresent(offer ->
+                            builder.setOffer(toOfferInfo(offer).toProtoMessage()));
+                    Optional.ofNullable(result.getErrorMessage()).ifPresent(builder::setErrorMessage);
+                    return builder.build();
+                })
+                .collect(Collectors.toList());
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -197,6 +285,11 @@ class GrpcOffersService extends OffersImplBase {
                             put(getGetMyOffersMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
                             put(getCreateOfferMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS));
                             put(getCancelOfferMethod().getFullMethodName(), new GrpcCallRateMeter(10, SECONDS));
+                            // A batch places or cancels many offers, so few batch calls are allowed and they
+                            // must not run concurrently.
+                            put(getCreateOffersMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS, 10, 1));
+                            put(getCancelOffersMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS, 1, 1));
+                            put(getReplaceOffersMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS, 10, 1));
                         }}
                 )));
     }
@@ -19,8 +19,8 @@ package bisq.daemon.grpc;
 
 import bisq.core.api.CoreContext;
 
-import bisq.common.UserThread;
 import bisq.common.config.Config;
+import bisq.common.util.Utilities;
 
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
@@ -31,6 +31,10 @@ import javax.inject.Singleton;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
 import lombok.extern.slf4j.Slf4j;
 
 import static io.grpc.ServerInterceptors.interceptForward;
@@ -38,17 +42,23 @@ import static io.grpc.ServerInterceptors.interceptForward;
 
 
 import bisq.daemon.grpc.interceptor.PasswordAuthInterceptor;
+import bisq.daemon.grpc.interceptor.UserThreadInterceptor;
 
 @Singleton
 @Slf4j
 public class GrpcServer {
 
+    // Read-only calls run on these threads, all others are marshalled to the user thread by the UserThreadInterceptor
+    private static final int NUM_THREADS = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    private final ExecutorService executor;
     private final Server server;
 
     @Inject
     public GrpcServer(CoreContext coreContext,
                       Config config,
                       PasswordAuthInterceptor passwordAuthInterceptor,
+                      UserThreadInterceptor userThreadInterceptor,
                       GrpcDisputeAgentsService disputeAgentsService,
                       GrpcHelpService helpService,
                       GrpcOffersService offersService,
@@ -60,8 +70,11 @@ public class GrpcServer {
                       GrpcTradesService tradesService,
                       GrpcWalletsService walletsService,
                       GrpcNotificationsService notificationsService) {
+        // The queue is unbounded as the executor's rejection handler would silently drop calls
+        this.executor = Utilities.getThreadPoolExecutor("GrpcServer-%d", NUM_THREADS, NUM_THREADS, 60,
+                new LinkedBlockingQueue<>());
         this.server = ServerBuilder.forPort(config.apiPort)
-                .executor(UserThread.getExecutor())
+                .executor(executor)
                 .addService(interceptForward(disputeAgentsService, disputeAgentsService.interceptors()))
                 .addService(interceptForward(helpService, helpService.interceptors()))
                 .addService(interceptForward(offersService, offersService.interceptors()))
@@ -73,6 +86,7 @@ public class GrpcServer {
                 .addService(interceptForward(versionService, versionService.interceptors()))
                 .addService(interceptForward(walletsService, walletsService.interceptors()))
                 .addService(interceptForward(notificationsService, notificationsService.interceptors()))
+                .intercept(userThreadInterceptor)
                 .intercept(passwordAuthInterceptor)
                 .build();
         coreContext.setApiUser(true);
@@ -90,6 +104,7 @@ public class GrpcServer {
     public void shutdown() {
         log.info("Server shutdown started");
         server.shutdown();
+        Utilities.shutdownAndAwaitTermination(executor, 1, TimeUnit.SECONDS);
         log.info("Server shutdown complete");
     }
 }
@@ -18,8 +18,9 @@
 package bisq.daemon.grpc;
 
 import bisq.core.api.CoreApi;
+import bisq.core.api.CoreApi.TradeEventListener;
+import bisq.core.api.model.TradeEvent;
 import bisq.core.api.model.TradeInfo;
-import bisq.core.trade.Trade;
 
 import bisq.proto.grpc.ConfirmPaymentReceivedReply;
 import bisq.proto.grpc.ConfirmPaymentReceivedRequest;
@@ -33,10 +34,12 @@ import bisq.proto.grpc.KeepFundsReply;
 import bisq.proto.grpc.KeepFundsRequest;
 import bisq.proto.grpc.TakeOfferReply;
 import bisq.proto.grpc.TakeOfferRequest;
+import bisq.proto.grpc.WatchTradesRequest;
 import bisq.proto.grpc.WithdrawFundsReply;
 import bisq.proto.grpc.WithdrawFundsRequest;
 
 import io.grpc.ServerInterceptor;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 
 import javax.inject.Inject;
@@ -45,11 +48,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+
+import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
 import static bisq.core.api.model.TradeInfo.toTradeInfo;
 import static bisq.daemon.grpc.interceptor.GrpcServiceRateMeteringConfig.getCustomRateMeteringInterceptor;
 import static bisq.proto.grpc.TradesGrpc.*;
+import static io.grpc.Status.RESOURCE_EXHAUSTED;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
@@ -74,10 +80,9 @@ class GrpcTradesService extends TradesImplBase {
     public void getTrade(GetTradeRequest req,
                          StreamObserver<GetTradeReply> responseObserver) {
         try {
-            Trade trade = coreApi.getTrade(req.getTradeId());
-            String role = coreApi.getTradeRole(req.getTradeId());
+            TradeInfo tradeInfo = coreApi.getTradeInfo(req.getTradeId());
             var reply = GetTradeReply.newBuilder()
-                    .setTrade(toTradeInfo(trade, role).toProtoMessage())
+                    .setTrade(tradeInfo.toProtoMessage())
                     .build();
             responseObserver.onNext(reply);
             responseObserver.onCompleted();
@@ -94,9 +99,7 @@ class GrpcTradesService extends TradesImplBase {
     public void getTrades(GetTradesRequest req,
                          StreamObserver<GetTradesReply> responseObserver) {
         try {
-            List<TradeInfo> trades = coreApi.getTrades()
-                    .stream().map(TradeInfo::toTradeInfo)
-                    .collect(Collectors.toList());
+            List<TradeInfo> trades = coreApi.getTradeInfos();
             var reply = GetTradesReply.newBuilder()
                     .addAllTrades(trades.stream()
                             .map(TradeInfo::toProtoMessage)
@@ -185,6 +188,61 @@ class GrpcTradesService extends TradesImplBase {
         }
     }
 
+    @Override
+    public void watchTrades(WatchTradesRequest req,
+                            StreamObserver<bisq.proto.grpc.TradeEvent> responseObserver) {
+        try {
+            var serverCallStreamObserver = (ServerCallStreamObserver<bisq.proto.grpc.TradeEvent>) responseObserver;
+            var listener = new GrpcTradeEventListener(serverCallStreamObserver, req.getIncludeTradeInfo());
+            serverCallStreamObserver.setOnCancelHandler(() -> coreApi.removeTradeEventListener(listener));
+            serverCallStreamObserver.setOnReadyHandler(() -> coreApi.onTradeEventListenerReady(listener));
+            coreApi.addTradeEventListener(req.getEpoch(),
+                    req.getAfterSequence(),
+                    listener);
+            // No onCompleted, as the response observer is kept open until the client cancels the call
+        } catch (Throwable cause) {
+            exceptionHandler.handleException(log, cause, responseObserver);
+        }
+    }
+
+    // Events are delivered one at a time by the trade event journal, so we do not need to synchronize the calls to
+    // the response observer.
+    private static class GrpcTradeEventListener implements TradeEventListener {
+
+        @NonNull
+        private final ServerCallStreamObserver<bisq.proto.grpc.TradeEvent> responseObserver;
+        private final boolean includeTradeInfo;
+
+        GrpcTradeEventListener(@NonNull ServerCallStreamObserver<bisq.proto.grpc.TradeEvent> responseObserver,
+                               boolean includeTradeInfo) {
+            this.responseObserver = responseObserver;
+            this.includeTradeInfo = includeTradeInfo;
+        }
+
+        @Override
+        public void onNext(@NonNull TradeEvent event) {
+            responseObserver.onNext(event.toProtoMessage(includeTradeInfo));
+        }
+
+        @Override
+        public boolean isTradeInfoRequested() {
+            return includeTradeInfo;
+        }
+
+        @Override
+        public boolean isReady() {
+            // Until the transport can take more messages, the events stay in the listener's bounded queue
+            return responseObserver.isReady();
+        }
+
+        @Override
+        public void onOverflow() {
+            responseObserver.onError(RESOURCE_EXHAUSTED
+                    .withDescription("too many trade events queued, resume from the last received event")
+                    .asRuntimeException());
+        }
+    }
+
     final ServerInterceptor[] interceptors() {
         Optional<ServerInterceptor> rateMeteringInterceptor = rateMeteringInterceptor();
         return rateMeteringInterceptor.map(serverInterceptor ->
@@ -202,6 +260,8 @@ class GrpcTradesService extends TradesImplBase {
                             put(getConfirmPaymentReceivedMethod().getFullMethodName(), new GrpcCallRateMeter(1, SECONDS));
                             put(getKeepFundsMethod().getFullMethodName(), new GrpcCallRateMeter(1, MINUTES));
                             put(getWithdrawFundsMethod().getFullMethodName(), new GrpcCallRateMeter(1, MINUTES));
+                            // Clients keep the stream open, a few reconnects are fine, but not a watcher per request
+                            put(getWatchTradesMethod().getFullMethodName(), new GrpcCallRateMeter(10, MINUTES, 1, 4));
                         }}
                 )));
     }
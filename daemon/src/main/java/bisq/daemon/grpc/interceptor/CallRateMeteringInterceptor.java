@@ -17,59 +17,129 @@
 
 package bisq.daemon.grpc.interceptor;
 
+import io.grpc.ForwardingServerCallListener.SimpleForwardingServerCallListener;
+import io.grpc.Grpc;
 import io.grpc.Metadata;
 import io.grpc.ServerCall;
 import io.grpc.ServerCallHandler;
 import io.grpc.ServerInterceptor;
+import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 
+import com.google.common.annotations.VisibleForTesting;
+
 import org.apache.commons.lang3.StringUtils;
 
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import lombok.extern.slf4j.Slf4j;
 
+import static io.grpc.Metadata.ASCII_STRING_MARSHALLER;
 import static io.grpc.Status.PERMISSION_DENIED;
+import static io.grpc.Status.UNAVAILABLE;
 import static java.lang.String.format;
 import static java.util.stream.Collectors.joining;
 
+/**
+ * Limits the calls of the metered methods of a gRPC service.
+ * <p>
+ * Each client gets its own token bucket per method, sized by the method's GrpcCallRateMeter, so a busy bot does
+ * not use up the allowance of other clients. All clients authenticate with the same api password, so we tell them
+ * apart by their host. In addition, the number of concurrently executing calls of a method is bounded by an
+ * adaptive GrpcConcurrencyLimit which sheds load when the method's latency rises.
+ * <p>
+ * Rejected calls are closed with a retry delay in the trailers, as grpc-retry-pushback-ms for gRPC's retry
+ * policy and as retry-after in seconds as known from HTTP.
+ */
 @Slf4j
 public final class CallRateMeteringInterceptor implements ServerInterceptor {
 
+    @VisibleForTesting
+    static final Metadata.Key<String> RETRY_PUSHBACK_MS_KEY = Metadata.Key.of("grpc-retry-pushback-ms", ASCII_STRING_MARSHALLER);
+    @VisibleForTesting
+    static final Metadata.Key<String> RETRY_AFTER_KEY = Metadata.Key.of("retry-after", ASCII_STRING_MARSHALLER);
+
+    // Above this number of token buckets of a method we drop the full ones, which behave like new ones
+    private static final int MAX_IDLE_TOKEN_BUCKETS = 1000;
+
     // Maps the gRPC server method names to rate meters.  This allows one interceptor
     // instance to handle rate metering for any or all the methods in a Grpc*Service.
     protected final Map<String, GrpcCallRateMeter> serviceCallRateMeters;
 
+    private final Map<String, MethodLimiter> methodLimiters = new HashMap<>();
+
     public CallRateMeteringInterceptor(Map<String, GrpcCallRateMeter> serviceCallRateMeters) {
         this.serviceCallRateMeters = serviceCallRateMeters;
+        serviceCallRateMeters.forEach((methodName, rateMeter) ->
+                methodLimiters.put(methodName, new MethodLimiter(rateMeter)));
     }
 
     @Override
     public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> serverCall,
                                                                  Metadata headers,
                                                                  ServerCallHandler<ReqT, RespT> serverCallHandler) {
-        Optional<Map.Entry<String, GrpcCallRateMeter>> rateMeterKV = getRateMeterKV(serverCall);
-        rateMeterKV.ifPresentOrElse(
-                (kv) -> checkRateMeterAndMaybeCloseCall(kv, serverCall),
-                () -> handleMissingRateMeterConfiguration(serverCall));
-
-        // We leave it to the gRPC framework to clean up if the server call was closed
-        // above.  But we still have to invoke startCall here because the method must
-        // return a ServerCall.Listener<RequestT>.
-        return serverCallHandler.startCall(serverCall, headers);
-    }
-
-    private void checkRateMeterAndMaybeCloseCall(Map.Entry<String, GrpcCallRateMeter> rateMeterKV,
-                                                 ServerCall<?, ?> serverCall) {
-        String methodName = rateMeterKV.getKey();
-        GrpcCallRateMeter rateMeter = rateMeterKV.getValue();
-
-        if (!rateMeter.checkAndIncrement())
-            handlePermissionDeniedWarningAndCloseCall(methodName, rateMeter, serverCall);
-        else
-            log.info(rateMeter.getCallsCountProgress(methodName));
+        String methodName = getRateMeterKey(serverCall);
+        MethodLimiter methodLimiter = methodLimiters.get(methodName);
+        if (methodLimiter == null) {
+            handleMissingRateMeterConfiguration(serverCall);
+            return serverCallHandler.startCall(serverCall, headers);
+        }
+
+        long now = System.nanoTime();
+        String clientId = getClientId(serverCall);
+        long retryAfterNanos = methodLimiter.getTokenBucket(clientId, now).tryConsume(now);
+        if (retryAfterNanos > 0) {
+            handlePermissionDeniedWarningAndCloseCall(methodName, methodLimiter.rateMeter, clientId, retryAfterNanos, serverCall);
+            // We leave it to the gRPC framework to clean up if the server call was closed
+            // above.  But we still have to invoke startCall here because the method must
+            // return a ServerCall.Listener<RequestT>.
+            return serverCallHandler.startCall(serverCall, headers);
+        }
+
+        GrpcConcurrencyLimit concurrencyLimit = methodLimiter.concurrencyLimit;
+        if (!concurrencyLimit.tryAcquire()) {
+            handleConcurrencyLimitExceededAndCloseCall(methodName, concurrencyLimit, serverCall);
+            return serverCallHandler.startCall(serverCall, headers);
+        }
+
+        log.debug("{} called by {}", methodName, clientId);
+        boolean isStream = !serverCall.getMethodDescriptor().getType().serverSendsOneMessage();
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                if (isStream)
+                    concurrencyLimit.releaseStream();
+                else
+                    concurrencyLimit.release(System.nanoTime() - now);
+            }
+        };
+        ServerCall.Listener<ReqT> listener;
+        try {
+            listener = serverCallHandler.startCall(serverCall, headers);
+        } catch (RuntimeException e) {
+            release.run();
+            throw e;
+        }
+        return new SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onComplete() {
+                release.run();
+                super.onComplete();
+            }
+
+            @Override
+            public void onCancel() {
+                release.run();
+                super.onCancel();
+            }
+        };
     }
 
     private void handleMissingRateMeterConfiguration(ServerCall<?, ?> serverCall)
@@ -81,11 +151,33 @@ public final class CallRateMeteringInterceptor implements ServerInterceptor {
 
     private void handlePermissionDeniedWarningAndCloseCall(String methodName,
                                                            GrpcCallRateMeter rateMeter,
+                                                           String clientId,
+                                                           long retryAfterNanos,
                                                            ServerCall<?, ?> serverCall)
             throws StatusRuntimeException {
         String msg = getDefaultRateExceededError(methodName, rateMeter);
+        log.warn("{} by {}.", msg, clientId);
+        closeCall(serverCall, PERMISSION_DENIED.withDescription(msg.toLowerCase()), retryAfterNanos);
+    }
+
+    private void handleConcurrencyLimitExceededAndCloseCall(String methodName,
+                                                            GrpcConcurrencyLimit concurrencyLimit,
+                                                            ServerCall<?, ?> serverCall) {
+        String msg = format("The maximum number of concurrent %s calls (%d) has been exceeded",
+                methodName.split("/")[1],
+                concurrencyLimit.getLimit());
         log.warn(msg + ".");
-        serverCall.close(PERMISSION_DENIED.withDescription(msg.toLowerCase()), new Metadata());
+        // A slot should be free again within about the method's no load latency
+        long retryAfterNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(100), concurrencyLimit.getNoLoadLatencyNanos());
+        closeCall(serverCall, UNAVAILABLE.withDescription(msg.toLowerCase()), retryAfterNanos);
+    }
+
+    private void closeCall(ServerCall<?, ?> serverCall, Status status, long retryAfterNanos) {
+        Metadata trailers = new Metadata();
+        long retryAfterMillis = TimeUnit.NANOSECONDS.toMillis(retryAfterNanos) + 1;
+        trailers.put(RETRY_PUSHBACK_MS_KEY, String.valueOf(retryAfterMillis));
+        trailers.put(RETRY_AFTER_KEY, String.valueOf((retryAfterMillis + 999) / 1000));
+        serverCall.close(status, trailers);
     }
 
     private String getDefaultRateExceededError(String methodName,
@@ -101,12 +193,6 @@ public final class CallRateMeteringInterceptor implements ServerInterceptor {
                 timeUnitName);
     }
 
-    private Optional<Map.Entry<String, GrpcCallRateMeter>> getRateMeterKV(ServerCall<?, ?> serverCall) {
-        String rateMeterKey = getRateMeterKey(serverCall);
-        return serviceCallRateMeters.entrySet().stream()
-                .filter((e) -> e.getKey().equals(rateMeterKey)).findFirst();
-    }
-
     private String getRateMeterKey(ServerCall<?, ?> serverCall) {
         // Get the rate meter map key from the server call method descriptor.  The
         // returned String (e.g., 'io.bisq.protobuffer.Offers/CreateOffer') will match
@@ -115,6 +201,14 @@ public final class CallRateMeteringInterceptor implements ServerInterceptor {
         return serverCall.getMethodDescriptor().getFullMethodName();
     }
 
+    private static String getClientId(ServerCall<?, ?> serverCall) {
+        SocketAddress remoteAddress = serverCall.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
+        if (remoteAddress instanceof InetSocketAddress)
+            return ((InetSocketAddress) remoteAddress).getHostString();
+
+        return String.valueOf(remoteAddress);
+    }
+
     @Override
     public String toString() {
         String rateMetersString =
@@ -133,4 +227,22 @@ public final class CallRateMeteringInterceptor implements ServerInterceptor {
             putAll(rateMeters);
         }});
     }
+
+    private static class MethodLimiter {
+        private final GrpcCallRateMeter rateMeter;
+        private final GrpcConcurrencyLimit concurrencyLimit;
+        private final Map<String, GrpcTokenBucket> tokenBucketByClientId = new ConcurrentHashMap<>();
+
+        MethodLimiter(GrpcCallRateMeter rateMeter) {
+            this.rateMeter = rateMeter;
+            this.concurrencyLimit = rateMeter.newConcurrencyLimit();
+        }
+
+        GrpcTokenBucket getTokenBucket(String clientId, long now) {
+            if (tokenBucketByClientId.size() > MAX_IDLE_TOKEN_BUCKETS)
+                tokenBucketByClientId.values().removeIf(tokenBucket -> tokenBucket.isFull(now));
+
+            return tokenBucketByClientId.computeIfAbsent(clientId, id -> rateMeter.newTokenBucket());
+        }
+    }
 }
@@ -0,0 +1,104 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.daemon.grpc.interceptor;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adaptive limit of the number of concurrently executing calls of a gRPC method.
+ * <p>
+ * We track the latency of the method without load, which is the lowest latency observed, slowly drifting
+ * upwards so it can follow a node which became permanently slower. If a call takes considerably longer, the node
+ * is busy and we shed load by decreasing the limit by a tenth; if calls complete in time while the limit is
+ * used by at least half, we increase it by one, up to the configured maximum (additive increase, multiplicative
+ * decrease). All state is kept in atomics, races between concurrent updates only skip an adjustment.
+ * <p>
+ * Server streaming calls are open as long as the client wants, so their duration says nothing about the load
+ * of the node; they are released without adjusting the limit.
+ */
+public class GrpcConcurrencyLimit {
+    private static final int MIN_LIMIT = 1;
+    // A call is considered slow if it takes longer than twice the no load latency, and at least this much longer
+    private static final long MIN_LATENCY_MARGIN_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    // The no load latency moves 1/64 of the difference towards slower latencies with each call
+    private static final int NO_LOAD_LATENCY_DRIFT_DIVISOR = 64;
+
+    private final int maxLimit;
+    private final AtomicInteger limit;
+    private final AtomicInteger numCalls = new AtomicInteger();
+    private final AtomicLong noLoadLatencyNanos = new AtomicLong();
+
+    public GrpcConcurrencyLimit(int maxLimit) {
+        this.maxLimit = Math.max(MIN_LIMIT, maxLimit);
+        this.limit = new AtomicInteger(this.maxLimit);
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = numCalls.get();
+            if (current >= limit.get())
+                return false;
+
+            if (numCalls.compareAndSet(current, current + 1))
+                return true;
+        }
+    }
+
+    public void release(long latencyNanos) {
+        int numCallsBefore = numCalls.getAndDecrement();
+        long noLoadLatency = updateNoLoadLatency(latencyNanos);
+        int currentLimit = limit.get();
+        if (latencyNanos > Math.max(2 * noLoadLatency, noLoadLatency + MIN_LATENCY_MARGIN_NANOS)) {
+            limit.compareAndSet(currentLimit, Math.max(MIN_LIMIT, currentLimit - Math.max(1, currentLimit / 10)));
+        } else if (2 * numCallsBefore >= currentLimit) {
+            limit.compareAndSet(currentLimit, Math.min(maxLimit, currentLimit + 1));
+        }
+    }
+
+    public void releaseStream() {
+        numCalls.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    @VisibleForTesting
+    int getNumCalls() {
+        return numCalls.get();
+    }
+
+    public long getNoLoadLatencyNanos() {
+        return noLoadLatencyNanos.get();
+    }
+
+    private long updateNoLoadLatency(long latencyNanos) {
+        while (true) {
+            long current = noLoadLatencyNanos.get();
+            long updated = current == 0 || latencyNanos < current
+                    ? latencyNanos
+                    : current + (latencyNanos - current) / NO_LOAD_LATENCY_DRIFT_DIVISOR;
+            if (noLoadLatencyNanos.compareAndSet(current, updated))
+                return updated;
+        }
+    }
+}
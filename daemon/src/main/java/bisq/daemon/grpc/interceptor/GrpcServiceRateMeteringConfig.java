@@ -60,6 +60,8 @@ public class GrpcServiceRateMeteringConfig {
     private static final String KEY_ALLOWED_CALL_PER_TIME_WINDOW = "allowedCallsPerTimeWindow";
     private static final String KEY_TIME_UNIT = "timeUnit";
     private static final String KEY_NUM_TIME_UNITS = "numTimeUnits";
+    // Optional, config files written before it was added use the default
+    private static final String KEY_MAX_CONCURRENT_CALLS = "maxConcurrentCalls";
 
     private static final Gson gson = new GsonBuilder().setPrettyPrinting().create();
 
@@ -186,7 +188,13 @@ public class GrpcServiceRateMeteringConfig {
         int allowedCallsPerTimeWindow = ((Number) valueMap.get(KEY_ALLOWED_CALL_PER_TIME_WINDOW)).intValue();
         TimeUnit timeUnit = TimeUnit.valueOf((String) valueMap.get(KEY_TIME_UNIT));
         int numTimeUnits = ((Number) valueMap.get(KEY_NUM_TIME_UNITS)).intValue();
-        return new GrpcCallRateMeter(allowedCallsPerTimeWindow, timeUnit, numTimeUnits);
+        Number maxConcurrentCalls = (Number) valueMap.get(KEY_MAX_CONCURRENT_CALLS);
+        return new GrpcCallRateMeter(allowedCallsPerTimeWindow,
+                timeUnit,
+                numTimeUnits,
+                maxConcurrentCalls != null
+                        ? maxConcurrentCalls.intValue()
+                        : GrpcCallRateMeter.DEFAULT_MAX_CONCURRENT_CALLS);
     }
 
     private static void verifyConfigFile(File configFile) {
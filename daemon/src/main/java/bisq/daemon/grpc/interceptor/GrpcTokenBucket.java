@@ -0,0 +1,72 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.daemon.grpc.interceptor;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket holding capacity tokens, which is refilled with capacity tokens per refill interval.
+ * <p>
+ * It is implemented as generic cell rate algorithm: instead of the number of tokens we keep the theoretical
+ * arrival time, the time at which the bucket would be full again, and advance it by the emission interval
+ * (refill interval / capacity) with each consumed token. A call is allowed if the bucket would not overflow,
+ * i.e. if the theoretical arrival time is at most one refill interval ahead of now. So one value updated with
+ * compareAndSet is all the state we need.
+ */
+public class GrpcTokenBucket {
+    private final long emissionIntervalNanos;
+    private final long refillIntervalNanos;
+    private final AtomicLong theoreticalArrivalTime;
+
+    public GrpcTokenBucket(int capacity, long refillIntervalInMilliseconds) {
+        this(capacity, refillIntervalInMilliseconds, System.nanoTime());
+    }
+
+    GrpcTokenBucket(int capacity, long refillIntervalInMilliseconds, long nowNanos) {
+        this.refillIntervalNanos = TimeUnit.MILLISECONDS.toNanos(refillIntervalInMilliseconds);
+        this.emissionIntervalNanos = capacity > 0 ? refillIntervalNanos / capacity : Long.MAX_VALUE;
+        this.theoreticalArrivalTime = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @return 0 if a token was consumed, otherwise the number of nanoseconds until the next token is available
+     */
+    public long tryConsume(long nowNanos) {
+        if (emissionIntervalNanos == Long.MAX_VALUE)
+            return refillIntervalNanos;
+
+        while (true) {
+            long arrivalTime = theoreticalArrivalTime.get();
+            long newArrivalTime = Math.max(arrivalTime, nowNanos) + emissionIntervalNanos;
+            long overflowNanos = newArrivalTime - nowNanos - refillIntervalNanos;
+            if (overflowNanos > 0)
+                return overflowNanos;
+
+            if (theoreticalArrivalTime.compareAndSet(arrivalTime, newArrivalTime))
+                return 0;
+        }
+    }
+
+    /**
+     * A full bucket behaves like a new one, so the caller can drop it.
+     */
+    public boolean isFull(long nowNanos) {
+        return theoreticalArrivalTime.get() - nowNanos <= 0;
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.daemon.grpc.interceptor;
+
+import bisq.proto.grpc.GetTradeStatisticsGrpc;
+import bisq.proto.grpc.GetVersionGrpc;
+import bisq.proto.grpc.HelpGrpc;
+import bisq.proto.grpc.OffersGrpc;
+import bisq.proto.grpc.PriceGrpc;
+import bisq.proto.grpc.TradesGrpc;
+import bisq.proto.grpc.WalletsGrpc;
+
+import bisq.common.UserThread;
+
+import io.grpc.ForwardingServerCallListener.SimpleForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+
+import javax.inject.Inject;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import java.util.Set;
+
+/**
+ * Marshals all rpc calls except read-only ones to the user thread.
+ * <p>
+ * The server runs calls on its own bounded pool. Mutating calls change state which is only ever changed on the
+ * user thread, so their listener callbacks, which invoke the service method, are executed there in the order the
+ * transport delivers them. Read-only calls stay on the pool and are served from the immutable snapshots and
+ * concurrent indexes the core api services publish, so api polling does not queue up behind p2p message handling
+ * and trade protocol steps.
+ */
+public class UserThreadInterceptor implements ServerInterceptor {
+
+    public static final Set<String> READ_ONLY_METHODS = Set.of(
+            GetTradeStatisticsGrpc.getGetTradeStatisticsMethod().getFullMethodName(),
+            GetTradeStatisticsGrpc.getStreamTradeStatisticsMethod().getFullMethodName(),
+            GetVersionGrpc.getGetVersionMethod().getFullMethodName(),
+            HelpGrpc.getGetMethodHelpMethod().getFullMethodName(),
+            OffersGrpc.getGetOfferMethod().getFullMethodName(),
+            OffersGrpc.getGetOffersMethod().getFullMethodName(),
+            PriceGrpc.getGetMarketPriceMethod().getFullMethodName(),
+            PriceGrpc.getGetMarketPricesMethod().getFullMethodName(),
+            TradesGrpc.getGetTradeMethod().getFullMethodName(),
+            TradesGrpc.getGetTradesMethod().getFullMethodName(),
+            WalletsGrpc.getGetBalancesMethod().getFullMethodName());
+
+    private final Set<String> readOnlyMethods;
+
+    @Inject
+    public UserThreadInterceptor() {
+        this(READ_ONLY_METHODS);
+    }
+
+    @VisibleForTesting
+    UserThreadInterceptor(Set<String> readOnlyMethods) {
+        this.readOnlyMethods = readOnlyMethods;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> serverCall,
+                                                                 Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> serverCallHandler) {
+        ServerCall.Listener<ReqT> listener = serverCallHandler.startCall(serverCall, headers);
+        if (readOnlyMethods.contains(serverCall.getMethodDescriptor().getFullMethodName()))
+            return listener;
+
+        return new SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onMessage(ReqT message) {
+                UserThread.execute(() -> super.onMessage(message));
+            }
+
+            @Override
+            public void onHalfClose() {
+                UserThread.execute(super::onHalfClose);
+            }
+
+            @Override
+            public void onCancel() {
+                UserThread.execute(super::onCancel);
+            }
+
+            @Override
+            public void onComplete() {
+                UserThread.execute(super::onComplete);
+            }
+
+            @Override
+            public void onReady() {
+                UserThread.execute(super::onReady);
+            }
+        };
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.daemon.grpc.interceptor;
+
+import bisq.proto.grpc.OffersGrpc;
+
+import io.grpc.Attributes;
+import io.grpc.Grpc;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.Status;
+
+import java.net.InetSocketAddress;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CallRateMeteringInterceptorTest {
+    private static final MethodDescriptor<?, ?> GET_OFFERS = OffersGrpc.getGetOffersMethod();
+
+    private final ServerCallHandler<Object, Object> handler = (call, headers) -> new ServerCall.Listener<>() {
+    };
+
+    @Test
+    public void testEachClientHasItsOwnAllowance() {
+        CallRateMeteringInterceptor interceptor = newInterceptor(new GrpcCallRateMeter(2, SECONDS, 10));
+
+        assertNull(call(interceptor, "10.0.0.1").closedStatus);
+        assertNull(call(interceptor, "10.0.0.1").closedStatus);
+        TestServerCall rejectedCall = call(interceptor, "10.0.0.1");
+        assertEquals(Status.Code.PERMISSION_DENIED, rejectedCall.closedStatus.getCode());
+
+        // The retry delay is about half the time window, when the next token is available
+        long retryAfterMs = Long.parseLong(rejectedCall.trailers.get(CallRateMeteringInterceptor.RETRY_PUSHBACK_MS_KEY));
+        assertTrue(retryAfterMs > 4000 && retryAfterMs <= 5001, "Retry after " + retryAfterMs + " ms");
+        assertEquals("5", rejectedCall.trailers.get(CallRateMeteringInterceptor.RETRY_AFTER_KEY));
+
+        // Another client is not affected
+        assertNull(call(interceptor, "10.0.0.2").closedStatus);
+        assertNull(call(interceptor, "10.0.0.2").closedStatus);
+    }
+
+    @Test
+    public void testConcurrencyLimit() {
+        CallRateMeteringInterceptor interceptor = newInterceptor(new GrpcCallRateMeter(100, SECONDS, 1, 2));
+
+        TestServerCall firstCall = call(interceptor, "10.0.0.1");
+        assertNull(firstCall.closedStatus);
+        assertNull(call(interceptor, "10.0.0.2").closedStatus);
+        TestServerCall rejectedCall = call(interceptor, "10.0.0.3");
+        assertEquals(Status.Code.UNAVAILABLE, rejectedCall.closedStatus.getCode());
+        assertNotNull(rejectedCall.trailers.get(CallRateMeteringInterceptor.RETRY_PUSHBACK_MS_KEY));
+
+        // Completing a call frees its slot
+        firstCall.listener.onComplete();
+        assertNull(call(interceptor, "10.0.0.3").closedStatus);
+    }
+
+    @Test
+    public void testConcurrencyLimitShedsLoadWhenLatencyRises() {
+        GrpcConcurrencyLimit concurrencyLimit = new GrpcConcurrencyLimit(20);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(concurrencyLimit.tryAcquire());
+            concurrencyLimit.release(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+        assertEquals(20, concurrencyLimit.getLimit());
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(concurrencyLimit.tryAcquire());
+            concurrencyLimit.release(TimeUnit.MILLISECONDS.toNanos(500));
+        }
+        int reducedLimit = concurrencyLimit.getLimit();
+        assertTrue(reducedLimit < 20, "Limit " + reducedLimit);
+
+        // Recovers when calls are fast again and the limit is used
+        for (int i = 0; i < reducedLimit; i++) {
+            assertTrue(concurrencyLimit.tryAcquire());
+        }
+        assertFalse(concurrencyLimit.tryAcquire());
+        for (int i = 0; i < reducedLimit; i++) {
+            concurrencyLimit.release(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+        assertTrue(concurrencyLimit.getLimit() > reducedLimit);
+        assertEquals(0, concurrencyLimit.getNumCalls());
+    }
+
+    @Test
+    public void testReleasedStreamsDoNotAdjustConcurrencyLimit() {
+        GrpcConcurrencyLimit concurrencyLimit = new GrpcConcurrencyLimit(4);
+        assertTrue(concurrencyLimit.tryAcquire());
+        concurrencyLimit.release(TimeUnit.MILLISECONDS.toNanos(5));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(concurrencyLimit.tryAcquire());
+        }
+        assertFalse(concurrencyLimit.tryAcquire());
+        for (int i = 0; i < 4; i++) {
+            concurrencyLimit.releaseStream();
+        }
+        assertEquals(4, concurrencyLimit.getLimit());
+        assertEquals(0, concurrencyLimit.getNumCalls());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(5), concurrencyLimit.getNoLoadLatencyNanos());
+    }
+
+    @Test
+    public void testTokenBucket() {
+        long now = 0;
+        GrpcTokenBucket tokenBucket = new GrpcTokenBucket(3, 3000, now);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, tokenBucket.tryConsume(now));
+        }
+        assertEquals(TimeUnit.SECONDS.toNanos(1), tokenBucket.tryConsume(now));
+        assertFalse(tokenBucket.isFull(now));
+
+        // One token is refilled per second
+        now += TimeUnit.SECONDS.toNanos(1);
+        assertEquals(0, tokenBucket.tryConsume(now));
+        assertTrue(tokenBucket.tryConsume(now) > 0);
+
+        now += TimeUnit.SECONDS.toNanos(3);
+        assertTrue(tokenBucket.isFull(now));
+    }
+
+    private CallRateMeteringInterceptor newInterceptor(GrpcCallRateMeter rateMeter) {
+        return new CallRateMeteringInterceptor(Map.of(GET_OFFERS.getFullMethodName(), rateMeter));
+    }
+
+    private TestServerCall call(CallRateMeteringInterceptor interceptor, String host) {
+        TestServerCall serverCall = new TestServerCall(host);
+        serverCall.listener = interceptor.interceptCall(serverCall, new Metadata(), handler);
+        return serverCall;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static class TestServerCall extends ServerCall<Object, Object> {
+        private final Attributes attributes;
+        private Status closedStatus;
+        private Metadata trailers;
+        private ServerCall.Listener<Object> listener;
+
+        TestServerCall(String host) {
+            attributes = Attributes.newBuilder()
+                    .set(Grpc.TRANSPORT_ATTR_REMOTE_ADDR, new InetSocketAddress(host, 50000))
+                    .build();
+        }
+
+        @Override
+        public void request(int numMessages) {
+        }
+
+        @Override
+        public void sendHeaders(Metadata headers) {
+        }
+
+        @Override
+        public void sendMessage(Object message) {
+        }
+
+        @Override
+        public void close(Status status, Metadata trailers) {
+            this.closedStatus = status;
+            this.trailers = trailers;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            return attributes;
+        }
+
+        @Override
+        public MethodDescriptor<Object, Object> getMethodDescriptor() {
+            return (MethodDescriptor) GET_OFFERS;
+        }
+    }
+}
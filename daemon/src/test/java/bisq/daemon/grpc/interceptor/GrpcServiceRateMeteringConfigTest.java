@@ -24,7 +24,6 @@ import java.nio.file.Paths;
 import java.io.File;
 
 import java.util.Optional;
-import java.util.concurrent.TimeUnit;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -37,10 +36,10 @@ import static bisq.daemon.grpc.interceptor.GrpcServiceRateMeteringConfig.getCust
 import static java.lang.System.getProperty;
 import static java.util.concurrent.TimeUnit.DAYS;
 import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -112,56 +111,17 @@ public class GrpcServiceRateMeteringConfigTest {
         assertEquals(2, rateMeter.getNumTimeUnits());
         assertEquals(2 * 1000, rateMeter.getTimeUnitIntervalInMilliseconds());
 
-        // Do as many calls as allowed within rateMeter.getTimeUnitIntervalInMilliseconds().
-        doMaxIsAllowedChecks(true,
-                rateMeter.getAllowedCallsPerTimeWindow(),
-                rateMeter);
-
-        // The next 3 calls are blocked because we've exceeded the 3calls/2s limit.
-        doMaxIsAllowedChecks(false,
-                rateMeter.getAllowedCallsPerTimeWindow(),
-                rateMeter);
-
-        // Let all of the rate meter's cached call timestamps become stale by waiting for
-        // 2001 ms, then we can call getversion another 'allowedCallsPerTimeUnit' times.
-        rest(1 + rateMeter.getTimeUnitIntervalInMilliseconds());
-        // All the stale call timestamps are gone and the call count is back to zero.
-        assertEquals(0, rateMeter.getCallsCount());
-
-        doMaxIsAllowedChecks(true,
-                rateMeter.getAllowedCallsPerTimeWindow(),
-                rateMeter);
-        // We've exceeded the call/second limit.
-        assertFalse(rateMeter.checkAndIncrement());
-
-        // Let all of the call timestamps go stale again by waiting for 2001 ms.
-        rest(1 + rateMeter.getTimeUnitIntervalInMilliseconds());
-
-        // Call twice, resting 0.5s after each call.
-        for (int i = 0; i < 2; i++) {
-            assertTrue(rateMeter.checkAndIncrement());
-            rest(500);
+        // Each client gets a bucket that allows as many calls as configured within the time window.
+        GrpcTokenBucket tokenBucket = rateMeter.newTokenBucket();
+        long now = System.nanoTime();
+        for (int i = 0; i < rateMeter.getAllowedCallsPerTimeWindow(); i++) {
+            assertEquals(0, tokenBucket.tryConsume(now));
         }
-        // Call the 3rd time, then let one of the rate meter's timestamps go stale.
-        assertTrue(rateMeter.checkAndIncrement());
-        rest(1001);
+        // The next call is blocked because we've exceeded the 3calls/2s limit.
+        assertTrue(tokenBucket.tryConsume(now) > 0);
 
-        // The call count was decremented by one because one timestamp went stale.
-        assertEquals(2, rateMeter.getCallsCount());
-        assertTrue(rateMeter.checkAndIncrement());
-        assertEquals(rateMeter.getAllowedCallsPerTimeWindow(), rateMeter.getCallsCount());
-
-        // We've exceeded the call limit again.
-        assertFalse(rateMeter.checkAndIncrement());
-    }
-
-    private void doMaxIsAllowedChecks(boolean expectedIsAllowed,
-                                      int expectedCallsCount,
-                                      GrpcCallRateMeter rateMeter) {
-        for (int i = 1; i <= rateMeter.getAllowedCallsPerTimeWindow(); i++) {
-            assertEquals(expectedIsAllowed, rateMeter.checkAndIncrement());
-        }
-        assertEquals(expectedCallsCount, rateMeter.getCallsCount());
+        // After the 2s window the bucket is full again.
+        assertTrue(tokenBucket.isFull(now + MILLISECONDS.toNanos(rateMeter.getTimeUnitIntervalInMilliseconds())));
     }
 
     @AfterClass
@@ -170,13 +130,6 @@ public class GrpcServiceRateMeteringConfigTest {
             configFile.deleteOnExit();
     }
 
-    private void rest(long milliseconds) {
-        try {
-            TimeUnit.MILLISECONDS.sleep(milliseconds);
-        } catch (InterruptedException ignored) {
-        }
-    }
-
     private CallRateMeteringInterceptor buildInterceptor() {
         //noinspection OptionalAssignedToNull
         if (versionServiceInterceptor == null) {
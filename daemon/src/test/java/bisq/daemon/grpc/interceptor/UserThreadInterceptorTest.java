@@ -0,0 +1,170 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.daemon.grpc.interceptor;
+
+import bisq.proto.grpc.OffersGrpc;
+
+import bisq.common.UserThread;
+
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.Status;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+public class UserThreadInterceptorTest {
+    private static final String USER_THREAD_NAME = "UserThreadInterceptorTest-UserThread";
+
+    private final UserThreadInterceptor interceptor = new UserThreadInterceptor();
+    private Executor previousUserThreadExecutor;
+    private ExecutorService userThreadExecutor;
+    private ExecutorService serverExecutor;
+
+    @Before
+    public void setUp() {
+        previousUserThreadExecutor = UserThread.getExecutor();
+        userThreadExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, USER_THREAD_NAME));
+        UserThread.setExecutor(userThreadExecutor);
+        serverExecutor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        UserThread.setExecutor(previousUserThreadExecutor);
+        userThreadExecutor.shutdownNow();
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testMutatingCallRunsOnUserThread() throws InterruptedException {
+        List<String> threadNames = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        startCall(OffersGrpc.getCreateOfferMethod(), threadNames, latch);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(USER_THREAD_NAME), threadNames);
+    }
+
+    @Test
+    public void testReadOnlyCallsAreNotBlockedByBusyUserThread() throws InterruptedException {
+        // Synthetic p2p load: about 3 sec. of message handling queued up on the user thread
+        AtomicBoolean loadCompleted = new AtomicBoolean();
+        for (int i = 0; i < 1500; i++) {
+            UserThread.execute(() -> simulateWork(2));
+        }
+        UserThread.execute(() -> loadCompleted.set(true));
+
+        // Api polling concurrently with the load
+        int numPolls = 200;
+        List<String> threadNames = new CopyOnWriteArrayList<>();
+        List<Long> latencies = new CopyOnWriteArrayList<>();
+        long ts = System.currentTimeMillis();
+        for (int i = 0; i < numPolls; i++) {
+            CountDownLatch latch = new CountDownLatch(1);
+            long start = System.nanoTime();
+            startCall(OffersGrpc.getGetOffersMethod(), threadNames, latch);
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        long maxLatency = latencies.stream().mapToLong(Long::longValue).max().orElseThrow();
+        double averageLatency = latencies.stream().mapToLong(Long::longValue).average().orElseThrow();
+        log.info("{} polls took {} ms. Average latency {} ms, max. latency {} ms",
+                numPolls, System.currentTimeMillis() - ts, averageLatency, maxLatency);
+
+        assertTrue(threadNames.stream().noneMatch(USER_THREAD_NAME::equals));
+        // All polls completed while the user thread was still busy with the load
+        assertFalse(loadCompleted.get(), "User thread load completed before the polls");
+        assertTrue(maxLatency < 500, "Max. latency " + maxLatency + " ms");
+    }
+
+    private void startCall(MethodDescriptor<?, ?> methodDescriptor, List<String> threadNames, CountDownLatch latch) {
+        ServerCallHandler<Object, Object> handler = (call, headers) -> new ServerCall.Listener<>() {
+            @Override
+            public void onHalfClose() {
+                // The service method is invoked here for unary calls
+                threadNames.add(Thread.currentThread().getName());
+                latch.countDown();
+            }
+        };
+        // The transport delivers the listener callbacks on the server's executor
+        serverExecutor.execute(() -> interceptor.interceptCall(new TestServerCall(methodDescriptor), new Metadata(), handler)
+                .onHalfClose());
+    }
+
+    private static void simulateWork(long ms) {
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ms);
+        while (System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static class TestServerCall extends ServerCall<Object, Object> {
+        private final MethodDescriptor methodDescriptor;
+
+        TestServerCall(MethodDescriptor<?, ?> methodDescriptor) {
+            this.methodDescriptor = methodDescriptor;
+        }
+
+        @Override
+        public void request(int numMessages) {
+        }
+
+        @Override
+        public void sendHeaders(Metadata headers) {
+        }
+
+        @Override
+        public void sendMessage(Object message) {
+        }
+
+        @Override
+        public void close(Status status, Metadata trailers) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public MethodDescriptor<Object, Object> getMethodDescriptor() {
+            return methodDescriptor;
+        }
+    }
+}
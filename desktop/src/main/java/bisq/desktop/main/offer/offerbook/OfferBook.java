@@ -22,15 +22,22 @@ import bisq.core.offer.Offer;
 import bisq.core.offer.OfferBookService;
 import bisq.core.trade.TradeManager;
 
+import bisq.common.UserThread;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
-import javafx.collections.FXCollections;
+import javafx.collections.ModifiableObservableListBase;
 import javafx.collections.ObservableList;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -48,7 +55,13 @@ import static bisq.core.offer.OfferPayload.Direction.BUY;
 @Slf4j
 public class OfferBook {
     private final OfferBookService offerBookService;
-    private final ObservableList<OfferBookListItem> offerBookListItems = FXCollections.observableArrayList();
+    private final OfferBookListItems offerBookListItems = new OfferBookListItems();
+    // Id index of the offers in the list including the pending changes
+    private final Map<String, OfferBookListItem> offerBookListItemById = new HashMap<>();
+    // Changes from the offer book service get applied to the list in one batch per user thread cycle
+    private final Set<OfferBookListItem> pendingAdds = new LinkedHashSet<>();
+    private final Set<OfferBookListItem> pendingRemoves = new HashSet<>();
+    private boolean applyPendingChangesScheduled;
     private final Map<String, Integer> buyOfferCountMap = new HashMap<>();
     private final Map<String, Integer> sellOfferCountMap = new HashMap<>();
     private final FilterManager filterManager;
@@ -58,7 +71,7 @@ public class OfferBook {
     ///////////////////////////////////////////////////////////////////////////////////////////
 
     @Inject
-    OfferBook(OfferBookService offerBookService, TradeManager tradeManager, FilterManager filterManager) {
+    public OfferBook(OfferBookService offerBookService, TradeManager tradeManager, FilterManager filterManager) {
         this.offerBookService = offerBookService;
         this.filterManager = filterManager;
 
@@ -75,25 +88,24 @@ public class OfferBook {
                     return;
                 }
 
-                boolean hasSameOffer = offerBookListItems.stream()
-                        .anyMatch(item -> item.getOffer().equals(offer));
-                if (!hasSameOffer) {
-                    OfferBookListItem offerBookListItem = new OfferBookListItem(offer);
-                    // We don't use the contains method as the equals method in Offer takes state and errorMessage into account.
-                    // If we have an offer with same ID we remove it and add the new offer as it might have a changed state.
-                    Optional<OfferBookListItem> candidateWithSameId = offerBookListItems.stream()
-                            .filter(item -> item.getOffer().getId().equals(offer.getId()))
-                            .findAny();
-                    if (candidateWithSameId.isPresent()) {
-                        log.warn("We had an old offer in the list with the same Offer ID {}. We remove the old one. " +
-                                "old offerBookListItem={}, new offerBookListItem={}", offer.getId(), candidateWithSameId.get(), offerBookListItem);
-                        offerBookListItems.remove(candidateWithSameId.get());
-                    }
-
-                    offerBookListItems.add(offerBookListItem);
-                } else {
+                OfferBookListItem candidateWithSameId = offerBookListItemById.get(offer.getId());
+                if (candidateWithSameId != null && candidateWithSameId.getOffer().equals(offer)) {
                     log.debug("We have the exact same offer already in our list and ignore the onAdded call. ID={}", offer.getId());
+                    return;
+                }
+
+                OfferBookListItem offerBookListItem = new OfferBookListItem(offer);
+                // We don't use the contains method as the equals method in Offer takes state and errorMessage into account.
+                // If we have an offer with same ID we remove it and add the new offer as it might have a changed state.
+                if (candidateWithSameId != null) {
+                    log.warn("We had an old offer in the list with the same Offer ID {}. We remove the old one. " +
+                            "old offerBookListItem={}, new offerBookListItem={}", offer.getId(), candidateWithSameId, offerBookListItem);
+                    removeItem(candidateWithSameId);
                 }
+
+                offerBookListItemById.put(offer.getId(), offerBookListItem);
+                pendingAdds.add(offerBookListItem);
+                scheduleApplyPendingChanges();
             }
 
             @Override
@@ -109,10 +121,11 @@ public class OfferBook {
 
         offer.cancelAvailabilityRequest();
         // We don't use the contains method as the equals method in Offer takes state and errorMessage into account.
-        Optional<OfferBookListItem> candidateToRemove = offerBookListItems.stream()
-                .filter(item -> item.getOffer().getId().equals(offer.getId()))
-                .findAny();
-        candidateToRemove.ifPresent(offerBookListItems::remove);
+        OfferBookListItem candidateToRemove = offerBookListItemById.remove(offer.getId());
+        if (candidateToRemove != null) {
+            removeItem(candidateToRemove);
+            scheduleApplyPendingChanges();
+        }
     }
 
     public ObservableList<OfferBookListItem> getOfferBookListItems() {
@@ -121,13 +134,15 @@ public class OfferBook {
 
     public void fillOfferBookListItems() {
         try {
-            // setAll causes sometimes an UnsupportedOperationException
-            // Investigate why....
-            offerBookListItems.clear();
-            offerBookListItems.addAll(offerBookService.getOffers().stream()
+            pendingAdds.clear();
+            pendingRemoves.clear();
+            offerBookListItemById.clear();
+            List<OfferBookListItem> items = offerBookService.getOffers().stream()
                     .filter(o -> !filterManager.isOfferIdBanned(o.getId()))
                     .map(OfferBookListItem::new)
-                    .collect(Collectors.toList()));
+                    .collect(Collectors.toList());
+            items.forEach(item -> offerBookListItemById.put(item.getOffer().getId(), item));
+            offerBookListItems.replaceAll(items);
 
             log.debug("offerBookListItems.size {}", offerBookListItems.size());
             fillOfferCountMaps();
@@ -145,6 +160,28 @@ public class OfferBook {
         return sellOfferCountMap;
     }
 
+    private void removeItem(OfferBookListItem item) {
+        // An item which has not been applied yet only needs to be dropped from the pending adds
+        if (!pendingAdds.remove(item))
+            pendingRemoves.add(item);
+    }
+
+    private void scheduleApplyPendingChanges() {
+        if (applyPendingChangesScheduled)
+            return;
+
+        applyPendingChangesScheduled = true;
+        UserThread.execute(() -> {
+            applyPendingChangesScheduled = false;
+            if (pendingAdds.isEmpty() && pendingRemoves.isEmpty())
+                return;
+
+            offerBookListItems.applyChanges(pendingRemoves, pendingAdds);
+            pendingAdds.clear();
+            pendingRemoves.clear();
+        });
+    }
+
     private void fillOfferCountMaps() {
         buyOfferCountMap.clear();
         sellOfferCountMap.clear();
@@ -163,4 +200,78 @@ public class OfferBook {
         log.debug("buyOfferCountMap.size {}   sellOfferCountMap.size {}",
                 buyOfferCountMap.size(), sellOfferCountMap.size());
     }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // OfferBookListItems class
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Observable list which applies a batch of removes and adds with a single change event
+    private static class OfferBookListItems extends ModifiableObservableListBase<OfferBookListItem> {
+        private final List<OfferBookListItem> items = new ArrayList<>();
+
+        void applyChanges(Set<OfferBookListItem> removedItems, Collection<OfferBookListItem> addedItems) {
+            beginChange();
+            try {
+                if (!removedItems.isEmpty()) {
+                    // Reported from the end, so the indices of the not yet reported removes stay valid
+                    for (int i = items.size() - 1; i >= 0; i--) {
+                        OfferBookListItem item = items.get(i);
+                        if (removedItems.contains(item))
+                            nextRemove(i, item);
+                    }
+                    items.removeIf(removedItems::contains);
+                }
+
+                if (!addedItems.isEmpty()) {
+                    int from = items.size();
+                    items.addAll(addedItems);
+                    nextAdd(from, items.size());
+                }
+            } finally {
+                endChange();
+            }
+        }
+
+        void replaceAll(Collection<OfferBookListItem> newItems) {
+            beginChange();
+            try {
+                if (!items.isEmpty()) {
+                    nextRemove(0, new ArrayList<>(items));
+                    items.clear();
+                }
+                if (!newItems.isEmpty()) {
+                    items.addAll(newItems);
+                    nextAdd(0, items.size());
+                }
+            } finally {
+                endChange();
+            }
+        }
+
+        @Override
+        public OfferBookListItem get(int index) {
+            return items.get(index);
+        }
+
+        @Override
+        public int size() {
+            return items.size();
+        }
+
+        @Override
+        protected void doAdd(int index, OfferBookListItem element) {
+            items.add(index, element);
+        }
+
+        @Override
+        protected OfferBookListItem doSet(int index, OfferBookListItem element) {
+            return items.set(index, element);
+        }
+
+        @Override
+        protected OfferBookListItem doRemove(int index) {
+            return items.remove(index);
+        }
+    }
 }
@@ -81,6 +81,7 @@ import javafx.collections.transformation.SortedList;
 
 import java.text.DecimalFormat;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -129,6 +130,12 @@ class OfferBookViewModel extends ActivatableViewModel {
     final IntegerProperty maxPlacesForVolume = new SimpleIntegerProperty();
     final IntegerProperty maxPlacesForPrice = new SimpleIntegerProperty();
     final IntegerProperty maxPlacesForMarketPriceMargin = new SimpleIntegerProperty();
+    // Items determining the column widths
+    private OfferBookListItem highestAmountItem;
+    private OfferBookListItem highestPriceItem;
+    private OfferBookListItem widestMarketPriceMarginItem;
+    private int widestMarketPriceMarginLength;
+    private int numRangeAmountItems;
     boolean showAllPaymentMethods = true;
     boolean useOffersMatchingMyAccountsFilter;
 
@@ -173,41 +180,37 @@ class OfferBookViewModel extends ActivatableViewModel {
         tradeCurrencyListChangeListener = c -> fillAllTradeCurrencies();
 
         filterItemsListener = c -> {
-            final Optional<OfferBookListItem> highestAmountOffer = filteredItems.stream()
-                    .max(Comparator.comparingLong(o -> o.getOffer().getAmount().getValue()));
-
-            final boolean containsRangeAmount = filteredItems.stream().anyMatch(o -> o.getOffer().isRange());
-
-            if (highestAmountOffer.isPresent()) {
-                final OfferBookListItem item = highestAmountOffer.get();
-                if (!item.getOffer().isRange() && containsRangeAmount) {
-                    maxPlacesForAmount.set(formatAmount(item.getOffer(), false)
-                            .length() * 2 + FormattingUtils.RANGE_SEPARATOR.length());
-                    maxPlacesForVolume.set(formatVolume(item.getOffer(), false)
-                            .length() * 2 + FormattingUtils.RANGE_SEPARATOR.length());
-                } else {
-                    maxPlacesForAmount.set(formatAmount(item.getOffer(), false).length());
-                    maxPlacesForVolume.set(formatVolume(item.getOffer(), false).length());
+            // Only offers which get added or which were the widest of a column have an impact on the column widths,
+            // so we don't need to scan all filtered items at each change.
+            boolean recompute = false;
+            List<OfferBookListItem> addedItems = new ArrayList<>();
+            while (c.next()) {
+                if (c.wasPermutated() || c.wasUpdated())
+                    continue;
+
+                for (OfferBookListItem removedItem : c.getRemoved()) {
+                    if (removedItem.getOffer().isRange())
+                        numRangeAmountItems--;
+                    if (removedItem == highestAmountItem ||
+                            removedItem == highestPriceItem ||
+                            removedItem == widestMarketPriceMarginItem)
+                        recompute = true;
                 }
-
+                addedItems.addAll(c.getAddedSubList());
             }
 
-            final Optional<OfferBookListItem> highestPriceOffer = filteredItems.stream()
-                    .filter(o -> o.getOffer().getPrice() != null)
-                    .max(Comparator.comparingLong(o -> o.getOffer().getPrice() != null ? o.getOffer().getPrice().getValue() : 0));
-
-            highestPriceOffer.ifPresent(offerBookListItem -> maxPlacesForPrice.set(formatPrice(offerBookListItem.getOffer(), false).length()));
-
-            final Optional<OfferBookListItem> highestMarketPriceMarginOffer = filteredItems.stream()
-                    .filter(o -> o.getOffer().isUseMarketBasedPrice())
-                    .max(Comparator.comparing(o -> new DecimalFormat("#0.00").format(o.getOffer().getMarketPriceMargin() * 100).length()));
-
-            highestMarketPriceMarginOffer.ifPresent(offerBookListItem -> maxPlacesForMarketPriceMargin.set(formatMarketPriceMargin(offerBookListItem.getOffer(), false).length()));
+            if (recompute) {
+                recomputeColumnWidths();
+            } else {
+                addedItems.forEach(this::addToColumnWidths);
+                applyColumnWidths();
+            }
         };
     }
 
     @Override
     protected void activate() {
+        recomputeColumnWidths();
         filteredItems.addListener(filterItemsListener);
 
         String code = direction == OfferPayload.Direction.BUY ? preferences.getBuyScreenCurrencyCode() : preferences.getSellScreenCurrencyCode();
@@ -539,6 +542,64 @@ class OfferBookViewModel extends ActivatableViewModel {
         }
     }
 
+    private void recomputeColumnWidths() {
+        highestAmountItem = null;
+        highestPriceItem = null;
+        widestMarketPriceMarginItem = null;
+        widestMarketPriceMarginLength = 0;
+        numRangeAmountItems = 0;
+        filteredItems.forEach(this::addToColumnWidths);
+        applyColumnWidths();
+    }
+
+    // On equal values the first item wins, like with stream().max()
+    private void addToColumnWidths(OfferBookListItem item) {
+        Offer offer = item.getOffer();
+        if (offer.isRange())
+            numRangeAmountItems++;
+
+        if (highestAmountItem == null ||
+                offer.getAmount().getValue() > highestAmountItem.getOffer().getAmount().getValue())
+            highestAmountItem = item;
+
+        Price price = offer.getPrice();
+        if (price != null) {
+            // The price of market based offers can become unavailable
+            Price highestPrice = highestPriceItem != null ? highestPriceItem.getOffer().getPrice() : null;
+            if (highestPrice == null || price.getValue() > highestPrice.getValue())
+                highestPriceItem = item;
+        }
+
+        if (offer.isUseMarketBasedPrice()) {
+            int marketPriceMarginLength = new DecimalFormat("#0.00").format(offer.getMarketPriceMargin() * 100).length();
+            if (widestMarketPriceMarginItem == null || marketPriceMarginLength > widestMarketPriceMarginLength) {
+                widestMarketPriceMarginItem = item;
+                widestMarketPriceMarginLength = marketPriceMarginLength;
+            }
+        }
+    }
+
+    private void applyColumnWidths() {
+        if (highestAmountItem != null) {
+            Offer offer = highestAmountItem.getOffer();
+            if (!offer.isRange() && numRangeAmountItems > 0) {
+                maxPlacesForAmount.set(formatAmount(offer, false)
+                        .length() * 2 + FormattingUtils.RANGE_SEPARATOR.length());
+                maxPlacesForVolume.set(formatVolume(offer, false)
+                        .length() * 2 + FormattingUtils.RANGE_SEPARATOR.length());
+            } else {
+                maxPlacesForAmount.set(formatAmount(offer, false).length());
+                maxPlacesForVolume.set(formatVolume(offer, false).length());
+            }
+        }
+
+        if (highestPriceItem != null)
+            maxPlacesForPrice.set(formatPrice(highestPriceItem.getOffer(), false).length());
+
+        if (widestMarketPriceMarginItem != null)
+            maxPlacesForMarketPriceMargin.set(formatMarketPriceMargin(widestMarketPriceMarginItem.getOffer(), false).length());
+    }
+
     private void fillAllTradeCurrencies() {
         allTradeCurrencies.clear();
         // Used for ignoring filter (show all)
@@ -0,0 +1,147 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.desktop.main.offer.offerbook;
+
+import bisq.core.filter.FilterManager;
+import bisq.core.offer.Offer;
+import bisq.core.offer.OfferBookService;
+import bisq.core.trade.TradeManager;
+
+import bisq.common.UserThread;
+
+import javafx.collections.ListChangeListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.mockito.ArgumentCaptor;
+
+import static bisq.desktop.maker.OfferMaker.btcUsdOffer;
+import static bisq.desktop.maker.OfferMaker.id;
+import static bisq.desktop.maker.OfferMaker.price;
+import static com.natpryce.makeiteasy.MakeItEasy.make;
+import static com.natpryce.makeiteasy.MakeItEasy.with;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@Slf4j
+public class OfferBookTest {
+    private final List<Runnable> userThreadTasks = new ArrayList<>();
+    private Executor userThreadExecutor;
+    private OfferBook offerBook;
+    private OfferBookService.OfferBookChangedListener offerBookChangedListener;
+    private int numChangeEvents;
+
+    @Before
+    public void setUp() {
+        // We run the user thread tasks manually to see how the changes get batched
+        userThreadExecutor = UserThread.getExecutor();
+        UserThread.setExecutor(userThreadTasks::add);
+
+        OfferBookService offerBookService = mock(OfferBookService.class);
+        offerBook = new OfferBook(offerBookService, mock(TradeManager.class), mock(FilterManager.class));
+        ArgumentCaptor<OfferBookService.OfferBookChangedListener> captor =
+                ArgumentCaptor.forClass(OfferBookService.OfferBookChangedListener.class);
+        verify(offerBookService).addOfferBookChangedListener(captor.capture());
+        offerBookChangedListener = captor.getValue();
+        offerBook.getOfferBookListItems().addListener((ListChangeListener<OfferBookListItem>) c -> numChangeEvents++);
+    }
+
+    @After
+    public void tearDown() {
+        UserThread.setExecutor(userThreadExecutor);
+    }
+
+    private void runUserThreadTasks() {
+        while (!userThreadTasks.isEmpty()) {
+            List<Runnable> tasks = new ArrayList<>(userThreadTasks);
+            userThreadTasks.clear();
+            tasks.forEach(Runnable::run);
+        }
+    }
+
+    @Test
+    public void testBurstOfAddedOffersIsAppliedWithOneChangeEvent() {
+        int numOffers = 10_000;
+        List<Offer> offers = new ArrayList<>();
+        for (int i = 0; i < numOffers; i++) {
+            offers.add(make(btcUsdOffer.but(with(id, "offer-" + i))));
+        }
+
+        offers.forEach(offerBookChangedListener::onAdded);
+        // Every offer gets added twice as we get a new ProtectedStorageEntry from each peer
+        offers.forEach(offerBookChangedListener::onAdded);
+        runUserThreadTasks();
+
+        assertEquals(numOffers, offerBook.getOfferBookListItems().size());
+        assertEquals(1, numChangeEvents);
+    }
+
+    @Test
+    public void testOfferWithSameIdReplacesOldOffer() {
+        Offer offer = make(btcUsdOffer);
+        offerBookChangedListener.onAdded(offer);
+        runUserThreadTasks();
+
+        Offer editedOffer = make(btcUsdOffer.but(with(price, 200000L)));
+        offerBookChangedListener.onAdded(editedOffer);
+        runUserThreadTasks();
+
+        assertEquals(1, offerBook.getOfferBookListItems().size());
+        assertSame(editedOffer, offerBook.getOfferBookListItems().get(0).getOffer());
+        assertEquals(2, numChangeEvents);
+    }
+
+    @Test
+    public void testOfferAddedAndRemovedInOneBatchCausesNoChange() {
+        Offer offer = make(btcUsdOffer);
+        offerBookChangedListener.onAdded(offer);
+        offerBookChangedListener.onRemoved(offer);
+        runUserThreadTasks();
+
+        assertTrue(offerBook.getOfferBookListItems().isEmpty());
+        assertEquals(0, numChangeEvents);
+    }
+
+    @Test
+    public void testRemovedOffer() {
+        Offer offer1 = make(btcUsdOffer.but(with(id, "1")));
+        Offer offer2 = make(btcUsdOffer.but(with(id, "2")));
+        offerBookChangedListener.onAdded(offer1);
+        offerBookChangedListener.onAdded(offer2);
+        runUserThreadTasks();
+
+        offerBookChangedListener.onRemoved(offer1);
+        runUserThreadTasks();
+
+        assertEquals(1, offerBook.getOfferBookListItems().size());
+        assertSame(offer2, offerBook.getOfferBookListItems().get(0).getOffer());
+        assertEquals(Offer.State.REMOVED, offer1.getState());
+        assertEquals(2, numChangeEvents);
+    }
+}
@@ -33,6 +33,7 @@ import bisq.network.p2p.peers.keepalive.KeepAliveManager;
 import bisq.network.p2p.peers.peerexchange.PeerExchangeManager;
 import bisq.network.p2p.storage.HashMapChangedListener;
 import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.messages.BroadcastMessage;
 import bisq.network.p2p.storage.messages.RefreshOfferMessage;
 import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
@@ -71,6 +72,7 @@ import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -509,6 +511,12 @@ public class P2PService implements SetupListener, MessageListener, ConnectionLis
         }
     }
 
+    // Holds back the broadcast of our own data matching the filter until the batch gets closed, so the adds and
+    // removes of a batch go out in one bundle.
+    public Broadcaster.OwnBroadcastBatch openOwnBroadcastBatch(Predicate<BroadcastMessage> filter) {
+        return broadcaster.openOwnBroadcastBatch(filter);
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Listeners
@@ -26,6 +26,7 @@ import com.google.protobuf.Message;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import lombok.EqualsAndHashCode;
@@ -50,11 +51,35 @@ public class MailboxMessageList extends PersistableList<MailboxItem> {
 
     @Override
     public Message toProtoMessage() {
+        return toProtoMessage(getList().stream()
+                .map(MailboxItem::toProtoMessage)
+                .collect(Collectors.toList()));
+    }
+
+    // The mailbox items are immutable apart from the creation timestamp of their entry, which gets changed at
+    // backDate. We copy the timestamps along with the list and set them at the messages.
+    @Override
+    public Supplier<Message> snapshotPersistableMessage() {
+        List<MailboxItem> snapshot = new ArrayList<>(getList());
+        long[] creationTimeStamps = snapshot.stream()
+                .mapToLong(mailboxItem -> mailboxItem.getProtectedMailboxStorageEntry().getCreationTimeStamp())
+                .toArray();
+        return () -> {
+            List<protobuf.MailboxItem> mailboxItems = new ArrayList<>(snapshot.size());
+            for (int i = 0; i < snapshot.size(); i++) {
+                protobuf.MailboxItem.Builder builder = snapshot.get(i).toProtoMessage().toBuilder();
+                builder.getProtectedMailboxStorageEntryBuilder().getEntryBuilder()
+                        .setCreationTimeStamp(creationTimeStamps[i]);
+                mailboxItems.add(builder.build());
+            }
+            return toProtoMessage(mailboxItems);
+        };
+    }
+
+    private static Message toProtoMessage(List<protobuf.MailboxItem> mailboxItems) {
         return protobuf.PersistableEnvelope.newBuilder()
                 .setMailboxMessageList(protobuf.MailboxMessageList.newBuilder()
-                        .addAllMailboxItem(getList().stream()
-                                .map(MailboxItem::toProtoMessage)
-                                .collect(Collectors.toList())))
+                        .addAllMailboxItem(mailboxItems))
                 .build();
     }
 
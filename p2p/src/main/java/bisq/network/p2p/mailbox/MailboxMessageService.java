@@ -193,7 +193,7 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
 
                                     log.trace("## readPersisted uid={}\nhash={}\nisMine={}\ndate={}\nsize={}",
                                             uid,
-                                            P2PDataStorage.get32ByteHashAsByteArray(protectedMailboxStorageEntry.getProtectedStoragePayload()),
+                                            protectedMailboxStorageEntry.getHashOfPayload(),
                                             mailboxItem.isMine(),
                                             date,
                                             serializedSize);
@@ -455,7 +455,7 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
             mailboxMessageList.add(mailboxItem);
             log.trace("## handleMailboxItem uid={}\nhash={}",
                     uid,
-                    P2PDataStorage.get32ByteHashAsByteArray(mailboxItem.getProtectedMailboxStorageEntry().getProtectedStoragePayload()));
+                    mailboxItem.getProtectedMailboxStorageEntry().getHashOfPayload());
 
             requestPersistence();
         }
@@ -550,7 +550,7 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
                     keyRing.getSignatureKeyPair(),
                     receiversPubKey);
 
-            P2PDataStorage.ByteArray hashOfPayload = P2PDataStorage.get32ByteHashAsByteArray(mailboxStoragePayload);
+            P2PDataStorage.ByteArray hashOfPayload = updatedEntry.getHashOfPayload();
             if (p2PDataStorage.getMap().containsKey(hashOfPayload)) {
                 boolean result = p2PDataStorage.remove(updatedEntry, networkNode.getNodeAddress());
                 if (result) {
@@ -615,7 +615,7 @@ public class MailboxMessageService implements HashMapChangedListener, PersistedD
         mailboxMessageList.remove(mailboxItem);
         log.trace("## removeMailboxItemFromMap uid={}\nhash={}\nmailboxItemsByUid={}",
                 uid,
-                P2PDataStorage.get32ByteHashAsByteArray(mailboxItem.getProtectedMailboxStorageEntry().getProtectedStoragePayload()),
+                mailboxItem.getProtectedMailboxStorageEntry().getHashOfPayload(),
                 mailboxItemsByUid.keySet()
         );
         requestPersistence();
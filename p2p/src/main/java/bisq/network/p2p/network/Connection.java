@@ -117,6 +117,19 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
         return PERMITTED_MESSAGE_SIZE;
     }
 
+    // Only the envelopes with ExtendedDataSizePermission may exceed PERMITTED_MESSAGE_SIZE
+    private static int getPermittedMessageSize(protobuf.NetworkEnvelope.MessageCase messageCase) {
+        switch (messageCase) {
+            case PRELIMINARY_GET_DATA_REQUEST:
+            case GET_UPDATED_DATA_REQUEST:
+            case GET_DATA_RESPONSE:
+            case BUNDLE_OF_ENVELOPES:
+                return MAX_PERMITTED_MESSAGE_SIZE;
+            default:
+                return PERMITTED_MESSAGE_SIZE;
+        }
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Class fields
@@ -161,6 +174,8 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
     private final ConcurrentHashMap<RuleViolation, Integer> ruleViolations = new ConcurrentHashMap<>();
 
     private final Capabilities capabilities = new Capabilities();
+    // A peer may only send us compressed envelopes after we have told it that we support them
+    private volatile boolean compressedEnvelopesAdvertised;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -195,7 +210,7 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
             // When you construct an ObjectInputStream, in the constructor the class attempts to read a header that
             // the associated ObjectOutputStream on the other end of the connection has written.
             // It will not return until that header has been read.
-            protoOutputStream = new SynchronizedProtoOutputStream(socket.getOutputStream(), statistic);
+            protoOutputStream = new SynchronizedProtoOutputStream(socket.getOutputStream(), statistic, this);
             protoInputStream = socket.getInputStream();
             // We create a thread for handling inputStream data
             singleThreadExecutor.submit(this);
@@ -246,6 +261,12 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
             log.debug("Capability for networkEnvelope is required but not supported");
             return;
         }
+
+        if (networkEnvelope instanceof SupportedCapabilitiesMessage) {
+            Capabilities supportedCapabilities = ((SupportedCapabilitiesMessage) networkEnvelope).getSupportedCapabilities();
+            if (supportedCapabilities != null && supportedCapabilities.contains(Capability.COMPRESSED_ENVELOPES))
+                compressedEnvelopesAdvertised = true;
+        }
         int networkEnvelopeSize = networkEnvelope.toProtoNetworkEnvelope().getSerializedSize();
         try {
             // Throttle outbound network_messages
@@ -786,6 +807,9 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                         return;
                     }
 
+                    // The size on the wire is used for the statistics, the uncompressed size for the size checks.
+                    int wireSize = proto.getSerializedSize();
+
                     if (networkFilter != null &&
                             peersNodeAddressOptional.isPresent() &&
                             networkFilter.isPeerBanned(peersNodeAddressOptional.get())) {
@@ -803,13 +827,36 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                         Thread.sleep(20);
                     }
 
+                    if (violatesThrottleLimit() && reportInvalidRequest(RuleViolation.THROTTLE_LIMIT_EXCEEDED))
+                        return;
+
+                    // We only inflate after the checks above and never beyond the size permitted for the message
+                    if (proto.hasCompressedEnvelope()) {
+                        if (!compressedEnvelopesAdvertised) {
+                            log.warn("We received a CompressedEnvelope but have not advertised the capability to " +
+                                    "the peer. We close the connection. Peer: {}", getPeersNodeAddressOptional());
+                            shutDown(CloseConnectionReason.RULE_VIOLATION);
+                            return;
+                        }
+                        try {
+                            proto = EnvelopeCompression.decompress(proto.getCompressedEnvelope(),
+                                    Connection::getPermittedMessageSize);
+                        } catch (EnvelopeCompression.UncompressedSizeExceededException e) {
+                            log.warn("We close the connection as a CompressedEnvelope exceeds the permitted size. " +
+                                    "{}. Peer: {}", e.getMessage(), getPeersNodeAddressOptional());
+                            statistic.addReceivedBytes(wireSize);
+                            shutDown(CloseConnectionReason.RULE_VIOLATION);
+                            return;
+                        }
+                    }
+
                     NetworkEnvelope networkEnvelope = networkProtoResolver.fromProto(proto);
                     lastReadTimeStamp = now;
                     log.debug("<< Received networkEnvelope of type: {}", networkEnvelope.getClass().getSimpleName());
                     int size = proto.getSerializedSize();
 
                     // We want to track the size of each object even if it is invalid data
-                    statistic.addReceivedBytes(size);
+                    statistic.addReceivedBytes(wireSize);
 
                     // We want to track the network_messages also before the checks, so do it early...
                     statistic.addReceivedMessage(networkEnvelope);
@@ -838,9 +885,6 @@ public class Connection implements HasCapabilities, Runnable, MessageListener {
                             return;
                     }
 
-                    if (violatesThrottleLimit() && reportInvalidRequest(RuleViolation.THROTTLE_LIMIT_EXCEEDED))
-                        return;
-
                     // Check P2P network ID
                     if (proto.getMessageVersion() != Version.getP2PMessageVersion()
                             && reportInvalidRequest(RuleViolation.WRONG_NETWORK_ID)) {
@@ -0,0 +1,202 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import bisq.common.app.Capabilities;
+import bisq.common.app.Capability;
+
+import protobuf.NetworkEnvelope.MessageCase;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import java.util.function.ToIntFunction;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import javax.annotation.Nullable;
+
+/**
+ * Deflate compression of large NetworkEnvelopes. The compressed envelope is only sent to peers which have
+ * signalled Capability.COMPRESSED_ENVELOPES.
+ */
+public final class EnvelopeCompression {
+    // Smaller messages are not worth the CPU cost. Offers are about 2 kb, so that affects mainly GetDataResponse,
+    // GetPeersResponse and BundleOfEnvelopes.
+    static final int COMPRESSION_THRESHOLD = 16 * 1024;
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+    // Holds the message version and the tag of the oneof field of an envelope
+    private static final int PREFIX_SIZE = 32;
+
+    private EnvelopeCompression() {
+    }
+
+    static boolean isSupported(Capabilities peersCapabilities) {
+        return Capabilities.app.contains(Capability.COMPRESSED_ENVELOPES) &&
+                peersCapabilities.contains(Capability.COMPRESSED_ENVELOPES);
+    }
+
+    static boolean isCompressionCandidate(protobuf.NetworkEnvelope proto) {
+        return proto.getSerializedSize() > COMPRESSION_THRESHOLD && !proto.hasCompressedEnvelope();
+    }
+
+    /**
+     * @param proto The envelope to compress
+     * @return The envelope wrapping the compressed data or null if compression would not reduce the size
+     */
+    @Nullable
+    public static protobuf.NetworkEnvelope compress(protobuf.NetworkEnvelope proto) {
+        byte[] uncompressed = proto.toByteArray();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(uncompressed.length / 2);
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(uncompressed);
+            deflater.finish();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                outputStream.write(buffer, 0, deflater.deflate(buffer));
+                if (outputStream.size() >= uncompressed.length)
+                    return null;
+            }
+        } finally {
+            deflater.end();
+        }
+
+        return protobuf.NetworkEnvelope.newBuilder()
+                .setMessageVersion(proto.getMessageVersion())
+                .setCompressedEnvelope(protobuf.CompressedEnvelope.newBuilder()
+                        .setCompressedBytes(ByteString.copyFrom(outputStream.toByteArray()))
+                        .setUncompressedSize(uncompressed.length))
+                .build();
+    }
+
+    /**
+     * Decompresses with the same limit for all envelopes.
+     *
+     * @see #decompress(protobuf.CompressedEnvelope, ToIntFunction)
+     */
+    public static protobuf.NetworkEnvelope decompress(protobuf.CompressedEnvelope compressedEnvelope,
+                                                      int maxUncompressedSize) throws InvalidProtocolBufferException {
+        return decompress(compressedEnvelope, messageCase -> maxUncompressedSize);
+    }
+
+    /**
+     * We first inflate only a small prefix to find out the message case of the envelope and reject it if the
+     * declared uncompressed size exceeds the size permitted for that case. We never inflate more than the declared
+     * size, so a small compressed message cannot be used to exhaust our memory.
+     *
+     * @param compressedEnvelope The received compressed envelope
+     * @param maxUncompressedSize Returns the max. permitted size of the uncompressed envelope of a message case
+     * @return The uncompressed envelope
+     * @throws UncompressedSizeExceededException If the declared size exceeds the permitted size
+     * @throws InvalidProtocolBufferException If the data is invalid
+     */
+    static protobuf.NetworkEnvelope decompress(protobuf.CompressedEnvelope compressedEnvelope,
+                                               ToIntFunction<MessageCase> maxUncompressedSize)
+            throws InvalidProtocolBufferException {
+        int uncompressedSize = compressedEnvelope.getUncompressedSize();
+        if (uncompressedSize <= 0)
+            throw new InvalidProtocolBufferException("Invalid uncompressed size of CompressedEnvelope. " +
+                    "uncompressedSize=" + uncompressedSize);
+
+        if (compressedEnvelope.getCompressedBytes().size() >= uncompressedSize)
+            throw new InvalidProtocolBufferException("Compressed data of CompressedEnvelope is not smaller than " +
+                    "the uncompressed data. compressedSize=" + compressedEnvelope.getCompressedBytes().size());
+
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressedEnvelope.getCompressedBytes().toByteArray());
+            byte[] prefix = new byte[Math.min(PREFIX_SIZE, uncompressedSize)];
+            int prefixSize = inflate(inflater, prefix, 0);
+            MessageCase messageCase = peekMessageCase(prefix, prefixSize);
+            int maxSize = maxUncompressedSize.applyAsInt(messageCase);
+            if (uncompressedSize > maxSize)
+                throw new UncompressedSizeExceededException("Uncompressed size of CompressedEnvelope exceeds " +
+                        "the permitted size. messageCase=" + messageCase + ", uncompressedSize=" +
+                        uncompressedSize + ", maxUncompressedSize=" + maxSize);
+
+            byte[] uncompressed = new byte[uncompressedSize];
+            System.arraycopy(prefix, 0, uncompressed, 0, prefixSize);
+            int size = prefixSize == prefix.length ? inflate(inflater, uncompressed, prefixSize) : prefixSize;
+
+            // The stream has to end exactly at the declared size
+            if (size != uncompressedSize ||
+                    (!inflater.finished() && (inflater.inflate(new byte[1]) > 0 || !inflater.finished())))
+                throw new InvalidProtocolBufferException("Uncompressed data of CompressedEnvelope does not match " +
+                        "the declared size. uncompressedSize=" + uncompressedSize);
+
+            // If a oneof field occurs several times the last one wins, so the prefix could claim another case
+            protobuf.NetworkEnvelope proto = protobuf.NetworkEnvelope.parseFrom(uncompressed);
+            if (proto.getMessageCase() != messageCase)
+                throw new InvalidProtocolBufferException("Message case of CompressedEnvelope does not match its " +
+                        "prefix. messageCase=" + proto.getMessageCase() + ", prefix=" + messageCase);
+
+            return proto;
+        } catch (DataFormatException e) {
+            throw new InvalidProtocolBufferException("Invalid data of CompressedEnvelope. " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    // Inflates into buffer from offset until it is full or the stream ends and returns the end of the data
+    private static int inflate(Inflater inflater, byte[] buffer, int offset) throws DataFormatException {
+        while (offset < buffer.length && !inflater.finished()) {
+            int count = inflater.inflate(buffer, offset, buffer.length - offset);
+            if (count == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                break;
+            offset += count;
+        }
+        return offset;
+    }
+
+    // The message version precedes the oneof field, we skip it and return the case of the first oneof field
+    private static MessageCase peekMessageCase(byte[] prefix, int prefixSize) throws InvalidProtocolBufferException {
+        CodedInputStream inputStream = CodedInputStream.newInstance(prefix, 0, prefixSize);
+        try {
+            int tag;
+            while ((tag = inputStream.readTag()) != 0) {
+                int fieldNumber = WireFormat.getTagFieldNumber(tag);
+                if (fieldNumber != protobuf.NetworkEnvelope.MESSAGE_VERSION_FIELD_NUMBER) {
+                    MessageCase messageCase = MessageCase.forNumber(fieldNumber);
+                    if (messageCase == null || messageCase == MessageCase.MESSAGE_NOT_SET ||
+                            messageCase == MessageCase.COMPRESSED_ENVELOPE)
+                        break;
+                    return messageCase;
+                }
+                inputStream.skipField(tag);
+            }
+        } catch (IOException e) {
+            // The prefix ended before the tag of the oneof field
+        }
+        throw new InvalidProtocolBufferException("No message found in the prefix of CompressedEnvelope");
+    }
+
+    static class UncompressedSizeExceededException extends InvalidProtocolBufferException {
+        UncompressedSizeExceededException(String description) {
+            super(description);
+        }
+    }
+}
@@ -19,6 +19,7 @@ package bisq.network.p2p.network;
 
 import bisq.network.p2p.peers.keepalive.messages.KeepAliveMessage;
 
+import bisq.common.app.HasCapabilities;
 import bisq.common.proto.network.NetworkEnvelope;
 
 import java.io.IOException;
@@ -35,10 +36,12 @@ class ProtoOutputStream {
 
     private final OutputStream delegate;
     private final Statistic statistic;
+    private final HasCapabilities peer;
 
-    ProtoOutputStream(OutputStream delegate, Statistic statistic) {
+    ProtoOutputStream(OutputStream delegate, Statistic statistic, HasCapabilities peer) {
         this.delegate = delegate;
         this.statistic = statistic;
+        this.peer = peer;
     }
 
     void writeEnvelope(NetworkEnvelope envelope) {
@@ -60,6 +63,15 @@ class ProtoOutputStream {
 
     private void writeEnvelopeOrThrow(NetworkEnvelope envelope) throws IOException {
         protobuf.NetworkEnvelope proto = envelope.toProtoNetworkEnvelope();
+        if (EnvelopeCompression.isCompressionCandidate(proto) &&
+                EnvelopeCompression.isSupported(peer.getCapabilities())) {
+            protobuf.NetworkEnvelope compressed = EnvelopeCompression.compress(proto);
+            if (compressed != null) {
+                log.debug("Compressed {} from {} to {} bytes", envelope.getClass().getSimpleName(),
+                        proto.getSerializedSize(), compressed.getSerializedSize());
+                proto = compressed;
+            }
+        }
         proto.writeDelimitedTo(delegate);
         delegate.flush();
 
@@ -17,6 +17,7 @@
 
 package bisq.network.p2p.network;
 
+import bisq.common.app.HasCapabilities;
 import bisq.common.proto.network.NetworkEnvelope;
 
 import java.io.OutputStream;
@@ -37,8 +38,8 @@ class SynchronizedProtoOutputStream extends ProtoOutputStream {
 
     private final ExecutorService executorService;
 
-    SynchronizedProtoOutputStream(OutputStream delegate, Statistic statistic) {
-        super(delegate, statistic);
+    SynchronizedProtoOutputStream(OutputStream delegate, Statistic statistic, HasCapabilities peer) {
+        super(delegate, statistic, peer);
         this.executorService = Executors.newSingleThreadExecutor();
     }
 
@@ -0,0 +1,51 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.peers;
+
+import bisq.network.p2p.storage.messages.BroadcastMessage;
+import bisq.network.p2p.storage.messages.RefreshOfferMessage;
+import bisq.network.p2p.storage.messages.RemoveDataMessage;
+import bisq.network.p2p.storage.messages.RemoveMailboxDataMessage;
+
+/**
+ * Priority class of a queued broadcast. Messages we have originated are more time critical than relayed ones and
+ * removals (e.g. an offer which got taken) are more time critical than adds, which are more important than refreshes.
+ * The declaration order defines the order inside a bundle.
+ */
+public enum BroadcastPriority {
+    OWN_REMOVE,
+    OWN_ADD,
+    OWN_REFRESH,
+    RELAYED_REMOVE,
+    RELAYED_ADD,
+    RELAYED_REFRESH;
+
+    public static BroadcastPriority from(BroadcastMessage message, boolean isOwnMessage) {
+        if (message instanceof RemoveDataMessage || message instanceof RemoveMailboxDataMessage) {
+            return isOwnMessage ? OWN_REMOVE : RELAYED_REMOVE;
+        } else if (message instanceof RefreshOfferMessage) {
+            return isOwnMessage ? OWN_REFRESH : RELAYED_REFRESH;
+        } else {
+            return isOwnMessage ? OWN_ADD : RELAYED_ADD;
+        }
+    }
+
+    public boolean isOwn() {
+        return this == OWN_REMOVE || this == OWN_ADD || this == OWN_REFRESH;
+    }
+}
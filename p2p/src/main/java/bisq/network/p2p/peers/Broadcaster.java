@@ -19,34 +19,76 @@ package bisq.network.p2p.peers;
 
 import bisq.network.p2p.NodeAddress;
 import bisq.network.p2p.network.NetworkNode;
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.messages.AddDataMessage;
+import bisq.network.p2p.storage.messages.AddPersistableNetworkPayloadMessage;
 import bisq.network.p2p.storage.messages.BroadcastMessage;
+import bisq.network.p2p.storage.messages.RefreshOfferMessage;
+import bisq.network.p2p.storage.messages.RemoveDataMessage;
+import bisq.network.p2p.storage.messages.RemoveMailboxDataMessage;
 
 import bisq.common.Timer;
 import bisq.common.UserThread;
 
+import com.google.common.annotations.VisibleForTesting;
+
 import javax.inject.Inject;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import lombok.Getter;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
 import org.jetbrains.annotations.Nullable;
 
+/**
+ * Queues broadcast requests and flushes them in bundles to a {@link BroadcastHandler}.
+ * <p>
+ * Messages we have originated and relayed messages are queued in separate lanes. Our own messages are flushed after
+ * a short interval so they never wait behind relayed gossip. The flush interval of relayed messages shrinks with the
+ * queue depth and a full bundle is flushed immediately. Inside a lane a pending request gets superseded by a newer
+ * message of the same type or a removal for the same payload (e.g. a newer refresh or a remove of a queued offer) as
+ * long as no listener is waiting for it. An add is never superseded by a refresh, as peers which have not received the
+ * add ignore the refresh. Bundles are ordered by {@link BroadcastPriority}.
+ * <p>
+ * Callers issuing a batch of own messages (e.g. placing many offers at once) can open an {@link OwnBroadcastBatch}
+ * which holds back only the messages of the batch, so they go out in a single bundle once the batch is closed. Our
+ * other messages keep flowing and a batch is held for at most {@link #MAX_BATCH_HOLD_MS}.
+ */
 @Slf4j
 public class Broadcaster implements BroadcastHandler.ResultHandler {
     private static final long BROADCAST_INTERVAL_MS = 2000;
+    @VisibleForTesting
+    static final long OWN_BROADCAST_INTERVAL_MS = 200;
+    @VisibleForTesting
+    static final long MIN_BROADCAST_INTERVAL_MS = 200;
+    @VisibleForTesting
+    static final int MAX_BUNDLE_SIZE = 200;
+    @VisibleForTesting
+    static final long MAX_BATCH_HOLD_MS = 5000;
 
     private final NetworkNode networkNode;
     private final PeerManager peerManager;
     private final Set<BroadcastHandler> broadcastHandlers = new CopyOnWriteArraySet<>();
-    private final List<BroadcastRequest> broadcastRequests = new ArrayList<>();
-    private Timer timer;
+    private final BroadcastLane ownLane = new BroadcastLane("own");
+    private final BroadcastLane relayedLane = new BroadcastLane("relayed");
+    private final Map<BroadcastPriority, QueueLatency> queueLatencyByPriority = new EnumMap<>(BroadcastPriority.class);
+    @Getter
+    private long numSupersededRequests;
+    private final List<OwnBroadcastBatch> ownBroadcastBatches = new ArrayList<>();
     private boolean shutDownRequested;
     private Runnable shutDownResultHandler;
 
@@ -59,12 +101,16 @@ public class Broadcaster implements BroadcastHandler.ResultHandler {
     public Broadcaster(NetworkNode networkNode, PeerManager peerManager) {
         this.networkNode = networkNode;
         this.peerManager = peerManager;
+
+        for (BroadcastPriority priority : BroadcastPriority.values()) {
+            queueLatencyByPriority.put(priority, new QueueLatency());
+        }
     }
 
     public void shutDown(Runnable resultHandler) {
         shutDownRequested = true;
         shutDownResultHandler = resultHandler;
-        if (broadcastRequests.isEmpty()) {
+        if (ownLane.isEmpty() && relayedLane.isEmpty() && ownBroadcastBatches.stream().allMatch(batch -> batch.lane.isEmpty())) {
             doShutDown();
         } else {
             // We set delay of broadcasts and timeout to very low values,
@@ -79,9 +125,9 @@ public class Broadcaster implements BroadcastHandler.ResultHandler {
 
     private void doShutDown() {
         broadcastHandlers.forEach(BroadcastHandler::cancel);
-        if (timer != null) {
-            timer.stop();
-        }
+        ownLane.stopTimer();
+        relayedLane.stopTimer();
+        ownBroadcastBatches.forEach(OwnBroadcastBatch::stopTimer);
         shutDownResultHandler.run();
     }
 
@@ -99,29 +145,170 @@ public class Broadcaster implements BroadcastHandler.ResultHandler {
     public void broadcast(BroadcastMessage message,
                           @Nullable NodeAddress sender,
                           @Nullable BroadcastHandler.Listener listener) {
-        broadcastRequests.add(new BroadcastRequest(message, sender, listener));
+        NodeAddress myAddress = networkNode.getNodeAddress();
+        boolean isOwnMessage = myAddress != null && myAddress.equals(sender);
+        BroadcastRequest broadcastRequest = new BroadcastRequest(message,
+                sender,
+                listener,
+                BroadcastPriority.from(message, isOwnMessage),
+                System.currentTimeMillis());
+        BroadcastLane lane = isOwnMessage ? getOwnLane(message) : relayedLane;
+        if (!lane.add(broadcastRequest)) {
+            log.debug("Broadcast requested for {} got dropped as a newer message for the same payload is already queued.",
+                    message.getClass().getSimpleName());
+            return;
+        }
+
         // Keep that log on INFO for better debugging if the feature works as expected. Later it can
         // be remove or set to DEBUG
-        log.debug("Broadcast requested for {}. We queue it up for next bundled broadcast.",
-                message.getClass().getSimpleName());
+        log.debug("Broadcast requested for {} with priority {}. We queue it up for next bundled broadcast.",
+                message.getClass().getSimpleName(), broadcastRequest.getPriority());
+
+        if (lane == ownLane) {
+            scheduleFlush(ownLane, OWN_BROADCAST_INTERVAL_MS);
+        } else if (lane == relayedLane) {
+            scheduleFlush(relayedLane, getRelayedBroadcastDelay(relayedLane.size()));
+        }
+    }
+
+    /**
+     * Holds back our own messages matching the filter until the returned batch gets closed and then broadcasts them
+     * in one bundle. The batch gets closed at the latest after {@link #MAX_BATCH_HOLD_MS}. Must be called on the user
+     * thread, as the filter is applied there.
+     */
+    public OwnBroadcastBatch openOwnBroadcastBatch(Predicate<BroadcastMessage> filter) {
+        OwnBroadcastBatch batch = new OwnBroadcastBatch(filter);
+        ownBroadcastBatches.add(batch);
+        return batch;
+    }
+
+    /**
+     * @return Queue latency metrics (time between the broadcast request and the flush to the
+     * {@link BroadcastHandler}) per priority class.
+     */
+    public Map<BroadcastPriority, QueueLatency> getQueueLatencyByPriority() {
+        return Collections.unmodifiableMap(queueLatencyByPriority);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
 
-        if (timer == null) {
-            timer = UserThread.runAfter(this::maybeBroadcastBundle, BROADCAST_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    // The more relayed messages are queued the earlier we flush. At MAX_BUNDLE_SIZE we flush immediately.
+    @VisibleForTesting
+    static long getRelayedBroadcastDelay(int numPendingRequests) {
+        if (numPendingRequests >= MAX_BUNDLE_SIZE) {
+            return 0;
+        }
+        long delay = BROADCAST_INTERVAL_MS * (MAX_BUNDLE_SIZE - numPendingRequests) / MAX_BUNDLE_SIZE;
+        return Math.max(MIN_BROADCAST_INTERVAL_MS, delay);
+    }
+
+    // Our messages of an open batch go to its lane, all other own messages to the own lane
+    private BroadcastLane getOwnLane(BroadcastMessage message) {
+        return ownBroadcastBatches.stream()
+                .filter(batch -> batch.filter.test(message))
+                .map(batch -> batch.lane)
+                .findFirst()
+                .orElse(ownLane);
+    }
+
+    private void scheduleFlush(BroadcastLane lane, long delay) {
+        if (delay <= 0) {
+            flushLane(lane);
+            return;
+        }
+
+        long flushTime = System.currentTimeMillis() + delay;
+        if (lane.timer == null || flushTime < lane.scheduledFlushTime) {
+            lane.stopTimer();
+            lane.scheduledFlushTime = flushTime;
+            lane.timer = UserThread.runAfter(() -> {
+                lane.timer = null;
+                flushLane(lane);
+            }, delay, TimeUnit.MILLISECONDS);
         }
     }
 
     private void maybeBroadcastBundle() {
-        if (!broadcastRequests.isEmpty()) {
-            log.debug("Broadcast bundled requests of {} messages. Message types: {}",
-                    broadcastRequests.size(),
-                    broadcastRequests.stream().map(e -> e.getMessage().getClass().getSimpleName()).collect(Collectors.toList()));
-            BroadcastHandler broadcastHandler = new BroadcastHandler(networkNode, peerManager, this);
-            broadcastHandlers.add(broadcastHandler);
-            broadcastHandler.broadcast(new ArrayList<>(broadcastRequests), shutDownRequested);
-            broadcastRequests.clear();
+        if (shutDownRequested) {
+            // At shut down we send all in one bundle so we get only one onCompleted callback
+            List<BroadcastRequest> broadcastRequests = new ArrayList<>(ownLane.drain());
+            ownBroadcastBatches.forEach(batch -> broadcastRequests.addAll(batch.lane.drain()));
+            broadcastRequests.addAll(relayedLane.drain());
+            broadcastBundle(broadcastRequests);
+        } else {
+            flushLane(ownLane);
+            flushLane(relayedLane);
+        }
+    }
+
+    private void flushLane(BroadcastLane lane) {
+        broadcastBundle(lane.drain());
+    }
 
-            timer = null;
+    private void broadcastBundle(List<BroadcastRequest> broadcastRequests) {
+        if (broadcastRequests.isEmpty()) {
+            return;
         }
+
+        long now = System.currentTimeMillis();
+        broadcastRequests.forEach(request -> queueLatencyByPriority.get(request.getPriority())
+                .add(now - request.getEnqueueTime()));
+        // Stable sort, so requests of the same priority keep their order
+        broadcastRequests.sort(Comparator.comparing(BroadcastRequest::getPriority));
+
+        log.debug("Broadcast bundled requests of {} messages. Message types: {}. Queue latency: {}",
+                broadcastRequests.size(),
+                broadcastRequests.stream().map(e -> e.getMessage().getClass().getSimpleName()).collect(Collectors.toList()),
+                queueLatencyByPriority);
+        BroadcastHandler broadcastHandler = new BroadcastHandler(networkNode, peerManager, this);
+        broadcastHandlers.add(broadcastHandler);
+        broadcastHandler.broadcast(broadcastRequests, shutDownRequested);
+    }
+
+    @Nullable
+    private static P2PDataStorage.ByteArray getPayloadHash(BroadcastMessage message) {
+        if (message instanceof AddDataMessage) {
+            return ((AddDataMessage) message).getProtectedStorageEntry().getHashOfPayload();
+        } else if (message instanceof RemoveDataMessage) {
+            return ((RemoveDataMessage) message).getProtectedStorageEntry().getHashOfPayload();
+        } else if (message instanceof RemoveMailboxDataMessage) {
+            return ((RemoveMailboxDataMessage) message).getProtectedMailboxStorageEntry().getHashOfPayload();
+        } else if (message instanceof RefreshOfferMessage) {
+            return new P2PDataStorage.ByteArray(((RefreshOfferMessage) message).getHashOfPayload());
+        } else if (message instanceof AddPersistableNetworkPayloadMessage) {
+            return new P2PDataStorage.ByteArray(((AddPersistableNetworkPayloadMessage) message).getPersistableNetworkPayload().getHash());
+        } else {
+            return null;
+        }
+    }
+
+    // A message only supersedes an older message of the same type, or any older message if it is a removal
+    private static boolean canSupersede(BroadcastMessage newer, BroadcastMessage older) {
+        return newer.getClass() == older.getClass() ||
+                newer instanceof RemoveDataMessage ||
+                newer instanceof RemoveMailboxDataMessage;
+    }
+
+    private static int getSequenceNumber(BroadcastMessage message) {
+        if (message instanceof AddDataMessage) {
+            return ((AddDataMessage) message).getProtectedStorageEntry().getSequenceNumber();
+        } else if (message instanceof RemoveDataMessage) {
+            return ((RemoveDataMessage) message).getProtectedStorageEntry().getSequenceNumber();
+        } else if (message instanceof RemoveMailboxDataMessage) {
+            return ((RemoveMailboxDataMessage) message).getProtectedMailboxStorageEntry().getSequenceNumber();
+        } else if (message instanceof RefreshOfferMessage) {
+            return ((RefreshOfferMessage) message).getSequenceNumber();
+        } else {
+            return 0;
+        }
+    }
+
+    @VisibleForTesting
+    List<BroadcastRequest> getPendingRequests(boolean ownLane) {
+        return Collections.unmodifiableList(ownLane ? this.ownLane.broadcastRequests : relayedLane.broadcastRequests);
     }
 
 
@@ -138,6 +325,154 @@ public class Broadcaster implements BroadcastHandler.ResultHandler {
     }
 
 
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // OwnBroadcastBatch class
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public class OwnBroadcastBatch {
+        private final Predicate<BroadcastMessage> filter;
+        private final BroadcastLane lane = new BroadcastLane("batch");
+        private Timer maxHoldTimer;
+
+        private OwnBroadcastBatch(Predicate<BroadcastMessage> filter) {
+            this.filter = filter;
+            maxHoldTimer = UserThread.runAfter(() -> {
+                maxHoldTimer = null;
+                log.info("We broadcast {} held messages of a batch as it is still open after {} ms",
+                        lane.size(), MAX_BATCH_HOLD_MS);
+                close();
+            }, MAX_BATCH_HOLD_MS, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * Broadcasts the held messages in one bundle. Later messages of the batch are not held anymore. Must be
+         * called on the user thread.
+         */
+        public void close() {
+            if (!ownBroadcastBatches.remove(this)) {
+                return;
+            }
+
+            stopTimer();
+            flushLane(lane);
+        }
+
+        private void stopTimer() {
+            if (maxHoldTimer != null) {
+                maxHoldTimer.stop();
+                maxHoldTimer = null;
+            }
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // BroadcastLane class
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private class BroadcastLane {
+        private final String name;
+        private final List<BroadcastRequest> broadcastRequests = new ArrayList<>();
+        private final Map<P2PDataStorage.ByteArray, List<BroadcastRequest>> broadcastRequestsByPayloadHash = new HashMap<>();
+        @Nullable
+        private Timer timer;
+        private long scheduledFlushTime;
+
+        BroadcastLane(String name) {
+            this.name = name;
+        }
+
+        // Returns false if the request was dropped because a newer message for the same payload is already queued
+        boolean add(BroadcastRequest broadcastRequest) {
+            BroadcastMessage message = broadcastRequest.getMessage();
+            P2PDataStorage.ByteArray payloadHash = getPayloadHash(message);
+            if (payloadHash != null) {
+                List<BroadcastRequest> pendingRequests = broadcastRequestsByPayloadHash.computeIfAbsent(payloadHash,
+                        key -> new ArrayList<>());
+                int sequenceNumber = getSequenceNumber(message);
+                // We must not drop a request a listener is waiting for
+                if (broadcastRequest.getListener() == null &&
+                        pendingRequests.stream().anyMatch(pending ->
+                                getSequenceNumber(pending.getMessage()) > sequenceNumber &&
+                                        canSupersede(pending.getMessage(), message))) {
+                    numSupersededRequests++;
+                    return false;
+                }
+
+                for (Iterator<BroadcastRequest> iterator = pendingRequests.iterator(); iterator.hasNext(); ) {
+                    BroadcastRequest pending = iterator.next();
+                    if (pending.getListener() == null &&
+                            getSequenceNumber(pending.getMessage()) <= sequenceNumber &&
+                            canSupersede(message, pending.getMessage())) {
+                        iterator.remove();
+                        broadcastRequests.remove(pending);
+                        numSupersededRequests++;
+                        log.debug("Pending {} in {} lane got superseded by {}", pending.getMessage().getClass().getSimpleName(),
+                                name, message.getClass().getSimpleName());
+                    }
+                }
+                pendingRequests.add(broadcastRequest);
+            }
+            broadcastRequests.add(broadcastRequest);
+            return true;
+        }
+
+        List<BroadcastRequest> drain() {
+            stopTimer();
+            List<BroadcastRequest> result = new ArrayList<>(broadcastRequests);
+            broadcastRequests.clear();
+            broadcastRequestsByPayloadHash.clear();
+            return result;
+        }
+
+        void stopTimer() {
+            if (timer != null) {
+                timer.stop();
+                timer = null;
+            }
+        }
+
+        boolean isEmpty() {
+            return broadcastRequests.isEmpty();
+        }
+
+        int size() {
+            return broadcastRequests.size();
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // QueueLatency class
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    @Getter
+    public static class QueueLatency {
+        private long count;
+        private long totalMs;
+        private long maxMs;
+
+        private void add(long latencyMs) {
+            count++;
+            totalMs += latencyMs;
+            maxMs = Math.max(maxMs, latencyMs);
+        }
+
+        public long getAverageMs() {
+            return count > 0 ? totalMs / count : 0;
+        }
+
+        @Override
+        public String toString() {
+            return "QueueLatency{" +
+                    "count=" + count +
+                    ", averageMs=" + getAverageMs() +
+                    ", maxMs=" + maxMs +
+                    '}';
+        }
+    }
+
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // BroadcastRequest class
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -149,13 +484,19 @@ public class Broadcaster implements BroadcastHandler.ResultHandler {
         private NodeAddress sender;
         @Nullable
         private BroadcastHandler.Listener listener;
+        private BroadcastPriority priority;
+        private long enqueueTime;
 
         private BroadcastRequest(BroadcastMessage message,
                                  @Nullable NodeAddress sender,
-                                 @Nullable BroadcastHandler.Listener listener) {
+                                 @Nullable BroadcastHandler.Listener listener,
+                                 BroadcastPriority priority,
+                                 long enqueueTime) {
             this.message = message;
             this.sender = sender;
             this.listener = listener;
+            this.priority = priority;
+            this.enqueueTime = enqueueTime;
         }
     }
 }
@@ -26,6 +26,7 @@ import bisq.network.p2p.network.NetworkNode;
 import bisq.network.p2p.network.PeerType;
 import bisq.network.p2p.network.RuleViolation;
 import bisq.network.p2p.peers.peerexchange.Peer;
+import bisq.network.p2p.peers.peerexchange.PeerLatency;
 import bisq.network.p2p.peers.peerexchange.PeerList;
 import bisq.network.p2p.seed.SeedNodeRepository;
 
@@ -200,6 +201,7 @@ public final class PeerManager implements ConnectionListener, PersistedDataHost
     public void readPersisted(Runnable completeHandler) {
         persistenceManager.readPersisted(persisted -> {
                     peerList.setAll(persisted.getSet());
+                    peerList.setAllPeerLatencies(persisted.getPeerLatencyMap().values());
                     completeHandler.run();
                 },
                 completeHandler);
@@ -361,6 +363,29 @@ public final class PeerManager implements ConnectionListener, PersistedDataHost
         return peerList.getSet();
     }
 
+    public Optional<PeerLatency> getPeerLatency(NodeAddress nodeAddress) {
+        return Optional.ofNullable(peerList.getPeerLatencyMap().get(nodeAddress));
+    }
+
+    // We only keep track of the response times of seed nodes as only those are used for ranking
+    public void addResponseTime(NodeAddress nodeAddress, long responseTime) {
+        if (isSeedNode(nodeAddress)) {
+            peerList.getPeerLatencyMap().put(nodeAddress, getPeerLatency(nodeAddress)
+                    .orElse(new PeerLatency(nodeAddress))
+                    .withResponseTime(responseTime));
+            requestPersistence();
+        }
+    }
+
+    public void addResponseFailure(NodeAddress nodeAddress) {
+        if (isSeedNode(nodeAddress)) {
+            peerList.getPeerLatencyMap().put(nodeAddress, getPeerLatency(nodeAddress)
+                    .orElse(new PeerLatency(nodeAddress))
+                    .withFailure());
+            requestPersistence();
+        }
+    }
+
     public void addToReportedPeers(Set<Peer> reportedPeersToAdd,
                                    Connection connection,
                                    Capabilities capabilities) {
@@ -29,9 +29,12 @@ import bisq.common.UserThread;
 
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.common.util.concurrent.SettableFuture;
 
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -62,6 +65,7 @@ public class GetDataRequestHandler {
 
     private final NetworkNode networkNode;
     private final P2PDataStorage dataStorage;
+    private final ListeningExecutorService executor;
     private final Listener listener;
     private Timer timeoutTimer;
     private boolean stopped;
@@ -71,9 +75,13 @@ public class GetDataRequestHandler {
     // Constructor
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    public GetDataRequestHandler(NetworkNode networkNode, P2PDataStorage dataStorage, Listener listener) {
+    public GetDataRequestHandler(NetworkNode networkNode,
+                                 P2PDataStorage dataStorage,
+                                 ListeningExecutorService executor,
+                                 Listener listener) {
         this.networkNode = networkNode;
         this.dataStorage = dataStorage;
+        this.executor = executor;
         this.listener = listener;
     }
 
@@ -88,34 +96,8 @@ public class GetDataRequestHandler {
                 .map(e -> "node address " + e.getFullAddress())
                 .orElseGet(() -> "connection UID " + connection.getUid());
 
-        AtomicBoolean wasPersistableNetworkPayloadsTruncated = new AtomicBoolean(false);
-        AtomicBoolean wasProtectedStorageEntriesTruncated = new AtomicBoolean(false);
-        GetDataResponse getDataResponse = dataStorage.buildGetDataResponse(
-                getDataRequest,
-                MAX_ENTRIES,
-                wasPersistableNetworkPayloadsTruncated,
-                wasProtectedStorageEntriesTruncated,
-                connection.getCapabilities());
-
-        if (wasPersistableNetworkPayloadsTruncated.get()) {
-            log.warn("The getData request from peer with {} caused too much PersistableNetworkPayload " +
-                            "entries to get delivered. We limited the entries for the response to {} entries",
-                    connectionInfo, MAX_ENTRIES);
-        }
-
-        if (wasProtectedStorageEntriesTruncated.get()) {
-            log.warn("The getData request from peer with {} caused too much ProtectedStorageEntry " +
-                            "entries to get delivered. We limited the entries for the response to {} entries",
-                    connectionInfo, MAX_ENTRIES);
-        }
-
-        log.info("The getDataResponse to peer with {} contains {} ProtectedStorageEntries and {} PersistableNetworkPayloads",
-                connectionInfo,
-                getDataResponse.getDataSet().size(),
-                getDataResponse.getPersistableNetworkPayloadSet().size());
-
         if (timeoutTimer == null) {
-            timeoutTimer = UserThread.runAfter(() -> {  // setup before sending to avoid race conditions
+            timeoutTimer = UserThread.runAfter(() -> {  // setup before building to avoid race conditions
                         String errorMessage = "A timeout occurred for getDataResponse " +
                                 " on connection:" + connection;
                         handleFault(errorMessage, CloseConnectionReason.SEND_MSG_TIMEOUT, connection);
@@ -123,6 +105,79 @@ public class GetDataRequestHandler {
                     TIMEOUT, TimeUnit.SECONDS);
         }
 
+        // Building the response for a bootstrapping peer can take long on seed nodes. We build it on the executor
+        // from a snapshot of the data storage and continue on the user thread once it is ready.
+        AtomicBoolean wasPersistableNetworkPayloadsTruncated = new AtomicBoolean(false);
+        AtomicBoolean wasProtectedStorageEntriesTruncated = new AtomicBoolean(false);
+        ListenableFuture<GetDataResponse> buildFuture;
+        try {
+            buildFuture = dataStorage.buildGetDataResponseAsync(
+                    getDataRequest,
+                    MAX_ENTRIES,
+                    wasPersistableNetworkPayloadsTruncated,
+                    wasProtectedStorageEntriesTruncated,
+                    connection.getCapabilities(),
+                    executor);
+        } catch (RejectedExecutionException e) {
+            String errorMessage = "Too many pending getDataResponses. We reject the getDataRequest from peer with " +
+                    connectionInfo;
+            handleFault(errorMessage, CloseConnectionReason.SEND_MSG_FAILURE, connection);
+            return;
+        }
+
+        Futures.addCallback(buildFuture, new FutureCallback<>() {
+            @Override
+            public void onSuccess(GetDataResponse getDataResponse) {
+                UserThread.execute(() -> {
+                    if (stopped) {
+                        log.trace("We have stopped already. We ignore that buildGetDataResponseAsync.onSuccess call.");
+                        return;
+                    }
+
+                    if (wasPersistableNetworkPayloadsTruncated.get()) {
+                        log.warn("The getData request from peer with {} caused too much PersistableNetworkPayload " +
+                                        "entries to get delivered. We limited the entries for the response to {} entries",
+                                connectionInfo, MAX_ENTRIES);
+                    }
+
+                    if (wasProtectedStorageEntriesTruncated.get()) {
+                        log.warn("The getData request from peer with {} caused too much ProtectedStorageEntry " +
+                                        "entries to get delivered. We limited the entries for the response to {} entries",
+                                connectionInfo, MAX_ENTRIES);
+                    }
+
+                    log.info("The getDataResponse to peer with {} contains {} ProtectedStorageEntries and {} PersistableNetworkPayloads",
+                            connectionInfo,
+                            getDataResponse.getDataSet().size(),
+                            getDataResponse.getPersistableNetworkPayloadSet().size());
+
+                    sendGetDataResponse(getDataResponse, connection);
+                    log.info("handle GetDataRequest took {} ms", System.currentTimeMillis() - ts);
+                });
+            }
+
+            @Override
+            public void onFailure(@NotNull Throwable throwable) {
+                UserThread.execute(() -> {
+                    String errorMessage = "Building getDataResponse for peer with " + connectionInfo +
+                            " failed. Exception: " + throwable.getMessage();
+                    log.error(errorMessage, throwable);
+                    handleFault(errorMessage, CloseConnectionReason.UNKNOWN_EXCEPTION, connection);
+                });
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    public void stop() {
+        cleanup();
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private void sendGetDataResponse(GetDataResponse getDataResponse, Connection connection) {
         SettableFuture<Connection> future = networkNode.sendMessage(connection, getDataResponse);
         Futures.addCallback(future, new FutureCallback<>() {
             @Override
@@ -149,18 +204,8 @@ public class GetDataRequestHandler {
                 }
             }
         }, MoreExecutors.directExecutor());
-        log.info("handle GetDataRequest took {} ms", System.currentTimeMillis() - ts);
     }
 
-    public void stop() {
-        cleanup();
-    }
-
-
-    ///////////////////////////////////////////////////////////////////////////////////////////
-    // Private
-    ///////////////////////////////////////////////////////////////////////////////////////////
-
     private void handleFault(String errorMessage, CloseConnectionReason closeConnectionReason, Connection connection) {
         if (!stopped) {
             log.info(errorMessage + "\n\tcloseConnectionReason=" + closeConnectionReason);
@@ -91,6 +91,7 @@ class RequestDataHandler implements MessageListener {
     private Timer timeoutTimer;
     private final int nonce = new Random().nextInt();
     private boolean stopped;
+    private long requestTs;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -144,6 +145,7 @@ class RequestDataHandler implements MessageListener {
             getDataRequestType = getDataRequest.getClass().getSimpleName();
             log.info("We send a {} to peer {}. ", getDataRequestType, nodeAddress);
             networkNode.addMessageListener(this);
+            requestTs = System.currentTimeMillis();
             SettableFuture<Connection> future = networkNode.sendMessage(nodeAddress, getDataRequest);
             //noinspection UnstableApiUsage
             Futures.addCallback(future, new FutureCallback<>() {
@@ -191,6 +193,7 @@ class RequestDataHandler implements MessageListener {
                     logContents(getDataResponse);
                     if (getDataResponse.getRequestNonce() == nonce) {
                         stopTimeoutTimer();
+                        peerManager.addResponseTime(peersNodeAddress, ts1 - requestTs);
                         if (!connection.getPeersNodeAddressOptional().isPresent()) {
                             log.error("RequestDataHandler.onMessage: connection.getPeersNodeAddressOptional() must be present " +
                                     "at that moment");
@@ -275,6 +278,7 @@ class RequestDataHandler implements MessageListener {
         cleanup();
         log.info(errorMessage);
         //peerManager.shutDownConnection(nodeAddress, closeConnectionReason);
+        peerManager.addResponseFailure(nodeAddress);
         peerManager.handleConnectionFault(nodeAddress);
         listener.onFault(errorMessage, null);
     }
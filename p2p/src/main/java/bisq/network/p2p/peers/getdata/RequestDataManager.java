@@ -26,6 +26,7 @@ import bisq.network.p2p.network.NetworkNode;
 import bisq.network.p2p.peers.PeerManager;
 import bisq.network.p2p.peers.getdata.messages.GetDataRequest;
 import bisq.network.p2p.peers.peerexchange.Peer;
+import bisq.network.p2p.peers.peerexchange.PeerLatency;
 import bisq.network.p2p.seed.SeedNodeRepository;
 import bisq.network.p2p.storage.P2PDataStorage;
 
@@ -33,17 +34,29 @@ import bisq.common.Timer;
 import bisq.common.UserThread;
 import bisq.common.app.Version;
 import bisq.common.proto.network.NetworkEnvelope;
+import bisq.common.util.Utilities;
 
 import javax.inject.Inject;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import lombok.extern.slf4j.Slf4j;
@@ -57,10 +70,31 @@ import static com.google.common.base.Preconditions.checkNotNull;
 public class RequestDataManager implements MessageListener, ConnectionListener, PeerManager.Listener {
     private static final long RETRY_DELAY_SEC = 10;
     private static final long CLEANUP_TIMER = 120;
+    // Number of threads used for building GetDataResponses and how many requests can wait for a free thread before we
+    // reject further requests.
+    private static final int GET_DATA_RESPONSE_THREADS = 4;
+    private static final int MAX_PENDING_GET_DATA_RESPONSES = 100;
     // How many seeds we request the PreliminaryGetDataRequest from
     private static int NUM_SEEDS_FOR_PRELIMINARY_REQUEST = 2;
     // how many seeds additional to the first responding PreliminaryGetDataRequest seed we request the GetUpdatedDataRequest from
     private static int NUM_ADDITIONAL_SEEDS_FOR_UPDATE_REQUEST = 1;
+    // Seed nodes without response times are ranked like a seed node with that median response time, so seed nodes
+    // which have been faster are preferred and slower ones are used after the ones we do not know yet.
+    @VisibleForTesting
+    static final long UNKNOWN_RESPONSE_TIME_MS = TimeUnit.SECONDS.toMillis(10);
+    // Added for each failed request since the last successful one
+    @VisibleForTesting
+    static final long FAILURE_PENALTY_MS = TimeUnit.SECONDS.toMillis(30);
+    // If the best seed node has not responded to the PreliminaryGetDataRequest after the 90th percentile of its
+    // response times we send the request to the next seed node as well (hedged request).
+    private static final int HEDGE_PERCENTILE = 90;
+    @VisibleForTesting
+    static final long MIN_HEDGE_DELAY_MS = 1000;
+    @VisibleForTesting
+    static final long MAX_HEDGE_DELAY_MS = TimeUnit.SECONDS.toMillis(30);
+    // Delay between the requests if we do not have response times of the best seed node
+    @VisibleForTesting
+    static final long DEFAULT_REQUEST_DELAY_MS = 200;
     private boolean isPreliminaryDataRequest = true;
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -90,6 +124,7 @@ public class RequestDataManager implements MessageListener, ConnectionListener,
     private final P2PDataStorage dataStorage;
     private final PeerManager peerManager;
     private final List<NodeAddress> seedNodeAddresses;
+    private final ListeningExecutorService getDataResponseExecutor;
 
     // As we use Guice injection we cannot set the listener in our constructor but the P2PService calls the setListener
     // in it's constructor so we can guarantee it is not null.
@@ -99,8 +134,11 @@ public class RequestDataManager implements MessageListener, ConnectionListener,
     private final Map<String, GetDataRequestHandler> getDataRequestHandlers = new HashMap<>();
     private Optional<NodeAddress> nodeAddressOfPreliminaryDataRequest = Optional.empty();
     private Timer retryTimer;
+    private final List<Timer> preliminaryRequestTimers = new ArrayList<>();
+    private final Set<NodeAddress> preliminaryRequestNodeAddresses = new HashSet<>();
     private boolean dataUpdateRequested;
     private boolean stopped;
+    private boolean isSeedNode;
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -116,6 +154,15 @@ public class RequestDataManager implements MessageListener, ConnectionListener,
         this.dataStorage = dataStorage;
         this.peerManager = peerManager;
 
+        ThreadPoolExecutor threadPoolExecutor = Utilities.getThreadPoolExecutor("GetDataResponseBuilder-%d",
+                GET_DATA_RESPONSE_THREADS,
+                GET_DATA_RESPONSE_THREADS,
+                60,
+                new ArrayBlockingQueue<>(MAX_PENDING_GET_DATA_RESPONSES));
+        // We want to get notified if the queue is full to close the connection instead of waiting for the timeout.
+        threadPoolExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        getDataResponseExecutor = MoreExecutors.listeningDecorator(threadPoolExecutor);
+
         this.networkNode.addMessageListener(this);
         this.networkNode.addConnectionListener(this);
         this.peerManager.addListener(this);
@@ -128,6 +175,7 @@ public class RequestDataManager implements MessageListener, ConnectionListener,
             if (myAddress != null) {
                 seedNodeAddresses.remove(myAddress);
                 if (seedNodeRepository.isSeedNode(myAddress)) {
+                    isSeedNode = true;
                     NUM_SEEDS_FOR_PRELIMINARY_REQUEST = 3;
                     NUM_ADDITIONAL_SEEDS_FOR_UPDATE_REQUEST = 2;
                 }
@@ -138,10 +186,12 @@ public class RequestDataManager implements MessageListener, ConnectionListener,
     public void shutDown() {
         stopped = true;
         stopRetryTimer();
+        stopPreliminaryRequestTimers();
         networkNode.removeMessageListener(this);
         networkNode.removeConnectionListener(this);
         peerManager.removeListener(this);
         closeAllHandlers();
+        getDataResponseExecutor.shutdownNow();
     }
 
 
@@ -156,16 +206,33 @@ public class RequestDataManager implements MessageListener, ConnectionListener,
     }
 
     public void requestPreliminaryData() {
-        ArrayList<NodeAddress> nodeAddresses = new ArrayList<>(seedNodeAddresses);
+        List<NodeAddress> nodeAddresses = getSeedNodeAddressesByResponseTime();
         if (!nodeAddresses.isEmpty()) {
             ArrayList<NodeAddress> finalNodeAddresses = new ArrayList<>(nodeAddresses);
             final int size = Math.min(NUM_SEEDS_FOR_PRELIMINARY_REQUEST, finalNodeAddresses.size());
+            // Seed nodes want to get the data from several seed nodes, so they do not hedge but request from all.
+            // Other nodes only send the request to the next seed node if the previous one has not responded in time.
+            boolean hedge = !isSeedNode;
+            long requestDelay = hedge ?
+                    getHedgeDelay(peerManager.getPeerLatency(finalNodeAddresses.get(0))) :
+                    DEFAULT_REQUEST_DELAY_MS;
             for (int i = 0; i < size; i++) {
                 NodeAddress nodeAddress = finalNodeAddresses.get(i);
                 nodeAddresses.remove(nodeAddress);
                 // We clone list to avoid mutable change during iterations
                 List<NodeAddress> remainingNodeAddresses = new ArrayList<>(nodeAddresses);
-                UserThread.runAfter(() -> requestData(nodeAddress, remainingNodeAddresses), (i * 200 + 1), TimeUnit.MILLISECONDS);
+                boolean isHedgedRequest = hedge && i > 0;
+                preliminaryRequestTimers.add(UserThread.runAfter(() -> {
+                    if (isHedgedRequest) {
+                        if (nodeAddressOfPreliminaryDataRequest.isPresent() || handlerMap.containsKey(nodeAddress)) {
+                            return;
+                        }
+                        log.info("We did not get a response to our preliminary data request after {} ms. " +
+                                "We send the request to seed node {} as well.", requestDelay, nodeAddress);
+                    }
+                    preliminaryRequestNodeAddresses.add(nodeAddress);
+                    requestData(nodeAddress, remainingNodeAddresses);
+                }, (i * requestDelay + 1), TimeUnit.MILLISECONDS));
             }
 
             isPreliminaryDataRequest = true;
@@ -178,7 +245,7 @@ public class RequestDataManager implements MessageListener, ConnectionListener,
         checkArgument(nodeAddressOfPreliminaryDataRequest.isPresent(), "nodeAddressOfPreliminaryDataRequest must be present");
         dataUpdateRequested = true;
         isPreliminaryDataRequest = false;
-        List<NodeAddress> nodeAddresses = new ArrayList<>(seedNodeAddresses);
+        List<NodeAddress> nodeAddresses = getSeedNodeAddressesByResponseTime();
         if (!nodeAddresses.isEmpty()) {
             // We use the node we have already connected to to request again
             nodeAddressOfPreliminaryDataRequest.ifPresent(candidate -> {
@@ -273,7 +340,7 @@ public class RequestDataManager implements MessageListener, ConnectionListener,
                 }
                 final String uid = connection.getUid();
                 if (!getDataRequestHandlers.containsKey(uid)) {
-                    GetDataRequestHandler getDataRequestHandler = new GetDataRequestHandler(networkNode, dataStorage,
+                    GetDataRequestHandler getDataRequestHandler = new GetDataRequestHandler(networkNode, dataStorage, getDataResponseExecutor,
                             new GetDataRequestHandler.Listener() {
                                 @Override
                                 public void onComplete() {
@@ -334,6 +401,9 @@ public class RequestDataManager implements MessageListener, ConnectionListener,
                                 // 1. We get a response from requestPreliminaryData
                                 if (!nodeAddressOfPreliminaryDataRequest.isPresent()) {
                                     nodeAddressOfPreliminaryDataRequest = Optional.of(nodeAddress);
+                                    if (!isSeedNode) {
+                                        cancelOtherPreliminaryRequests(nodeAddress);
+                                    }
                                     // We delay because it can be that we get the HS published before we receive the
                                     // preliminary data and the onPreliminaryDataReceived call triggers the
                                     // dataUpdateRequested set to true, so we would also call the onUpdatedDataReceived.
@@ -430,11 +500,10 @@ public class RequestDataManager implements MessageListener, ConnectionListener,
                         stopRetryTimer();
 
                         // We create a new list of candidates
-                        // 1. shuffled seedNodes
+                        // 1. seedNodes sorted by response time
                         // 2. reported peers sorted by last activity date
                         // 3. Add as last persisted peers sorted by last activity date
-                        List<NodeAddress> list = getFilteredList(new ArrayList<>(seedNodeAddresses), new ArrayList<>());
-                        Collections.shuffle(list);
+                        List<NodeAddress> list = getFilteredList(getSeedNodeAddressesByResponseTime(), new ArrayList<>());
 
                         List<NodeAddress> filteredReportedPeers = getFilteredNonSeedNodeList(getSortedNodeAddresses(peerManager.getReportedPeers()), list);
                         list.addAll(filteredReportedPeers);
@@ -452,6 +521,62 @@ public class RequestDataManager implements MessageListener, ConnectionListener,
         }
     }
 
+    private List<NodeAddress> getSeedNodeAddressesByResponseTime() {
+        return sortByResponseTime(seedNodeAddresses, peerManager::getPeerLatency);
+    }
+
+    // The sort is stable, so seed nodes with the same score keep the order of the shuffled seedNodeAddresses
+    @VisibleForTesting
+    static List<NodeAddress> sortByResponseTime(List<NodeAddress> nodeAddresses,
+                                                Function<NodeAddress, Optional<PeerLatency>> peerLatencyProvider) {
+        Map<NodeAddress, Long> scores = new HashMap<>();
+        nodeAddresses.forEach(nodeAddress -> scores.put(nodeAddress, getScore(peerLatencyProvider.apply(nodeAddress))));
+        List<NodeAddress> result = new ArrayList<>(nodeAddresses);
+        result.sort(Comparator.comparingLong(scores::get));
+        return result;
+    }
+
+    @VisibleForTesting
+    static long getScore(Optional<PeerLatency> peerLatency) {
+        long medianResponseTime = peerLatency
+                .map(e -> e.getPercentile(50).orElse(UNKNOWN_RESPONSE_TIME_MS))
+                .orElse(UNKNOWN_RESPONSE_TIME_MS);
+        int numFailures = peerLatency.map(PeerLatency::getNumFailures).orElse(0);
+        return medianResponseTime + numFailures * FAILURE_PENALTY_MS;
+    }
+
+    @VisibleForTesting
+    static long getHedgeDelay(Optional<PeerLatency> peerLatency) {
+        OptionalLong percentile = peerLatency
+                .map(e -> e.getPercentile(HEDGE_PERCENTILE))
+                .orElse(OptionalLong.empty());
+        if (!percentile.isPresent()) {
+            return DEFAULT_REQUEST_DELAY_MS;
+        }
+        return Math.max(MIN_HEDGE_DELAY_MS, Math.min(MAX_HEDGE_DELAY_MS, percentile.getAsLong()));
+    }
+
+    // Once we got the preliminary data we do not need the responses of the other seed nodes
+    private void cancelOtherPreliminaryRequests(NodeAddress nodeAddress) {
+        stopPreliminaryRequestTimers();
+        preliminaryRequestNodeAddresses.stream()
+                .filter(e -> !e.equals(nodeAddress))
+                .forEach(e -> {
+                    RequestDataHandler handler = handlerMap.remove(e);
+                    if (handler != null) {
+                        log.info("We got the preliminary data from {}. We cancel the request to {}.",
+                                nodeAddress, e);
+                        handler.cancel();
+                    }
+                });
+        preliminaryRequestNodeAddresses.clear();
+    }
+
+    private void stopPreliminaryRequestTimers() {
+        preliminaryRequestTimers.forEach(Timer::stop);
+        preliminaryRequestTimers.clear();
+    }
+
     private List<NodeAddress> getSortedNodeAddresses(Collection<Peer> collection) {
         return new ArrayList<>(collection)
                 .stream()
@@ -494,6 +619,8 @@ public class RequestDataManager implements MessageListener, ConnectionListener,
     }
 
     private void closeAllHandlers() {
+        stopPreliminaryRequestTimers();
+        preliminaryRequestNodeAddresses.clear();
         handlerMap.values().forEach(RequestDataHandler::cancel);
         handlerMap.clear();
     }
@@ -21,6 +21,7 @@ import bisq.network.p2p.ExtendedDataSizePermission;
 import bisq.network.p2p.InitialDataRequest;
 import bisq.network.p2p.InitialDataResponse;
 import bisq.network.p2p.SupportedCapabilitiesMessage;
+import bisq.network.p2p.storage.GetDataResponseCache;
 import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 import bisq.network.p2p.storage.payload.ProtectedMailboxStorageEntry;
 import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
@@ -34,12 +35,18 @@ import bisq.common.util.Utilities;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 import lombok.Value;
+import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
 
 import org.jetbrains.annotations.NotNull;
 
+import javax.annotation.Nullable;
+
 @Slf4j
 @EqualsAndHashCode(callSuper = true)
 @Value
@@ -50,22 +57,48 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
 
     // Set of PersistableNetworkPayload objects
     // We added that in v 0.6 and the fromProto code will create an empty HashSet if it doesn't exist
+    // At the responding node it is a view which decodes the historical payloads while iterating.
     private final Set<PersistableNetworkPayload> persistableNetworkPayloadSet;
 
     private final int requestNonce;
     private final boolean isGetUpdatedDataResponse;
     private final Capabilities supportedCapabilities;
 
+    // Only used by seed nodes for reusing the protobuf messages of the entries across responses. Not sent over the wire.
+    @Nullable
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final transient GetDataResponseCache getDataResponseCache;
+
+    // Connection serializes the envelope for the size check and again for sending. We build the message only once, so
+    // the historical payloads are decoded only once. Not sent over the wire.
+    @Nullable
+    @NonFinal
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient volatile protobuf.NetworkEnvelope protoNetworkEnvelope;
+
     public GetDataResponse(@NotNull Set<ProtectedStorageEntry> dataSet,
                            @NotNull Set<PersistableNetworkPayload> persistableNetworkPayloadSet,
                            int requestNonce,
                            boolean isGetUpdatedDataResponse) {
+        this(dataSet, persistableNetworkPayloadSet, requestNonce, isGetUpdatedDataResponse, null);
+    }
+
+    public GetDataResponse(@NotNull Set<ProtectedStorageEntry> dataSet,
+                           @NotNull Set<PersistableNetworkPayload> persistableNetworkPayloadSet,
+                           int requestNonce,
+                           boolean isGetUpdatedDataResponse,
+                           @Nullable GetDataResponseCache getDataResponseCache) {
         this(dataSet,
                 persistableNetworkPayloadSet,
                 requestNonce,
                 isGetUpdatedDataResponse,
                 Capabilities.app,
-                Version.getP2PMessageVersion());
+                Version.getP2PMessageVersion(),
+                getDataResponseCache);
     }
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -77,7 +110,8 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
                             int requestNonce,
                             boolean isGetUpdatedDataResponse,
                             @NotNull Capabilities supportedCapabilities,
-                            int messageVersion) {
+                            int messageVersion,
+                            @Nullable GetDataResponseCache getDataResponseCache) {
         super(messageVersion);
 
         this.dataSet = dataSet;
@@ -85,20 +119,20 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
         this.requestNonce = requestNonce;
         this.isGetUpdatedDataResponse = isGetUpdatedDataResponse;
         this.supportedCapabilities = supportedCapabilities;
+        this.getDataResponseCache = getDataResponseCache;
     }
 
     @Override
     public protobuf.NetworkEnvelope toProtoNetworkEnvelope() {
+        if (protoNetworkEnvelope != null) {
+            return protoNetworkEnvelope;
+        }
+
         final protobuf.GetDataResponse.Builder builder = protobuf.GetDataResponse.newBuilder()
                 .addAllDataSet(dataSet.stream()
-                        .map(protectedStorageEntry -> protectedStorageEntry instanceof ProtectedMailboxStorageEntry ?
-                                protobuf.StorageEntryWrapper.newBuilder()
-                                        .setProtectedMailboxStorageEntry((protobuf.ProtectedMailboxStorageEntry) protectedStorageEntry.toProtoMessage())
-                                        .build()
-                                :
-                                protobuf.StorageEntryWrapper.newBuilder()
-                                        .setProtectedStorageEntry((protobuf.ProtectedStorageEntry) protectedStorageEntry.toProtoMessage())
-                                        .build())
+                        .map(protectedStorageEntry -> getDataResponseCache != null ?
+                                getDataResponseCache.getStorageEntryWrapper(protectedStorageEntry) :
+                                toStorageEntryWrapper(protectedStorageEntry))
                         .collect(Collectors.toList()))
                 .addAllPersistableNetworkPayloadItems(persistableNetworkPayloadSet.stream()
                         .map(PersistableNetworkPayload::toProtoMessage)
@@ -111,6 +145,7 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
                 .setGetDataResponse(builder)
                 .build();
         log.info("Sending a GetDataResponse with {}", Utilities.readableFileSize(proto.getSerializedSize()));
+        protoNetworkEnvelope = proto;
         return proto;
     }
 
@@ -127,7 +162,19 @@ public final class GetDataResponse extends NetworkEnvelope implements SupportedC
                 proto.getRequestNonce(),
                 proto.getIsGetUpdatedDataResponse(),
                 Capabilities.fromIntList(proto.getSupportedCapabilitiesList()),
-                messageVersion);
+                messageVersion,
+                null);
+    }
+
+    public static protobuf.StorageEntryWrapper toStorageEntryWrapper(ProtectedStorageEntry protectedStorageEntry) {
+        return protectedStorageEntry instanceof ProtectedMailboxStorageEntry ?
+                protobuf.StorageEntryWrapper.newBuilder()
+                        .setProtectedMailboxStorageEntry((protobuf.ProtectedMailboxStorageEntry) protectedStorageEntry.toProtoMessage())
+                        .build()
+                :
+                protobuf.StorageEntryWrapper.newBuilder()
+                        .setProtectedStorageEntry((protobuf.ProtectedStorageEntry) protectedStorageEntry.toProtoMessage())
+                        .build();
     }
 
     @Override
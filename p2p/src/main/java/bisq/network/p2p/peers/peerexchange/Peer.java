@@ -23,7 +23,7 @@ import bisq.network.p2p.network.SupportedCapabilitiesListener;
 import bisq.common.app.Capabilities;
 import bisq.common.app.HasCapabilities;
 import bisq.common.proto.network.NetworkPayload;
-import bisq.common.proto.persistable.PersistablePayload;
+import bisq.common.proto.persistable.ChangeTrackedPayload;
 
 import java.util.Date;
 
@@ -35,15 +35,15 @@ import javax.annotation.Nullable;
 
 @Getter
 @Slf4j
-public final class Peer implements HasCapabilities, NetworkPayload, PersistablePayload, SupportedCapabilitiesListener {
+public final class Peer implements HasCapabilities, NetworkPayload, ChangeTrackedPayload, SupportedCapabilitiesListener {
     private static final int MAX_FAILED_CONNECTION_ATTEMPTS = 5;
 
     private final NodeAddress nodeAddress;
     private final long date;
     @Setter
     transient private int failedConnectionAttempts = 0;
-    @Setter
     private Capabilities capabilities = new Capabilities();
+    transient private volatile int changeCount;
 
     public Peer(NodeAddress nodeAddress, @Nullable Capabilities supportedCapabilities) {
         this(nodeAddress, new Date().getTime(), supportedCapabilities);
@@ -100,10 +100,16 @@ public final class Peer implements HasCapabilities, NetworkPayload, PersistableP
         return date;
     }
 
+    public void setCapabilities(Capabilities capabilities) {
+        this.capabilities = capabilities;
+        changeCount++;
+    }
+
     @Override
     public void onChanged(Capabilities supportedCapabilities) {
         if (!supportedCapabilities.isEmpty()) {
             capabilities.set(supportedCapabilities);
+            changeCount++;
         }
     }
 
@@ -0,0 +1,121 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.peers.peerexchange;
+
+import bisq.network.p2p.NodeAddress;
+
+import bisq.common.proto.network.NetworkPayload;
+import bisq.common.proto.persistable.PersistablePayload;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalLong;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Response times of the recent data requests to a peer. Used for ranking the seed nodes we request the initial data
+ * from. The response time is measured from sending the GetDataRequest until the GetDataResponse got received, so it
+ * covers the latency of the connection as well as the time for transferring the data.
+ * Immutable, updates return a new instance.
+ */
+@Getter
+@EqualsAndHashCode
+public final class PeerLatency implements NetworkPayload, PersistablePayload {
+    private static final int MAX_RESPONSE_TIMES = 20;
+
+    private final NodeAddress nodeAddress;
+    // Most recent response times in ms, oldest first
+    private final List<Long> responseTimes;
+    // Number of failed requests since the last successful one
+    private final int numFailures;
+
+    public PeerLatency(NodeAddress nodeAddress) {
+        this(nodeAddress, Collections.emptyList(), 0);
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // PROTO BUFFER
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private PeerLatency(NodeAddress nodeAddress, List<Long> responseTimes, int numFailures) {
+        this.nodeAddress = nodeAddress;
+        this.responseTimes = Collections.unmodifiableList(new ArrayList<>(responseTimes));
+        this.numFailures = numFailures;
+    }
+
+    @Override
+    public protobuf.PeerLatency toProtoMessage() {
+        return protobuf.PeerLatency.newBuilder()
+                .setNodeAddress(nodeAddress.toProtoMessage())
+                .addAllResponseTimes(responseTimes)
+                .setNumFailures(numFailures)
+                .build();
+    }
+
+    public static PeerLatency fromProto(protobuf.PeerLatency proto) {
+        return new PeerLatency(NodeAddress.fromProto(proto.getNodeAddress()),
+                proto.getResponseTimesList(),
+                proto.getNumFailures());
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public PeerLatency withResponseTime(long responseTime) {
+        List<Long> list = new ArrayList<>(responseTimes);
+        list.add(responseTime);
+        if (list.size() > MAX_RESPONSE_TIMES) {
+            list.remove(0);
+        }
+        return new PeerLatency(nodeAddress, list, 0);
+    }
+
+    public PeerLatency withFailure() {
+        return new PeerLatency(nodeAddress, responseTimes, numFailures + 1);
+    }
+
+    /**
+     * @param percentile    Value between 0 and 100
+     * @return The response time below or equal which the given percentage of the response times are (nearest rank
+     * method) or empty if we have no response times.
+     */
+    public OptionalLong getPercentile(int percentile) {
+        if (responseTimes.isEmpty()) {
+            return OptionalLong.empty();
+        }
+        List<Long> sorted = new ArrayList<>(responseTimes);
+        Collections.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100d * sorted.size());
+        return OptionalLong.of(sorted.get(Math.max(0, Math.min(rank, sorted.size()) - 1)));
+    }
+
+    @Override
+    public String toString() {
+        return "PeerLatency{" +
+                "\n     nodeAddress=" + nodeAddress +
+                ",\n     responseTimes=" + responseTimes +
+                ",\n     numFailures=" + numFailures +
+                "\n}";
+    }
+}
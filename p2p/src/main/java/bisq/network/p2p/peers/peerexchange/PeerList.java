@@ -17,13 +17,21 @@
 
 package bisq.network.p2p.peers.peerexchange;
 
+import bisq.network.p2p.NodeAddress;
+
 import bisq.common.proto.persistable.PersistableEnvelope;
+import bisq.common.proto.persistable.ProtoMessageCache;
 
 import com.google.protobuf.Message;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import lombok.EqualsAndHashCode;
@@ -35,6 +43,11 @@ import lombok.extern.slf4j.Slf4j;
 public class PeerList implements PersistableEnvelope {
     @Getter
     private final Set<Peer> set = new HashSet<>();
+    // Response times of data requests. Only used for seed nodes.
+    @Getter
+    private final Map<NodeAddress, PeerLatency> peerLatencyMap = new HashMap<>();
+    private final transient ProtoMessageCache<Peer, protobuf.Peer> peerMessageCache =
+            new ProtoMessageCache<>(Peer::toProtoMessage);
 
     public PeerList() {
     }
@@ -43,22 +56,46 @@ public class PeerList implements PersistableEnvelope {
         setAll(set);
     }
 
+    private PeerList(Set<Peer> set, Collection<PeerLatency> peerLatencies) {
+        setAll(set);
+        setAllPeerLatencies(peerLatencies);
+    }
+
     public int size() {
         return set.size();
     }
 
     @Override
     public Message toProtoMessage() {
+        return toProtoMessage(set.stream().map(Peer::toProtoMessage).collect(Collectors.toList()),
+                peerLatencyMap.values());
+    }
+
+    // The peers only change their capabilities and count those changes. The peer latencies are immutable.
+    @Override
+    public Supplier<Message> snapshotPersistableMessage() {
+        List<protobuf.Peer> peers = peerMessageCache.getProtoMessages(set);
+        List<PeerLatency> peerLatencies = new ArrayList<>(peerLatencyMap.values());
+        return () -> toProtoMessage(peers, peerLatencies);
+    }
+
+    private static Message toProtoMessage(List<protobuf.Peer> peers, Collection<PeerLatency> peerLatencies) {
         return protobuf.PersistableEnvelope.newBuilder()
                 .setPeerList(protobuf.PeerList.newBuilder()
-                        .addAllPeer(set.stream().map(Peer::toProtoMessage).collect(Collectors.toList())))
+                        .addAllPeer(peers)
+                        .addAllPeerLatency(peerLatencies.stream()
+                                .map(PeerLatency::toProtoMessage)
+                                .collect(Collectors.toList())))
                 .build();
     }
 
     public static PeerList fromProto(protobuf.PeerList proto) {
         return new PeerList(proto.getPeerList().stream()
                 .map(Peer::fromProto)
-                .collect(Collectors.toSet()));
+                .collect(Collectors.toSet()),
+                proto.getPeerLatencyList().stream()
+                        .map(PeerLatency::fromProto)
+                        .collect(Collectors.toList()));
     }
 
     public void setAll(Collection<Peer> collection) {
@@ -66,10 +103,16 @@ public class PeerList implements PersistableEnvelope {
         this.set.addAll(collection);
     }
 
+    public void setAllPeerLatencies(Collection<PeerLatency> collection) {
+        this.peerLatencyMap.clear();
+        collection.forEach(peerLatency -> peerLatencyMap.put(peerLatency.getNodeAddress(), peerLatency));
+    }
+
     @Override
     public String toString() {
         return "PeerList{" +
                 "\n     set=" + set +
+                ",\n     peerLatencyMap=" + peerLatencyMap +
                 "\n}";
     }
 }
@@ -0,0 +1,84 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage;
+
+import bisq.network.p2p.peers.getdata.messages.GetDataResponse;
+import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
+
+import bisq.common.app.Capabilities;
+import bisq.common.app.Capability;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Seed nodes answer the initial data requests of many bootstrapping peers with nearly identical data. We cache the
+ * protobuf messages of the ProtectedStorageEntries, as they do not depend on the requester. Only the filtering by the
+ * excluded keys and the serialization of the envelope is done per request.
+ *
+ * The cache is only used by seed nodes to avoid the memory overhead at normal nodes. P2PDataStorage notifies the
+ * cache about all changes. As a message might get built concurrently to a change, a cached entry message is only used
+ * if its sequence number and creation time stamp still match the entry, so stale data never gets delivered.
+ *
+ * The PersistableNetworkPayloads are not cached. The map for a data response is a view of the stores, so there is
+ * nothing to reuse, and as those stores only grow the cache would keep a second copy of all of them.
+ */
+@Slf4j
+public class GetDataResponseCache {
+    private final Map<P2PDataStorage.ByteArray, protobuf.StorageEntryWrapper> storageEntryWrapperByHash = new ConcurrentHashMap<>();
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public boolean isEnabled() {
+        return Capabilities.app.contains(Capability.SEED_NODE);
+    }
+
+    // Called at add, refresh, back dating and remove as all of those change the serialized entry.
+    void onProtectedStorageEntryChanged(P2PDataStorage.ByteArray hashOfPayload) {
+        storageEntryWrapperByHash.remove(hashOfPayload);
+    }
+
+    public protobuf.StorageEntryWrapper getStorageEntryWrapper(ProtectedStorageEntry protectedStorageEntry) {
+        P2PDataStorage.ByteArray hashOfPayload = protectedStorageEntry.getHashOfPayload();
+        protobuf.StorageEntryWrapper cached = storageEntryWrapperByHash.get(hashOfPayload);
+        // Refreshes replace the entry and back dating changes its creation time stamp. We check the values the cached
+        // message was built from, as a message built concurrently to a change might have been put after the
+        // invalidation.
+        if (cached != null && matches(cached, protectedStorageEntry)) {
+            return cached;
+        }
+
+        protobuf.StorageEntryWrapper storageEntryWrapper = GetDataResponse.toStorageEntryWrapper(protectedStorageEntry);
+        storageEntryWrapperByHash.put(hashOfPayload, storageEntryWrapper);
+        return storageEntryWrapper;
+    }
+
+    private static boolean matches(protobuf.StorageEntryWrapper storageEntryWrapper,
+                                   ProtectedStorageEntry protectedStorageEntry) {
+        protobuf.ProtectedStorageEntry entry = storageEntryWrapper.hasProtectedMailboxStorageEntry() ?
+                storageEntryWrapper.getProtectedMailboxStorageEntry().getEntry() :
+                storageEntryWrapper.getProtectedStorageEntry();
+        return entry.getSequenceNumber() == protectedStorageEntry.getSequenceNumber() &&
+                entry.getCreationTimeStamp() == protectedStorageEntry.getCreationTimeStamp();
+    }
+}
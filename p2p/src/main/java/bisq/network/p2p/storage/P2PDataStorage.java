@@ -39,6 +39,7 @@ import bisq.network.p2p.storage.messages.RemoveMailboxDataMessage;
 import bisq.network.p2p.storage.payload.CapabilityRequiringPayload;
 import bisq.network.p2p.storage.payload.DateSortedTruncatablePayload;
 import bisq.network.p2p.storage.payload.DateTolerantPayload;
+import bisq.network.p2p.storage.payload.ExpirablePayload;
 import bisq.network.p2p.storage.payload.MailboxStoragePayload;
 import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 import bisq.network.p2p.storage.payload.ProcessOncePersistableNetworkPayload;
@@ -54,6 +55,7 @@ import bisq.network.p2p.storage.persistence.ProtectedDataStoreService;
 import bisq.network.p2p.storage.persistence.RemovedPayloadsService;
 import bisq.network.p2p.storage.persistence.ResourceDataStoreService;
 import bisq.network.p2p.storage.persistence.SequenceNumberMap;
+import bisq.network.p2p.storage.persistence.UnionMapView;
 
 import bisq.common.Timer;
 import bisq.common.UserThread;
@@ -77,7 +79,10 @@ import com.google.inject.name.Named;
 import javax.inject.Inject;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterators;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 import org.fxmisc.easybind.EasyBind;
 import org.fxmisc.easybind.monadic.MonadicBinding;
@@ -90,6 +95,7 @@ import java.security.PublicKey;
 
 import java.time.Clock;
 
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -98,11 +104,18 @@ import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
@@ -126,6 +139,12 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     @VisibleForTesting
     public static final int CHECK_TTL_INTERVAL_SEC = 60;
 
+    // Below that number of protectedStorageEntries in a GetDataResponse the overhead of the parallel verification
+    // is not worth it
+    @VisibleForTesting
+    static final int MIN_ENTRIES_FOR_PARALLEL_VERIFICATION = 100;
+    private static final int VERIFICATION_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors());
+
     private boolean initialRequestApplied = false;
 
     private final Broadcaster broadcaster;
@@ -146,6 +165,13 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     private final Set<AppendOnlyDataStoreListener> appendOnlyDataStoreListeners = new CopyOnWriteArraySet<>();
     private final RemovedPayloadsService removedPayloadsService;
     private final Clock clock;
+    private final GetDataResponseCache getDataResponseCache = new GetDataResponseCache();
+    @Nullable
+    private ExecutorService verificationExecutor;
+    // Hashes of the entries in map with an ExpirablePayload by the time after which they are expired
+    private final TimestampIndex expirationIndex = new TimestampIndex();
+    // Hashes of the sequenceNumberMap entries by the time of their last update
+    private final TimestampIndex sequenceNumberAgeIndex = new TimestampIndex();
 
     /// The maximum number of items that must exist in the SequenceNumberMap before it is scheduled for a purge
     /// which removes entries after PURGE_AGE_DAYS.
@@ -192,7 +218,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     @Override
     public void readPersisted(Runnable completeHandler) {
         persistenceManager.readPersisted(persisted -> {
-                    sequenceNumberMap.setMap(getPurgedSequenceNumberMap(persisted.getMap()));
+                    setSequenceNumberMap(getPurgedSequenceNumberMap(persisted.getMap()));
                     completeHandler.run();
                 },
                 completeHandler);
@@ -203,7 +229,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     public void readPersistedSync() {
         SequenceNumberMap persisted = persistenceManager.getPersisted();
         if (persisted != null) {
-            sequenceNumberMap.setMap(getPurgedSequenceNumberMap(persisted.getMap()));
+            setSequenceNumberMap(getPurgedSequenceNumberMap(persisted.getMap()));
         }
     }
 
@@ -226,6 +252,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         appendOnlyDataStoreService.readFromResources(postFix, () -> appendOnlyDataStoreServiceReady.set(true));
         protectedDataStoreService.readFromResources(postFix, () -> {
             map.putAll(protectedDataStoreService.getMap());
+            protectedDataStoreService.getMap().forEach(this::updateExpirationIndex);
             protectedDataStoreServiceReady.set(true);
         });
         resourceDataStoreService.readFromResources(postFix, () -> resourceDataStoreServiceReady.set(true));
@@ -239,14 +266,16 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         resourceDataStoreService.readFromResourcesSync(postFix);
 
         map.putAll(protectedDataStoreService.getMap());
+        protectedDataStoreService.getMap().forEach(this::updateExpirationIndex);
     }
 
     // We get added mailbox message data from MailboxMessageService. We want to add those early so we can get it added
     // to our excluded keys to reduce initial data response data size.
     public void addProtectedMailboxStorageEntryToMap(ProtectedStorageEntry protectedStorageEntry) {
-        ProtectedStoragePayload protectedStoragePayload = protectedStorageEntry.getProtectedStoragePayload();
-        ByteArray hashOfPayload = get32ByteHashAsByteArray(protectedStoragePayload);
+        ByteArray hashOfPayload = protectedStorageEntry.getHashOfPayload();
         map.put(hashOfPayload, protectedStorageEntry);
+        updateExpirationIndex(hashOfPayload, protectedStorageEntry);
+        getDataResponseCache.onProtectedStorageEntryChanged(hashOfPayload);
         log.trace("## addProtectedMailboxStorageEntryToMap hashOfPayload={}, map={}", hashOfPayload, printMap());
     }
 
@@ -302,16 +331,58 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             AtomicBoolean wasPersistableNetworkPayloadsTruncated,
             AtomicBoolean wasProtectedStorageEntriesTruncated,
             Capabilities peerCapabilities) {
+        return buildGetDataResponse(getDataRequest,
+                maxEntriesPerType,
+                wasPersistableNetworkPayloadsTruncated,
+                wasProtectedStorageEntriesTruncated,
+                peerCapabilities,
+                map);
+    }
+
+    /**
+     * Builds the GetDataResponse on the given executor so that a large response does not block the user thread.
+     * Must be called from the user thread: the ProtectedStorageEntries are copied before the task is submitted, so
+     * the response reflects the state at the time of the request even if entries get added, removed or back dated
+     * while it is built or sent. The PersistableNetworkPayload stores are append only and backed by concurrent maps,
+     * so they are read directly on the worker thread.
+     */
+    public ListenableFuture<GetDataResponse> buildGetDataResponseAsync(
+            GetDataRequest getDataRequest,
+            int maxEntriesPerType,
+            AtomicBoolean wasPersistableNetworkPayloadsTruncated,
+            AtomicBoolean wasProtectedStorageEntriesTruncated,
+            Capabilities peerCapabilities,
+            ListeningExecutorService executor) {
+        // Back dating mutates the entries, so we copy them and not only the map. The copies share all immutable data.
+        Map<ByteArray, ProtectedStorageEntry> protectedStorageEntriesSnapshot = new HashMap<>();
+        map.forEach((hashOfPayload, protectedStorageEntry) ->
+                protectedStorageEntriesSnapshot.put(hashOfPayload, protectedStorageEntry.copy()));
+        Capabilities peerCapabilitiesSnapshot = new Capabilities(peerCapabilities);
+        return executor.submit(() -> buildGetDataResponse(getDataRequest,
+                maxEntriesPerType,
+                wasPersistableNetworkPayloadsTruncated,
+                wasProtectedStorageEntriesTruncated,
+                peerCapabilitiesSnapshot,
+                protectedStorageEntriesSnapshot));
+    }
+
+    private GetDataResponse buildGetDataResponse(
+            GetDataRequest getDataRequest,
+            int maxEntriesPerType,
+            AtomicBoolean wasPersistableNetworkPayloadsTruncated,
+            AtomicBoolean wasProtectedStorageEntriesTruncated,
+            Capabilities peerCapabilities,
+            Map<ByteArray, ProtectedStorageEntry> protectedStorageEntries) {
 
         Set<P2PDataStorage.ByteArray> excludedKeysAsByteArray =
                 P2PDataStorage.ByteArray.convertBytesSetToByteArraySet(getDataRequest.getExcludedKeys());
 
         // Pre v 1.4.0 requests do not have set the requesters version field so it is null.
         // The methods in HistoricalDataStoreService will return all historical data in that case.
-        // mapForDataResponse contains the filtered by version data from HistoricalDataStoreService as well as all other
-        // maps of the remaining appendOnlyDataStoreServices.
+        // mapForDataResponse is a view of the filtered by version data from HistoricalDataStoreService as well as all
+        // other maps of the remaining appendOnlyDataStoreServices.
         Map<ByteArray, PersistableNetworkPayload> mapForDataResponse = getMapForDataResponse(getDataRequest.getVersion());
-        Set<PersistableNetworkPayload> filteredPersistableNetworkPayloads =
+        List<ByteArray> filteredPersistableNetworkPayloadHashes =
                 filterKnownHashes(
                         mapForDataResponse,
                         Function.identity(),
@@ -321,33 +392,39 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                         wasPersistableNetworkPayloadsTruncated);
         log.info("{} PersistableNetworkPayload entries remained after filtered by excluded keys. " +
                         "Original map had {} entries.",
-                filteredPersistableNetworkPayloads.size(), mapForDataResponse.size());
+                filteredPersistableNetworkPayloadHashes.size(), mapForDataResponse.size());
         log.trace("## buildGetDataResponse filteredPersistableNetworkPayloadHashes={}",
-                filteredPersistableNetworkPayloads.stream()
-                        .map(e -> Utilities.encodeToHex(e.getHash()))
+                filteredPersistableNetworkPayloadHashes.stream()
+                        .map(e -> Utilities.encodeToHex(e.bytes))
                         .toArray());
+        // Historical payloads are decoded again when the response gets serialized, so we do not keep them
+        Set<PersistableNetworkPayload> filteredPersistableNetworkPayloads =
+                new ValuesByHashView<>(mapForDataResponse, filteredPersistableNetworkPayloadHashes);
 
         Set<ProtectedStorageEntry> filteredProtectedStorageEntries =
                 filterKnownHashes(
-                        map,
+                        protectedStorageEntries,
                         ProtectedStorageEntry::getProtectedStoragePayload,
                         excludedKeysAsByteArray,
                         peerCapabilities,
                         maxEntriesPerType,
-                        wasProtectedStorageEntriesTruncated);
+                        wasProtectedStorageEntriesTruncated).stream()
+                        .map(protectedStorageEntries::get)
+                        .collect(Collectors.toSet());
         log.info("{} ProtectedStorageEntry entries remained after filtered by excluded keys. " +
                         "Original map had {} entries.",
-                filteredProtectedStorageEntries.size(), map.size());
+                filteredProtectedStorageEntries.size(), protectedStorageEntries.size());
         log.trace("## buildGetDataResponse filteredProtectedStorageEntryHashes={}",
                 filteredProtectedStorageEntries.stream()
-                        .map(e -> get32ByteHashAsByteArray((e.getProtectedStoragePayload())))
+                        .map(ProtectedStorageEntry::getHashOfPayload)
                         .toArray());
 
         return new GetDataResponse(
                 filteredProtectedStorageEntries,
                 filteredPersistableNetworkPayloads,
                 getDataRequest.getNonce(),
-                getDataRequest instanceof GetUpdatedDataRequest);
+                getDataRequest instanceof GetUpdatedDataRequest,
+                getDataResponseCache.isEnabled() ? getDataResponseCache : null);
     }
 
 
@@ -375,8 +452,9 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         return map;
     }
 
+    // Returns a view of the maps of all appendOnlyDataStoreServices, so nothing gets copied or decoded
     public Map<ByteArray, PersistableNetworkPayload> getMapForDataResponse(String requestersVersion) {
-        Map<ByteArray, PersistableNetworkPayload> map = new HashMap<>();
+        List<Map<ByteArray, PersistableNetworkPayload>> maps = new ArrayList<>();
         appendOnlyDataStoreService.getServices()
                 .forEach(service -> {
                     Map<ByteArray, PersistableNetworkPayload> serviceMap;
@@ -386,18 +464,22 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                     } else {
                         serviceMap = service.getMap();
                     }
-                    map.putAll(serviceMap);
+                    maps.add(serviceMap);
                     log.info("We added {} entries from {} to be filtered by excluded keys",
                             serviceMap.size(), service.getClass().getSimpleName());
                 });
-        return map;
+        return new UnionMapView<>(maps);
     }
 
     /**
      * Generic function that can be used to filter a Map<ByteArray, ProtectedStorageEntry || PersistableNetworkPayload>
      * by a given set of keys and peer capabilities.
+     * The keys are checked first, so the values of known entries are never accessed. Historical payloads are decoded
+     * at most once for the capability and date checks, and only the keys of the remaining entries are kept.
+     *
+     * @return The keys of the entries to transmit
      */
-    static private <T extends NetworkPayload> Set<T> filterKnownHashes(
+    static private <T extends NetworkPayload> List<ByteArray> filterKnownHashes(
             Map<ByteArray, T> toFilter,
             Function<T, ? extends NetworkPayload> objToPayload,
             Set<ByteArray> knownHashes,
@@ -407,46 +489,51 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
         log.info("Num knownHashes {}", knownHashes.size());
 
-        Set<Map.Entry<ByteArray, T>> entries = toFilter.entrySet();
-        List<T> dateSortedTruncatablePayloads = entries.stream()
-                .filter(entry -> entry.getValue() instanceof DateSortedTruncatablePayload)
-                .filter(entry -> !knownHashes.contains(entry.getKey()))
-                .map(Map.Entry::getValue)
-                .filter(payload -> shouldTransmitPayloadToPeer(peerCapabilities, objToPayload.apply(payload)))
-                .sorted(Comparator.comparing(payload -> ((DateSortedTruncatablePayload) payload).getDate()))
-                .collect(Collectors.toList());
-        log.info("Num filtered dateSortedTruncatablePayloads {}", dateSortedTruncatablePayloads.size());
-        if (!dateSortedTruncatablePayloads.isEmpty()) {
-            int maxItems = ((DateSortedTruncatablePayload) dateSortedTruncatablePayloads.get(0)).maxItems();
-            if (dateSortedTruncatablePayloads.size() > maxItems) {
-                int fromIndex = dateSortedTruncatablePayloads.size() - maxItems;
-                int toIndex = dateSortedTruncatablePayloads.size();
-                dateSortedTruncatablePayloads = dateSortedTruncatablePayloads.subList(fromIndex, toIndex);
-                log.info("Num truncated dateSortedTruncatablePayloads {}", dateSortedTruncatablePayloads.size());
+        List<ByteArray> filteredResults = new ArrayList<>();
+        List<DatedHash> dateSortedTruncatableHashes = new ArrayList<>();
+        // Map.forEach would get the values of all entries
+        for (Map.Entry<ByteArray, T> entry : toFilter.entrySet()) {
+            ByteArray hash = entry.getKey();
+            if (knownHashes.contains(hash)) {
+                continue;
+            }
+            T value = entry.getValue();
+            if (!shouldTransmitPayloadToPeer(peerCapabilities, objToPayload.apply(value))) {
+                continue;
+            }
+            if (value instanceof DateSortedTruncatablePayload) {
+                dateSortedTruncatableHashes.add(new DatedHash(hash, (DateSortedTruncatablePayload) value));
+            } else {
+                filteredResults.add(hash);
             }
         }
-
-        List<T> filteredResults = entries.stream()
-                .filter(entry -> !(entry.getValue() instanceof DateSortedTruncatablePayload))
-                .filter(entry -> !knownHashes.contains(entry.getKey()))
-                .map(Map.Entry::getValue)
-                .filter(payload -> shouldTransmitPayloadToPeer(peerCapabilities, objToPayload.apply(payload)))
-                .collect(Collectors.toList());
         log.info("Num filtered non-dateSortedTruncatablePayloads {}", filteredResults.size());
 
+        dateSortedTruncatableHashes.sort(Comparator.comparing(datedHash -> datedHash.date));
+        log.info("Num filtered dateSortedTruncatablePayloads {}", dateSortedTruncatableHashes.size());
+        List<DatedHash> truncatedDateSortedTruncatableHashes = dateSortedTruncatableHashes;
+        if (!dateSortedTruncatableHashes.isEmpty()) {
+            int maxItems = dateSortedTruncatableHashes.get(0).maxItems;
+            if (dateSortedTruncatableHashes.size() > maxItems) {
+                int fromIndex = dateSortedTruncatableHashes.size() - maxItems;
+                int toIndex = dateSortedTruncatableHashes.size();
+                truncatedDateSortedTruncatableHashes = dateSortedTruncatableHashes.subList(fromIndex, toIndex);
+                log.info("Num truncated dateSortedTruncatablePayloads {}", truncatedDateSortedTruncatableHashes.size());
+            }
+        }
+
         // The non-dateSortedTruncatablePayloads have higher prio, so we added dateSortedTruncatablePayloads
         // after those so in case we need to truncate we first truncate the dateSortedTruncatablePayloads.
-        filteredResults.addAll(dateSortedTruncatablePayloads);
+        truncatedDateSortedTruncatableHashes.forEach(datedHash -> filteredResults.add(datedHash.hash));
 
         if (filteredResults.size() > maxEntries) {
-            filteredResults = filteredResults.subList(0, maxEntries);
             outTruncated.set(true);
-            log.info("Num truncated filteredResults {}", filteredResults.size());
+            log.info("Num truncated filteredResults {}", maxEntries);
+            return filteredResults.subList(0, maxEntries);
         } else {
             log.info("Num filteredResults {}", filteredResults.size());
+            return filteredResults;
         }
-
-        return new HashSet<>(filteredResults);
     }
 
 
@@ -489,12 +576,17 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         Set<PersistableNetworkPayload> persistableNetworkPayloadSet = getDataResponse.getPersistableNetworkPayloadSet();
 
         long ts2 = System.currentTimeMillis();
-        dataSet.forEach(e -> {
-            // We don't broadcast here (last param) as we are only connected to the seed node and would be pointless
-            addProtectedStorageEntry(e, sender, null, false);
-
-        });
-        log.info("Processing {} protectedStorageEntries took {} ms.", dataSet.size(), this.clock.millis() - ts2);
+        // Verifying the signatures is the expensive part, so we do that in parallel and only apply the verified
+        // entries on the user thread.
+        List<ProtectedStorageEntry> verifiedEntries = verifyProtectedStorageEntriesForAdd(dataSet);
+        log.info("Verifying {} protectedStorageEntries took {} ms. {} entries are valid for the add operation.",
+                dataSet.size(), System.currentTimeMillis() - ts2, verifiedEntries.size());
+
+        ts2 = System.currentTimeMillis();
+        // We don't broadcast here as we are only connected to the seed node and would be pointless
+        int numAdded = addVerifiedProtectedStorageEntries(verifiedEntries, sender);
+        log.info("Applying {} protectedStorageEntries took {} ms. {} entries have been added.",
+                verifiedEntries.size(), System.currentTimeMillis() - ts2, numAdded);
 
         ts2 = this.clock.millis();
         persistableNetworkPayloadSet.forEach(e -> {
@@ -531,19 +623,30 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     public void shutDown() {
         if (removeExpiredEntriesTimer != null)
             removeExpiredEntriesTimer.stop();
+        if (verificationExecutor != null)
+            verificationExecutor.shutdownNow();
     }
 
     @VisibleForTesting
-    void removeExpiredEntries() {
+    public void removeExpiredEntries() {
         // The moment when an object becomes expired will not be synchronous in the network and we could
         // get add network_messages after the object has expired. To avoid repeated additions of already expired
         // object when we get it sent from new peers, we don’t remove the sequence number from the map.
         // That way an ADD message for an already expired data will fail because the sequence number
         // is equal and not larger as expected.
-        ArrayList<Map.Entry<ByteArray, ProtectedStorageEntry>> toRemoveList =
-                map.entrySet().stream()
-                        .filter(entry -> entry.getValue().isExpired(this.clock))
-                        .collect(Collectors.toCollection(ArrayList::new));
+        // We only look at the entries the expirationIndex reports as expired instead of checking all entries.
+        ArrayList<Map.Entry<ByteArray, ProtectedStorageEntry>> toRemoveList = new ArrayList<>();
+        expirationIndex.getHashesBefore(this.clock.millis()).forEach(hashOfPayload -> {
+            ProtectedStorageEntry protectedStorageEntry = map.get(hashOfPayload);
+            if (protectedStorageEntry == null) {
+                expirationIndex.remove(hashOfPayload);
+            } else if (protectedStorageEntry.isExpired(this.clock)) {
+                toRemoveList.add(Maps.immutableEntry(hashOfPayload, protectedStorageEntry));
+            } else {
+                // Should not happen as we update the index at each change of the creation date
+                updateExpirationIndex(hashOfPayload, protectedStorageEntry);
+            }
+        });
 
         // Batch processing can cause performance issues, so do all of the removes first, then update the listeners
         // to let them know about the removes.
@@ -556,8 +659,16 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         removeFromMapAndDataStore(toRemoveList);
 
         if (sequenceNumberMap.size() > this.maxSequenceNumberMapSizeBeforePurge) {
-            sequenceNumberMap.setMap(getPurgedSequenceNumberMap(sequenceNumberMap.getMap()));
-            requestPersistence();
+            // Entries not updated since PURGE_AGE_DAYS are removed. Only those get looked up by the age index.
+            long maxAgeTs = this.clock.millis() - TimeUnit.DAYS.toMillis(PURGE_AGE_DAYS);
+            List<ByteArray> toPurge = sequenceNumberAgeIndex.getHashesBefore(maxAgeTs + 1);
+            toPurge.forEach(hash -> {
+                sequenceNumberMap.remove(hash);
+                sequenceNumberAgeIndex.remove(hash);
+            });
+            if (!toPurge.isEmpty()) {
+                requestPersistence();
+            }
         }
     }
 
@@ -632,6 +743,8 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                     // Usually the are: SOCKET_TIMEOUT ,TERMINATED (EOFException)
                     log.debug("Backdating {} due to closeConnectionReason={}", protectedStorageEntry, closeConnectionReason);
                     protectedStorageEntry.backDate();
+                    updateExpirationIndex(protectedStorageEntry.getHashOfPayload(), protectedStorageEntry);
+                    getDataResponseCache.onProtectedStorageEntryChanged(protectedStorageEntry.getHashOfPayload());
                 });
     }
 
@@ -676,7 +789,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         }
 
         ByteArray hashAsByteArray = new ByteArray(payload.getHash());
-        boolean payloadHashAlreadyInStore = appendOnlyDataStoreService.getMap().containsKey(hashAsByteArray);
+        boolean payloadHashAlreadyInStore = appendOnlyDataStoreService.containsKey(hashAsByteArray);
 
         // Store already knows about this payload. Ignore it unless the caller specifically requests a republish.
         if (payloadHashAlreadyInStore && !reBroadcast) {
@@ -739,11 +852,117 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                                              @Nullable NodeAddress sender,
                                              @Nullable BroadcastHandler.Listener listener,
                                              boolean allowBroadcast) {
-        ProtectedStoragePayload protectedStoragePayload = protectedStorageEntry.getProtectedStoragePayload();
-        ByteArray hashOfPayload = get32ByteHashAsByteArray(protectedStoragePayload);
-
+        ByteArray hashOfPayload = protectedStorageEntry.getHashOfPayload();
         log.trace("## call addProtectedStorageEntry hash={}, map={}", hashOfPayload, printMap());
 
+        if (!canAddProtectedStorageEntry(protectedStorageEntry, sender, true)) {
+            return false;
+        }
+
+        applyAddProtectedStorageEntry(protectedStorageEntry);
+        hashMapChangedListeners.forEach(e -> e.onAdded(Collections.singletonList(protectedStorageEntry)));
+        requestPersistence();
+
+        log.trace("## ProtectedStorageEntry added to map. hash={}, map={}", hashOfPayload, printMap());
+
+        // Optionally, broadcast the add/update depending on the calling environment
+        if (allowBroadcast) {
+            broadcaster.broadcast(new AddDataMessage(protectedStorageEntry), sender, listener);
+            log.trace("## broadcasted ProtectedStorageEntry. hash={}", hashOfPayload);
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the entries which passed the checks of an add operation which do not depend on other entries of the
+     * batch, most importantly the signature check. The checks are done in parallel for larger batches. The order of
+     * the entries is kept.
+     * Blocks the calling (user) thread until all entries are verified, so the state read by the checks does not
+     * change while they run.
+     */
+    @VisibleForTesting
+    List<ProtectedStorageEntry> verifyProtectedStorageEntriesForAdd(Collection<ProtectedStorageEntry> entries) {
+        List<ProtectedStorageEntry> entryList = new ArrayList<>(entries);
+        if (entryList.size() < MIN_ENTRIES_FOR_PARALLEL_VERIFICATION) {
+            return filterVerifiedForAdd(entryList);
+        }
+
+        int chunkSize = (entryList.size() + VERIFICATION_THREADS - 1) / VERIFICATION_THREADS;
+        List<Callable<List<ProtectedStorageEntry>>> tasks = new ArrayList<>();
+        for (int i = 0; i < entryList.size(); i += chunkSize) {
+            List<ProtectedStorageEntry> chunk = entryList.subList(i, Math.min(i + chunkSize, entryList.size()));
+            tasks.add(() -> filterVerifiedForAdd(chunk));
+        }
+
+        try {
+            List<ProtectedStorageEntry> result = new ArrayList<>();
+            for (Future<List<ProtectedStorageEntry>> future : getVerificationExecutor().invokeAll(tasks)) {
+                result.addAll(future.get());
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Parallel verification got interrupted. We verify on the calling thread.");
+            return filterVerifiedForAdd(entryList);
+        } catch (ExecutionException | RejectedExecutionException e) {
+            log.error("Parallel verification failed. We verify on the calling thread. {}", e.toString());
+            return filterVerifiedForAdd(entryList);
+        }
+    }
+
+    private List<ProtectedStorageEntry> filterVerifiedForAdd(List<ProtectedStorageEntry> entries) {
+        return entries.stream()
+                .filter(entry -> {
+                    // Computes and caches the hash as well
+                    ByteArray hashOfPayload = entry.getHashOfPayload();
+                    // Skip the expensive checks for entries we have already
+                    if (map.containsKey(hashOfPayload) &&
+                            !hasSequenceNrIncreased(entry.getSequenceNumber(), hashOfPayload)) {
+                        return false;
+                    }
+                    return !entry.isExpired(clock) && entry.isValidForAddOperation();
+                })
+                .collect(Collectors.toList());
+    }
+
+    private ExecutorService getVerificationExecutor() {
+        if (verificationExecutor == null) {
+            verificationExecutor = Utilities.getThreadPoolExecutor("ProtectedStorageEntryVerifier-%d",
+                    VERIFICATION_THREADS, VERIFICATION_THREADS, 60, new LinkedBlockingQueue<>());
+        }
+        return verificationExecutor;
+    }
+
+    /**
+     * Adds entries which have been verified with verifyProtectedStorageEntriesForAdd. The remaining checks are
+     * applied in the order of the entries. Listeners get notified once with all added entries.
+     *
+     * @return Number of added entries
+     */
+    private int addVerifiedProtectedStorageEntries(List<ProtectedStorageEntry> verifiedEntries,
+                                                   @Nullable NodeAddress sender) {
+        List<ProtectedStorageEntry> addedEntries = new ArrayList<>();
+        verifiedEntries.forEach(protectedStorageEntry -> {
+            if (canAddProtectedStorageEntry(protectedStorageEntry, sender, false)) {
+                applyAddProtectedStorageEntry(protectedStorageEntry);
+                addedEntries.add(protectedStorageEntry);
+            }
+        });
+
+        if (!addedEntries.isEmpty()) {
+            hashMapChangedListeners.forEach(e -> e.onAdded(addedEntries));
+            requestPersistence();
+        }
+        return addedEntries.size();
+    }
+
+    private boolean canAddProtectedStorageEntry(ProtectedStorageEntry protectedStorageEntry,
+                                                @Nullable NodeAddress sender,
+                                                boolean verifyForAddOperation) {
+        ProtectedStoragePayload protectedStoragePayload = protectedStorageEntry.getProtectedStoragePayload();
+        ByteArray hashOfPayload = protectedStorageEntry.getHashOfPayload();
+
         // We do that check early as it is a very common case for returning, so we return early
         // If we have seen a more recent operation for this payload and we have a payload locally, ignore it
         ProtectedStorageEntry storedEntry = map.get(hashOfPayload);
@@ -776,7 +995,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         }
 
         // Verify the ProtectedStorageEntry is well formed and valid for the add operation
-        if (!protectedStorageEntry.isValidForAddOperation()) {
+        if (verifyForAddOperation && !protectedStorageEntry.isValidForAddOperation()) {
             log.trace("## !isValidForAddOperation hash={}", hashOfPayload);
             return false;
         }
@@ -787,26 +1006,20 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             return false;
         }
 
-        // This is an updated entry. Record it and signal listeners.
-        map.put(hashOfPayload, protectedStorageEntry);
-        hashMapChangedListeners.forEach(e -> e.onAdded(Collections.singletonList(protectedStorageEntry)));
-
-        // Record the updated sequence number and persist it. Higher delay so we can batch more items.
-        sequenceNumberMap.put(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
-        requestPersistence();
+        return true;
+    }
 
-        log.trace("## ProtectedStorageEntry added to map. hash={}, map={}", hashOfPayload, printMap());
+    // Records the entry and its sequence number. The caller signals the listeners and requests persistence.
+    private void applyAddProtectedStorageEntry(ProtectedStorageEntry protectedStorageEntry) {
+        ByteArray hashOfPayload = protectedStorageEntry.getHashOfPayload();
+        map.put(hashOfPayload, protectedStorageEntry);
+        updateExpirationIndex(hashOfPayload, protectedStorageEntry);
+        getDataResponseCache.onProtectedStorageEntryChanged(hashOfPayload);
+        putSequenceNumber(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
 
-        // Optionally, broadcast the add/update depending on the calling environment
-        if (allowBroadcast) {
-            broadcaster.broadcast(new AddDataMessage(protectedStorageEntry), sender, listener);
-            log.trace("## broadcasted ProtectedStorageEntry. hash={}", hashOfPayload);
-        }
         // Persist ProtectedStorageEntries carrying PersistablePayload payloads
-        if (protectedStoragePayload instanceof PersistablePayload)
+        if (protectedStorageEntry.getProtectedStoragePayload() instanceof PersistablePayload)
             protectedDataStoreService.put(hashOfPayload, protectedStorageEntry);
-
-        return true;
     }
 
     /**
@@ -821,7 +1034,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                                                               @Nullable NodeAddress sender,
                                                               @Nullable BroadcastHandler.Listener listener) {
         ProtectedStoragePayload protectedStoragePayload = protectedMailboxStorageEntry.getProtectedStoragePayload();
-        ByteArray hashOfPayload = get32ByteHashAsByteArray(protectedStoragePayload);
+        ByteArray hashOfPayload = protectedMailboxStorageEntry.getHashOfPayload();
 
         log.trace("## call republishProtectedStorageEntry hash={}, map={}", hashOfPayload, printMap());
 
@@ -878,9 +1091,11 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
         // Update the hash map with the updated entry
         map.put(hashOfPayload, updatedEntry);
+        updateExpirationIndex(hashOfPayload, updatedEntry);
+        getDataResponseCache.onProtectedStorageEntryChanged(hashOfPayload);
 
         // Record the latest sequence number and persist it
-        sequenceNumberMap.put(hashOfPayload, new MapValue(updatedEntry.getSequenceNumber(), this.clock.millis()));
+        putSequenceNumber(hashOfPayload, new MapValue(updatedEntry.getSequenceNumber(), this.clock.millis()));
         requestPersistence();
 
         // Always broadcast refreshes
@@ -900,7 +1115,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     public boolean remove(ProtectedStorageEntry protectedStorageEntry,
                           @Nullable NodeAddress sender) {
         ProtectedStoragePayload protectedStoragePayload = protectedStorageEntry.getProtectedStoragePayload();
-        ByteArray hashOfPayload = get32ByteHashAsByteArray(protectedStoragePayload);
+        ByteArray hashOfPayload = protectedStorageEntry.getHashOfPayload();
 
         // If we have seen a more recent operation for this payload, ignore this one
         if (!hasSequenceNrIncreased(protectedStorageEntry.getSequenceNumber(), hashOfPayload))
@@ -916,7 +1131,7 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             return false;
 
         // Record the latest sequence number and persist it
-        sequenceNumberMap.put(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
+        putSequenceNumber(hashOfPayload, new MapValue(protectedStorageEntry.getSequenceNumber(), this.clock.millis()));
         requestPersistence();
 
         // Update that we have seen this AddOncePayload so the next time it is seen it fails verification
@@ -946,14 +1161,15 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     public ProtectedStorageEntry getProtectedStorageEntry(ProtectedStoragePayload protectedStoragePayload,
                                                           KeyPair ownerStoragePubKey)
             throws CryptoException {
-        ByteArray hashOfData = get32ByteHashAsByteArray(protectedStoragePayload);
+        protobuf.StoragePayload storagePayload = (protobuf.StoragePayload) protectedStoragePayload.toProtoMessage();
+        ByteArray hashOfData = new ByteArray(get32ByteHash(storagePayload));
         int sequenceNumber;
         if (sequenceNumberMap.containsKey(hashOfData))
             sequenceNumber = sequenceNumberMap.get(hashOfData).sequenceNr + 1;
         else
             sequenceNumber = 1;
 
-        byte[] hashOfDataAndSeqNr = P2PDataStorage.get32ByteHash(new DataAndSeqNrPair(protectedStoragePayload, sequenceNumber));
+        byte[] hashOfDataAndSeqNr = get32ByteHash(storagePayload, sequenceNumber);
         byte[] signature = Sig.sign(ownerStoragePubKey.getPrivate(), hashOfDataAndSeqNr);
         return new ProtectedStorageEntry(protectedStoragePayload, ownerStoragePubKey.getPublic(), sequenceNumber, signature, this.clock);
     }
@@ -961,14 +1177,15 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
     public RefreshOfferMessage getRefreshTTLMessage(ProtectedStoragePayload protectedStoragePayload,
                                                     KeyPair ownerStoragePubKey)
             throws CryptoException {
-        ByteArray hashOfPayload = get32ByteHashAsByteArray(protectedStoragePayload);
+        protobuf.StoragePayload storagePayload = (protobuf.StoragePayload) protectedStoragePayload.toProtoMessage();
+        ByteArray hashOfPayload = new ByteArray(get32ByteHash(storagePayload));
         int sequenceNumber;
         if (sequenceNumberMap.containsKey(hashOfPayload))
             sequenceNumber = sequenceNumberMap.get(hashOfPayload).sequenceNr + 1;
         else
             sequenceNumber = 1;
 
-        byte[] hashOfDataAndSeqNr = P2PDataStorage.get32ByteHash(new DataAndSeqNrPair(protectedStoragePayload, sequenceNumber));
+        byte[] hashOfDataAndSeqNr = get32ByteHash(storagePayload, sequenceNumber);
         byte[] signature = Sig.sign(ownerStoragePubKey.getPrivate(), hashOfDataAndSeqNr);
         return new RefreshOfferMessage(hashOfDataAndSeqNr, signature, hashOfPayload.bytes, sequenceNumber);
     }
@@ -977,14 +1194,15 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
                                                                       KeyPair storageSignaturePubKey,
                                                                       PublicKey receiversPublicKey)
             throws CryptoException {
-        ByteArray hashOfData = get32ByteHashAsByteArray(expirableMailboxStoragePayload);
+        protobuf.StoragePayload storagePayload = (protobuf.StoragePayload) expirableMailboxStoragePayload.toProtoMessage();
+        ByteArray hashOfData = new ByteArray(get32ByteHash(storagePayload));
         int sequenceNumber;
         if (sequenceNumberMap.containsKey(hashOfData))
             sequenceNumber = sequenceNumberMap.get(hashOfData).sequenceNr + 1;
         else
             sequenceNumber = 1;
 
-        byte[] hashOfDataAndSeqNr = P2PDataStorage.get32ByteHash(new DataAndSeqNrPair(expirableMailboxStoragePayload, sequenceNumber));
+        byte[] hashOfDataAndSeqNr = get32ByteHash(storagePayload, sequenceNumber);
         byte[] signature = Sig.sign(storageSignaturePubKey.getPrivate(), hashOfDataAndSeqNr);
         return new ProtectedMailboxStorageEntry(expirableMailboxStoragePayload,
                 storageSignaturePubKey.getPublic(), sequenceNumber, signature, receiversPublicKey, this.clock);
@@ -1025,6 +1243,8 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
 
             log.trace("## removeFromMapAndDataStore: hashOfPayload={}, map before remove={}", hashOfPayload, printMap());
             map.remove(hashOfPayload);
+            expirationIndex.remove(hashOfPayload);
+            getDataResponseCache.onProtectedStorageEntryChanged(hashOfPayload);
             log.trace("## removeFromMapAndDataStore: map after remove={}", printMap());
 
             // We inform listeners even the entry was not found in our map
@@ -1074,13 +1294,42 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         persistenceManager.requestPersistence();
     }
 
+    private void updateExpirationIndex(ByteArray hashOfPayload, ProtectedStorageEntry protectedStorageEntry) {
+        ProtectedStoragePayload protectedStoragePayload = protectedStorageEntry.getProtectedStoragePayload();
+        if (!(protectedStoragePayload instanceof ExpirablePayload)) {
+            expirationIndex.remove(hashOfPayload);
+            return;
+        }
+
+        // Same condition as in ProtectedStorageEntry.isExpired: expired if the time is after creationTimeStamp + TTL
+        long creationTimeStamp = protectedStorageEntry.getCreationTimeStamp();
+        long ttl = ((ExpirablePayload) protectedStoragePayload).getTTL();
+        if (ttl > Long.MAX_VALUE - creationTimeStamp) {
+            expirationIndex.remove(hashOfPayload);
+        } else {
+            expirationIndex.put(hashOfPayload, creationTimeStamp + ttl);
+        }
+    }
+
+    private void putSequenceNumber(ByteArray hashOfPayload, MapValue mapValue) {
+        sequenceNumberMap.put(hashOfPayload, mapValue);
+        sequenceNumberAgeIndex.put(hashOfPayload, mapValue.timeStamp);
+    }
+
+    private void setSequenceNumberMap(Map<ByteArray, MapValue> map) {
+        sequenceNumberMap.setMap(map);
+        sequenceNumberAgeIndex.clear();
+        map.forEach((hash, mapValue) -> sequenceNumberAgeIndex.put(hash, mapValue.timeStamp));
+    }
+
     public static ByteArray get32ByteHashAsByteArray(NetworkPayload data) {
         return new ByteArray(P2PDataStorage.get32ByteHash(data));
     }
 
     // Get a new map with entries older than PURGE_AGE_DAYS purged from the given map.
     private Map<ByteArray, MapValue> getPurgedSequenceNumberMap(Map<ByteArray, MapValue> persisted) {
-        Map<ByteArray, MapValue> purged = new HashMap<>();
+        // The map gets updated on the user thread while it gets persisted on another thread
+        Map<ByteArray, MapValue> purged = new ConcurrentHashMap<>();
         long maxAgeTs = this.clock.millis() - TimeUnit.DAYS.toMillis(PURGE_AGE_DAYS);
         persisted.forEach((key, value) -> {
             if (value.timeStamp > maxAgeTs)
@@ -1095,13 +1344,13 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             sb.append("Data set ").append(info).append(" operation");
             // We print the items sorted by hash with the payload class name and id
             List<Tuple2<String, ProtectedStorageEntry>> tempList = map.values().stream()
-                    .map(e -> new Tuple2<>(org.bitcoinj.core.Utils.HEX.encode(get32ByteHashAsByteArray(e.getProtectedStoragePayload()).bytes), e))
+                    .map(e -> new Tuple2<>(org.bitcoinj.core.Utils.HEX.encode(e.getHashOfPayload().bytes), e))
                     .sorted(Comparator.comparing(o -> o.first))
                     .collect(Collectors.toList());
             tempList.forEach(e -> {
                 ProtectedStorageEntry storageEntry = e.second;
                 ProtectedStoragePayload protectedStoragePayload = storageEntry.getProtectedStoragePayload();
-                MapValue mapValue = sequenceNumberMap.get(get32ByteHashAsByteArray(protectedStoragePayload));
+                MapValue mapValue = sequenceNumberMap.get(storageEntry.getHashOfPayload());
                 sb.append("\n")
                         .append("Hash=")
                         .append(e.first)
@@ -1142,6 +1391,26 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         return Hash.getSha256Hash(data.toProtoMessage().toByteArray());
     }
 
+    /**
+     * Used if the protobuf message of the payload is already available to avoid building it again.
+     * @param storagePayload Protobuf message of a ProtectedStoragePayload
+     * @return Hash of data
+     */
+    public static byte[] get32ByteHash(protobuf.StoragePayload storagePayload) {
+        return Hash.getSha256Hash(storagePayload.toByteArray());
+    }
+
+    /**
+     * Same result as get32ByteHash(new DataAndSeqNrPair(protectedStoragePayload, sequenceNumber)) but reuses the
+     * protobuf message of the payload.
+     * @param storagePayload Protobuf message of a ProtectedStoragePayload
+     * @param sequenceNumber Sequence number
+     * @return Hash of data and sequenceNumber
+     */
+    public static byte[] get32ByteHash(protobuf.StoragePayload storagePayload, int sequenceNumber) {
+        return Hash.getSha256Hash(DataAndSeqNrPair.toProtoMessage(storagePayload, sequenceNumber).toByteArray());
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Static class
@@ -1165,8 +1434,13 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
         // Used only for calculating hash of byte array from PB object
         @Override
         public com.google.protobuf.Message toProtoMessage() {
+            return toProtoMessage((protobuf.StoragePayload) protectedStoragePayload.toProtoMessage(), sequenceNumber);
+        }
+
+        private static protobuf.DataAndSeqNrPair toProtoMessage(protobuf.StoragePayload storagePayload,
+                                                                int sequenceNumber) {
             return protobuf.DataAndSeqNrPair.newBuilder()
-                    .setPayload((protobuf.StoragePayload) protectedStoragePayload.toProtoMessage())
+                    .setPayload(storagePayload)
                     .setSequenceNumber(sequenceNumber)
                     .build();
         }
@@ -1249,4 +1523,39 @@ public class P2PDataStorage implements MessageListener, ConnectionListener, Pers
             return new MapValue(proto.getSequenceNr(), proto.getTimeStamp());
         }
     }
+
+    // Hash of a DateSortedTruncatablePayload with the values needed for the truncation, so the payload is not kept
+    private static final class DatedHash {
+        private final ByteArray hash;
+        private final Date date;
+        private final int maxItems;
+
+        private DatedHash(ByteArray hash, DateSortedTruncatablePayload payload) {
+            this.hash = hash;
+            this.date = payload.getDate();
+            this.maxItems = payload.maxItems();
+        }
+    }
+
+    // Read-only set of the values of the given map for the given distinct hashes. The values are looked up while
+    // iterating, so historical payloads are decoded only when a GetDataResponse gets serialized.
+    private static final class ValuesByHashView<V> extends AbstractSet<V> {
+        private final Map<ByteArray, V> map;
+        private final List<ByteArray> hashes;
+
+        private ValuesByHashView(Map<ByteArray, V> map, List<ByteArray> hashes) {
+            this.map = map;
+            this.hashes = hashes;
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return Iterators.unmodifiableIterator(Iterators.transform(hashes.iterator(), map::get));
+        }
+
+        @Override
+        public int size() {
+            return hashes.size();
+        }
+    }
 }
@@ -0,0 +1,83 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Index of hashes sorted by a timestamp, used to find the entries with a timestamp before a given time without
+ * iterating over all entries. Each hash has at most one timestamp.
+ * Not thread safe. P2PDataStorage uses it only from the user thread.
+ */
+class TimestampIndex {
+    private final TreeMap<Long, Set<P2PDataStorage.ByteArray>> hashesByTimestamp = new TreeMap<>();
+    private final Map<P2PDataStorage.ByteArray, Long> timestampByHash = new HashMap<>();
+
+    void put(P2PDataStorage.ByteArray hash, long timestamp) {
+        Long previous = timestampByHash.put(hash, timestamp);
+        if (previous != null) {
+            if (previous == timestamp) {
+                return;
+            }
+            removeFromTimestamp(hash, previous);
+        }
+        hashesByTimestamp.computeIfAbsent(timestamp, e -> new HashSet<>()).add(hash);
+    }
+
+    void remove(P2PDataStorage.ByteArray hash) {
+        Long timestamp = timestampByHash.remove(hash);
+        if (timestamp != null) {
+            removeFromTimestamp(hash, timestamp);
+        }
+    }
+
+    void clear() {
+        hashesByTimestamp.clear();
+        timestampByHash.clear();
+    }
+
+    /**
+     * @param time  Exclusive upper bound
+     * @return The hashes with a timestamp before the given time, oldest first.
+     */
+    List<P2PDataStorage.ByteArray> getHashesBefore(long time) {
+        List<P2PDataStorage.ByteArray> result = new ArrayList<>();
+        hashesByTimestamp.headMap(time, false).values().forEach(result::addAll);
+        return result;
+    }
+
+    int size() {
+        return timestampByHash.size();
+    }
+
+    private void removeFromTimestamp(P2PDataStorage.ByteArray hash, long timestamp) {
+        Set<P2PDataStorage.ByteArray> hashes = hashesByTimestamp.get(timestamp);
+        if (hashes != null) {
+            hashes.remove(hash);
+            if (hashes.isEmpty()) {
+                hashesByTimestamp.remove(timestamp);
+            }
+        }
+    }
+}
@@ -76,10 +76,22 @@ public class ProtectedMailboxStorageEntry extends ProtectedStorageEntry {
         this.receiversPubKeyBytes = receiversPubKeyBytes;
     }
 
+    private ProtectedMailboxStorageEntry(ProtectedMailboxStorageEntry protectedMailboxStorageEntry) {
+        super(protectedMailboxStorageEntry);
+
+        this.receiversPubKey = protectedMailboxStorageEntry.receiversPubKey;
+        this.receiversPubKeyBytes = protectedMailboxStorageEntry.receiversPubKeyBytes;
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    @Override
+    public ProtectedMailboxStorageEntry copy() {
+        return new ProtectedMailboxStorageEntry(this);
+    }
+
     public MailboxStoragePayload getMailboxStoragePayload() {
         return (MailboxStoragePayload) getProtectedStoragePayload();
     }
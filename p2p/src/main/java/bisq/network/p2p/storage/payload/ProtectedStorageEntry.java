@@ -35,12 +35,21 @@ import java.security.PublicKey;
 
 import java.time.Clock;
 
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
 import org.jetbrains.annotations.NotNull;
 
+import javax.annotation.Nullable;
+
+/**
+ * Wraps a ProtectedStoragePayload with the signature of its owner. A payload is frozen once it is wrapped: the
+ * signature and the cached hashes are only valid for the payload as it was when the entry got created. Code which
+ * needs a changed payload, e.g. to verify a signature over the payload without that signature, has to work on a
+ * copy.
+ */
 @Getter
 @EqualsAndHashCode
 @Slf4j
@@ -52,6 +61,17 @@ public class ProtectedStorageEntry implements NetworkPayload, PersistablePayload
     private final byte[] signature;
     private long creationTimeStamp;
 
+    // The payload is not allowed to change once it is wrapped into a signed entry (the signature would not match
+    // anymore), so we can calculate the hashes once and reuse them for all the map lookups and signature checks.
+    @Nullable
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    transient private volatile P2PDataStorage.ByteArray hashOfPayload;
+    @Nullable
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    transient private volatile byte[] hashOfDataAndSeqNr;
+
     public ProtectedStorageEntry(@NotNull ProtectedStoragePayload protectedStoragePayload,
                                  @NotNull PublicKey ownerPubKey,
                                  int sequenceNumber,
@@ -87,6 +107,18 @@ public class ProtectedStorageEntry implements NetworkPayload, PersistablePayload
         this.creationTimeStamp = Math.min(creationTimeStamp, clock.millis());
     }
 
+    // Used by copy(). All fields but the creation time stamp are immutable, so we share them.
+    protected ProtectedStorageEntry(ProtectedStorageEntry protectedStorageEntry) {
+        this.protectedStoragePayload = protectedStorageEntry.protectedStoragePayload;
+        this.ownerPubKeyBytes = protectedStorageEntry.ownerPubKeyBytes;
+        this.ownerPubKey = protectedStorageEntry.ownerPubKey;
+        this.sequenceNumber = protectedStorageEntry.sequenceNumber;
+        this.signature = protectedStorageEntry.signature;
+        this.creationTimeStamp = protectedStorageEntry.creationTimeStamp;
+        this.hashOfPayload = protectedStorageEntry.hashOfPayload;
+        this.hashOfDataAndSeqNr = protectedStorageEntry.hashOfDataAndSeqNr;
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // PROTO BUFFER
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -137,6 +169,42 @@ public class ProtectedStorageEntry implements NetworkPayload, PersistablePayload
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    /**
+     * @return The hash of the payload which is used as key in the P2PDataStorage map. The value is calculated lazily
+     * and cached.
+     */
+    public P2PDataStorage.ByteArray getHashOfPayload() {
+        if (hashOfPayload == null)
+            calculateHashes();
+        return hashOfPayload;
+    }
+
+    /**
+     * @return The hash of the payload and sequence number which is signed by the entry owner. The value is
+     * calculated lazily and cached.
+     */
+    public byte[] getHashOfDataAndSeqNr() {
+        if (hashOfDataAndSeqNr == null)
+            calculateHashes();
+        return hashOfDataAndSeqNr;
+    }
+
+    // Both hashes are derived from the same serialized payload, so we build the protobuf message only once.
+    // Concurrent callers might calculate the same values twice which is harmless.
+    private void calculateHashes() {
+        protobuf.StoragePayload storagePayload = (protobuf.StoragePayload) protectedStoragePayload.toProtoMessage();
+        hashOfDataAndSeqNr = P2PDataStorage.get32ByteHash(storagePayload, sequenceNumber);
+        hashOfPayload = new P2PDataStorage.ByteArray(P2PDataStorage.get32ByteHash(storagePayload));
+    }
+
+    /**
+     * @return A copy of the entry which is not affected by later back dating. Must be called from the thread which
+     * mutates the entry; the copy can then be read from any thread.
+     */
+    public ProtectedStorageEntry copy() {
+        return new ProtectedStorageEntry(this);
+    }
+
     public void backDate() {
         if (protectedStoragePayload instanceof ExpirablePayload)
             creationTimeStamp -= ((ExpirablePayload) protectedStoragePayload).getTTL() / 2;
@@ -204,10 +272,7 @@ public class ProtectedStorageEntry implements NetworkPayload, PersistablePayload
      */
     boolean isSignatureValid() {
         try {
-            byte[] hashOfDataAndSeqNr = P2PDataStorage.get32ByteHash(
-                    new P2PDataStorage.DataAndSeqNrPair(this.protectedStoragePayload, this.sequenceNumber));
-
-            boolean result = Sig.verify(this.ownerPubKey, hashOfDataAndSeqNr, this.signature);
+            boolean result = Sig.verify(this.ownerPubKey, getHashOfDataAndSeqNr(), this.signature);
 
             if (!result)
                 log.warn("ProtectedStorageEntry::isSignatureValid() failed.\n{}}", this);
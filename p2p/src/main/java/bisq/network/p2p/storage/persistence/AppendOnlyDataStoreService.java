@@ -76,15 +76,18 @@ public class AppendOnlyDataStoreService {
     }
 
 
+    // View of the data of all services. Historical payloads are only decoded when they are accessed.
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMap() {
-        return services.stream()
-                .flatMap(service -> {
-                    Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> map = service instanceof HistoricalDataStoreService ?
-                            ((HistoricalDataStoreService) service).getMapOfAllData() :
-                            service.getMap();
-                    return map.entrySet().stream();
-                })
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        return new UnionMapView<>(services.stream()
+                .map(service -> service instanceof HistoricalDataStoreService ?
+                        ((HistoricalDataStoreService<?>) service).getMapViewOfAllData() :
+                        service.getMap())
+                .collect(Collectors.toList()));
+    }
+
+    // Asks the services directly, without creating the views of getMap
+    public boolean containsKey(P2PDataStorage.ByteArray hashAsByteArray) {
+        return services.stream().anyMatch(service -> service.containsKey(hashAsByteArray));
     }
 
     public void put(P2PDataStorage.ByteArray hashAsByteArray, PersistableNetworkPayload payload) {
@@ -20,31 +20,45 @@ package bisq.network.p2p.storage.persistence;
 import bisq.network.p2p.storage.P2PDataStorage;
 import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 
+import bisq.common.UserThread;
 import bisq.common.app.DevEnv;
 import bisq.common.app.Version;
 import bisq.common.persistence.PersistenceManager;
 
+import com.google.protobuf.CodedInputStream;
+
+import com.google.protobuf.WireFormat;
+
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 import java.io.File;
+import java.io.IOException;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import lombok.extern.slf4j.Slf4j;
 
+import javax.annotation.Nullable;
+
 /**
  * Manages historical data stores tagged with the release versions.
  * New data is added to the default map in the store (live data). Historical data is created from resource files.
  * For initial data requests we only use the live data as the users version is sent with the
  * request so the responding (seed)node can figure out if we miss any of the historical data.
+ * <p>
+ * The historical data never changes, so we do not keep it on the heap. The resource files are memory-mapped and
+ * payloads are only decoded when they are requested (see MappedHistoricalStore).
  */
 @Slf4j
 public abstract class HistoricalDataStoreService<T extends PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> extends MapStoreService<T, PersistableNetworkPayload> {
-    private ImmutableMap<String, PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> storesByVersion;
-    // Cache to avoid that we have to recreate the historical data at each request
-    private ImmutableMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads;
+    private ImmutableMap<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> storesByVersion = ImmutableMap.of();
 
 
     ///////////////////////////////////////////////////////////////////////////////////////////
@@ -60,36 +74,18 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
     // API
     ///////////////////////////////////////////////////////////////////////////////////////////
 
-    // We give back a map of our live map and all historical maps newer than the requested version.
+    // We give back a view of our live map and all historical maps newer than the requested version. Nothing is
+    // copied, so historical payloads are only decoded when they are accessed.
     // If requestersVersion is null we return all historical data.
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapSinceVersion(String requestersVersion) {
         // We add all our live data
-        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = new HashMap<>(store.getMap());
+        List<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> maps = new ArrayList<>();
+        maps.add(getMapOfLiveData());
 
         // If we have a store with a newer version than the requesters version we will add those as well.
-        storesByVersion.entrySet().stream()
-                .filter(entry -> {
-                    // Old nodes not sending the version will get delivered all data
-                    if (requestersVersion == null) {
-                        log.info("The requester did not send a version. This is expected for not updated nodes.");
-                        return true;
-                    }
-
-                    // Otherwise we only add data if the requesters version is older then
-                    // the version of the particular store.
-                    String storeVersion = entry.getKey();
-                    boolean newVersion = Version.isNewVersion(storeVersion, requestersVersion);
-                    String details = newVersion ?
-                            "As our historical store is a newer version we add the data to our result map." :
-                            "As the requester version is not older as our historical store we do not " +
-                                    "add the data to the result map.";
-                    log.info("The requester had version {}. Our historical data store has version {}.\n{}",
-                            requestersVersion, storeVersion, details);
-                    return newVersion;
-                })
-                .map(e -> e.getValue().getMap())
-                .forEach(result::putAll);
+        getStoreVersionsSinceVersion(requestersVersion).forEach(storeVersion -> maps.add(storesByVersion.get(storeVersion)));
 
+        Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = new UnionMapView<>(maps);
         log.info("We found {} entries since requesters version {}",
                 result.size(), requestersVersion);
         return result;
@@ -99,12 +95,34 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
         return store.getMap();
     }
 
+    // Decodes all historical payloads into a new map. Use getMapViewOfAllData where possible.
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapOfAllData() {
         Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> result = new HashMap<>(getMapOfLiveData());
-        result.putAll(allHistoricalPayloads);
+        storesByVersion.values().forEach(result::putAll);
         return result;
     }
 
+    // View of the live and all historical data. Lookups of keys are answered from the indexes and historical payloads
+    // are decoded only when a value is accessed, and are not retained by the view. The live data is pruned from
+    // historical payloads, so a payload is only iterated once unless historical stores of different versions
+    // contain it.
+    public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMapViewOfAllData() {
+        List<Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> maps = new ArrayList<>();
+        maps.add(getMapOfLiveData());
+        maps.addAll(storesByVersion.values());
+        return new UnionMapView<>(maps);
+    }
+
+    // View of the hashes of the live and all historical data. No payloads get decoded.
+    public Set<P2PDataStorage.ByteArray> getKeysOfAllData() {
+        return getMapViewOfAllData().keySet();
+    }
+
+    // View of the payloads of the live and all historical data. Historical payloads are decoded while iterating.
+    public Collection<PersistableNetworkPayload> getValuesOfAllData() {
+        return getMapViewOfAllData().values();
+    }
+
 
     ///////////////////////////////////////////////////////////////////////////////////////////
     // MapStoreService
@@ -113,10 +131,15 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
     @Override
     public Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> getMap() {
         DevEnv.logErrorAndThrowIfDevMode("HistoricalDataStoreService.getMap should not be used by domain " +
-                "clients but rather the custom methods getMapOfAllData, getMapOfLiveData or getMapSinceVersion");
+                "clients but rather the custom methods getMapViewOfAllData, getMapOfLiveData or getMapSinceVersion");
         return getMapOfAllData();
     }
 
+    @Override
+    boolean containsKey(P2PDataStorage.ByteArray hash) {
+        return anyMapContainsKey(hash);
+    }
+
     @Override
     protected void put(P2PDataStorage.ByteArray hash, PersistableNetworkPayload payload) {
         if (anyMapContainsKey(hash)) {
@@ -149,17 +172,14 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
                     getFileName(), getMapOfLiveData().size());
 
             // Now we add our historical data stores.
-            Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads = new HashMap<>();
-            Map<String, PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> storesByVersion = new HashMap<>();
+            Map<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> storesByVersion = new HashMap<>();
             AtomicInteger numFiles = new AtomicInteger(Version.HISTORICAL_RESOURCE_FILE_VERSION_TAGS.size());
             Version.HISTORICAL_RESOURCE_FILE_VERSION_TAGS.forEach(version -> readHistoricalStoreFromResources(version,
                     postFix,
-                    allHistoricalPayloads,
                     storesByVersion,
                     () -> {
                         if (numFiles.decrementAndGet() == 0) {
                             // At last iteration we set the immutable map
-                            this.allHistoricalPayloads = ImmutableMap.copyOf(allHistoricalPayloads);
                             this.storesByVersion = ImmutableMap.copyOf(storesByVersion);
                             completeHandler.run();
                         }
@@ -168,35 +188,120 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
     }
 
 
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Protected
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Decodes a single payload of the historical store file
+    protected abstract PersistableNetworkPayload decodeHistoricalPayload(CodedInputStream input) throws IOException;
+
+    // Reads only the hash of a single payload of the historical store file, so the index of the mapped store is
+    // built without decoding the payloads. Returns null if the hash cannot be read without decoding the payload.
+    @Nullable
+    protected byte[] decodeHistoricalPayloadHash(CodedInputStream input) throws IOException {
+        return null;
+    }
+
+    // Returns the value of the bytes field with the given field number, or null if the message does not contain it
+    @Nullable
+    public static byte[] readBytesField(CodedInputStream input, int fieldNumber) throws IOException {
+        while (!input.isAtEnd()) {
+            int tag = input.readTag();
+            if (WireFormat.getTagFieldNumber(tag) == fieldNumber &&
+                    WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+                return input.readByteArray();
+            }
+            input.skipField(tag);
+        }
+        return null;
+    }
+
+
     ///////////////////////////////////////////////////////////////////////////////////////////
     // Private
     ///////////////////////////////////////////////////////////////////////////////////////////
 
+    // The versions of the historical stores which are newer than the requesters version.
+    // If requestersVersion is null we return all versions.
+    private Set<String> getStoreVersionsSinceVersion(@Nullable String requestersVersion) {
+        return storesByVersion.keySet().stream()
+                .filter(storeVersion -> {
+                    // Old nodes not sending the version will get delivered all data
+                    if (requestersVersion == null) {
+                        log.info("The requester did not send a version. This is expected for not updated nodes.");
+                        return true;
+                    }
+
+                    // Otherwise we only add data if the requesters version is older then
+                    // the version of the particular store.
+                    boolean newVersion = Version.isNewVersion(storeVersion, requestersVersion);
+                    String details = newVersion ?
+                            "As our historical store is a newer version we add the data to our result map." :
+                            "As the requester version is not older as our historical store we do not " +
+                                    "add the data to the result map.";
+                    log.info("The requester had version {}. Our historical data store has version {}.\n{}",
+                            requestersVersion, storeVersion, details);
+                    return newVersion;
+                })
+                .collect(ImmutableSet.toImmutableSet());
+    }
+
     private void readHistoricalStoreFromResources(String version,
                                                   String postFix,
-                                                  Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> allHistoricalPayloads,
-                                                  Map<String, PersistableNetworkPayloadStore<? extends PersistableNetworkPayload>> storesByVersion,
+                                                  Map<String, Map<P2PDataStorage.ByteArray, PersistableNetworkPayload>> storesByVersion,
                                                   Runnable completeHandler) {
 
         String fileName = getFileName() + "_" + version;
-        boolean wasCreatedFromResources = makeFileFromResourceFile(fileName, postFix);
+        makeFileFromResourceFile(fileName, postFix);
 
         // If resource file does not exist we do not create a new store as it would never get filled.
-        persistenceManager.readPersisted(fileName, persisted -> {
-                    storesByVersion.put(version, persisted);
-                    allHistoricalPayloads.putAll(persisted.getMap());
-                    log.info("We have read from {} {} historical items.", fileName, persisted.getMap().size());
-                    pruneStore(persisted, version);
+        File storageFile = new File(absolutePathOfStorageDir, fileName);
+        if (!storageFile.exists()) {
+            completeHandler.run();
+            return;
+        }
+
+        new Thread(() -> {
+            long ts = System.currentTimeMillis();
+            try {
+                MappedHistoricalStore mappedStore = MappedHistoricalStore.map(storageFile,
+                        new MappedHistoricalStore.PayloadDecoder() {
+                            @Override
+                            public PersistableNetworkPayload decode(CodedInputStream input) throws IOException {
+                                return decodeHistoricalPayload(input);
+                            }
+
+                            @Override
+                            public byte[] decodeHash(CodedInputStream input) throws IOException {
+                                return decodeHistoricalPayloadHash(input);
+                            }
+                        });
+                log.info("We have mapped {} historical items from {} in {} ms. The index uses {} bytes.",
+                        mappedStore.size(), fileName, System.currentTimeMillis() - ts, mappedStore.getIndexSizeInBytes());
+                UserThread.execute(() -> {
+                    storesByVersion.put(version, mappedStore);
+                    pruneStore(mappedStore, version);
                     completeHandler.run();
-                },
-                completeHandler::run);
+                });
+            } catch (Throwable t) {
+                // We fall back to reading the store into the heap. The persistenceManager also handles corrupted files.
+                log.warn("Mapping {} failed. We read it with the persistenceManager instead. {}", fileName, t.toString());
+                persistenceManager.readPersisted(fileName, persisted -> {
+                            storesByVersion.put(version, persisted.getMap());
+                            log.info("We have read from {} {} historical items.", fileName, persisted.getMap().size());
+                            pruneStore(persisted.getMap(), version);
+                            completeHandler.run();
+                        },
+                        completeHandler::run);
+            }
+        }, "HistoricalDataStoreService-read-" + fileName).start();
     }
 
-    private void pruneStore(PersistableNetworkPayloadStore<? extends PersistableNetworkPayload> historicalStore,
+    private void pruneStore(Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> historicalMap,
                             String version) {
         Map<P2PDataStorage.ByteArray, PersistableNetworkPayload> mapOfLiveData = getMapOfLiveData();
         int preLive = mapOfLiveData.size();
-        mapOfLiveData.keySet().removeAll(historicalStore.getMap().keySet());
+        mapOfLiveData.keySet().removeIf(historicalMap::containsKey);
         int postLive = mapOfLiveData.size();
         if (preLive > postLive) {
             log.info("We pruned data from our live data store which are already contained in the historical data store with version {}. " +
@@ -209,6 +314,7 @@ public abstract class HistoricalDataStoreService<T extends PersistableNetworkPay
     }
 
     private boolean anyMapContainsKey(P2PDataStorage.ByteArray hash) {
-        return getMapOfLiveData().containsKey(hash) || allHistoricalPayloads.containsKey(hash);
+        return getMapOfLiveData().containsKey(hash) ||
+                storesByVersion.values().stream().anyMatch(map -> map.containsKey(hash));
     }
 }
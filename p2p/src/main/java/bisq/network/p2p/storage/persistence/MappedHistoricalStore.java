@@ -0,0 +1,378 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.WireFormat;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nullable;
+
+/**
+ * Read-only map of the payloads of a historical data store file. The file is memory-mapped and only a sorted index
+ * of the payload hashes with the position of the serialized payload in the file is kept on the heap. Payloads are
+ * decoded from the mapped file when they are accessed and are not retained.
+ * <p>
+ * The file is expected to contain a length delimited PersistableEnvelope holding a PersistableNetworkPayloadStore
+ * which has the payloads in the repeated field with field number 1.
+ */
+@Slf4j
+public final class MappedHistoricalStore extends AbstractMap<P2PDataStorage.ByteArray, PersistableNetworkPayload> {
+    private static final int ITEMS_FIELD_NUMBER = 1;
+
+    public interface PayloadDecoder {
+        PersistableNetworkPayload decode(CodedInputStream input) throws IOException;
+
+        // Reads only the hash of the payload, or returns null if the payload has to be decoded to get the hash
+        @Nullable
+        default byte[] decodeHash(CodedInputStream input) throws IOException {
+            return null;
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final PayloadDecoder decoder;
+    private final int hashLength;
+    // Hashes of all payloads in ascending order, each of hashLength bytes
+    private final byte[] sortedHashes;
+    // Position and length of the serialized payloads in the file in the order of sortedHashes
+    private final int[] positions;
+    private final int[] lengths;
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Constructor
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    public static MappedHistoricalStore map(File file, PayloadDecoder decoder) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return new MappedHistoricalStore(buffer, decoder);
+    }
+
+    private MappedHistoricalStore(ByteBuffer buffer, PayloadDecoder decoder) throws IOException {
+        this.buffer = buffer;
+        this.decoder = decoder;
+
+        // We read the hash of each payload, decoding it only if the decoder cannot read the hash alone. The payload
+        // objects are not kept.
+        List<IndexEntry> indexEntries = new ArrayList<>();
+        CodedInputStream input = CodedInputStream.newInstance(buffer.duplicate());
+        input.setSizeLimit(Integer.MAX_VALUE);
+        int envelopeEnd = readLengthDelimitedEnd(input, buffer.limit());
+        int storeTag = input.readTag();
+        if (WireFormat.getTagWireType(storeTag) != WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+            throw new InvalidProtocolBufferException("Unexpected envelope field with tag " + storeTag);
+        }
+        int storeEnd = readLengthDelimitedEnd(input, envelopeEnd);
+        while (input.getTotalBytesRead() < storeEnd) {
+            int tag = input.readTag();
+            if (WireFormat.getTagFieldNumber(tag) == ITEMS_FIELD_NUMBER &&
+                    WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+                int length = input.readRawVarint32();
+                int position = input.getTotalBytesRead();
+                if (length < 0 || position + length > storeEnd) {
+                    throw new InvalidProtocolBufferException("Payload exceeds store at position " + position);
+                }
+                byte[] hash = decoder.decodeHash(newInputStream(position, length));
+                if (hash == null || hash.length == 0) {
+                    hash = decode(position, length).getHash();
+                }
+                indexEntries.add(new IndexEntry(hash, position, length));
+                input.skipRawBytes(length);
+            } else {
+                input.skipField(tag);
+            }
+        }
+
+        indexEntries.sort((o1, o2) -> compare(o1.hash, o2.hash));
+        hashLength = indexEntries.isEmpty() ? 0 : indexEntries.get(0).hash.length;
+        List<IndexEntry> uniqueEntries = new ArrayList<>(indexEntries.size());
+        for (IndexEntry entry : indexEntries) {
+            if (entry.hash.length != hashLength) {
+                throw new InvalidProtocolBufferException("Payload hashes of different length are not supported");
+            }
+            if (uniqueEntries.isEmpty() || !Arrays.equals(uniqueEntries.get(uniqueEntries.size() - 1).hash, entry.hash)) {
+                uniqueEntries.add(entry);
+            }
+        }
+
+        int size = uniqueEntries.size();
+        sortedHashes = new byte[size * hashLength];
+        positions = new int[size];
+        lengths = new int[size];
+        for (int i = 0; i < size; i++) {
+            IndexEntry entry = uniqueEntries.get(i);
+            System.arraycopy(entry.hash, 0, sortedHashes, i * hashLength, hashLength);
+            positions[i] = entry.position;
+            lengths[i] = entry.length;
+        }
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // API
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    // Heap used by the index, not including the mapped file
+    public long getIndexSizeInBytes() {
+        return sortedHashes.length + 4L * positions.length + 4L * lengths.length;
+    }
+
+    @Override
+    public int size() {
+        return positions.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public PersistableNetworkPayload get(Object key) {
+        int index = indexOf(key);
+        return index >= 0 ? decodeAt(index) : null;
+    }
+
+    @Override
+    public Set<P2PDataStorage.ByteArray> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<P2PDataStorage.ByteArray> iterator() {
+                return new IndexIterator<>() {
+                    @Override
+                    P2PDataStorage.ByteArray get(int index) {
+                        return getHashAt(index);
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return MappedHistoricalStore.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload>> iterator() {
+                return new IndexIterator<>() {
+                    @Override
+                    Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload> get(int index) {
+                        return new LazyEntry(index);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return MappedHistoricalStore.this.size();
+            }
+        };
+    }
+
+
+    ///////////////////////////////////////////////////////////////////////////////////////////
+    // Private
+    ///////////////////////////////////////////////////////////////////////////////////////////
+
+    private int indexOf(Object key) {
+        if (!(key instanceof P2PDataStorage.ByteArray)) {
+            return -1;
+        }
+        byte[] hash = ((P2PDataStorage.ByteArray) key).bytes;
+        if (hash == null || hash.length != hashLength) {
+            return -1;
+        }
+
+        int low = 0;
+        int high = positions.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int result = compareAt(mid, hash);
+            if (result < 0) {
+                low = mid + 1;
+            } else if (result > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private P2PDataStorage.ByteArray getHashAt(int index) {
+        int offset = index * hashLength;
+        return new P2PDataStorage.ByteArray(Arrays.copyOfRange(sortedHashes, offset, offset + hashLength));
+    }
+
+    private PersistableNetworkPayload decodeAt(int index) {
+        try {
+            return decode(positions[index], lengths[index]);
+        } catch (IOException e) {
+            // The payload got decoded already when we built the index, so that is not expected
+            throw new IllegalStateException("Could not decode historical payload at position " + positions[index], e);
+        }
+    }
+
+    private PersistableNetworkPayload decode(int position, int length) throws IOException {
+        return decoder.decode(newInputStream(position, length));
+    }
+
+    private CodedInputStream newInputStream(int position, int length) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(position);
+        slice.limit(position + length);
+        return CodedInputStream.newInstance(slice.slice());
+    }
+
+    private int compareAt(int index, byte[] hash) {
+        int offset = index * hashLength;
+        for (int i = 0; i < hashLength; i++) {
+            int result = Integer.compare(sortedHashes[offset + i] & 0xff, hash[i] & 0xff);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    private static int compare(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            int result = Integer.compare(a[i] & 0xff, b[i] & 0xff);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    }
+
+    private static int readLengthDelimitedEnd(CodedInputStream input, int limit) throws IOException {
+        int length = input.readRawVarint32();
+        int end = input.getTotalBytesRead() + length;
+        if (length < 0 || end > limit) {
+            throw new InvalidProtocolBufferException("Invalid length " + length);
+        }
+        return end;
+    }
+
+    private static final class IndexEntry {
+        private final byte[] hash;
+        private final int position;
+        private final int length;
+
+        private IndexEntry(byte[] hash, int position, int length) {
+            this.hash = hash;
+            this.position = position;
+            this.length = length;
+        }
+    }
+
+    private abstract class IndexIterator<E> implements Iterator<E> {
+        private int next;
+
+        abstract E get(int index);
+
+        @Override
+        public boolean hasNext() {
+            return next < positions.length;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return get(next++);
+        }
+    }
+
+    // Decodes the payload only if the value is requested
+    private final class LazyEntry implements Map.Entry<P2PDataStorage.ByteArray, PersistableNetworkPayload> {
+        private final int index;
+
+        private LazyEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public P2PDataStorage.ByteArray getKey() {
+            return getHashAt(index);
+        }
+
+        @Override
+        public PersistableNetworkPayload getValue() {
+            return decodeAt(index);
+        }
+
+        @Override
+        public PersistableNetworkPayload setValue(PersistableNetworkPayload value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            return getKey().equals(entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return getKey().hashCode() ^ Objects.hashCode(getValue());
+        }
+    }
+}
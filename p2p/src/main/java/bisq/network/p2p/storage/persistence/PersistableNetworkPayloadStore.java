@@ -22,9 +22,14 @@ import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
 
 import bisq.common.proto.persistable.PersistableEnvelope;
 
+import com.google.protobuf.Message;
+
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
@@ -48,4 +53,17 @@ public abstract class PersistableNetworkPayloadStore<T extends PersistableNetwor
     public boolean containsKey(P2PDataStorage.ByteArray hash) {
         return map.containsKey(hash);
     }
+
+    @Override
+    public Message toProtoMessage() {
+        return toProtoMessage(map.values());
+    }
+
+    @Override
+    public Supplier<Message> snapshotPersistableMessage() {
+        List<PersistableNetworkPayload> payloads = new ArrayList<>(map.values());
+        return () -> toProtoMessage(payloads);
+    }
+
+    protected abstract Message toProtoMessage(Collection<PersistableNetworkPayload> payloads);
 }
@@ -21,9 +21,12 @@ import bisq.network.p2p.storage.P2PDataStorage;
 
 import bisq.common.proto.persistable.PersistableEnvelope;
 
+import com.google.protobuf.Message;
+
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import lombok.Getter;
@@ -53,6 +56,16 @@ public class SequenceNumberMap implements PersistableEnvelope {
 
     @Override
     public protobuf.PersistableEnvelope toProtoMessage() {
+        return toProtoMessage(map);
+    }
+
+    @Override
+    public Supplier<Message> snapshotPersistableMessage() {
+        Map<P2PDataStorage.ByteArray, P2PDataStorage.MapValue> snapshot = new HashMap<>(map);
+        return () -> toProtoMessage(snapshot);
+    }
+
+    private static protobuf.PersistableEnvelope toProtoMessage(Map<P2PDataStorage.ByteArray, P2PDataStorage.MapValue> map) {
         return protobuf.PersistableEnvelope.newBuilder()
                 .setSequenceNumberMap(protobuf.SequenceNumberMap.newBuilder()
                         .addAllSequenceNumberEntries(map.entrySet().stream()
@@ -92,4 +105,8 @@ public class SequenceNumberMap implements PersistableEnvelope {
     public void put(P2PDataStorage.ByteArray key, P2PDataStorage.MapValue value) {
         map.put(key, value);
     }
+
+    public void remove(P2PDataStorage.ByteArray key) {
+        map.remove(key);
+    }
 }
@@ -0,0 +1,106 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Read-only view of several maps as one map. Nothing is copied, so the payloads of a MappedHistoricalStore are only
+ * decoded when a value is accessed. Changes of the underlying maps are visible through the view.
+ * <p>
+ * The maps are expected to have disjoint keys. If a key is contained in several maps, get returns the value of the
+ * first of them, but the key is iterated and counted once per map.
+ */
+public final class UnionMapView<K, V> extends AbstractMap<K, V> {
+    private final List<Map<K, V>> maps;
+
+    public UnionMapView(List<? extends Map<K, V>> maps) {
+        this.maps = ImmutableList.copyOf(maps);
+    }
+
+    @Override
+    public int size() {
+        return maps.stream().mapToInt(Map::size).sum();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return maps.stream().allMatch(Map::isEmpty);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return maps.stream().anyMatch(map -> map.containsKey(key));
+    }
+
+    @Override
+    public V get(Object key) {
+        for (Map<K, V> map : maps) {
+            V value = map.get(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<K> iterator() {
+                return Iterators.unmodifiableIterator(
+                        Iterators.concat(maps.stream().map(map -> map.keySet().iterator()).iterator()));
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return UnionMapView.this.size();
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return Iterators.unmodifiableIterator(
+                        Iterators.concat(maps.stream().map(map -> map.entrySet().iterator()).iterator()));
+            }
+
+            @Override
+            public int size() {
+                return UnionMapView.this.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.network;
+
+import protobuf.NetworkEnvelope.MessageCase;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class EnvelopeCompressionTest {
+    private static final int MAX_SIZE = 10 * 1024 * 1024;
+
+    private static protobuf.NetworkEnvelope buildBundle(int numPings) {
+        protobuf.BundleOfEnvelopes.Builder bundle = protobuf.BundleOfEnvelopes.newBuilder();
+        for (int i = 0; i < numPings; i++) {
+            bundle.addEnvelopes(protobuf.NetworkEnvelope.newBuilder()
+                    .setMessageVersion(1)
+                    .setPing(protobuf.Ping.newBuilder().setNonce(i % 10).setLastRoundTripTime(100)));
+        }
+        return protobuf.NetworkEnvelope.newBuilder().setMessageVersion(1).setBundleOfEnvelopes(bundle).build();
+    }
+
+    @Test
+    public void compressAndDecompress() throws InvalidProtocolBufferException {
+        protobuf.NetworkEnvelope proto = buildBundle(5000);
+        assertTrue(EnvelopeCompression.isCompressionCandidate(proto));
+
+        protobuf.NetworkEnvelope compressed = EnvelopeCompression.compress(proto);
+        assertNotNull(compressed);
+        assertEquals(proto.getMessageVersion(), compressed.getMessageVersion());
+        assertTrue(compressed.getSerializedSize() < proto.getSerializedSize());
+
+        assertEquals(proto, EnvelopeCompression.decompress(compressed.getCompressedEnvelope(), MAX_SIZE));
+    }
+
+    @Test
+    public void smallEnvelopeIsNotCompressed() {
+        assertFalse(EnvelopeCompression.isCompressionCandidate(buildBundle(1)));
+    }
+
+    @Test
+    public void incompressibleDataIsNotCompressed() {
+        byte[] random = new byte[64 * 1024];
+        new Random(1).nextBytes(random);
+        protobuf.NetworkEnvelope proto = protobuf.NetworkEnvelope.newBuilder()
+                .setMessageVersion(1)
+                .setPrefixedSealedAndSignedMessage(protobuf.PrefixedSealedAndSignedMessage.newBuilder()
+                        .setAddressPrefixHash(ByteString.copyFrom(random)))
+                .build();
+
+        assertNull(EnvelopeCompression.compress(proto));
+    }
+
+    @Test(expected = InvalidProtocolBufferException.class)
+    public void declaredSizeAboveLimitIsRejected() throws InvalidProtocolBufferException {
+        protobuf.NetworkEnvelope compressed = EnvelopeCompression.compress(buildBundle(5000));
+        assertNotNull(compressed);
+
+        EnvelopeCompression.decompress(compressed.getCompressedEnvelope(), 1024);
+    }
+
+    @Test(expected = EnvelopeCompression.UncompressedSizeExceededException.class)
+    public void sizeAbovePermittedSizeOfMessageCaseIsRejected() throws InvalidProtocolBufferException {
+        protobuf.NetworkEnvelope compressed = EnvelopeCompression.compress(buildBundle(5000));
+        assertNotNull(compressed);
+
+        EnvelopeCompression.decompress(compressed.getCompressedEnvelope(),
+                messageCase -> messageCase == MessageCase.BUNDLE_OF_ENVELOPES ? 1024 : MAX_SIZE);
+    }
+
+    @Test(expected = InvalidProtocolBufferException.class)
+    public void messageCaseNotMatchingThePrefixIsRejected() throws InvalidProtocolBufferException {
+        // The bundle in the prefix gets replaced by the sealed message following it when parsed
+        byte[] padding = new byte[64 * 1024];
+        protobuf.NetworkEnvelope sealed = protobuf.NetworkEnvelope.newBuilder()
+                .setPrefixedSealedAndSignedMessage(protobuf.PrefixedSealedAndSignedMessage.newBuilder()
+                        .setAddressPrefixHash(ByteString.copyFrom(padding)))
+                .build();
+        ByteString uncompressed = buildBundle(1).toByteString().concat(sealed.toByteString());
+
+        Deflater deflater = new Deflater();
+        deflater.setInput(uncompressed.toByteArray());
+        deflater.finish();
+        byte[] buffer = new byte[uncompressed.size()];
+        int compressedSize = deflater.deflate(buffer);
+        deflater.end();
+
+        protobuf.CompressedEnvelope compressedEnvelope = protobuf.CompressedEnvelope.newBuilder()
+                .setCompressedBytes(ByteString.copyFrom(buffer, 0, compressedSize))
+                .setUncompressedSize(uncompressed.size())
+                .build();
+        EnvelopeCompression.decompress(compressedEnvelope,
+                messageCase -> messageCase == MessageCase.BUNDLE_OF_ENVELOPES ? MAX_SIZE : 1024);
+    }
+
+    @Test(expected = InvalidProtocolBufferException.class)
+    public void wrongDeclaredSizeIsRejected() throws InvalidProtocolBufferException {
+        protobuf.NetworkEnvelope compressed = EnvelopeCompression.compress(buildBundle(5000));
+        assertNotNull(compressed);
+
+        // Pretend a smaller size than the real data, the inflater must not write beyond it
+        protobuf.CompressedEnvelope tampered = compressed.getCompressedEnvelope().toBuilder()
+                .setUncompressedSize(compressed.getCompressedEnvelope().getUncompressedSize() / 2)
+                .build();
+        EnvelopeCompression.decompress(tampered, MAX_SIZE);
+    }
+
+    @Test(expected = InvalidProtocolBufferException.class)
+    public void corruptDataIsRejected() throws InvalidProtocolBufferException {
+        protobuf.CompressedEnvelope corrupt = protobuf.CompressedEnvelope.newBuilder()
+                .setCompressedBytes(ByteString.copyFrom(new byte[]{1, 2, 3, 4}))
+                .setUncompressedSize(1000)
+                .build();
+        EnvelopeCompression.decompress(corrupt, MAX_SIZE);
+    }
+}
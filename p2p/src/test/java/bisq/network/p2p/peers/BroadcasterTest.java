@@ -0,0 +1,191 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.peers;
+
+import bisq.network.p2p.NodeAddress;
+import bisq.network.p2p.network.NetworkNode;
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.messages.AddDataMessage;
+import bisq.network.p2p.storage.messages.BroadcastMessage;
+import bisq.network.p2p.storage.messages.RefreshOfferMessage;
+import bisq.network.p2p.storage.messages.RemoveDataMessage;
+import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BroadcasterTest {
+    private final NodeAddress myAddress = new NodeAddress("me", 8000);
+    private final NodeAddress peer = new NodeAddress("peer", 8000);
+    private Broadcaster broadcaster;
+
+    @Before
+    public void setUp() {
+        NetworkNode networkNode = mock(NetworkNode.class);
+        when(networkNode.getNodeAddress()).thenReturn(myAddress);
+        broadcaster = new Broadcaster(networkNode, mock(PeerManager.class));
+    }
+
+    private static ProtectedStorageEntry getEntry(byte[] hashOfPayload, int sequenceNumber) {
+        ProtectedStorageEntry entry = mock(ProtectedStorageEntry.class);
+        when(entry.getHashOfPayload()).thenReturn(new P2PDataStorage.ByteArray(hashOfPayload));
+        when(entry.getSequenceNumber()).thenReturn(sequenceNumber);
+        return entry;
+    }
+
+    private List<Class<?>> getPendingMessageTypes(boolean ownLane) {
+        return broadcaster.getPendingRequests(ownLane).stream()
+                .map(request -> request.getMessage().getClass())
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void testPriority() {
+        BroadcastMessage remove = new RemoveDataMessage(getEntry(new byte[]{1}, 2));
+        BroadcastMessage refresh = new RefreshOfferMessage(new byte[]{}, new byte[]{}, new byte[]{1}, 2);
+        BroadcastMessage add = new AddDataMessage(getEntry(new byte[]{1}, 1));
+
+        assertEquals(BroadcastPriority.OWN_REMOVE, BroadcastPriority.from(remove, true));
+        assertEquals(BroadcastPriority.RELAYED_REMOVE, BroadcastPriority.from(remove, false));
+        assertEquals(BroadcastPriority.OWN_REFRESH, BroadcastPriority.from(refresh, true));
+        assertEquals(BroadcastPriority.RELAYED_ADD, BroadcastPriority.from(add, false));
+    }
+
+    @Test
+    public void testOwnAndRelayedMessagesUseSeparateLanes() {
+        broadcaster.broadcast(new AddDataMessage(getEntry(new byte[]{1}, 1)), myAddress);
+        broadcaster.broadcast(new AddDataMessage(getEntry(new byte[]{2}, 1)), peer);
+
+        assertEquals(1, broadcaster.getPendingRequests(true).size());
+        assertEquals(BroadcastPriority.OWN_ADD, broadcaster.getPendingRequests(true).get(0).getPriority());
+        assertEquals(1, broadcaster.getPendingRequests(false).size());
+        assertEquals(BroadcastPriority.RELAYED_ADD, broadcaster.getPendingRequests(false).get(0).getPriority());
+    }
+
+    @Test
+    public void testNewerMessageSupersedesPendingMessage() {
+        broadcaster.broadcast(new AddDataMessage(getEntry(new byte[]{1}, 1)), peer);
+        broadcaster.broadcast(new RemoveDataMessage(getEntry(new byte[]{1}, 2)), peer);
+
+        assertEquals(List.of(RemoveDataMessage.class), getPendingMessageTypes(false));
+        assertEquals(1, broadcaster.getNumSupersededRequests());
+    }
+
+    @Test
+    public void testRefreshDoesNotSupersedePendingAdd() {
+        broadcaster.broadcast(new AddDataMessage(getEntry(new byte[]{1}, 1)), peer);
+        broadcaster.broadcast(new RefreshOfferMessage(new byte[]{}, new byte[]{}, new byte[]{1}, 2), peer);
+
+        assertEquals(List.of(AddDataMessage.class, RefreshOfferMessage.class), getPendingMessageTypes(false));
+        assertEquals(0, broadcaster.getNumSupersededRequests());
+
+        // A newer refresh only supersedes the pending refresh, a remove supersedes both
+        broadcaster.broadcast(new RefreshOfferMessage(new byte[]{}, new byte[]{}, new byte[]{1}, 3), peer);
+        assertEquals(List.of(AddDataMessage.class, RefreshOfferMessage.class), getPendingMessageTypes(false));
+        assertEquals(1, broadcaster.getNumSupersededRequests());
+
+        broadcaster.broadcast(new RemoveDataMessage(getEntry(new byte[]{1}, 4)), peer);
+        assertEquals(List.of(RemoveDataMessage.class), getPendingMessageTypes(false));
+        assertEquals(3, broadcaster.getNumSupersededRequests());
+    }
+
+    @Test
+    public void testOlderAddIsNotDroppedForPendingRefresh() {
+        broadcaster.broadcast(new RefreshOfferMessage(new byte[]{}, new byte[]{}, new byte[]{1}, 2), peer);
+        broadcaster.broadcast(new AddDataMessage(getEntry(new byte[]{1}, 1)), peer);
+
+        assertEquals(List.of(RefreshOfferMessage.class, AddDataMessage.class), getPendingMessageTypes(false));
+    }
+
+    @Test
+    public void testOlderMessageIsDropped() {
+        broadcaster.broadcast(new RemoveDataMessage(getEntry(new byte[]{1}, 2)), peer);
+        broadcaster.broadcast(new AddDataMessage(getEntry(new byte[]{1}, 1)), peer);
+
+        assertEquals(List.of(RemoveDataMessage.class), getPendingMessageTypes(false));
+    }
+
+    @Test
+    public void testPendingMessageWithListenerIsNotSuperseded() {
+        broadcaster.broadcast(new AddDataMessage(getEntry(new byte[]{1}, 1)), peer, mock(BroadcastHandler.Listener.class));
+        broadcaster.broadcast(new RemoveDataMessage(getEntry(new byte[]{1}, 2)), peer);
+
+        assertEquals(List.of(AddDataMessage.class, RemoveDataMessage.class), getPendingMessageTypes(false));
+    }
+
+    @Test
+    public void testRelayedBroadcastDelayShrinksWithQueueDepth() {
+        long delayAtOne = Broadcaster.getRelayedBroadcastDelay(1);
+        long delayAtHalf = Broadcaster.getRelayedBroadcastDelay(Broadcaster.MAX_BUNDLE_SIZE / 2);
+        assertTrue(delayAtOne > delayAtHalf);
+        assertTrue(delayAtHalf >= Broadcaster.MIN_BROADCAST_INTERVAL_MS);
+        assertEquals(Broadcaster.MIN_BROADCAST_INTERVAL_MS, Broadcaster.getRelayedBroadcastDelay(Broadcaster.MAX_BUNDLE_SIZE - 1));
+        assertEquals(0, Broadcaster.getRelayedBroadcastDelay(Broadcaster.MAX_BUNDLE_SIZE));
+    }
+
+    @Test
+    public void testFullBundleIsFlushedImmediately() {
+        for (int i = 0; i < Broadcaster.MAX_BUNDLE_SIZE; i++) {
+            broadcaster.broadcast(new AddDataMessage(getEntry(new byte[]{(byte) i, 1}, 1)), peer);
+        }
+
+        assertTrue(broadcaster.getPendingRequests(false).isEmpty());
+        assertEquals(Broadcaster.MAX_BUNDLE_SIZE,
+                broadcaster.getQueueLatencyByPriority().get(BroadcastPriority.RELAYED_ADD).getCount());
+    }
+
+    @Test
+    public void testFlushRecordsQueueLatencyPerPriority() {
+        broadcaster.broadcast(new RemoveDataMessage(getEntry(new byte[]{1}, 2)), myAddress);
+        broadcaster.broadcast(new AddDataMessage(getEntry(new byte[]{2}, 1)), peer);
+        broadcaster.flush();
+
+        assertTrue(broadcaster.getPendingRequests(true).isEmpty());
+        assertTrue(broadcaster.getPendingRequests(false).isEmpty());
+        assertEquals(1, broadcaster.getQueueLatencyByPriority().get(BroadcastPriority.OWN_REMOVE).getCount());
+        assertEquals(1, broadcaster.getQueueLatencyByPriority().get(BroadcastPriority.RELAYED_ADD).getCount());
+        assertEquals(0, broadcaster.getQueueLatencyByPriority().get(BroadcastPriority.OWN_ADD).getCount());
+    }
+
+    @Test
+    public void testOnlyMessagesOfOwnBroadcastBatchAreHeldUntilClose() {
+        Broadcaster.OwnBroadcastBatch batch = broadcaster.openOwnBroadcastBatch(message ->
+                ((AddDataMessage) message).getProtectedStorageEntry().getHashOfPayload().bytes[0] > 0);
+        for (int i = 0; i < 3; i++) {
+            broadcaster.broadcast(new AddDataMessage(getEntry(new byte[]{(byte) i}, 1)), myAddress);
+        }
+        // Only the message not belonging to the batch is queued in the own lane
+        assertEquals(1, broadcaster.getPendingRequests(true).size());
+
+        batch.close();
+        assertEquals(2, broadcaster.getQueueLatencyByPriority().get(BroadcastPriority.OWN_ADD).getCount());
+
+        // Once closed the batch does not hold messages anymore
+        batch.close();
+        broadcaster.broadcast(new AddDataMessage(getEntry(new byte[]{3}, 1)), myAddress);
+        assertEquals(2, broadcaster.getPendingRequests(true).size());
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.peers.getdata;
+
+import bisq.network.p2p.NodeAddress;
+import bisq.network.p2p.peers.peerexchange.PeerLatency;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class RequestDataManagerTest {
+    private final NodeAddress fast = new NodeAddress("fast", 8000);
+    private final NodeAddress slow = new NodeAddress("slow", 8000);
+    private final NodeAddress unknown = new NodeAddress("unknown", 8000);
+    private final NodeAddress failing = new NodeAddress("failing", 8000);
+
+    private static PeerLatency withResponseTimes(NodeAddress nodeAddress, long... responseTimes) {
+        PeerLatency peerLatency = new PeerLatency(nodeAddress);
+        for (long responseTime : responseTimes) {
+            peerLatency = peerLatency.withResponseTime(responseTime);
+        }
+        return peerLatency;
+    }
+
+    @Test
+    public void testSortByResponseTime() {
+        Map<NodeAddress, PeerLatency> map = new HashMap<>();
+        map.put(fast, withResponseTimes(fast, 1000, 2000, 3000));
+        map.put(slow, withResponseTimes(slow, 40000, 50000));
+        map.put(failing, withResponseTimes(failing, 1000).withFailure());
+
+        List<NodeAddress> sorted = RequestDataManager.sortByResponseTime(Arrays.asList(slow, failing, unknown, fast),
+                nodeAddress -> Optional.ofNullable(map.get(nodeAddress)));
+        assertEquals(Arrays.asList(fast, unknown, failing, slow), sorted);
+    }
+
+    @Test
+    public void testSortIsStableForEqualScores() {
+        List<NodeAddress> sorted = RequestDataManager.sortByResponseTime(Arrays.asList(unknown, slow, fast),
+                nodeAddress -> Optional.empty());
+        assertEquals(Arrays.asList(unknown, slow, fast), sorted);
+    }
+
+    @Test
+    public void testGetHedgeDelay() {
+        assertEquals(RequestDataManager.DEFAULT_REQUEST_DELAY_MS, RequestDataManager.getHedgeDelay(Optional.empty()));
+        assertEquals(RequestDataManager.DEFAULT_REQUEST_DELAY_MS,
+                RequestDataManager.getHedgeDelay(Optional.of(new PeerLatency(fast).withFailure())));
+        assertEquals(RequestDataManager.MIN_HEDGE_DELAY_MS,
+                RequestDataManager.getHedgeDelay(Optional.of(withResponseTimes(fast, 10, 20))));
+        assertEquals(RequestDataManager.MAX_HEDGE_DELAY_MS,
+                RequestDataManager.getHedgeDelay(Optional.of(withResponseTimes(slow, 100000))));
+        assertEquals(5000,
+                RequestDataManager.getHedgeDelay(Optional.of(withResponseTimes(fast, 1000, 2000, 3000, 4000, 5000))));
+    }
+}
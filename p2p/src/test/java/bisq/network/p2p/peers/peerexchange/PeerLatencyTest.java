@@ -0,0 +1,67 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.peers.peerexchange;
+
+import bisq.network.p2p.NodeAddress;
+
+import java.util.OptionalLong;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PeerLatencyTest {
+    private final NodeAddress nodeAddress = new NodeAddress("seed", 8000);
+
+    @Test
+    public void testPercentile() {
+        PeerLatency peerLatency = new PeerLatency(nodeAddress);
+        assertEquals(OptionalLong.empty(), peerLatency.getPercentile(50));
+
+        for (long responseTime = 10; responseTime >= 1; responseTime--) {
+            peerLatency = peerLatency.withResponseTime(responseTime * 100);
+        }
+        assertEquals(OptionalLong.of(500), peerLatency.getPercentile(50));
+        assertEquals(OptionalLong.of(900), peerLatency.getPercentile(90));
+        assertEquals(OptionalLong.of(1000), peerLatency.getPercentile(100));
+        assertEquals(OptionalLong.of(100), peerLatency.getPercentile(0));
+    }
+
+    @Test
+    public void testKeepsOnlyRecentResponseTimes() {
+        PeerLatency peerLatency = new PeerLatency(nodeAddress);
+        for (int i = 0; i < 100; i++) {
+            peerLatency = peerLatency.withResponseTime(i);
+        }
+        assertEquals(20, peerLatency.getResponseTimes().size());
+        assertEquals(80, (long) peerLatency.getResponseTimes().get(0));
+    }
+
+    @Test
+    public void testFailuresAreResetByResponse() {
+        PeerLatency peerLatency = new PeerLatency(nodeAddress).withFailure().withFailure();
+        assertEquals(2, peerLatency.getNumFailures());
+        assertEquals(0, peerLatency.withResponseTime(100).getNumFailures());
+    }
+
+    @Test
+    public void testRoundTrip() {
+        PeerLatency peerLatency = new PeerLatency(nodeAddress).withResponseTime(100).withResponseTime(200).withFailure();
+        assertEquals(peerLatency, PeerLatency.fromProto(peerLatency.toProtoMessage()));
+    }
+}
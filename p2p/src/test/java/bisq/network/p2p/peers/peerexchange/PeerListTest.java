@@ -0,0 +1,100 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.peers.peerexchange;
+
+import bisq.network.p2p.NodeAddress;
+
+import bisq.common.app.Capabilities;
+import bisq.common.app.Capability;
+
+import com.google.protobuf.Message;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class PeerListTest {
+    private final Peer peer = new Peer(new NodeAddress("peer1", 8000), new Capabilities(Capability.MEDIATION));
+    private final Peer otherPeer = new Peer(new NodeAddress("peer2", 8000), new Capabilities(Capability.MEDIATION));
+
+    @Test
+    public void testSnapshotIsNotAffectedByLaterChanges() {
+        PeerList peerList = new PeerList(Set.of(peer, otherPeer));
+        Message expected = peerList.toProtoMessage();
+
+        Supplier<Message> snapshot = peerList.snapshotPersistableMessage();
+        peer.onChanged(new Capabilities(Capability.REFUND_AGENT));
+        peerList.getSet().remove(otherPeer);
+        peerList.setAllPeerLatencies(List.of(new PeerLatency(peer.getNodeAddress())));
+
+        assertEquals(expected, snapshot.get());
+    }
+
+    @Test
+    public void testSnapshotIsBuiltConsistentlyWhilePeersAreChanged() throws Exception {
+        PeerList peerList = new PeerList(Set.of(peer, otherPeer));
+        Message expected = peerList.toProtoMessage();
+        Supplier<Message> snapshot = peerList.snapshotPersistableMessage();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Message> future = executor.submit(snapshot::get);
+            for (boolean mediation = false; !future.isDone(); mediation = !mediation) {
+                peer.onChanged(new Capabilities(mediation ? Capability.MEDIATION : Capability.REFUND_AGENT));
+            }
+            assertEquals(expected, future.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testOnlyChangedPeersAreBuiltAgain() {
+        PeerList peerList = new PeerList(Set.of(peer, otherPeer));
+        protobuf.PeerList proto = getPeerList(peerList.snapshotPersistableMessage().get());
+
+        peer.onChanged(new Capabilities(Capability.REFUND_AGENT));
+        protobuf.PeerList protoAfterChange = getPeerList(peerList.snapshotPersistableMessage().get());
+
+        assertNotSame(getPeer(proto, peer), getPeer(protoAfterChange, peer));
+        assertEquals(List.of(Capability.REFUND_AGENT.ordinal()),
+                getPeer(protoAfterChange, peer).getSupportedCapabilitiesList());
+        assertSame(getPeer(proto, otherPeer), getPeer(protoAfterChange, otherPeer));
+        assertEquals(peerList.toProtoMessage(), peerList.snapshotPersistableMessage().get());
+    }
+
+    private static protobuf.PeerList getPeerList(Message message) {
+        return ((protobuf.PersistableEnvelope) message).getPeerList();
+    }
+
+    private static protobuf.Peer getPeer(protobuf.PeerList peerList, Peer peer) {
+        return peerList.getPeerList().stream()
+                .filter(e -> e.getNodeAddress().equals(peer.getNodeAddress().toProtoMessage()))
+                .findAny()
+                .orElseThrow();
+    }
+}
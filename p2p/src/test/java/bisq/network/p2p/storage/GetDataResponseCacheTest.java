@@ -0,0 +1,72 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage;
+
+import bisq.network.p2p.TestUtils;
+import bisq.network.p2p.storage.mocks.ExpirableProtectedStoragePayloadStub;
+import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
+
+import java.security.KeyPair;
+import java.security.NoSuchAlgorithmException;
+
+import java.time.Clock;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GetDataResponseCacheTest {
+    private GetDataResponseCache getDataResponseCache;
+
+    @Before
+    public void setUp() {
+        getDataResponseCache = new GetDataResponseCache();
+    }
+
+    // TESTCASE: A cached entry message is reused as long as the entry is unchanged
+    @Test
+    public void getStorageEntryWrapper_cachedWhileUnchanged() throws NoSuchAlgorithmException {
+        ProtectedStorageEntry protectedStorageEntry = createProtectedStorageEntry();
+
+        Assert.assertSame(getDataResponseCache.getStorageEntryWrapper(protectedStorageEntry),
+                getDataResponseCache.getStorageEntryWrapper(protectedStorageEntry));
+    }
+
+    // TESTCASE: A message cached after the entry got back dated is not delivered, even if the invalidation came
+    // before the message was put into the cache
+    @Test
+    public void getStorageEntryWrapper_staleMessageNotUsed() throws NoSuchAlgorithmException {
+        ProtectedStorageEntry protectedStorageEntry = createProtectedStorageEntry();
+        getDataResponseCache.getStorageEntryWrapper(protectedStorageEntry);
+
+        protectedStorageEntry.backDate();
+        protobuf.StorageEntryWrapper storageEntryWrapper = getDataResponseCache.getStorageEntryWrapper(protectedStorageEntry);
+
+        Assert.assertEquals(protectedStorageEntry.getCreationTimeStamp(),
+                storageEntryWrapper.getProtectedStorageEntry().getCreationTimeStamp());
+    }
+
+    private static ProtectedStorageEntry createProtectedStorageEntry() throws NoSuchAlgorithmException {
+        KeyPair ownerKeys = TestUtils.generateKeyPair();
+        return new ProtectedStorageEntry(new ExpirableProtectedStoragePayloadStub(ownerKeys.getPublic()),
+                ownerKeys.getPublic(),
+                1,
+                new byte[]{0},
+                Clock.systemDefaultZone());
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage;
+
+import bisq.network.p2p.NodeAddress;
+import bisq.network.p2p.TestUtils;
+import bisq.network.p2p.peers.getdata.messages.GetDataRequest;
+import bisq.network.p2p.peers.getdata.messages.GetDataResponse;
+import bisq.network.p2p.peers.getdata.messages.PreliminaryGetDataRequest;
+import bisq.network.p2p.storage.mocks.ExpirableProtectedStoragePayloadStub;
+import bisq.network.p2p.storage.payload.ProtectedStorageEntry;
+import bisq.network.p2p.storage.payload.ProtectedStoragePayload;
+
+import bisq.common.UserThread;
+import bisq.common.app.Capabilities;
+import bisq.common.crypto.Sig;
+
+import com.google.protobuf.Message;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.security.KeyPair;
+import java.security.NoSuchAlgorithmException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class P2PDataStorageBuildGetDataResponseAsyncTest {
+    private static final int NUM_ENTRIES = 20;
+    private static final int NUM_BOOTSTRAPPING_PEERS = 50;
+    private static final int NUM_PINGS = 20;
+
+    private TestState testState;
+    private NodeAddress localNodeAddress;
+    private ExecutorService userThreadExecutor;
+    private ThreadPoolExecutor builderThreadPool;
+    private ListeningExecutorService builderExecutor;
+    private CountDownLatch releaseBuilders;
+
+    @Before
+    public void setUp() {
+        testState = new TestState();
+        localNodeAddress = new NodeAddress("localhost", 8080);
+        userThreadExecutor = Executors.newSingleThreadExecutor();
+        UserThread.setExecutor(userThreadExecutor);
+
+        // Builder threads wait until the test releases them, so we can observe the user thread while all responses
+        // are still being built.
+        releaseBuilders = new CountDownLatch(1);
+        builderThreadPool = new ThreadPoolExecutor(4, 4, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>()) {
+            @Override
+            protected void beforeExecute(Thread t, Runnable r) {
+                try {
+                    releaseBuilders.await();
+                } catch (InterruptedException ignore) {
+                }
+            }
+        };
+        builderExecutor = MoreExecutors.listeningDecorator(builderThreadPool);
+    }
+
+    @After
+    public void tearDown() {
+        releaseBuilders.countDown();
+        builderExecutor.shutdownNow();
+        userThreadExecutor.shutdownNow();
+        UserThread.setExecutor(MoreExecutors.directExecutor());
+    }
+
+    private ProtectedStorageEntry getProtectedStorageEntryForAdd() throws NoSuchAlgorithmException {
+        KeyPair ownerKeys = TestUtils.generateKeyPair();
+        ProtectedStoragePayload protectedStoragePayload = mock(ProtectedStoragePayload.class);
+        Message messageMock = mock(Message.class);
+        when(messageMock.toByteArray()).thenReturn(Sig.getPublicKeyBytes(ownerKeys.getPublic()));
+        when(protectedStoragePayload.toProtoMessage()).thenReturn(messageMock);
+
+        ProtectedStorageEntry stub = mock(ProtectedStorageEntry.class);
+        when(stub.getOwnerPubKey()).thenReturn(ownerKeys.getPublic());
+        when(stub.isValidForAddOperation()).thenReturn(true);
+        when(stub.matchesRelevantPubKey(any(ProtectedStorageEntry.class))).thenReturn(true);
+        when(stub.getSequenceNumber()).thenReturn(1);
+        when(stub.getProtectedStoragePayload()).thenReturn(protectedStoragePayload);
+        when(stub.getHashOfPayload()).thenReturn(P2PDataStorage.get32ByteHashAsByteArray(protectedStoragePayload));
+        when(stub.copy()).thenReturn(stub);
+        return stub;
+    }
+
+    private void runOnUserThread(Runnable runnable) throws Exception {
+        userThreadExecutor.submit(runnable).get(10, TimeUnit.SECONDS);
+    }
+
+    // TESTCASE: The user thread keeps serving other messages while responses for many bootstrapping peers are built
+    // and each response contains the entries which existed when the request was handled.
+    @Test
+    public void buildGetDataResponseAsync_userThreadNotBlocked() throws Exception {
+        for (int i = 0; i < NUM_ENTRIES; i++) {
+            ProtectedStorageEntry entry = getProtectedStorageEntryForAdd();
+            runOnUserThread(() -> testState.mockedStorage.addProtectedStorageEntry(entry, localNodeAddress, null));
+        }
+
+        List<ListenableFuture<GetDataResponse>> futures = new ArrayList<>();
+        runOnUserThread(() -> {
+            for (int i = 0; i < NUM_BOOTSTRAPPING_PEERS; i++) {
+                GetDataRequest getDataRequest = new PreliminaryGetDataRequest(i, new HashSet<>());
+                ListenableFuture<GetDataResponse> future = testState.mockedStorage.buildGetDataResponseAsync(
+                        getDataRequest,
+                        10000,
+                        new AtomicBoolean(),
+                        new AtomicBoolean(),
+                        new Capabilities(),
+                        builderExecutor);
+                futures.add(future);
+            }
+        });
+
+        // Simulates the pings and other messages of connected peers. They all get handled while no response has
+        // been built yet.
+        for (int i = 0; i < NUM_PINGS; i++) {
+            long ts = System.currentTimeMillis();
+            runOnUserThread(() -> {
+            });
+            Assert.assertTrue(System.currentTimeMillis() - ts < 1000);
+        }
+        Assert.assertTrue(futures.stream().noneMatch(ListenableFuture::isDone));
+
+        // Entries added after the requests were handled are not part of the responses
+        ProtectedStorageEntry lateEntry = getProtectedStorageEntryForAdd();
+        runOnUserThread(() -> testState.mockedStorage.addProtectedStorageEntry(lateEntry, localNodeAddress, null));
+
+        releaseBuilders.countDown();
+        for (ListenableFuture<GetDataResponse> future : futures) {
+            GetDataResponse getDataResponse = future.get(10, TimeUnit.SECONDS);
+            Assert.assertEquals(NUM_ENTRIES, getDataResponse.getDataSet().size());
+            Assert.assertFalse(getDataResponse.getDataSet().contains(lateEntry));
+        }
+        Assert.assertEquals(0, builderThreadPool.getQueue().size());
+    }
+
+    // TESTCASE: Back dating an entry after the request was handled does not change the response
+    @Test
+    public void buildGetDataResponseAsync_backDatingNotVisible() throws Exception {
+        KeyPair ownerKeys = TestUtils.generateKeyPair();
+        ProtectedStorageEntry entry = testState.mockedStorage.getProtectedStorageEntry(
+                new ExpirableProtectedStoragePayloadStub(ownerKeys.getPublic()), ownerKeys);
+        runOnUserThread(() -> testState.mockedStorage.addProtectedStorageEntry(entry, localNodeAddress, null));
+        long creationTimeStamp = entry.getCreationTimeStamp();
+
+        List<ListenableFuture<GetDataResponse>> futures = new ArrayList<>();
+        runOnUserThread(() -> futures.add(testState.mockedStorage.buildGetDataResponseAsync(
+                new PreliminaryGetDataRequest(1, new HashSet<>()),
+                10000,
+                new AtomicBoolean(),
+                new AtomicBoolean(),
+                new Capabilities(),
+                builderExecutor)));
+        runOnUserThread(entry::backDate);
+        Assert.assertTrue(entry.getCreationTimeStamp() < creationTimeStamp);
+
+        releaseBuilders.countDown();
+        GetDataResponse getDataResponse = futures.get(0).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(1, getDataResponse.getDataSet().size());
+        Assert.assertEquals(creationTimeStamp, getDataResponse.getDataSet().iterator().next().getCreationTimeStamp());
+    }
+}
@@ -63,6 +63,7 @@ public class P2PDataStorageGetDataIntegrationTest {
         when(stub.matchesRelevantPubKey(any(ProtectedStorageEntry.class))).thenReturn(true);
         when(stub.getSequenceNumber()).thenReturn(sequenceNumber);
         when(stub.getProtectedStoragePayload()).thenReturn(protectedStoragePayload);
+        when(stub.getHashOfPayload()).thenReturn(P2PDataStorage.get32ByteHashAsByteArray(protectedStoragePayload));
 
         return stub;
     }
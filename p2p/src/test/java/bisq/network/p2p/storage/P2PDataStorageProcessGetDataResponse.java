@@ -30,6 +30,8 @@ import bisq.network.p2p.storage.payload.ProtectedStoragePayload;
 import java.security.KeyPair;
 import java.security.NoSuchAlgorithmException;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -37,10 +39,15 @@ import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import org.mockito.ArgumentCaptor;
 import org.mockito.MockitoAnnotations;
 
 public class P2PDataStorageProcessGetDataResponse {
@@ -90,6 +97,7 @@ public class P2PDataStorageProcessGetDataResponse {
         when(stub.matchesRelevantPubKey(any(ProtectedStorageEntry.class))).thenReturn(true);
         when(stub.getSequenceNumber()).thenReturn(1);
         when(stub.getProtectedStoragePayload()).thenReturn(protectedStoragePayload);
+        when(stub.getHashOfPayload()).thenReturn(P2PDataStorage.get32ByteHashAsByteArray(protectedStoragePayload));
 
         return stub;
     }
@@ -260,4 +268,37 @@ public class P2PDataStorageProcessGetDataResponse {
         this.testState.verifyProtectedStorageAdd(
                 beforeState, protectedStorageEntry, true, true, false, true);
     }
+
+    // TESTCASE: GetDataResponse w/ many PSEs verifies each entry once, adds the valid ones and signals listeners once
+    @Test
+    public void processGetDataResponse_manyPSEsVerifiedInParallel() throws NoSuchAlgorithmException {
+        List<ProtectedStorageEntry> validEntries = new ArrayList<>();
+        List<ProtectedStorageEntry> invalidEntries = new ArrayList<>();
+        for (int i = 0; i < P2PDataStorage.MIN_ENTRIES_FOR_PARALLEL_VERIFICATION; i++) {
+            validEntries.add(getProtectedStorageEntryForAdd());
+        }
+        for (int i = 0; i < 10; i++) {
+            ProtectedStorageEntry invalidEntry = getProtectedStorageEntryForAdd();
+            when(invalidEntry.isValidForAddOperation()).thenReturn(false);
+            invalidEntries.add(invalidEntry);
+        }
+        List<ProtectedStorageEntry> allEntries = new ArrayList<>(validEntries);
+        allEntries.addAll(invalidEntries);
+
+        HashMapChangedListener listener = mock(HashMapChangedListener.class);
+        this.testState.mockedStorage.addHashMapChangedListener(listener);
+        this.testState.mockedStorage.processGetDataResponse(
+                buildGetDataResponse(allEntries, Collections.emptyList()), this.peerNodeAddress);
+
+        validEntries.forEach(entry ->
+                assertEquals(entry, this.testState.mockedStorage.getMap().get(entry.getHashOfPayload())));
+        invalidEntries.forEach(entry ->
+                assertNull(this.testState.mockedStorage.getMap().get(entry.getHashOfPayload())));
+        allEntries.forEach(entry -> verify(entry, times(1)).isValidForAddOperation());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<ProtectedStorageEntry>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(listener, times(1)).onAdded(captor.capture());
+        assertEquals(new HashSet<>(validEntries), new HashSet<>(captor.getValue()));
+    }
 }
@@ -154,6 +154,7 @@ public class P2PDataStorageProtectedStorageEntryTest {
             when(stub.matchesRelevantPubKey(any(ProtectedStorageEntry.class))).thenReturn(matchesRelevantPubKey);
             when(stub.getSequenceNumber()).thenReturn(sequenceNumber);
             when(stub.getProtectedStoragePayload()).thenReturn(protectedStoragePayload);
+            when(stub.getHashOfPayload()).thenReturn(P2PDataStorage.get32ByteHashAsByteArray(protectedStoragePayload));
 
             return stub;
         }
@@ -171,6 +172,7 @@ public class P2PDataStorageProtectedStorageEntryTest {
             when(stub.matchesRelevantPubKey(any(ProtectedStorageEntry.class))).thenReturn(matchesRelevantPubKey);
             when(stub.getSequenceNumber()).thenReturn(sequenceNumber);
             when(stub.getProtectedStoragePayload()).thenReturn(this.protectedStoragePayload);
+            when(stub.getHashOfPayload()).thenReturn(P2PDataStorage.get32ByteHashAsByteArray(this.protectedStoragePayload));
 
             return stub;
         }
@@ -0,0 +1,72 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimestampIndexTest {
+    private static final P2PDataStorage.ByteArray HASH_1 = new P2PDataStorage.ByteArray(new byte[]{1});
+    private static final P2PDataStorage.ByteArray HASH_2 = new P2PDataStorage.ByteArray(new byte[]{2});
+    private static final P2PDataStorage.ByteArray HASH_3 = new P2PDataStorage.ByteArray(new byte[]{3});
+
+    @Test
+    public void getHashesBefore_excludesUpperBound() {
+        TimestampIndex index = new TimestampIndex();
+        index.put(HASH_1, 10);
+        index.put(HASH_2, 20);
+        index.put(HASH_3, 20);
+
+        Assert.assertEquals(Collections.emptyList(), index.getHashesBefore(10));
+        Assert.assertEquals(Collections.singletonList(HASH_1), index.getHashesBefore(11));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(HASH_1, HASH_2, HASH_3)),
+                new HashSet<>(index.getHashesBefore(21)));
+        Assert.assertEquals(HASH_1, index.getHashesBefore(21).get(0));
+    }
+
+    @Test
+    public void put_replacesPreviousTimestamp() {
+        TimestampIndex index = new TimestampIndex();
+        index.put(HASH_1, 10);
+        index.put(HASH_1, 30);
+
+        Assert.assertEquals(1, index.size());
+        Assert.assertEquals(Collections.emptyList(), index.getHashesBefore(30));
+        Assert.assertEquals(Collections.singletonList(HASH_1), index.getHashesBefore(31));
+    }
+
+    @Test
+    public void remove() {
+        TimestampIndex index = new TimestampIndex();
+        index.put(HASH_1, 10);
+        index.put(HASH_2, 10);
+        index.remove(HASH_1);
+        index.remove(HASH_3);
+
+        Assert.assertEquals(1, index.size());
+        Assert.assertEquals(Collections.singletonList(HASH_2), index.getHashesBefore(11));
+
+        index.clear();
+        Assert.assertEquals(0, index.size());
+        Assert.assertEquals(Collections.emptyList(), index.getHashesBefore(Long.MAX_VALUE));
+    }
+}
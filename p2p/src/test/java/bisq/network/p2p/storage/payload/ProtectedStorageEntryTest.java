@@ -273,4 +273,17 @@ public class ProtectedStorageEntryTest {
 
         Assert.assertTrue(protectedStorageEntry.getCreationTimeStamp() <= baseClock.millis());
     }
+
+    // TESTCASE: Cached hashes are equal to the hashes calculated from the payload
+    @Test
+    public void cachedHashesMatchPayloadHashes() throws NoSuchAlgorithmException, CryptoException {
+        KeyPair ownerKeys = TestUtils.generateKeyPair();
+        ProtectedStorageEntry protectedStorageEntry = buildProtectedStorageEntry(ownerKeys, ownerKeys, 2);
+        ProtectedStoragePayload protectedStoragePayload = protectedStorageEntry.getProtectedStoragePayload();
+
+        Assert.assertEquals(P2PDataStorage.get32ByteHashAsByteArray(protectedStoragePayload),
+                protectedStorageEntry.getHashOfPayload());
+        Assert.assertArrayEquals(P2PDataStorage.get32ByteHash(new P2PDataStorage.DataAndSeqNrPair(protectedStoragePayload, 2)),
+                protectedStorageEntry.getHashOfDataAndSeqNr());
+    }
 }
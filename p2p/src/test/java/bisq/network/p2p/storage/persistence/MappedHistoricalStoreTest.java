@@ -0,0 +1,147 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+import bisq.network.p2p.storage.mocks.PersistableNetworkPayloadStub;
+import bisq.network.p2p.storage.payload.PersistableNetworkPayload;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedInputStream;
+
+import java.nio.file.Files;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MappedHistoricalStoreTest {
+    private static final int NUM_ITEMS = 500;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File file;
+    private Set<P2PDataStorage.ByteArray> hashes;
+    private AtomicInteger numDecoded;
+
+    @Before
+    public void setUp() throws IOException {
+        file = temporaryFolder.newFile("AccountAgeWitnessStore_1.0.0");
+        hashes = new HashSet<>();
+        numDecoded = new AtomicInteger();
+
+        Random random = new Random(1);
+        protobuf.AccountAgeWitnessStore.Builder storeBuilder = protobuf.AccountAgeWitnessStore.newBuilder();
+        for (int i = 0; i < NUM_ITEMS; i++) {
+            byte[] hash = new byte[20];
+            random.nextBytes(hash);
+            hashes.add(new P2PDataStorage.ByteArray(hash));
+            storeBuilder.addItems(protobuf.AccountAgeWitness.newBuilder()
+                    .setHash(ByteString.copyFrom(hash))
+                    .setDate(i));
+        }
+        // Duplicates are collapsed like in the store map
+        storeBuilder.addItems(storeBuilder.getItems(0));
+
+        try (FileOutputStream outputStream = new FileOutputStream(file)) {
+            protobuf.PersistableEnvelope.newBuilder()
+                    .setAccountAgeWitnessStore(storeBuilder)
+                    .build()
+                    .writeDelimitedTo(outputStream);
+        }
+    }
+
+    private MappedHistoricalStore.PayloadDecoder getDecoder() {
+        return input -> {
+            numDecoded.incrementAndGet();
+            return new PersistableNetworkPayloadStub(protobuf.AccountAgeWitness.parseFrom(input).getHash().toByteArray());
+        };
+    }
+
+    @Test
+    public void lookupByHash() throws IOException {
+        MappedHistoricalStore store = MappedHistoricalStore.map(file, getDecoder());
+        Assert.assertEquals(NUM_ITEMS, store.size());
+
+        hashes.forEach(hash -> {
+            Assert.assertTrue(store.containsKey(hash));
+            PersistableNetworkPayload payload = store.get(hash);
+            Assert.assertNotNull(payload);
+            Assert.assertArrayEquals(hash.bytes, payload.getHash());
+        });
+
+        P2PDataStorage.ByteArray unknown = new P2PDataStorage.ByteArray(new byte[20]);
+        Assert.assertFalse(store.containsKey(unknown));
+        Assert.assertNull(store.get(unknown));
+        Assert.assertFalse(store.containsKey(new P2PDataStorage.ByteArray(new byte[]{1})));
+    }
+
+    @Test
+    public void payloadsOnlyDecodedOnAccess() throws IOException {
+        MappedHistoricalStore store = MappedHistoricalStore.map(file, getDecoder());
+        int numDecodedForIndex = numDecoded.get();
+
+        Assert.assertEquals(hashes, new HashSet<>(store.keySet()));
+        hashes.forEach(store::containsKey);
+        Assert.assertEquals(numDecodedForIndex, numDecoded.get());
+
+        store.values().forEach(payload -> Assert.assertTrue(hashes.contains(new P2PDataStorage.ByteArray(payload.getHash()))));
+        Assert.assertEquals(numDecodedForIndex + NUM_ITEMS, numDecoded.get());
+    }
+
+    @Test
+    public void indexBuiltFromHashesWithoutDecoding() throws IOException {
+        MappedHistoricalStore.PayloadDecoder decoder = getDecoder();
+        MappedHistoricalStore store = MappedHistoricalStore.map(file, new MappedHistoricalStore.PayloadDecoder() {
+            @Override
+            public PersistableNetworkPayload decode(CodedInputStream input) throws IOException {
+                return decoder.decode(input);
+            }
+
+            @Override
+            public byte[] decodeHash(CodedInputStream input) throws IOException {
+                return HistoricalDataStoreService.readBytesField(input, protobuf.AccountAgeWitness.HASH_FIELD_NUMBER);
+            }
+        });
+
+        Assert.assertEquals(0, numDecoded.get());
+        Assert.assertEquals(hashes, new HashSet<>(store.keySet()));
+        hashes.forEach(hash -> Assert.assertArrayEquals(hash.bytes, store.get(hash).getHash()));
+        Assert.assertEquals(NUM_ITEMS, numDecoded.get());
+    }
+
+    @Test(expected = IOException.class)
+    public void truncatedFileIsRejected() throws IOException {
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length / 2));
+        MappedHistoricalStore.map(file, getDecoder());
+    }
+}
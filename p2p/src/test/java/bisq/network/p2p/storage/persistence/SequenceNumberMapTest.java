@@ -0,0 +1,89 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import bisq.network.p2p.storage.P2PDataStorage;
+
+import com.google.protobuf.Message;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SequenceNumberMapTest {
+    private static final int NUM_ENTRIES = 1000;
+
+    @Test
+    public void testSnapshotIsNotAffectedByLaterChanges() {
+        SequenceNumberMap sequenceNumberMap = new SequenceNumberMap();
+        for (int i = 0; i < NUM_ENTRIES; i++) {
+            sequenceNumberMap.put(key(i), mapValue(1));
+        }
+        protobuf.PersistableEnvelope expected = sequenceNumberMap.toProtoMessage();
+
+        Supplier<Message> snapshot = sequenceNumberMap.snapshotPersistableMessage();
+        sequenceNumberMap.remove(key(0));
+        sequenceNumberMap.put(key(1), mapValue(2));
+        sequenceNumberMap.put(key(NUM_ENTRIES), mapValue(1));
+
+        assertSameEntries(expected, (protobuf.PersistableEnvelope) snapshot.get());
+    }
+
+    @Test
+    public void testSnapshotIsBuiltConsistentlyWhileMapIsChanged() throws Exception {
+        SequenceNumberMap sequenceNumberMap = new SequenceNumberMap();
+        for (int i = 0; i < NUM_ENTRIES; i++) {
+            sequenceNumberMap.put(key(i), mapValue(1));
+        }
+        protobuf.PersistableEnvelope expected = sequenceNumberMap.toProtoMessage();
+        Supplier<Message> snapshot = sequenceNumberMap.snapshotPersistableMessage();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Message> future = executor.submit(snapshot::get);
+            for (int sequenceNr = 2; !future.isDone(); sequenceNr++) {
+                for (int i = 0; i < NUM_ENTRIES; i++) {
+                    sequenceNumberMap.put(key(i), mapValue(sequenceNr));
+                }
+            }
+            assertSameEntries(expected, (protobuf.PersistableEnvelope) future.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void assertSameEntries(protobuf.PersistableEnvelope expected, protobuf.PersistableEnvelope actual) {
+        Assert.assertEquals(SequenceNumberMap.fromProto(expected.getSequenceNumberMap()).getMap(),
+                SequenceNumberMap.fromProto(actual.getSequenceNumberMap()).getMap());
+    }
+
+    private static P2PDataStorage.ByteArray key(int i) {
+        return new P2PDataStorage.ByteArray(new byte[]{(byte) (i >> 8), (byte) i});
+    }
+
+    private static P2PDataStorage.MapValue mapValue(int sequenceNr) {
+        return P2PDataStorage.MapValue.fromProto(protobuf.MapValue.newBuilder()
+                .setSequenceNr(sequenceNr)
+                .setTimeStamp(sequenceNr * 1000L)
+                .build());
+    }
+}
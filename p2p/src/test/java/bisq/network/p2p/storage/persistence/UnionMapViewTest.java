@@ -0,0 +1,73 @@
+/*
+ * This file is part of Haveno.
+ *
+ * Haveno is free software: you can redistribute it and/or modify it
+ * under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * Haveno is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU Affero General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with Haveno. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package bisq.network.p2p.storage.persistence;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class UnionMapViewTest {
+    private Map<String, Integer> first;
+    private Map<String, Integer> second;
+    private UnionMapView<String, Integer> view;
+
+    @Before
+    public void setUp() {
+        first = new HashMap<>(Map.of("a", 1, "b", 2));
+        second = new HashMap<>(Map.of("c", 3));
+        view = new UnionMapView<>(List.of(first, second));
+    }
+
+    @Test
+    public void containsAllMaps() {
+        Assert.assertEquals(3, view.size());
+        Assert.assertEquals(Map.of("a", 1, "b", 2, "c", 3), view);
+        Assert.assertEquals(Integer.valueOf(3), view.get("c"));
+        Assert.assertTrue(view.keySet().contains("a"));
+        Assert.assertFalse(view.containsKey("d"));
+        Assert.assertNull(view.get("d"));
+        Assert.assertEquals(Set.of(1, 2, 3), new HashSet<>(view.values()));
+    }
+
+    @Test
+    public void reflectsChangesOfTheMaps() {
+        second.put("d", 4);
+        first.remove("a");
+
+        Assert.assertEquals(Map.of("b", 2, "c", 3, "d", 4), view);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void putNotSupported() {
+        view.put("d", 4);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void removeByIteratorNotSupported() {
+        Iterator<String> iterator = view.keySet().iterator();
+        iterator.next();
+        iterator.remove();
+    }
+}